@@ -61,6 +61,7 @@ export CLASSPATH="$CLASSPATH:$PATH_TO_CPACHECKER/bin:$PATH_TO_CPACHECKER/cpachec
 declare -a OPTIONS
 JAVA_ASSERTIONS=-ea
 EXEC=exec
+MAIN_CLASS=org.sosy_lab.cpachecker.cmdline.CPAMain
 while [ $# -gt 0 ]; do
 
   case $1 in
@@ -71,6 +72,9 @@ while [ $# -gt 0 ]; do
    "-debug")
        JAVA_VM_ARGUMENTS="$JAVA_VM_ARGUMENTS -Xdebug -Xrunjdwp:transport=dt_socket,server=y,address=5005,suspend=n"
        ;;
+   "-server")
+       MAIN_CLASS=org.sosy_lab.cpachecker.cmdline.CPAServer
+       ;;
    "-disable-java-assertions")
        JAVA_ASSERTIONS=-da
        ;;
@@ -129,7 +133,7 @@ $EXEC "$JAVA" \
 	$JAVA_VM_ARGUMENTS \
 	-Xmx${JAVA_HEAP_SIZE} \
 	$JAVA_ASSERTIONS \
-	org.sosy_lab.cpachecker.cmdline.CPAMain \
+	$MAIN_CLASS \
 	"${OPTIONS[@]}" \
 	$CPACHECKER_ARGUMENTS
 
@@ -66,4 +66,10 @@ public interface CFA {
   Optional<LiveVariables> getLiveVariables();
 
   Language getLanguage();
+
+  /**
+   * Get an array-backed view of the nodes and edges of this CFA,
+   * which allows to traverse the CFA without allocating objects.
+   */
+  CFAIndex getIndex();
 }
\ No newline at end of file
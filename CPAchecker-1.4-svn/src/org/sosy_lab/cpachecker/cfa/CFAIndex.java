@@ -0,0 +1,337 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionSummaryEdge;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+
+import com.google.common.collect.ImmutableSortedSet;
+
+/**
+ * Frozen, array-backed view of the nodes and edges of a CFA.
+ *
+ * Nodes and edges are identified by dense int indices
+ * (nodes are numbered in the order of their node numbers),
+ * and the adjacency is stored in compressed sparse row format:
+ * the leaving edges of node <code>n</code> are exactly the edges with the indices
+ * from {@link #getLeavingEdgesStart(int)} (inclusive) to {@link #getLeavingEdgesEnd(int)}
+ * (exclusive), the summary edge of a node (if present) comes first.
+ * Thus iterating over successors and predecessors with plain for loops
+ * does not allocate any objects, in contrast to the methods of {@link CFAUtils}.
+ *
+ * The view is a snapshot of the CFA at the time of its creation
+ * and does not reflect later changes to the CFA.
+ * Edges whose predecessor or successor does not belong to the CFA
+ * have the node index -1 for this node.
+ * Instances of this class are immutable and thread-safe.
+ */
+public final class CFAIndex {
+
+  private static final CFANode[] NO_NODES = new CFANode[0];
+  private static final CFAEdge[] NO_EDGES = new CFAEdge[0];
+
+  private final CFANode[] nodes;
+
+  // node index by node number (shifted by the smallest node number), -1 for unknown nodes
+  private final int[] nodeIndexByNumber;
+  private final int firstNodeNumber;
+
+  private final CFAEdge[] edges;
+  private final Map<CFAEdge, Integer> edgeIndex;
+  private final int[] edgePredecessors;
+  private final int[] edgeSuccessors;
+
+  // leaving edges of node i are the edges leavingOffsets[i] to leavingOffsets[i+1]-1
+  private final int[] leavingOffsets;
+  private final BitSet hasLeavingSummaryEdge;
+
+  // entering edges of node i are the edges enteringEdges[enteringOffsets[i]]
+  // to enteringEdges[enteringOffsets[i+1]-1]
+  private final int[] enteringOffsets;
+  private final int[] enteringEdges;
+  private final BitSet hasEnteringSummaryEdge;
+
+  private CFAIndex(ImmutableSortedSet<CFANode> pNodes) {
+    nodes = pNodes.toArray(NO_NODES);
+    final int nodeCount = nodes.length;
+
+    firstNodeNumber = nodeCount == 0 ? 0 : nodes[0].getNodeNumber();
+    int numberRange = nodeCount == 0 ? 0 : nodes[nodeCount - 1].getNodeNumber() - firstNodeNumber + 1;
+    nodeIndexByNumber = new int[numberRange];
+    Arrays.fill(nodeIndexByNumber, -1);
+    for (int i = 0; i < nodeCount; i++) {
+      nodeIndexByNumber[nodes[i].getNodeNumber() - firstNodeNumber] = i;
+    }
+
+    // leaving edges in the order of CFAUtils.allLeavingEdges()
+    List<CFAEdge> edgeList = new ArrayList<>(nodeCount);
+    leavingOffsets = new int[nodeCount + 1];
+    hasLeavingSummaryEdge = new BitSet(nodeCount);
+    for (int i = 0; i < nodeCount; i++) {
+      leavingOffsets[i] = edgeList.size();
+      CFANode node = nodes[i];
+      FunctionSummaryEdge summaryEdge = node.getLeavingSummaryEdge();
+      if (summaryEdge != null) {
+        hasLeavingSummaryEdge.set(i);
+        edgeList.add(summaryEdge);
+      }
+      for (int j = 0; j < node.getNumLeavingEdges(); j++) {
+        edgeList.add(node.getLeavingEdge(j));
+      }
+    }
+    leavingOffsets[nodeCount] = edgeList.size();
+
+    edgeIndex = new IdentityHashMap<>(edgeList.size());
+    for (int e = 0; e < edgeList.size(); e++) {
+      Integer old = edgeIndex.put(edgeList.get(e), e);
+      checkArgument(old == null, "Edge %s is a leaving edge of more than one node", edgeList.get(e));
+    }
+
+    // entering edges in the order of CFAUtils.allEnteringEdges(),
+    // edges from nodes outside of the CFA are appended to the edge list
+    List<Integer> enteringList = new ArrayList<>(edgeList.size());
+    enteringOffsets = new int[nodeCount + 1];
+    hasEnteringSummaryEdge = new BitSet(nodeCount);
+    for (int i = 0; i < nodeCount; i++) {
+      enteringOffsets[i] = enteringList.size();
+      CFANode node = nodes[i];
+      FunctionSummaryEdge summaryEdge = node.getEnteringSummaryEdge();
+      if (summaryEdge != null) {
+        hasEnteringSummaryEdge.set(i);
+        enteringList.add(getOrAddEdge(summaryEdge, edgeList));
+      }
+      for (int j = 0; j < node.getNumEnteringEdges(); j++) {
+        enteringList.add(getOrAddEdge(node.getEnteringEdge(j), edgeList));
+      }
+    }
+    enteringOffsets[nodeCount] = enteringList.size();
+    enteringEdges = new int[enteringList.size()];
+    for (int k = 0; k < enteringEdges.length; k++) {
+      enteringEdges[k] = enteringList.get(k);
+    }
+
+    edges = edgeList.toArray(NO_EDGES);
+    edgePredecessors = new int[edges.length];
+    edgeSuccessors = new int[edges.length];
+    for (int e = 0; e < edges.length; e++) {
+      edgePredecessors[e] = getNodeIndex(edges[e].getPredecessor());
+      edgeSuccessors[e] = getNodeIndex(edges[e].getSuccessor());
+    }
+  }
+
+  private int getOrAddEdge(CFAEdge pEdge, List<CFAEdge> pEdgeList) {
+    Integer index = edgeIndex.get(pEdge);
+    if (index == null) {
+      index = pEdgeList.size();
+      pEdgeList.add(pEdge);
+      edgeIndex.put(pEdge, index);
+    }
+    return index;
+  }
+
+  private static final CFAIndex EMPTY = new CFAIndex(ImmutableSortedSet.<CFANode>of());
+
+  /**
+   * Build the view for the given set of nodes and all their adjacent edges.
+   */
+  static CFAIndex of(Iterable<CFANode> pNodes) {
+    return new CFAIndex(ImmutableSortedSet.copyOf(pNodes));
+  }
+
+  /**
+   * Get a view without any nodes and edges.
+   */
+  public static CFAIndex empty() {
+    return EMPTY;
+  }
+
+  public int getNumberOfNodes() {
+    return nodes.length;
+  }
+
+  public int getNumberOfEdges() {
+    return edges.length;
+  }
+
+  public CFANode getNode(int pNode) {
+    return nodes[pNode];
+  }
+
+  /**
+   * Get the index of a node, or -1 if the node is not part of the CFA.
+   */
+  public int getNodeIndex(CFANode pNode) {
+    int i = pNode.getNodeNumber() - firstNodeNumber;
+    if (i < 0 || i >= nodeIndexByNumber.length) {
+      return -1;
+    }
+    int index = nodeIndexByNumber[i];
+    return (index >= 0 && nodes[index] == pNode) ? index : -1;
+  }
+
+  /**
+   * Get the node with the given node number, or null if there is no such node in the CFA.
+   */
+  public @Nullable CFANode getNodeByNumber(int pNodeNumber) {
+    int i = pNodeNumber - firstNodeNumber;
+    if (i < 0 || i >= nodeIndexByNumber.length || nodeIndexByNumber[i] < 0) {
+      return null;
+    }
+    return nodes[nodeIndexByNumber[i]];
+  }
+
+  public CFAEdge getEdge(int pEdge) {
+    return edges[pEdge];
+  }
+
+  /**
+   * Get the index of an edge, or -1 if the edge is not part of the CFA.
+   * Edges are compared by identity.
+   */
+  public int getEdgeIndex(CFAEdge pEdge) {
+    Integer index = edgeIndex.get(pEdge);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Get the index of the predecessor node of an edge, or -1 if it is not part of the CFA.
+   */
+  public int getPredecessor(int pEdge) {
+    return edgePredecessors[pEdge];
+  }
+
+  /**
+   * Get the index of the successor node of an edge, or -1 if it is not part of the CFA.
+   */
+  public int getSuccessor(int pEdge) {
+    return edgeSuccessors[pEdge];
+  }
+
+  /**
+   * Get the index of the first leaving edge of a node (including the summary edge).
+   */
+  public int getLeavingEdgesStart(int pNode) {
+    return leavingOffsets[pNode];
+  }
+
+  /**
+   * Get the index of the first leaving edge of a node excluding the summary edge.
+   */
+  public int getNonSummaryLeavingEdgesStart(int pNode) {
+    return hasLeavingSummaryEdge.get(pNode) ? leavingOffsets[pNode] + 1 : leavingOffsets[pNode];
+  }
+
+  /**
+   * Get the index after the last leaving edge of a node.
+   */
+  public int getLeavingEdgesEnd(int pNode) {
+    return leavingOffsets[pNode + 1];
+  }
+
+  /**
+   * Get the leaving summary edge of a node, or -1.
+   */
+  public int getLeavingSummaryEdge(int pNode) {
+    return hasLeavingSummaryEdge.get(pNode) ? leavingOffsets[pNode] : -1;
+  }
+
+  /**
+   * Get the number of entering edges of a node (including the summary edge).
+   */
+  public int getNumEnteringEdges(int pNode) {
+    return enteringOffsets[pNode + 1] - enteringOffsets[pNode];
+  }
+
+  /**
+   * Get the position of the first entering edge of a node excluding the summary edge,
+   * i.e., the non-summary entering edges are {@link #getEnteringEdge(int, int)}
+   * for the positions from this one (inclusive) to {@link #getNumEnteringEdges(int)} (exclusive).
+   */
+  public int getNonSummaryEnteringEdgesStart(int pNode) {
+    return hasEnteringSummaryEdge.get(pNode) ? 1 : 0;
+  }
+
+  /**
+   * Get the i-th entering edge of a node, the summary edge (if present) is the first one.
+   */
+  public int getEnteringEdge(int pNode, int pIndex) {
+    int pos = enteringOffsets[pNode] + pIndex;
+    if (pIndex < 0 || pos >= enteringOffsets[pNode + 1]) {
+      throw new IndexOutOfBoundsException("Node " + pNode + " has no entering edge " + pIndex);
+    }
+    return enteringEdges[pos];
+  }
+
+  /**
+   * Get the entering summary edge of a node, or -1.
+   */
+  public int getEnteringSummaryEdge(int pNode) {
+    return hasEnteringSummaryEdge.get(pNode) ? enteringEdges[enteringOffsets[pNode]] : -1;
+  }
+
+  /**
+   * Compute the nodes from which the given nodes are reachable
+   * (following all edges including summary edges backwards),
+   * together with the length of the shortest such path.
+   * The result contains the distance for each node index,
+   * or {@link Integer#MAX_VALUE} for nodes that cannot reach any of the given nodes.
+   */
+  public int[] getBackwardsDistances(BitSet pTargets) {
+    int[] distances = new int[nodes.length];
+    Arrays.fill(distances, Integer.MAX_VALUE);
+    int[] queue = new int[nodes.length];
+    int head = 0;
+    int tail = 0;
+    for (int n = pTargets.nextSetBit(0); n >= 0; n = pTargets.nextSetBit(n + 1)) {
+      distances[n] = 0;
+      queue[tail++] = n;
+    }
+
+    while (head < tail) {
+      int node = queue[head++];
+      int distance = distances[node] + 1;
+      for (int k = enteringOffsets[node]; k < enteringOffsets[node + 1]; k++) {
+        int predecessor = edgePredecessors[enteringEdges[k]];
+        if (predecessor >= 0 && distances[predecessor] == Integer.MAX_VALUE) {
+          distances[predecessor] = distance;
+          queue[tail++] = predecessor;
+        }
+      }
+    }
+    return distances;
+  }
+}
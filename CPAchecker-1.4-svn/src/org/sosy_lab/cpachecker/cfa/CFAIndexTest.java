@@ -0,0 +1,135 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.BitSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+
+import com.google.common.collect.ImmutableList;
+
+public class CFAIndexTest {
+
+  private CFANode n1;
+  private CFANode n2;
+  private CFANode n3;
+  private CFANode n4;
+  private CFANode outside;
+
+  private CFAEdge e12;
+  private CFAEdge e13;
+  private CFAEdge e23;
+  private CFAEdge e34;
+  private CFAEdge e41;
+
+  private CFAIndex index;
+
+  private static CFAEdge addEdge(CFANode pPredecessor, CFANode pSuccessor) {
+    CFAEdge edge = new BlankEdge("", FileLocation.DUMMY, pPredecessor, pSuccessor, "");
+    CFACreationUtils.addEdgeUnconditionallyToCFA(edge);
+    return edge;
+  }
+
+  @Before
+  public void setUp() {
+    n1 = new CFANode("test");
+    n2 = new CFANode("test");
+    n3 = new CFANode("test");
+    n4 = new CFANode("test");
+    outside = new CFANode("test");
+
+    e12 = addEdge(n1, n2);
+    e13 = addEdge(n1, n3);
+    e23 = addEdge(n2, n3);
+    e34 = addEdge(n3, n4);
+    e41 = addEdge(outside, n1);
+
+    index = CFAIndex.of(ImmutableList.of(n4, n2, n3, n1));
+  }
+
+  @Test
+  public void testNodes() {
+    assertThat(index.getNumberOfNodes()).isEqualTo(4);
+    assertThat(index.getNode(0)).isSameAs(n1);
+    assertThat(index.getNode(3)).isSameAs(n4);
+    assertThat(index.getNodeIndex(n3)).isEqualTo(2);
+    assertThat(index.getNodeIndex(outside)).isEqualTo(-1);
+    assertThat(index.getNodeByNumber(n2.getNodeNumber())).isSameAs(n2);
+    assertThat(index.getNodeByNumber(outside.getNodeNumber())).isNull();
+  }
+
+  @Test
+  public void testLeavingEdges() {
+    int node = index.getNodeIndex(n1);
+    int start = index.getLeavingEdgesStart(node);
+    assertThat(index.getLeavingEdgesEnd(node) - start).isEqualTo(2);
+    assertThat(index.getEdge(start)).isSameAs(e12);
+    assertThat(index.getEdge(start + 1)).isSameAs(e13);
+    assertThat(index.getSuccessor(start + 1)).isEqualTo(index.getNodeIndex(n3));
+    assertThat(index.getLeavingSummaryEdge(node)).isEqualTo(-1);
+
+    int last = index.getNodeIndex(n4);
+    assertThat(index.getLeavingEdgesEnd(last)).isEqualTo(index.getLeavingEdgesStart(last));
+  }
+
+  @Test
+  public void testEnteringEdges() {
+    int node = index.getNodeIndex(n3);
+    assertThat(index.getNumEnteringEdges(node)).isEqualTo(2);
+    assertThat(index.getEdge(index.getEnteringEdge(node, 0))).isSameAs(e13);
+    assertThat(index.getEdge(index.getEnteringEdge(node, 1))).isSameAs(e23);
+    assertThat(index.getNonSummaryEnteringEdgesStart(node)).isEqualTo(0);
+    assertThat(index.getEnteringSummaryEdge(node)).isEqualTo(-1);
+
+    // edge from a node that is not part of the index
+    int edge = index.getEnteringEdge(index.getNodeIndex(n1), 0);
+    assertThat(index.getEdge(edge)).isSameAs(e41);
+    assertThat(index.getPredecessor(edge)).isEqualTo(-1);
+    assertThat(index.getEdgeIndex(e34)).isAtLeast(0);
+    assertThat(index.getNumberOfEdges()).isEqualTo(5);
+  }
+
+  @Test
+  public void testBackwardsDistances() {
+    BitSet targets = new BitSet();
+    targets.set(index.getNodeIndex(n4));
+    int[] distances = index.getBackwardsDistances(targets);
+    assertThat(distances[index.getNodeIndex(n4)]).isEqualTo(0);
+    assertThat(distances[index.getNodeIndex(n3)]).isEqualTo(1);
+    assertThat(distances[index.getNodeIndex(n2)]).isEqualTo(2);
+    assertThat(distances[index.getNodeIndex(n1)]).isEqualTo(2);
+
+    targets.clear();
+    targets.set(index.getNodeIndex(n1));
+    distances = index.getBackwardsDistances(targets);
+    assertThat(distances[index.getNodeIndex(n2)]).isEqualTo(Integer.MAX_VALUE);
+  }
+}
@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.util.List;
 
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -151,7 +152,30 @@ public interface CParser extends Parser {
     @Option(secure=true, description="C dialect for parser")
     private Dialect dialect = Dialect.GNUC;
 
+    @Option(secure=true, description="number of threads for parsing "
+        + "the translation units of a program with several source files in parallel")
+    @IntegerOption(min=1)
+    private int threads = 1;
+
+    @Option(secure=true, description="maximal number of parsed translation units "
+        + "that are kept for later parser runs in the same JVM, "
+        + "keyed by file name and content hash (0 disables the cache)")
+    @IntegerOption(min=0)
+    private int cacheSize = 0;
+
     private ParserOptions() { }
+
+    public Dialect getDialect() {
+      return dialect;
+    }
+
+    public int getThreads() {
+      return threads;
+    }
+
+    public int getCacheSize() {
+      return cacheSize;
+    }
   }
 
   /**
@@ -172,7 +196,7 @@ public interface CParser extends Parser {
     }
 
     public static CParser getParser(Configuration config, LogManager logger, ParserOptions options, MachineModel machine) {
-      return EclipseParsers.getCParser(config, logger, options.dialect, machine);
+      return EclipseParsers.getCParser(config, logger, options, machine);
     }
   }
 }
@@ -55,6 +55,7 @@ class ImmutableCFA implements CFA {
   private final Optional<VariableClassification> varClassification;
   private final Optional<LiveVariables> liveVariables;
   private final Language language;
+  private final CFAIndex index;
 
   ImmutableCFA(
       MachineModel pMachineModel,
@@ -74,6 +75,7 @@ class ImmutableCFA implements CFA {
     varClassification = pVarClassification;
     liveVariables = pLiveVariables;
     language = pLanguage;
+    index = CFAIndex.of(allNodes);
 
     checkArgument(functions.get(mainFunction.getFunctionName()) == mainFunction);
   }
@@ -87,6 +89,7 @@ class ImmutableCFA implements CFA {
     varClassification = Optional.absent();
     liveVariables = Optional.absent();
     language = pLanguage;
+    index = CFAIndex.empty();
   }
 
   static ImmutableCFA empty(MachineModel pMachineModel, Language pLanguage) {
@@ -166,4 +169,9 @@ class ImmutableCFA implements CFA {
     return language;
   }
 
+  @Override
+  public CFAIndex getIndex() {
+    return index;
+  }
+
 }
@@ -180,4 +180,14 @@ public class MutableCFA implements CFA {
       return language;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * As this CFA may still change, the view is created anew on each call
+   * and reflects only the current state of the CFA.
+   */
+  @Override
+  public CFAIndex getIndex() {
+    return CFAIndex.of(allNodes.values());
+  }
 }
\ No newline at end of file
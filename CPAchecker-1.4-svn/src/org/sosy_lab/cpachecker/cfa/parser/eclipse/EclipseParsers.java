@@ -37,7 +37,7 @@ import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CParser;
-import org.sosy_lab.cpachecker.cfa.CParser.Dialect;
+import org.sosy_lab.cpachecker.cfa.CParser.ParserOptions;
 import org.sosy_lab.cpachecker.cfa.Parser;
 import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 
@@ -84,7 +84,7 @@ public class EclipseParsers {
     return classLoader;
   }
 
-  public static CParser getCParser(Configuration config, LogManager logger, CParser.Dialect dialect, MachineModel machine) {
+  public static CParser getCParser(Configuration config, LogManager logger, ParserOptions options, MachineModel machine) {
 
     try {
       Constructor<? extends CParser> parserConstructor = loadedCParser.get();
@@ -94,12 +94,12 @@ public class EclipseParsers {
 
         @SuppressWarnings("unchecked")
         Class<? extends CParser> parserClass = (Class<? extends CParser>) classLoader.loadClass(C_PARSER_CLASS);
-        parserConstructor = parserClass.getConstructor(new Class<?>[]{ Configuration.class, LogManager.class, Dialect.class, MachineModel.class });
+        parserConstructor = parserClass.getConstructor(new Class<?>[]{ Configuration.class, LogManager.class, ParserOptions.class, MachineModel.class });
         parserConstructor.setAccessible(true);
         loadedCParser = new WeakReference<Constructor<? extends CParser>>(parserConstructor);
       }
 
-      return parserConstructor.newInstance(config, logger, dialect, machine);
+      return parserConstructor.newInstance(config, logger, options, machine);
     } catch (ReflectiveOperationException e) {
       throw new Classes.UnexpectedCheckedException("Failed to create Eclipse CDT parser", e);
     }
@@ -30,8 +30,15 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
 
 import org.eclipse.cdt.core.dom.ast.IASTCompoundStatement;
 import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
@@ -46,7 +53,6 @@ import org.eclipse.cdt.core.dom.parser.c.ICParserExtensionConfiguration;
 import org.eclipse.cdt.core.index.IIndexFileLocation;
 import org.eclipse.cdt.core.model.ILanguage;
 import org.eclipse.cdt.core.parser.FileContent;
-import org.eclipse.cdt.core.parser.IParserLogService;
 import org.eclipse.cdt.core.parser.IScannerInfo;
 import org.eclipse.cdt.core.parser.ParserFactory;
 import org.eclipse.cdt.internal.core.parser.IMacroDictionary;
@@ -54,6 +60,8 @@ import org.eclipse.cdt.internal.core.parser.InternalParserUtil;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContentProvider;
 import org.eclipse.core.runtime.CoreException;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.concurrency.Threads;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.io.Path;
@@ -62,6 +70,7 @@ import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.log.LogManagerWithoutDuplicates;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.CParser;
+import org.sosy_lab.cpachecker.cfa.CParser.ParserOptions;
 import org.sosy_lab.cpachecker.cfa.CSourceOriginMapping;
 import org.sosy_lab.cpachecker.cfa.ParseResult;
 import org.sosy_lab.cpachecker.cfa.ast.c.CAstNode;
@@ -72,32 +81,52 @@ import org.sosy_lab.cpachecker.exceptions.CParserException;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 
 /**
  * Wrapper for Eclipse CDT 7.0 and 8.* (internal version number since 5.2.*)
  */
 class EclipseCParser implements CParser {
 
+  // Stateless apart from its configuration, CDT creates a new scanner and parser
+  // for each call to getASTTranslationUnit(), so it can be used by several threads.
   protected final ILanguage language;
 
-  protected final IParserLogService parserLog = ParserFactory.createDefaultLogService();
-
   private final MachineModel machine;
 
   private final LogManager logger;
   private final Configuration config;
 
+  private final Dialect dialect;
+  private final int threads;
+  private final int cacheSize;
+
   private final Timer parseTimer = new Timer();
   private final Timer cfaTimer = new Timer();
 
+  /**
+   * Parsed translation units that are kept for later parser runs in the same JVM,
+   * in access order such that the least recently used entry is evicted first.
+   * Keys consist of dialect, file name and content hash.
+   * Shared by all parser instances, guarded by its own lock.
+   */
+  private static final Map<List<Object>, CachedTranslationUnit> translationUnitCache =
+      new LinkedHashMap<>(16, 0.75f, true);
+
   public EclipseCParser(Configuration pConfig, LogManager pLogger,
-      Dialect dialect, MachineModel pMachine) {
+      ParserOptions pOptions, MachineModel pMachine) {
 
     this.logger = pLogger;
     this.machine = pMachine;
     this.config = pConfig;
+    this.dialect = pOptions.getDialect();
+    this.threads = pOptions.getThreads();
+    this.cacheSize = pOptions.getCacheSize();
 
     switch (dialect) {
     case C99:
@@ -124,37 +153,28 @@ class EclipseCParser implements CParser {
     return pPath;
   }
 
-  private FileContent wrapCode(FileContentToParse pContent) {
-    return FileContent.create(fixPath(pContent.getFileName()), pContent.getFileContent().toCharArray());
-  }
-
   private FileContent wrapCode(String pFileName, String pCode) {
     return FileContent.create(fixPath(pFileName), pCode.toCharArray());
   }
 
-  private FileContent wrapFile(String pFileName) throws IOException {
-    String code = Paths.get(pFileName).asCharSource(Charset.defaultCharset()).read();
-    return wrapCode(fixPath(pFileName), code);
+  private static String readFile(String pFileName) throws IOException {
+    return Paths.get(pFileName).asCharSource(Charset.defaultCharset()).read();
   }
 
   @Override
   public ParseResult parseFile(List<FileToParse> pFilenames, CSourceOriginMapping sourceOriginMapping) throws CParserException, IOException, InvalidConfigurationException {
 
-    List<IASTTranslationUnit> astUnits = new ArrayList<>();
+    List<FileContentToParse> contents = new ArrayList<>(pFilenames.size());
     for (FileToParse f: pFilenames) {
-      astUnits.add(parse(wrapFile(f.getFileName())));
+      contents.add(new FileContentToParse(f.getFileName(), readFile(f.getFileName())));
     }
-    return buildCFA(astUnits, sourceOriginMapping);
+    return buildCFA(parseTranslationUnits(contents), sourceOriginMapping);
   }
 
   @Override
   public ParseResult parseString(List<FileContentToParse> codeFragments, CSourceOriginMapping sourceOriginMapping) throws CParserException, InvalidConfigurationException {
 
-    List<IASTTranslationUnit> astUnits = new ArrayList<>();
-    for (FileContentToParse f : codeFragments) {
-      astUnits.add(parse(wrapCode(f)));
-    }
-    return buildCFA(astUnits, sourceOriginMapping);
+    return buildCFA(parseTranslationUnits(codeFragments), sourceOriginMapping);
   }
 
   /**
@@ -163,10 +183,7 @@ class EclipseCParser implements CParser {
   @Override
   public ParseResult parseFile(String pFilename, CSourceOriginMapping sourceOriginMapping) throws CParserException, IOException, InvalidConfigurationException {
 
-    IASTTranslationUnit unit = parse(wrapFile(pFilename));
-    List<IASTTranslationUnit> returnParam = new ArrayList<>();
-    returnParam.add(unit);
-    return buildCFA(returnParam, sourceOriginMapping);
+    return parseString(pFilename, readFile(pFilename), sourceOriginMapping);
   }
 
   /**
@@ -175,10 +192,101 @@ class EclipseCParser implements CParser {
   @Override
   public ParseResult parseString(String pFilename, String pCode, CSourceOriginMapping sourceOriginMapping) throws CParserException, InvalidConfigurationException {
 
-    IASTTranslationUnit unit = parse(wrapCode(pFilename, pCode));
-    List<IASTTranslationUnit> returnParam = new ArrayList<>();
-    returnParam.add(unit);
-    return buildCFA(returnParam, sourceOriginMapping);
+    List<FileContentToParse> contents = ImmutableList.of(new FileContentToParse(pFilename, pCode));
+    return buildCFA(parseTranslationUnits(contents), sourceOriginMapping);
+  }
+
+  /**
+   * Parses the given translation units, in parallel if more than one thread is configured.
+   * The translation units are independent of each other until they are merged while building the CFA.
+   * Each parse has its own file-content provider and log service (cf. {@link #getASTTranslationUnit}),
+   * and the other objects passed to CDT are immutable.
+   */
+  private List<IASTTranslationUnit> parseTranslationUnits(List<FileContentToParse> pContents)
+      throws CParserException {
+    parseTimer.start();
+    try {
+      if (threads <= 1 || pContents.size() <= 1) {
+        List<IASTTranslationUnit> astUnits = new ArrayList<>(pContents.size());
+        for (FileContentToParse f : pContents) {
+          astUnits.add(parseTranslationUnit(f));
+        }
+        return astUnits;
+      }
+
+      List<Callable<IASTTranslationUnit>> tasks = new ArrayList<>(pContents.size());
+      for (final FileContentToParse f : pContents) {
+        tasks.add(new Callable<IASTTranslationUnit>() {
+          @Override
+          public IASTTranslationUnit call() throws CParserException {
+            return parseTranslationUnit(f);
+          }
+        });
+      }
+
+      ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, pContents.size()),
+          Threads.threadFactoryBuilder().setDaemon(true).setNameFormat("parser-%d").build());
+      try {
+        List<IASTTranslationUnit> astUnits = new ArrayList<>(pContents.size());
+        for (Future<IASTTranslationUnit> future : executor.invokeAll(tasks)) {
+          astUnits.add(future.get());
+        }
+        return astUnits;
+
+      } catch (ExecutionException e) {
+        Throwables.propagateIfPossible(e.getCause(), CParserException.class);
+        throw new UnexpectedCheckedException("parsing", e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CParserException("Parsing was interrupted", e);
+      } finally {
+        executor.shutdownNow();
+      }
+
+    } finally {
+      parseTimer.stop();
+    }
+  }
+
+  /**
+   * Parses a single translation unit, or takes it from the cache
+   * if it was parsed before with the same content and the included files did not change.
+   * May be called concurrently.
+   */
+  private IASTTranslationUnit parseTranslationUnit(FileContentToParse pContent) throws CParserException {
+    String fileName = pContent.getFileName();
+    String code = pContent.getFileContent();
+    if (cacheSize == 0) {
+      return parseUnit(wrapCode(fileName, code));
+    }
+
+    List<Object> key = ImmutableList.<Object>of(dialect, fixPath(fileName),
+        Hashing.sha256().hashUnencodedChars(code));
+    CachedTranslationUnit cached;
+    synchronized (translationUnitCache) {
+      cached = translationUnitCache.get(key);
+    }
+    if (cached != null && cached.includesUnchanged()) {
+      logger.log(Level.FINE, "Reusing parsed translation unit of", fileName);
+      return cached.unit;
+    }
+
+    IASTTranslationUnit unit = parseUnit(wrapCode(fileName, code));
+    try {
+      cached = new CachedTranslationUnit(unit);
+    } catch (IOException e) {
+      logger.logDebugException(e, "Could not read included file, not caching " + fileName);
+      return unit;
+    }
+    synchronized (translationUnitCache) {
+      translationUnitCache.put(key, cached);
+      Iterator<List<Object>> eldest = translationUnitCache.keySet().iterator();
+      while (translationUnitCache.size() > cacheSize) {
+        eldest.next();
+        eldest.remove();
+      }
+    }
+    return unit;
   }
 
   @Override
@@ -263,6 +371,14 @@ class EclipseCParser implements CParser {
 
   private IASTTranslationUnit parse(FileContent codeReader) throws CParserException {
     parseTimer.start();
+    try {
+      return parseUnit(codeReader);
+    } finally {
+      parseTimer.stop();
+    }
+  }
+
+  private IASTTranslationUnit parseUnit(FileContent codeReader) throws CParserException {
     try {
       IASTTranslationUnit result = getASTTranslationUnit(codeReader);
 
@@ -291,18 +407,21 @@ class EclipseCParser implements CParser {
       throw new CParserException(e);
     } catch (CoreException e) {
       throw new CParserException(e);
-    } finally {
-      parseTimer.stop();
     }
   }
 
+  /**
+   * Parse with CDT. The file-content provider keeps track of the included files
+   * (e.g., for include guards and <code>#pragma once</code>),
+   * so each parse needs its own one in order to allow parsing concurrently.
+   */
   private IASTTranslationUnit getASTTranslationUnit(FileContent pCode) throws CFAGenerationRuntimeException, CoreException {
     return language.getASTTranslationUnit(pCode,
                                           StubScannerInfo.instance,
-                                          FileContentProvider.instance,
+                                          new FileContentProvider(),
                                           null,
                                           PARSER_OPTIONS,
-                                          parserLog);
+                                          ParserFactory.createDefaultLogService());
   }
 
   /**
@@ -323,8 +442,13 @@ class EclipseCParser implements CParser {
       CFABuilder builder = new CFABuilder(config, logger, niceFileNameFunction, sourceOriginMapping, machine);
 
       // we don't need any file prefix if we only have one file
+      // cached translation units may be shared with other parser instances,
+      // so they are locked while the builder visits them
       if (asts.size() == 1) {
-        builder.analyzeTranslationUnit(asts.get(0), "");
+        IASTTranslationUnit ast = asts.get(0);
+        synchronized (ast) {
+          builder.analyzeTranslationUnit(ast, "");
+        }
 
         // in case of several files we need to add a file prefix to global variables
         // as there could be several equally named files in different directories
@@ -332,7 +456,9 @@ class EclipseCParser implements CParser {
         // the prefix
       } else {
         for (IASTTranslationUnit ast : asts) {
-          builder.analyzeTranslationUnit(ast, niceFileNameFunction.apply(ast.getFilePath()).replace("/", "_").replaceAll("\\W", "_"));
+          synchronized (ast) {
+            builder.analyzeTranslationUnit(ast, niceFileNameFunction.apply(ast.getFilePath()).replace("/", "_").replaceAll("\\W", "_"));
+          }
         }
       }
 
@@ -404,6 +530,44 @@ class EclipseCParser implements CParser {
   }
 
 
+  /**
+   * A parsed translation unit together with the content hashes
+   * of the files it included at the time it was parsed.
+   */
+  private static class CachedTranslationUnit {
+
+    private final IASTTranslationUnit unit;
+    private final ImmutableMap<String, HashCode> includes;
+
+    private CachedTranslationUnit(IASTTranslationUnit pUnit) throws IOException {
+      unit = pUnit;
+      Map<String, HashCode> includedFiles = new LinkedHashMap<>();
+      for (IASTPreprocessorIncludeStatement include : pUnit.getIncludeDirectives()) {
+        if (!includedFiles.containsKey(include.getPath())) {
+          includedFiles.put(include.getPath(), hashFile(include.getPath()));
+        }
+      }
+      includes = ImmutableMap.copyOf(includedFiles);
+    }
+
+    private boolean includesUnchanged() {
+      try {
+        for (Map.Entry<String, HashCode> include : includes.entrySet()) {
+          if (!hashFile(include.getKey()).equals(include.getValue())) {
+            return false;
+          }
+        }
+        return true;
+      } catch (IOException e) {
+        return false;
+      }
+    }
+
+    private static HashCode hashFile(String pFileName) throws IOException {
+      return Hashing.sha256().hashUnencodedChars(readFile(pFileName));
+    }
+  }
+
   @Override
   public Timer getParseTime() {
     return parseTimer;
@@ -491,8 +655,6 @@ class EclipseCParser implements CParser {
 
   private static class FileContentProvider extends InternalFileContentProvider {
 
-    static final InternalFileContentProvider instance = new FileContentProvider();
-
     @Override
     public InternalFileContent getContentForInclusion(String pFilePath,
         IMacroDictionary pMacroDictionary) {
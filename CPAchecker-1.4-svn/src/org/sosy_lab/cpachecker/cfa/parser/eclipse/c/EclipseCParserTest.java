@@ -0,0 +1,149 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa.parser.eclipse.c;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.Pair;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.TestLogManager;
+import org.sosy_lab.cpachecker.cfa.CParser;
+import org.sosy_lab.cpachecker.cfa.CParser.FileToParse;
+import org.sosy_lab.cpachecker.cfa.CParser.ParserOptions;
+import org.sosy_lab.cpachecker.cfa.CSourceOriginMapping;
+import org.sosy_lab.cpachecker.cfa.ParseResult;
+import org.sosy_lab.cpachecker.cfa.ast.ADeclaration;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.exceptions.CParserException;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+
+import com.google.common.io.Files;
+
+public class EclipseCParserTest {
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private static EclipseCParser createParser(int pThreads, int pCacheSize)
+      throws InvalidConfigurationException {
+    Configuration config = Configuration.builder()
+        .setOption("parser.threads", Integer.toString(pThreads))
+        .setOption("parser.cacheSize", Integer.toString(pCacheSize))
+        .build();
+    ParserOptions options = CParser.Factory.getOptions(config);
+    return new EclipseCParser(config, TestLogManager.getInstance(), options, MachineModel.LINUX32);
+  }
+
+  private File writeFile(String pName, String pContent) throws IOException {
+    File file = new File(folder.getRoot(), pName);
+    Files.write(pContent, file, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  private static ParseResult parse(EclipseCParser pParser, File... pFiles)
+      throws CParserException, IOException, InvalidConfigurationException {
+    List<FileToParse> files = new ArrayList<>(pFiles.length);
+    for (File file : pFiles) {
+      files.add(new FileToParse(file.getPath()));
+    }
+    return pParser.parseFile(files, new CSourceOriginMapping());
+  }
+
+  /**
+   * Describe the parsed program independently of the node numbers:
+   * the sorted global declarations and edges of all functions.
+   */
+  private static List<String> describe(ParseResult pResult) {
+    List<String> result = new ArrayList<>();
+    for (Pair<ADeclaration, String> declaration : pResult.getGlobalDeclarations()) {
+      result.add(declaration.getFirst().toASTString());
+    }
+    for (Map.Entry<String, CFANode> node : pResult.getCFANodes().entries()) {
+      for (CFAEdge edge : CFAUtils.leavingEdges(node.getValue())) {
+        result.add(node.getKey() + ": " + edge.getDescription());
+      }
+    }
+    Collections.sort(result);
+    return result;
+  }
+
+  private File[] writeProgram() throws IOException {
+    writeFile("common.h", "#ifndef COMMON_H\n#define COMMON_H\nextern int counter;\nint inc(int);\n#endif\n");
+    File[] files = new File[4];
+    files[0] = writeFile("main.c", "#include \"common.h\"\n"
+        + "int counter = 0;\n"
+        + "int twice(int);\n"
+        + "int main() { int x = inc(1); x = twice(x); if (x != 4) { ERROR: return 1; } return 0; }\n");
+    files[1] = writeFile("inc.c", "#include \"common.h\"\n"
+        + "int inc(int a) { counter++; return a + 1; }\n");
+    files[2] = writeFile("twice.c", "#include \"common.h\"\n"
+        + "int twice(int a) { int i; for (i = 0; i < 1; i++) { a = inc(a); } return a * 2 - 2; }\n");
+    files[3] = writeFile("unused.c", "#include \"common.h\"\n"
+        + "static int hidden = 3;\nint unused(void) { return hidden + counter; }\n");
+    return files;
+  }
+
+  @Test
+  public void testParallelParsingEqualsSequentialParsing() throws Exception {
+    File[] files = writeProgram();
+
+    ParseResult sequential = parse(createParser(1, 0), files);
+    ParseResult parallel = parse(createParser(4, 0), files);
+
+    assertThat(parallel.getFunctions().keySet())
+        .containsExactlyElementsIn(sequential.getFunctions().keySet()).inOrder();
+    assertThat(parallel.getCFANodes().size()).isEqualTo(sequential.getCFANodes().size());
+    assertThat(describe(parallel)).containsExactlyElementsIn(describe(sequential)).inOrder();
+  }
+
+  @Test
+  public void testCacheIsInvalidatedByChangedHeader() throws Exception {
+    File header = writeFile("config.h", "int configured = 1;\n");
+    File program = writeFile("program.c", "#include \"config.h\"\nint main() { return configured; }\n");
+
+    EclipseCParser parser = createParser(1, 8);
+    List<String> first = describe(parse(parser, program));
+    assertThat(first).contains("int configured = 1;");
+
+    // same content of the program file, but the included header changed
+    Files.write("int configured = 2;\n", header, StandardCharsets.UTF_8);
+    List<String> second = describe(parse(parser, program));
+    assertThat(second).contains("int configured = 2;");
+    assertThat(second).doesNotContain("int configured = 1;");
+  }
+}
@@ -0,0 +1,484 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cmdline;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.StreamHandler;
+
+import javax.annotation.Nullable;
+
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.UniqueIdGenerator;
+import org.sosy_lab.common.concurrency.Threads;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.configuration.converters.FileTypeConverter;
+import org.sosy_lab.common.io.Files;
+import org.sosy_lab.common.io.Path;
+import org.sosy_lab.common.io.Paths;
+import org.sosy_lab.common.log.BasicLogManager;
+import org.sosy_lab.common.log.ConsoleLogFormatter;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cmdline.CmdLineArguments.InvalidCmdlineArgumentException;
+import org.sosy_lab.cpachecker.core.CPAchecker;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult;
+import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
+import org.sosy_lab.cpachecker.util.resources.ResourceLimitChecker;
+import org.sosy_lab.solver.FormulaManagerFactory;
+
+import com.google.common.base.Splitter;
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Long-running verification server that executes verification tasks
+ * inside one warm JVM, such that class loading, loading of the native solver libraries,
+ * and parsing of configuration files are not repeated for every task.
+ *
+ * The server listens on the loopback interface only.
+ * A task is submitted with a POST request to <code>/run</code>:
+ * the request body is the program source,
+ * the query parameters <code>config</code> and <code>spec</code> name a configuration file
+ * and a specification file, and all other query parameters are passed as options.
+ * The log output of the analysis is streamed back while it runs,
+ * followed by the statistics and the result.
+ * A GET request to <code>/status</code> returns the number of running and waiting tasks.
+ *
+ * Every request needs to contain the header <code>X-CPAchecker-Token</code>
+ * with the token that the server writes to the file <code>token</code>
+ * in its output directory on startup.
+ * Requests with an <code>Origin</code> header (i.e., from web browsers) are rejected.
+ * The server runs in secure mode, i.e., tasks may set only secure options
+ * and may use only relative paths without "..".
+ *
+ * Each task gets its own output directory, configuration, log manager,
+ * and solver instances; only parsed configuration files
+ * and the loaded solver libraries are shared between tasks.
+ * Tasks are executed one after another by a single worker thread,
+ * because some information about the current analysis is stored globally
+ * (cf. {@link GlobalInfo}), so running several tasks at once in the same JVM
+ * is not supported.
+ * Resource limits are checked for each task,
+ * but note that the CPU time is measured for the whole JVM.
+ */
+public class CPAServer {
+
+  @Options(prefix="server")
+  private static class ServerOptions {
+    @Option(secure=true, description="port on localhost at which the verification server listens")
+    @IntegerOption(min=0)
+    private int port = 8421;
+
+    @Option(secure=true, description="number of verification tasks that may wait for execution,"
+        + " further tasks are rejected (tasks are executed one after another by a single thread,"
+        + " because some information about the analysis is stored globally in the JVM)")
+    @IntegerOption(min=0)
+    private int queueSize = 16;
+
+    @Option(secure=true, description="directory in which the output directories of the tasks are created"
+        + " (has to be a relative path because tasks are executed in secure mode)")
+    private String outputPath = "output/server";
+  }
+
+  private static final String CONFIG_PARAMETER = "config";
+  private static final String SPEC_PARAMETER = "spec";
+  private static final String PROGRAM_FILE_NAME = "program.c";
+  private static final String TOKEN_FILE_NAME = "token";
+  private static final String TOKEN_HEADER = "X-CPAchecker-Token";
+
+  private final ServerOptions options = new ServerOptions();
+  private final Configuration serverConfig;
+  private final LogManager logger;
+  private final ThreadPoolExecutor workers;
+  private final UniqueIdGenerator taskIds = new UniqueIdGenerator();
+  private final byte[] token;
+
+  // Solver created on startup, kept such that the solver libraries are not unloaded
+  // (e.g., the class loader of SMTInterpol is only weakly referenced by FormulaManagerFactory).
+  private @Nullable FormulaManagerFactory warmSolver = null;
+
+  // Parsed configuration files, keyed by their name.
+  private final Map<String, Configuration> configurations = new HashMap<>();
+
+  private CPAServer(Configuration pConfig, LogManager pLogger) throws InvalidConfigurationException {
+    pConfig.inject(options);
+    serverConfig = pConfig;
+    logger = pLogger;
+    token = createToken();
+    // only one worker thread, GlobalInfo is shared by all analyses in the JVM,
+    // so several tasks at once are not supported (cf. option server.queueSize)
+    workers = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<Runnable>(Math.max(1, options.queueSize)),
+        Threads.threadFactoryBuilder().setNameFormat("Verification task %d").build());
+  }
+
+  @SuppressWarnings("resource") // We don't close LogManager
+  public static void main(String[] args) {
+    Configuration config;
+    LogManager logger;
+    try {
+      Map<String, String> cmdLineOptions = CmdLineArguments.processArguments(args);
+      cmdLineOptions.remove(CmdLineArguments.SECURE_MODE_OPTION);
+      Configuration.enableSecureModeGlobally();
+      ConfigurationBuilder configBuilder = Configuration.builder();
+      configBuilder.setOption("log.level", Level.INFO.toString());
+      String configFile = cmdLineOptions.remove(CmdLineArguments.CONFIGURATION_FILE_OPTION);
+      if (configFile != null) {
+        configBuilder.loadFromFile(configFile);
+      }
+      configBuilder.setOptions(cmdLineOptions);
+      config = configBuilder.build();
+      logger = new BasicLogManager(config);
+
+    } catch (InvalidCmdlineArgumentException e) {
+      CPAMain.ERROR_OUTPUT.println("Could not process command line arguments: " + e.getMessage());
+      System.exit(CPAMain.ERROR_EXIT_CODE);
+      return;
+    } catch (IOException e) {
+      CPAMain.ERROR_OUTPUT.println("Could not read config file " + e.getMessage());
+      System.exit(CPAMain.ERROR_EXIT_CODE);
+      return;
+    } catch (InvalidConfigurationException e) {
+      CPAMain.ERROR_OUTPUT.println("Invalid configuration: " + e.getMessage());
+      System.exit(CPAMain.ERROR_EXIT_CODE);
+      return;
+    }
+
+    try {
+      new CPAServer(config, logger).start();
+    } catch (InvalidConfigurationException e) {
+      logger.logUserException(Level.SEVERE, e, "Invalid configuration");
+      System.exit(CPAMain.ERROR_EXIT_CODE);
+    } catch (IOException e) {
+      logger.logUserException(Level.SEVERE, e, "Could not start verification server");
+      System.exit(CPAMain.ERROR_EXIT_CODE);
+    }
+  }
+
+  private static byte[] createToken() {
+    byte[] bytes = new byte[16];
+    new SecureRandom().nextBytes(bytes);
+    return BaseEncoding.base16().lowerCase().encode(bytes).getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private void start() throws IOException {
+    warmUpSolver();
+
+    Path tokenFile = Paths.get(options.outputPath, TOKEN_FILE_NAME);
+    Files.createParentDirs(tokenFile);
+    Files.writeFile(tokenFile, new String(token, StandardCharsets.US_ASCII));
+
+    HttpServer server = HttpServer.create(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), options.port), 0);
+    server.createContext("/run", new RunHandler());
+    server.createContext("/status", new StatusHandler());
+    // requests only enqueue tasks, so one thread is enough for the HTTP server itself
+    server.start();
+    logger.log(Level.INFO, "Verification server is listening at http://localhost:"
+        + server.getAddress().getPort() + "/run, the access token is in " + tokenFile);
+  }
+
+  /**
+   * Create a solver once, such that the native libraries are loaded
+   * before the first task arrives.
+   * The instance is kept for the lifetime of the server, such that the solver instances
+   * of all tasks reuse the loaded libraries and classes.
+   * The formula manager itself is not shared with the tasks,
+   * because it is bound to the shutdown notifier and the solver options of one task.
+   */
+  private void warmUpSolver() {
+    try {
+      warmSolver = new FormulaManagerFactory(serverConfig, logger, ShutdownNotifier.create());
+      warmSolver.getFormulaManager();
+    } catch (InvalidConfigurationException | UnsatisfiedLinkError e) {
+      logger.logUserException(Level.WARNING, e, "Could not initialize solver in advance");
+    }
+  }
+
+  /**
+   * Check whether a request is allowed, and send an error response if not.
+   */
+  private boolean checkAccess(HttpExchange pExchange) throws IOException {
+    if (pExchange.getRequestHeaders().containsKey("Origin")) {
+      sendError(pExchange, 403, "Requests from web pages are not allowed.");
+      return false;
+    }
+    String requestToken = pExchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+    if (requestToken == null
+        || !MessageDigest.isEqual(token, requestToken.getBytes(StandardCharsets.US_ASCII))) {
+      sendError(pExchange, 403, "Missing or wrong access token in header " + TOKEN_HEADER + ".");
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Check that a path given by a client is relative and does not leave the current directory.
+   */
+  private static void checkSafePath(String pPath) throws InvalidConfigurationException {
+    if (Paths.get(pPath).isAbsolute() || pPath.contains("..")) {
+      throw new InvalidConfigurationException("Only relative paths without \"..\" are allowed: " + pPath);
+    }
+  }
+
+  private synchronized Configuration getConfiguration(String pConfigFile)
+      throws IOException, InvalidConfigurationException {
+    checkSafePath(pConfigFile);
+    Configuration config = configurations.get(pConfigFile);
+    if (config == null) {
+      config = Configuration.builder()
+          .copyFrom(serverConfig)
+          .loadFromFile(pConfigFile)
+          .build();
+      configurations.put(pConfigFile, config);
+    }
+    return config;
+  }
+
+  private class RunHandler implements HttpHandler {
+
+    @Override
+    public void handle(final HttpExchange pExchange) throws IOException {
+      if (!checkAccess(pExchange)) {
+        return;
+      }
+      if (!"POST".equals(pExchange.getRequestMethod())) {
+        sendError(pExchange, 405, "Tasks have to be submitted with POST.");
+        return;
+      }
+
+      final Map<String, String> parameters;
+      final byte[] program;
+      try (InputStream body = pExchange.getRequestBody()) {
+        parameters = parseQuery(pExchange.getRequestURI());
+        program = ByteStreams.toByteArray(body);
+      } catch (IllegalArgumentException e) {
+        sendError(pExchange, 400, "Invalid query: " + e.getMessage());
+        return;
+      }
+
+      try {
+        workers.execute(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              runTask(pExchange, parameters, program);
+            } catch (IOException e) {
+              logger.logDebugException(e, "Could not send result of verification task");
+            } finally {
+              pExchange.close();
+            }
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        sendError(pExchange, 503, "Too many waiting verification tasks.");
+      }
+    }
+  }
+
+  private class StatusHandler implements HttpHandler {
+
+    @Override
+    public void handle(HttpExchange pExchange) throws IOException {
+      if (!checkAccess(pExchange)) {
+        return;
+      }
+      byte[] response = String.format("running: %d%nwaiting: %d%ncompleted: %d%n",
+          workers.getActiveCount(), workers.getQueue().size(), workers.getCompletedTaskCount())
+          .getBytes(StandardCharsets.UTF_8);
+      pExchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+      pExchange.sendResponseHeaders(200, response.length);
+      try (OutputStream body = pExchange.getResponseBody()) {
+        body.write(response);
+      }
+    }
+  }
+
+  @SuppressWarnings("resource") // We don't close LogManager, the exchange is closed by the caller
+  private void runTask(HttpExchange pExchange, Map<String, String> pParameters, byte[] pProgram)
+      throws IOException {
+    int id = taskIds.getFreshId();
+    Path taskDirectory = Paths.get(options.outputPath, "task-" + id);
+    Path programFile = taskDirectory.resolve(PROGRAM_FILE_NAME);
+
+    pExchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    pExchange.sendResponseHeaders(200, 0); // response is streamed
+    PrintStream out = new PrintStream(pExchange.getResponseBody(), true, StandardCharsets.UTF_8.name());
+
+    Configuration config;
+    LogManager taskLogger;
+    try {
+      Files.createParentDirs(programFile);
+      Files.writeFile(programFile, new String(pProgram, StandardCharsets.UTF_8));
+      config = createTaskConfiguration(pParameters, programFile, taskDirectory);
+      taskLogger = new BasicLogManager(config, new FlushingStreamHandler(out, config));
+    } catch (InvalidConfigurationException e) {
+      out.println("Invalid configuration: " + e.getMessage());
+      return;
+    } catch (IOException e) {
+      out.println("Could not prepare verification task: " + e.getMessage());
+      return;
+    } catch (RuntimeException e) {
+      logger.logException(Level.WARNING, e, "Could not prepare verification task " + id);
+      out.println("Could not prepare verification task: " + e);
+      return;
+    }
+
+    ShutdownNotifier shutdownNotifier = ShutdownNotifier.create();
+    ResourceLimitChecker limits = null;
+    try {
+      limits = ResourceLimitChecker.fromConfiguration(config, taskLogger, shutdownNotifier);
+      limits.start();
+      CPAcheckerResult result = new CPAchecker(config, taskLogger, shutdownNotifier).run(programFile.toString());
+
+      result.printStatistics(out);
+      out.println();
+      result.printResult(out);
+      out.println("More details about the verification run can be found in the directory \""
+          + taskDirectory + "\".");
+    } catch (InvalidConfigurationException e) {
+      taskLogger.logUserException(Level.SEVERE, e, "Invalid configuration");
+    } catch (RuntimeException e) {
+      // the response was already started, so the client can only be informed in the output,
+      // and the worker thread has to survive for the next tasks
+      taskLogger.logException(Level.SEVERE, e, "Verification task failed");
+      out.println("Verification task failed because of an unexpected error: " + e);
+    } finally {
+      if (limits != null) {
+        limits.cancel();
+      }
+      out.flush();
+      taskLogger.flush();
+    }
+  }
+
+  /**
+   * Create the configuration of a task from the cached configuration file,
+   * with its own output directory.
+   */
+  private Configuration createTaskConfiguration(Map<String, String> pParameters,
+      Path pProgramFile, Path pTaskDirectory) throws IOException, InvalidConfigurationException {
+    Map<String, String> taskOptions = new LinkedHashMap<>(pParameters);
+    String configFile = taskOptions.remove(CONFIG_PARAMETER);
+    String specFile = taskOptions.remove(SPEC_PARAMETER);
+
+    ConfigurationBuilder builder = Configuration.builder();
+    builder.copyFrom(configFile != null ? getConfiguration(configFile) : serverConfig);
+    builder.setOptions(taskOptions);
+    if (specFile != null) {
+      checkSafePath(specFile);
+      builder.setOption("specification", specFile);
+    }
+    builder.setOption("analysis.programNames", pProgramFile.toString());
+    builder.setOption("output.path", pTaskDirectory.toString());
+    Configuration config = builder.build();
+
+    // The file type converter is only added to the configuration of this task,
+    // not to the default converters, because these are shared by all tasks.
+    FileTypeConverter fileTypeConverter = FileTypeConverter.createWithSafePathsOnly(config);
+    return Configuration.builder()
+        .copyFrom(config)
+        .addConverter(FileOption.class, fileTypeConverter)
+        .build();
+  }
+
+  private static Map<String, String> parseQuery(URI pUri) throws UnsupportedEncodingException {
+    Map<String, String> result = new LinkedHashMap<>();
+    String query = pUri.getRawQuery();
+    if (query == null || query.isEmpty()) {
+      return result;
+    }
+    for (String parameter : Splitter.on('&').omitEmptyStrings().split(query)) {
+      int eq = parameter.indexOf('=');
+      if (eq <= 0) {
+        throw new IllegalArgumentException("parameter without value: " + parameter);
+      }
+      result.put(URLDecoder.decode(parameter.substring(0, eq), StandardCharsets.UTF_8.name()),
+          URLDecoder.decode(parameter.substring(eq + 1), StandardCharsets.UTF_8.name()));
+    }
+    return result;
+  }
+
+  private static void sendError(HttpExchange pExchange, int pCode, String pMessage)
+      throws IOException {
+    byte[] response = pMessage.getBytes(StandardCharsets.UTF_8);
+    pExchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    pExchange.sendResponseHeaders(pCode, response.length);
+    try (OutputStream body = pExchange.getResponseBody()) {
+      body.write(response);
+    }
+  }
+
+  /**
+   * Log handler that sends each message to the client immediately.
+   */
+  private static class FlushingStreamHandler extends StreamHandler {
+
+    private FlushingStreamHandler(OutputStream pOut, Configuration pConfig)
+        throws InvalidConfigurationException {
+      super(pOut, new ConsoleLogFormatter(pConfig));
+    }
+
+    @Override
+    public synchronized void publish(LogRecord pRecord) {
+      super.publish(pRecord);
+      flush();
+    }
+
+    @Override
+    public synchronized void close() {
+      // only flush, the stream is still needed for the statistics
+      flush();
+    }
+  }
+}
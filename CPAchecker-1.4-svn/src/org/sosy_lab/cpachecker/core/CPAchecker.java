@@ -233,12 +233,12 @@ public class CPAchecker {
 
       // create reached set, cpa, algorithm
       stats.creationTime.start();
-      reached = factory.createReachedSet();
 
       Algorithm algorithm;
 
       if (runCBMCasExternalTool) {
 
+        reached = factory.createReachedSet();
         checkIfOneValidFile(programDenotation);
         algorithm = new ExternalCBMCAlgorithm(programDenotation, config, logger);
 
@@ -246,6 +246,7 @@ public class CPAchecker {
         CFA cfa = parse(programDenotation, stats);
         GlobalInfo.getInstance().storeCFA(cfa);
         shutdownNotifier.shutdownIfNecessary();
+        reached = factory.createReachedSet(cfa);
 
         final SpecAutomatonCompositionType speComposition =
             initialStatesFor.contains(InitialStatesFor.TARGET)
@@ -378,7 +379,7 @@ public class CPAchecker {
 
   private AlgorithmStatus runAlgorithm(final Algorithm algorithm,
       final ReachedSet reached,
-      final MainCPAStatistics stats) throws CPAException, InterruptedException {
+      final MainCPAStatistics stats) throws CPAException, InterruptedException, InvalidConfigurationException {
 
     logger.log(Level.INFO, "Starting analysis ...");
 
@@ -387,6 +388,7 @@ public class CPAchecker {
     // register management interface for CPAchecker
     CPAcheckerBean mxbean = new CPAcheckerBean(reached, logger, shutdownNotifier);
 
+    stats.startLiveStatistics(reached);
     stats.startAnalysisTimer();
     try {
 
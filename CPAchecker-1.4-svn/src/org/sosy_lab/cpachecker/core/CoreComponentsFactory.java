@@ -42,6 +42,7 @@ import org.sosy_lab.cpachecker.core.algorithm.CEGARAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.CPAAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.CounterexampleCheckAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.CustomInstructionRequirementsExtractingAlgorithm;
+import org.sosy_lab.cpachecker.core.algorithm.RandomSamplingAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.RestartAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.RestartAlgorithmWithARGReplay;
 import org.sosy_lab.cpachecker.core.algorithm.RestartWithConditionsAlgorithm;
@@ -97,6 +98,11 @@ public class CoreComponentsFactory {
         + "after the analysis has finished, works only with PredicateCPA")
   private boolean useBMC = false;
 
+  @Option(secure=true, name="algorithm.randomSampling",
+      description="execute the program with random inputs for statistical verification "
+        + "instead of analyzing it with the CPA")
+  private boolean useRandomSampling = false;
+
   @Option(secure=true, name="algorithm.impact",
       description="Use McMillan's Impact algorithm for lazy interpolation")
   private boolean useImpactAlgorithm = false;
@@ -187,6 +193,10 @@ public class CoreComponentsFactory {
     } else if (useRestartAlgorithmWithARGReplay) {
       algorithm = new RestartAlgorithmWithARGReplay(config, logger, shutdownNotifier, cfa);
 
+    } else if (useRandomSampling) {
+      logger.log(Level.INFO, "Using Random Sampling Algorithm");
+      algorithm = new RandomSamplingAlgorithm(cpa, cfa, config, logger, shutdownNotifier);
+
     } else {
       algorithm = CPAAlgorithm.create(cpa, logger, config, shutdownNotifier, stats);
 
@@ -255,7 +265,15 @@ public class CoreComponentsFactory {
   }
 
   public ReachedSet createReachedSet() {
-    ReachedSet reached = reachedSetFactory.create();
+    return wrapReachedSet(reachedSetFactory.create());
+  }
+
+  public ReachedSet createReachedSet(CFA pCfa) {
+    return wrapReachedSet(reachedSetFactory.create(pCfa));
+  }
+
+  private ReachedSet wrapReachedSet(ReachedSet pReached) {
+    ReachedSet reached = pReached;
 
     if (useRestartingAlgorithm || useRestartAlgorithmWithARGReplay) {
       // this algorithm needs an indirection so that it can change
@@ -0,0 +1,366 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import javax.annotation.Nullable;
+
+import org.sosy_lab.common.JSON;
+import org.sosy_lab.common.concurrency.Threads;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.configuration.TimeSpanOption;
+import org.sosy_lab.common.io.Files;
+import org.sosy_lab.common.io.Path;
+import org.sosy_lab.common.io.Paths;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
+import org.sosy_lab.cpachecker.util.statistics.ConcurrentStatCounter;
+import org.sosy_lab.cpachecker.util.statistics.ConcurrentStatInt;
+import org.sosy_lab.cpachecker.util.statistics.ConcurrentStatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Periodically takes a snapshot of the statistics while the analysis is running,
+ * and writes it as one JSON object per line to a file and/or serves the latest
+ * snapshot via HTTP on localhost.
+ *
+ * The values are read without synchronization from the sampling thread,
+ * so they are only approximately up to date.
+ * The statistics objects are never asked to print themselves,
+ * because printing may have side effects like writing files.
+ * Instead, all counters and timers (fields of the types {@link AbstractStatValue}
+ * and {@link Timer}) of the registered statistics objects are read.
+ * Other fields like primitive numbers are ignored,
+ * because they are often configuration values and not statistics.
+ */
+@Options(prefix="statistics.live")
+class LiveStatistics implements Runnable {
+
+  @Option(secure=true, description="interval for taking snapshots of the statistics during the analysis"
+      + " (use seconds or specify a unit)")
+  @TimeSpanOption(codeUnit=TimeUnit.MILLISECONDS,
+                  defaultUserUnit=TimeUnit.SECONDS,
+                  min=100)
+  private TimeSpan interval = TimeSpan.ofSeconds(10);
+
+  @Option(secure=true, description="file to which the snapshots of the statistics are appended"
+      + " as one JSON object per line")
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private Path file = Paths.get("LiveStatistics.jsonl");
+
+  @Option(secure=true, description="maximal size of the file with the snapshots of the statistics in bytes,"
+      + " if it gets larger, it is moved to a file with the suffix '.1' and a new file is started"
+      + " (so at most twice this size is used)")
+  @IntegerOption(min=1024)
+  private long maxFileSize = 16 * 1024 * 1024;
+
+  @Option(secure=true, description="port on localhost at which the latest snapshot of the statistics"
+      + " is provided via HTTP (-1 to disable)")
+  @IntegerOption(min=-1, max=65535)
+  private int port = -1;
+
+  private final LogManager logger;
+  private final Collection<Statistics> statistics;
+  private final ReachedSet reached;
+
+  private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+  private final List<GarbageCollectorMXBean> gcs = ManagementFactory.getGarbageCollectorMXBeans();
+
+  // fields with counters and timers of each statistics class, only accessed by the sampling thread
+  private final Map<Class<?>, List<Field>> statisticFields = new HashMap<>();
+
+  private final long startTime = System.currentTimeMillis();
+
+  private volatile String lastSnapshot = "{}";
+
+  private @Nullable Writer out = null;
+  private long writtenBytes = 0;
+
+  private @Nullable HttpServer server = null;
+
+  LiveStatistics(Configuration pConfig, LogManager pLogger, Collection<Statistics> pStatistics,
+      ReachedSet pReached) throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+    statistics = new ArrayList<>(pStatistics);
+    reached = pReached;
+  }
+
+  /**
+   * Start the sampling thread and the HTTP server (if enabled).
+   * The returned thread stops after writing a last snapshot when it is interrupted.
+   */
+  Thread start() {
+    if (port >= 0) {
+      try {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/", new SnapshotHandler());
+        server.start();
+        logger.log(Level.INFO, "Live statistics are available at http://localhost:" + server.getAddress().getPort() + "/");
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not start HTTP server for live statistics");
+        server = null;
+      }
+    }
+
+    Thread thread = Threads.newThread(this, "CPAchecker live statistics", true);
+    thread.start();
+    return thread;
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        takeSnapshot();
+        Thread.sleep(interval.asMillis());
+      }
+    } catch (InterruptedException e) {
+      // analysis finished
+    } finally {
+      takeSnapshot();
+      closeFile();
+      if (server != null) {
+        server.stop(0);
+      }
+    }
+  }
+
+  private void takeSnapshot() {
+    Map<String, Object> snapshot = new LinkedHashMap<>();
+    snapshot.put("time", System.currentTimeMillis());
+    snapshot.put("elapsedMs", System.currentTimeMillis() - startTime);
+
+    try {
+      snapshot.put("reachedSetSize", reached.size());
+      snapshot.put("waitlistSize", reached.getWaitlist().size());
+    } catch (RuntimeException e) {
+      // reached set is not thread-safe, skip these values for this snapshot
+    }
+
+    snapshot.put("heapUsed", memory.getHeapMemoryUsage().getUsed());
+    snapshot.put("heapCommitted", memory.getHeapMemoryUsage().getCommitted());
+    snapshot.put("nonHeapUsed", memory.getNonHeapMemoryUsage().getUsed());
+    long gcCount = 0;
+    long gcTime = 0;
+    for (GarbageCollectorMXBean gc : gcs) {
+      gcCount += Math.max(0, gc.getCollectionCount());
+      gcTime += Math.max(0, gc.getCollectionTime());
+    }
+    snapshot.put("gcCount", gcCount);
+    snapshot.put("gcTimeMs", gcTime);
+
+    Map<String, Object> statisticValues = new LinkedHashMap<>();
+    for (Statistics s : statistics) {
+      Map<String, Object> values = readValues(s);
+      if (!values.isEmpty()) {
+        String name = s.getName() != null ? s.getName() : s.getClass().getSimpleName();
+        statisticValues.put(name, values);
+      }
+    }
+    snapshot.put("statistics", statisticValues);
+
+    StringBuilder sb = new StringBuilder();
+    try {
+      JSON.writeJSONString(snapshot, sb);
+    } catch (IOException e) {
+      throw new AssertionError(e); // StringBuilder does not throw
+    }
+    lastSnapshot = sb.toString();
+
+    if (file != null) {
+      writeToFile(lastSnapshot);
+    }
+  }
+
+  private Map<String, Object> readValues(Statistics pStatistics) {
+    Map<String, Object> values = new LinkedHashMap<>();
+    for (Field field : getStatisticFields(pStatistics.getClass())) {
+      try {
+        Object value = toJSONValue(field.get(pStatistics));
+        if (value != null) {
+          values.put(field.getName(), value);
+        }
+      } catch (IllegalAccessException | RuntimeException e) {
+        // values are read concurrently, just skip this one
+      }
+    }
+    return values;
+  }
+
+  private List<Field> getStatisticFields(Class<?> pClass) {
+    List<Field> fields = statisticFields.get(pClass);
+    if (fields == null) {
+      fields = new ArrayList<>();
+      for (Class<?> cls = pClass; cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+        for (Field field : cls.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers()) && isStatisticType(field.getType())) {
+            try {
+              field.setAccessible(true);
+              fields.add(field);
+            } catch (SecurityException e) {
+              logger.logDebugException(e, "Cannot access statistics field " + field);
+            }
+          }
+        }
+      }
+      statisticFields.put(pClass, fields);
+    }
+    return fields;
+  }
+
+  private static boolean isStatisticType(Class<?> pType) {
+    return AbstractStatValue.class.isAssignableFrom(pType)
+        || Timer.class.isAssignableFrom(pType);
+  }
+
+  private static @Nullable Object toJSONValue(@Nullable Object pValue) {
+    if (pValue == null) {
+      return null;
+    } else if (pValue instanceof StatCounter) {
+      return ((StatCounter) pValue).getValue();
+    } else if (pValue instanceof ConcurrentStatCounter) {
+      return ((ConcurrentStatCounter) pValue).getValue();
+    } else if (pValue instanceof StatInt) {
+      StatInt value = (StatInt) pValue;
+      Map<String, Object> result = new LinkedHashMap<>();
+      result.put("count", value.getValueCount());
+      result.put("sum", value.getValueSum());
+      result.put("max", value.getMaxValue());
+      return result;
+    } else if (pValue instanceof ConcurrentStatInt) {
+      ConcurrentStatInt value = (ConcurrentStatInt) pValue;
+      Map<String, Object> result = new LinkedHashMap<>();
+      result.put("count", value.getValueCount());
+      result.put("sum", value.getValueSum());
+      result.put("max", value.getMaxValue());
+      return result;
+    } else if (pValue instanceof StatTimer) {
+      return toJSONValue(((StatTimer) pValue).getTimer());
+    } else if (pValue instanceof Timer) {
+      Timer timer = (Timer) pValue;
+      Map<String, Object> result = new LinkedHashMap<>();
+      result.put("sumMs", timer.getSumTime().asMillis());
+      result.put("intervals", timer.getNumberOfIntervals());
+      result.put("running", timer.isRunning());
+      return result;
+    } else if (pValue instanceof ConcurrentStatTimer) {
+      // whether the timer is running can only be asked by the measuring thread
+      ConcurrentStatTimer timer = (ConcurrentStatTimer) pValue;
+      Map<String, Object> result = new LinkedHashMap<>();
+      result.put("sumMs", timer.getSumTime().asMillis());
+      result.put("intervals", timer.getNumberOfIntervals());
+      return result;
+    } else if (pValue instanceof AbstractStatValue) {
+      // unknown kind of value, at least provide how often it was updated
+      return ((AbstractStatValue) pValue).getUpdateCount();
+    }
+    return null;
+  }
+
+  private void writeToFile(String pSnapshot) {
+    try {
+      if (out != null && writtenBytes >= maxFileSize) {
+        closeFile();
+        Path rolled = Paths.get(file.getPath() + ".1");
+        if (rolled.exists() && !rolled.delete()) {
+          throw new IOException("Cannot delete " + rolled);
+        }
+        if (!file.toFile().renameTo(rolled.toFile())) {
+          throw new IOException("Cannot rename " + file + " to " + rolled);
+        }
+      }
+      if (out == null) {
+        out = Files.openOutputFile(file);
+        writtenBytes = 0;
+      }
+      out.write(pSnapshot);
+      out.write('\n');
+      out.flush();
+      writtenBytes += pSnapshot.length() + 1;
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write live statistics, disabling output to file");
+      closeFile();
+      file = null;
+    }
+  }
+
+  private void closeFile() {
+    if (out != null) {
+      try {
+        out.close();
+      } catch (IOException e) {
+        logger.logDebugException(e);
+      }
+      out = null;
+    }
+  }
+
+  private class SnapshotHandler implements HttpHandler {
+
+    @Override
+    public void handle(HttpExchange pExchange) throws IOException {
+      byte[] response = lastSnapshot.getBytes(StandardCharsets.UTF_8);
+      pExchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+      pExchange.sendResponseHeaders(200, response.length);
+      try (OutputStream body = pExchange.getResponseBody()) {
+        body.write(response);
+      }
+    }
+  }
+}
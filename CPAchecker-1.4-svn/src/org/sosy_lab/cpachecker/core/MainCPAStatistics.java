@@ -90,6 +90,9 @@ class MainCPAStatistics implements Statistics, AlgorithmIterationListener {
   // Beyond this many states, we omit some statistics because they are costly.
   private static final int MAX_SIZE_FOR_REACHED_STATISTICS = 1000000;
 
+  // Maximal time to wait for the last snapshot of the live statistics.
+  private static final long LIVE_STATISTICS_TIMEOUT_MILLIS = 5000;
+
   @Option(secure=true, name="reachedSet.export",
       description="print reached set to text file")
   private boolean exportReachedSet = false;
@@ -108,11 +111,18 @@ class MainCPAStatistics implements Statistics, AlgorithmIterationListener {
     description="track memory usage of JVM during runtime")
   private boolean monitorMemoryUsage = true;
 
+  @Option(secure=true, name="statistics.live",
+    description="periodically write snapshots of the statistics during the analysis"
+      + " (cf. options statistics.live.*)")
+  private boolean liveStatistics = false;
+
   private final LogManager logger;
   private final Collection<Statistics> subStats;
   private final MemoryStatistics memStats;
   private final CoverageReport coverageReport;
   private Thread memStatsThread;
+  private final Configuration config;
+  private Thread liveStatsThread = null;
 
   private Collection<IterationStatistics> iterationStats;
 
@@ -130,6 +140,7 @@ class MainCPAStatistics implements Statistics, AlgorithmIterationListener {
   public MainCPAStatistics(Configuration config, LogManager pLogger) throws InvalidConfigurationException {
     logger = pLogger;
     config.inject(this);
+    this.config = config;
 
     subStats = new ArrayList<>();
 
@@ -193,10 +204,31 @@ class MainCPAStatistics implements Statistics, AlgorithmIterationListener {
     }
   }
 
+  /**
+   * Start taking periodic snapshots of the statistics, if enabled.
+   * Needs to be called after all statistics were registered.
+   */
+  void startLiveStatistics(ReachedSet pReached) throws InvalidConfigurationException {
+    if (liveStatistics) {
+      liveStatsThread = new LiveStatistics(config, logger, subStats, pReached).start();
+    }
+  }
+
   void stopAnalysisTimer() {
     analysisTime.stop();
     programTime.stop();
 
+    if (liveStatsThread != null) {
+      liveStatsThread.interrupt(); // writes a last snapshot
+      try {
+        // the thread is a daemon, wait for the last snapshot to be written
+        liveStatsThread.join(LIVE_STATISTICS_TIMEOUT_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      liveStatsThread = null;
+    }
+
     try {
       long stopCpuTime = ProcessCpuTime.read();
 
@@ -49,6 +49,7 @@ import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.algorithm.cbmctools.CBMCChecker;
+import org.sosy_lab.cpachecker.core.algorithm.interpreter.InterpreterChecker;
 import org.sosy_lab.cpachecker.core.algorithm.realctools.RealCChecker;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.CounterexampleChecker;
@@ -81,9 +82,10 @@ public class CounterexampleCheckAlgorithm implements Algorithm, StatisticsProvid
 
   private final Set<ARGState> checkedTargetStates = Collections.newSetFromMap(new WeakHashMap<ARGState, Boolean>());
 
-  @Option(secure=true, name="checker", toUppercase=true, values={"CBMC", "CPACHECKER", "REALC"},
+  @Option(secure=true, name="checker", toUppercase=true, values={"CBMC", "CPACHECKER", "REALC", "INTERPRETER"},
           description="which model checker to use for verifying counterexamples as a second check\n"
-                    + "Currently CBMC or CPAchecker with a different config can be used.")
+                    + "Currently CBMC or CPAchecker with a different config can be used, "
+                    + "or the counterexample can be compiled (REALC) or interpreted (INTERPRETER) with the values of the model.")
   private String checkerName = "CBMC";
 
   @Option(secure=true, description="continue analysis after an counterexample was found that was denied by the second check")
@@ -111,6 +113,8 @@ public class CounterexampleCheckAlgorithm implements Algorithm, StatisticsProvid
       checker = new CounterexampleCPAChecker(config, logger, pShutdownNotifier, cfa, filename, cpa);
     }else if (checkerName.equals("REALC")){
       checker = new RealCChecker(config, logger, cfa, cpa);
+    } else if (checkerName.equals("INTERPRETER")) {
+      checker = new InterpreterChecker(logger, cfa, cpa);
     } else {
       throw new AssertionError();
     }
@@ -357,6 +361,9 @@ public class CounterexampleCheckAlgorithm implements Algorithm, StatisticsProvid
     if (algorithm instanceof StatisticsProvider) {
       ((StatisticsProvider)algorithm).collectStatistics(pStatsCollection);
     }
+    if (checker instanceof Statistics) {
+      pStatsCollection.add((Statistics) checker);
+    }
     pStatsCollection.add(this);
   }
 
@@ -368,9 +375,6 @@ public class CounterexampleCheckAlgorithm implements Algorithm, StatisticsProvid
     if (checkTime.getNumberOfIntervals() > 0) {
       out.println("Number of infeasible paths:         " + numberOfInfeasiblePaths + " (" + toPercent(numberOfInfeasiblePaths, checkTime.getNumberOfIntervals()) +")" );
       out.println("Time for counterexample checks:     " + checkTime);
-      if (checker instanceof Statistics) {
-        ((Statistics)checker).printStatistics(out, pResult, pReached);
-      }
     }
   }
 
@@ -0,0 +1,467 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.concurrency.Threads;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.Language;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCall;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CLeftHandSide;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.MultiEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionCallEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
+import org.sosy_lab.cpachecker.cfa.types.c.CSimpleType;
+import org.sosy_lab.cpachecker.cfa.types.c.CType;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.algorithm.interpreter.CFAInterpreter;
+import org.sosy_lab.cpachecker.core.algorithm.interpreter.CFAInterpreter.ExecutionResult;
+import org.sosy_lab.cpachecker.core.algorithm.interpreter.CFAInterpreter.InputSupplier;
+import org.sosy_lab.cpachecker.core.algorithm.interpreter.CFAInterpreter.Outcome;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGCPA;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.coverage.CoverageData;
+import org.sosy_lab.cpachecker.cpa.coverage.CoverageData.CoverageMode;
+import org.sosy_lab.cpachecker.cpa.coverage.CoverageStatistics;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.cpa.value.type.Value;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.exceptions.UnrecognizedCCodeException;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.error.DummyErrorState;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Iterables;
+
+/**
+ * Algorithm for statistical verification by random sampling.
+ *
+ * The program is executed concretely on the CFA many times,
+ * with random values for all inputs (e.g., the __VERIFIER_nondet_* functions).
+ * If one of the executions calls the error function, a path to the error
+ * is added to the reached set and the program is unsafe.
+ * Otherwise, the analysis result is unknown, but the statistics report
+ * a PAC (probably approximately correct) bound: with the given confidence,
+ * the probability that a random execution reaches the error is at most the reported error rate.
+ * Only executions that terminated or reached the error count for this bound.
+ *
+ * The executions are independent and distributed over several threads.
+ * Each execution uses its own random generator whose seed is derived from
+ * the configured seed and the index of the execution.
+ * If several executions reach the error, the one with the lowest index is reported,
+ * thus the result and the error path are reproducible regardless of the number of threads
+ * (the statistics may still differ).
+ */
+@Options(prefix="sampling")
+public class RandomSamplingAlgorithm implements Algorithm, StatisticsProvider, Statistics {
+
+  @Option(secure=true, name="errorRate",
+      description="maximal probability of an execution reaching the error that may remain undetected, "
+          + "used to compute the number of samples")
+  private double errorRate = 0.004;
+
+  @Option(secure=true, name="confidence",
+      description="confidence level of the guarantee given by the samples, "
+          + "used to compute the number of samples")
+  private double confidence = 0.985;
+
+  @Option(secure=true, name="samples",
+      description="number of executions (0 for computing it from errorRate and confidence)")
+  @IntegerOption(min=0)
+  private int samples = 0;
+
+  @Option(secure=true, name="seed",
+      description="seed for the random values of the inputs")
+  private long seed = 0;
+
+  @Option(secure=true, name="threads",
+      description="number of threads for executing samples (0 for the number of available processors)")
+  @IntegerOption(min=0)
+  private int threads = 0;
+
+  @Option(secure=true, name="maxSteps",
+      description="maximal number of CFA edges executed per sample, "
+          + "longer executions are aborted and, like executions that violate an assumption "
+          + "or access invalid memory, do not count as sample")
+  @IntegerOption(min=1)
+  private int maxSteps = 1000000;
+
+  @Option(secure=true, name="errorFunction",
+      description="name of the function whose call is the error")
+  private String errorFunction = "__VERIFIER_error";
+
+  private final CFA cfa;
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+  private final ConfigurableProgramAnalysis cpa;
+  private final int requiredSamples;
+
+  private final CoverageData coverage = new CoverageData(CoverageMode.TRANSFER);
+  private final CoverageStatistics coverageStatistics;
+
+  private final Timer samplingTime = new Timer();
+  private final AtomicIntegerArray outcomes = new AtomicIntegerArray(Outcome.values().length);
+  private final AtomicLong executedEdges = new AtomicLong();
+  private int numberOfSamples = 0;
+  private long errorSample = -1;
+
+  public RandomSamplingAlgorithm(ConfigurableProgramAnalysis pCpa, CFA pCfa, Configuration pConfig,
+      LogManager pLogger, ShutdownNotifier pShutdownNotifier) throws InvalidConfigurationException {
+    pConfig.inject(this);
+    if (pCfa.getLanguage() != Language.C) {
+      throw new InvalidConfigurationException("Random sampling is only supported for C programs");
+    }
+    if (!(errorRate > 0 && errorRate < 1) || !(confidence > 0 && confidence < 1)) {
+      throw new InvalidConfigurationException(
+          "Error rate and confidence for random sampling need to be between 0 and 1");
+    }
+    cfa = pCfa;
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+    cpa = pCpa;
+    requiredSamples = samples > 0 ? samples : requiredSamples(errorRate, confidence);
+    coverageStatistics = new CoverageStatistics(pConfig, pLogger, pCfa, coverage);
+  }
+
+  /**
+   * Computes the number of samples that are necessary such that with the given confidence,
+   * an error that is reached with at least the given probability is found.
+   */
+  static int requiredSamples(double pErrorRate, double pConfidence) {
+    return (int) Math.ceil(Math.log(1 - pConfidence) / Math.log(1 - pErrorRate));
+  }
+
+  /**
+   * Computes the error rate that is guaranteed with the given confidence
+   * after the given number of samples did not reach the error.
+   */
+  static double achievedErrorRate(int pSamples, double pConfidence) {
+    if (pSamples <= 0) {
+      return 1;
+    }
+    return 1 - Math.pow(1 - pConfidence, 1.0 / pSamples);
+  }
+
+  @Override
+  public AlgorithmStatus run(ReachedSet pReached) throws CPAException, InterruptedException {
+    final CFunctionEntryNode entry = (CFunctionEntryNode) cfa.getMainFunction();
+    final int numThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    logger.log(Level.INFO, "Executing", requiredSamples, "random samples with", numThreads, "threads");
+
+    final AtomicLong nextSample = new AtomicLong(0);
+    final AtomicBoolean stop = new AtomicBoolean(false);
+    final AtomicReference<ExecutionResult> errorExecution = new AtomicReference<>();
+    // lowest index of a sample that reached the error
+    final AtomicLong errorIndex = new AtomicLong(Long.MAX_VALUE);
+
+    List<Set<CFAEdge>> visitedEdges = new ArrayList<>(numThreads);
+    List<Future<?>> futures = new ArrayList<>(numThreads);
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads,
+        Threads.threadFactoryBuilder().setDaemon(true).build());
+    samplingTime.start();
+    try {
+      for (int i = 0; i < numThreads; i++) {
+        final Set<CFAEdge> visited = new HashSet<>();
+        visitedEdges.add(visited);
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws UnrecognizedCCodeException {
+            CFAInterpreter interpreter = new CFAInterpreter(cfa.getMachineModel(), logger);
+            long sample;
+            // samples after a known error do not need to be executed,
+            // but those before it have to be in order to find the first error
+            while (!stop.get() && !shutdownNotifier.shouldShutdown()
+                && (sample = nextSample.getAndIncrement()) < Math.min(requiredSamples, errorIndex.get())) {
+
+              ExecutionResult result = interpreter.execute(entry, new RandomInputs(seed, sample),
+                  isError, maxSteps);
+              outcomes.incrementAndGet(result.getOutcome().ordinal());
+              executedEdges.addAndGet(result.getExecutedEdges().size());
+              visited.addAll(result.getExecutedEdges());
+
+              if (result.getOutcome() == Outcome.TARGET_REACHED) {
+                synchronized (errorIndex) {
+                  if (sample < errorIndex.get()) {
+                    errorExecution.set(result);
+                    errorIndex.set(sample);
+                  }
+                }
+              }
+            }
+            return null;
+          }
+        }));
+      }
+
+      for (Future<?> future : futures) {
+        future.get();
+      }
+
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof CPAException) {
+        throw (CPAException) e.getCause();
+      }
+      throw new CPAException("Random sampling failed: " + e.getCause().getMessage(), e.getCause());
+
+    } finally {
+      stop.set(true); // in case we were interrupted
+      executor.shutdownNow();
+      samplingTime.stop();
+      numberOfSamples = sumOfOutcomes();
+      computeCoverage(visitedEdges);
+    }
+
+    ExecutionResult error = errorExecution.get();
+    if (error != null) {
+      errorSample = errorIndex.get();
+      logger.log(Level.INFO, "Random sample", errorSample, "reached the error after",
+          error.getExecutedEdges().size(), "edges");
+      addErrorPath(pReached, error.getExecutedEdges());
+      return AlgorithmStatus.SOUND_AND_PRECISE;
+    }
+
+    shutdownNotifier.shutdownIfNecessary();
+    logger.log(Level.INFO, String.format(Locale.ENGLISH,
+        "No error found in %d completed samples, error rate is at most %.6f with confidence %.6f",
+        numberOfSamples, achievedErrorRate(numberOfSamples, confidence), confidence));
+
+    // sampling cannot prove the program correct
+    return AlgorithmStatus.UNSOUND_AND_PRECISE;
+  }
+
+  /** The number of executions that terminated or reached the error. */
+  private int sumOfOutcomes() {
+    return outcomes.get(Outcome.TARGET_REACHED.ordinal())
+        + outcomes.get(Outcome.TERMINATED.ordinal());
+  }
+
+  private final Predicate<CFAEdge> isError = new Predicate<CFAEdge>() {
+    @Override
+    public boolean apply(CFAEdge pEdge) {
+      switch (pEdge.getEdgeType()) {
+      case MultiEdge:
+        return Iterables.any(((MultiEdge) pEdge).getEdges(), this);
+      case FunctionCallEdge:
+        return ((CFunctionCallEdge) pEdge).getSuccessor().getFunctionName().equals(errorFunction);
+      case StatementEdge:
+        if (((CStatementEdge) pEdge).getStatement() instanceof CFunctionCall) {
+          CExpression function = ((CFunctionCall) ((CStatementEdge) pEdge).getStatement())
+              .getFunctionCallExpression().getFunctionNameExpression();
+          return function instanceof CIdExpression
+              && ((CIdExpression) function).getName().equals(errorFunction);
+        }
+        return false;
+      default:
+        return false;
+      }
+    }
+  };
+
+  /**
+   * Supplies uniformly distributed random bit patterns for all inputs.
+   * The interpreter casts them to the type of the input.
+   */
+  private static class RandomInputs implements InputSupplier {
+
+    private final Random random;
+
+    private RandomInputs(long pSeed, long pSample) {
+      // golden ratio increment for decorrelating seeds of consecutive samples
+      random = new Random(pSeed + pSample * 0x9E3779B97F4A7C15L);
+    }
+
+    @Override
+    public Value getInput(int pStep, CFAEdge pEdge, CLeftHandSide pLhs, CType pType) {
+      CType type = pType.getCanonicalType();
+      if (type instanceof CSimpleType) {
+        switch (((CSimpleType) type).getType()) {
+        case FLOAT:
+          return new NumericValue(Float.intBitsToFloat(random.nextInt()));
+        case DOUBLE:
+          return new NumericValue(Double.longBitsToDouble(random.nextLong()));
+        default:
+          return new NumericValue(random.nextLong());
+        }
+      }
+      // pointers and other values are not randomized
+      return null;
+    }
+  }
+
+  /**
+   * Adds a path to the error to the reached set.
+   * If possible, the path is created by following the edges of the execution
+   * with the transfer relation of the analysis, such that the ARG contains a regular counterexample.
+   */
+  private void addErrorPath(ReachedSet pReached, List<CFAEdge> pPath) throws CPAException, InterruptedException {
+    AbstractState first = pReached.getFirstState();
+    Precision precision = pReached.getPrecision(first);
+    pReached.removeOnlyFromWaitlist(first);
+
+    if (!(cpa instanceof ARGCPA && first instanceof ARGState)) {
+      pReached.add(new DummyErrorState(first), precision);
+      pReached.removeOnlyFromWaitlist(pReached.getLastState());
+      return;
+    }
+
+    TransferRelation transfer = Iterables.getOnlyElement(((ARGCPA) cpa).getWrappedCPAs()).getTransferRelation();
+    ARGState current = (ARGState) first;
+    for (CFAEdge edge : pPath) {
+      Collection<? extends AbstractState> successors;
+      try {
+        successors = transfer.getAbstractSuccessorsForEdge(current.getWrappedState(), precision, edge);
+      } catch (UnsupportedOperationException e) {
+        logger.logDebugException(e, "Cannot follow error path of random sample with analysis");
+        break;
+      }
+      if (successors.isEmpty()) {
+        logger.log(Level.WARNING, "Error path of random sample is infeasible for the analysis at edge", edge);
+        break;
+      }
+      current = new ARGState(successors.iterator().next(), current);
+      pReached.add(current, precision);
+      pReached.removeOnlyFromWaitlist(current);
+      if (current.isTarget()) {
+        return;
+      }
+    }
+
+    // the analysis did not detect the error (e.g., because of a missing specification)
+    ARGState error = new DummyErrorState(current.getWrappedState());
+    error.addParent(current);
+    pReached.add(error, precision);
+    pReached.removeOnlyFromWaitlist(error);
+  }
+
+  private void computeCoverage(List<Set<CFAEdge>> pVisitedEdges) {
+    Set<CFAEdge> visited = new HashSet<>();
+    for (Set<CFAEdge> edges : pVisitedEdges) {
+      visited.addAll(edges);
+    }
+    Set<String> visitedFunctions = new HashSet<>();
+    for (CFAEdge edge : visited) {
+      visitedFunctions.add(edge.getPredecessor().getFunctionName());
+    }
+
+    for (CFANode node : cfa.getAllNodes()) {
+      for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+        boolean isVisited = visited.contains(edge);
+        if (edge instanceof MultiEdge) {
+          for (CFAEdge innerEdge : ((MultiEdge) edge).getEdges()) {
+            coverage.handleEdgeCoverage(innerEdge, isVisited);
+          }
+        } else {
+          coverage.handleEdgeCoverage(edge, isVisited);
+        }
+      }
+    }
+    for (FunctionEntryNode entryNode : cfa.getAllFunctionHeads()) {
+      if (coverage.putExistingFunction(entryNode) && visitedFunctions.contains(entryNode.getFunctionName())) {
+        coverage.addVisitedFunction(entryNode);
+      }
+    }
+  }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    pStatsCollection.add(this);
+    pStatsCollection.add(coverageStatistics);
+  }
+
+  @Override
+  public String getName() {
+    return "Random Sampling";
+  }
+
+  @Override
+  public void printStatistics(PrintStream out, Result pResult, ReachedSet pReached) {
+    out.println("Number of required samples:          " + requiredSamples);
+    out.println("Number of completed samples:         " + numberOfSamples);
+    for (Outcome outcome : Outcome.values()) {
+      int count = outcomes.get(outcome.ordinal());
+      if (count > 0) {
+        out.println("  " + String.format("%-35s", outcome + ":") + count);
+      }
+    }
+    out.println("Number of executed edges:            " + executedEdges.get());
+    out.println("Time for sampling:                   " + samplingTime);
+    long millis = samplingTime.getSumTime().asMillis();
+    if (millis > 0) {
+      long executions = 0;
+      for (Outcome outcome : Outcome.values()) {
+        executions += outcomes.get(outcome.ordinal());
+      }
+      out.println("Samples per second:                  " + (executions * 1000L / millis));
+    }
+    if (errorSample >= 0) {
+      out.println("Error found in sample:               " + errorSample
+          + " (" + toPercent(errorSample + 1, requiredSamples) + " of required samples)");
+    } else {
+      out.println(String.format(Locale.ENGLISH,
+          "PAC bound:                           error rate <= %.6f with confidence %.6f",
+          achievedErrorRate(numberOfSamples, confidence), confidence));
+    }
+  }
+}
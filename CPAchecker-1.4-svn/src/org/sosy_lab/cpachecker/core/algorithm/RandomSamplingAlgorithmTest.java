@@ -0,0 +1,155 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.collect.FluentIterable.from;
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.log.TestLogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.algorithm.Algorithm.AlgorithmStatus;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.location.LocationCPA;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class RandomSamplingAlgorithmTest {
+
+  private static final String PROGRAM_HEADER =
+        "extern int __VERIFIER_nondet_int();\n"
+      + "extern void __VERIFIER_error();\n";
+
+  @Test
+  public void testRequiredSamples() {
+    // values used by the PAC-MAN script
+    assertThat(RandomSamplingAlgorithm.requiredSamples(0.004, 0.98427195992)).isEqualTo(1036);
+    assertThat(RandomSamplingAlgorithm.requiredSamples(0.004, 0.985)).isEqualTo(1048);
+  }
+
+  @Test
+  public void testAchievedErrorRate() {
+    for (double errorRate : new double[] {0.1, 0.01, 0.004, 0.0001}) {
+      int samples = RandomSamplingAlgorithm.requiredSamples(errorRate, 0.99);
+      assertThat(RandomSamplingAlgorithm.achievedErrorRate(samples, 0.99)).isAtMost(errorRate);
+      assertThat(RandomSamplingAlgorithm.achievedErrorRate(samples - 1, 0.99)).isGreaterThan(errorRate);
+    }
+    assertThat(RandomSamplingAlgorithm.achievedErrorRate(0, 0.99)).isWithin(1e-9).of(1.0);
+  }
+
+  @Test
+  public void testErrorPath() throws Exception {
+    String program = PROGRAM_HEADER
+        + "int main() {\n"
+        + "  int x = __VERIFIER_nondet_int();\n"
+        + "  if (x > 0) {\n"
+        + "    __VERIFIER_error();\n"
+        + "  }\n"
+        + "  return 0;\n"
+        + "}\n";
+
+    Sampling sampling = new Sampling(program);
+    assertThat(sampling.run()).isEqualTo(AlgorithmStatus.SOUND_AND_PRECISE);
+    assertThat(from(sampling.reached).anyMatch(AbstractStates.IS_TARGET_STATE)).isTrue();
+    assertThat(sampling.statistics()).containsMatch("Error found in sample:\\s+\\d+");
+  }
+
+  @Test
+  public void testCoverage() throws Exception {
+    String program = PROGRAM_HEADER
+        + "int main() {\n"
+        + "  int x = __VERIFIER_nondet_int();\n"
+        + "  int y;\n"
+        + "  if (x > 0) {\n"
+        + "    y = 1;\n"
+        + "  } else {\n"
+        + "    y = 2;\n"
+        + "  }\n"
+        + "  return y;\n"
+        + "}\n";
+
+    Sampling sampling = new Sampling(program);
+    assertThat(sampling.run()).isEqualTo(AlgorithmStatus.UNSOUND_AND_PRECISE);
+    assertThat(from(sampling.reached).anyMatch(AbstractStates.IS_TARGET_STATE)).isFalse();
+
+    String statistics = sampling.statistics();
+    assertThat(statistics).containsMatch("Number of completed samples:\\s+100\\b");
+    // with random inputs, both branches are taken
+    assertThat(statistics).containsMatch("Condition coverage:\\s+1\\.000");
+  }
+
+  /** Random sampling of a program with a fixed seed and a location-only analysis. */
+  private static class Sampling {
+
+    private final RandomSamplingAlgorithm algorithm;
+    private final ReachedSet reached;
+
+    private Sampling(String pProgram) throws Exception {
+      Configuration config = TestDataTools.configurationForTest()
+          .setOption("sampling.samples", "100")
+          .setOption("sampling.threads", "2")
+          .setOption("sampling.seed", "42")
+          .setOption("coverage.export", "false")
+          .build();
+      LogManager logger = TestLogManager.getInstance();
+      CFA cfa = TestDataTools.makeCFA(pProgram, config);
+
+      ConfigurableProgramAnalysis cpa = new LocationCPA(cfa, config);
+      algorithm = new RandomSamplingAlgorithm(cpa, cfa, config, logger, ShutdownNotifier.create());
+      reached = new ReachedSetFactory(config, logger).create();
+      StateSpacePartition partition = StateSpacePartition.getDefaultPartition();
+      reached.add(cpa.getInitialState(cfa.getMainFunction(), partition),
+          cpa.getInitialPrecision(cfa.getMainFunction(), partition));
+    }
+
+    private AlgorithmStatus run() throws Exception {
+      return algorithm.run(reached);
+    }
+
+    private String statistics() {
+      Collection<Statistics> stats = new ArrayList<>();
+      algorithm.collectStatistics(stats);
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      try (PrintStream out = new PrintStream(output)) {
+        for (Statistics statistics : stats) {
+          statistics.printStatistics(out, Result.UNKNOWN, reached);
+        }
+      }
+      return output.toString();
+    }
+  }
+}
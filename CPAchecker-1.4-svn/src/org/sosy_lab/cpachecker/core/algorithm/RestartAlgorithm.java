@@ -353,6 +353,10 @@ public class RestartAlgorithm implements Algorithm, StatisticsProvider {
           + "after the analysis has finished, works only with PredicateCPA")
           boolean useBMC = false;
 
+    @Option(secure=true, name="analysis.algorithm.randomSampling",
+        description="execute the program with random inputs for statistical verification")
+    private boolean useRandomSampling = false;
+
     @Option(secure=true, name="analysis.algorithm.CBMC",
         description="use CBMC as an external tool from CPAchecker")
         boolean runCBMCasExternalTool = false;
@@ -390,7 +394,7 @@ public class RestartAlgorithm implements Algorithm, StatisticsProvider {
     if (singleOptions.runCBMCasExternalTool) {
       algorithm = new ExternalCBMCAlgorithm(filename, singleConfig, singleLogger);
       cpa = null;
-      reached = new ReachedSetFactory(singleConfig, singleLogger).create();
+      reached = new ReachedSetFactory(singleConfig, singleLogger).create(cfa);
     } else {
       ReachedSetFactory singleReachedSetFactory = new ReachedSetFactory(singleConfig, singleLogger);
       cpa = createCPA(singleReachedSetFactory, singleConfig, singleLogger, singleShutdownNotifier, stats);
@@ -411,7 +415,7 @@ public class RestartAlgorithm implements Algorithm, StatisticsProvider {
     AbstractState initialState = cpa.getInitialState(mainFunction, StateSpacePartition.getDefaultPartition());
     Precision initialPrecision = cpa.getInitialPrecision(mainFunction, StateSpacePartition.getDefaultPartition());
 
-    ReachedSet reached = pReachedSetFactory.create();
+    ReachedSet reached = pReachedSetFactory.create(cfa);
     reached.add(initialState, initialPrecision);
     return reached;
   }
@@ -439,6 +443,10 @@ public class RestartAlgorithm implements Algorithm, StatisticsProvider {
   throws InvalidConfigurationException, CPAException {
     singleLogger.log(Level.FINE, "Creating algorithms");
 
+    if (pOptions.useRandomSampling) {
+      return new RandomSamplingAlgorithm(cpa, cfa, pConfig, singleLogger, singleShutdownNotifier);
+    }
+
     Algorithm algorithm = CPAAlgorithm.create(cpa, singleLogger, pConfig, singleShutdownNotifier);
 
     if (pOptions.useCEGAR) {
@@ -31,6 +31,8 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.logging.Level;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -109,6 +111,17 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
       + "the SV-COMP 2013 competition contribution of ESBMC 1.20.")
   private boolean havocLoopTerminationConditionVariablesOnly = false;
 
+  @Option(secure=true, description="Check the inductive steps for the current bound k "
+      + "and for k+1 concurrently to the base case, each one with its own solver. "
+      + "Only used if induction is enabled.")
+  private boolean concurrentInduction = false;
+
+  @Option(secure=true, description="Keep one solver stack across all bounds and add only "
+      + "the formulas of the newly unrolled states for each bound. "
+      + "If a target state may be reachable, this is confirmed "
+      + "with the complete path formulas.")
+  private boolean incremental = false;
+
   protected final BMCStatistics stats;
   private final Algorithm algorithm;
   private final ConfigurableProgramAnalysis cpa;
@@ -116,6 +129,11 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
   private final ConfigurableProgramAnalysis stepCaseCPA;
   private final Algorithm stepCaseAlgorithm;
 
+  // only used for concurrent induction
+  private final ConfigurableProgramAnalysis nextStepCaseCPA;
+  private final Algorithm nextStepCaseAlgorithm;
+  private final ShutdownNotifier stepCaseShutdownNotifier;
+
   protected final InvariantGenerator invariantGenerator;
 
   private final FormulaManagerView fmgr;
@@ -151,16 +169,34 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
       induction = checkIfInductionIsPossible(pCFA, pLogger);
     }
 
+    // The invariant generator may be run repeatedly,
+    // but the step cases cannot be used anymore after concurrent steps were stopped.
+    concurrentInduction = concurrentInduction && induction && !pIsInvariantGenerator;
+
     if (induction) {
+      stepCaseShutdownNotifier = concurrentInduction
+          ? ShutdownNotifier.createWithParent(pShutdownNotifier)
+          : pShutdownNotifier;
       LogManager stepCaseLogger = logger.withComponentName("InductionStepCase");
-      CPABuilder builder = new CPABuilder(pConfig, stepCaseLogger, pShutdownNotifier, pReachedSetFactory);
+      CPABuilder builder = new CPABuilder(pConfig, stepCaseLogger, stepCaseShutdownNotifier, pReachedSetFactory);
       stepCaseCPA = builder.buildCPAWithSpecAutomatas(cfa);
-      stepCaseAlgorithm = CPAAlgorithm.create(stepCaseCPA, stepCaseLogger, pConfig, pShutdownNotifier);
+      stepCaseAlgorithm = CPAAlgorithm.create(stepCaseCPA, stepCaseLogger, pConfig, stepCaseShutdownNotifier);
     } else {
+      stepCaseShutdownNotifier = pShutdownNotifier;
       stepCaseCPA = null;
       stepCaseAlgorithm = null;
     }
 
+    if (concurrentInduction) {
+      LogManager nextStepCaseLogger = logger.withComponentName("InductionNextStepCase");
+      CPABuilder builder = new CPABuilder(pConfig, nextStepCaseLogger, stepCaseShutdownNotifier, pReachedSetFactory);
+      nextStepCaseCPA = builder.buildCPAWithSpecAutomatas(cfa);
+      nextStepCaseAlgorithm = CPAAlgorithm.create(nextStepCaseCPA, nextStepCaseLogger, pConfig, stepCaseShutdownNotifier);
+    } else {
+      nextStepCaseCPA = null;
+      nextStepCaseAlgorithm = null;
+    }
+
     if (!pIsInvariantGenerator
         && induction
         && addInvariantsByInduction) {
@@ -226,16 +262,31 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
       }
 
       AlgorithmStatus status;
+      int iteration = 0;
 
       try (ProverEnvironment prover = solver.newProverEnvironmentWithModelGeneration();
           @SuppressWarnings("resource")
-          KInductionProver kInductionProver = createInductionProver()) {
+          IncrementalReachabilityChecker incrementalChecker = incremental
+              ? new IncrementalReachabilityChecker(solver, pmgr, stats)
+              : null;
+          @SuppressWarnings("resource")
+          KInductionProver kInductionProver = createInductionProver();
+          @SuppressWarnings("resource")
+          KInductionProver nextKInductionProver = createNextStepInductionProver();
+          // closed first, it stops the steps that still use the provers
+          @SuppressWarnings("resource")
+          ConcurrentInductionSteps concurrentSteps = concurrentInduction
+              ? new ConcurrentInductionSteps(kInductionProver, nextKInductionProver, stepCaseShutdownNotifier, stats)
+              : null) {
 
         do {
           shutdownNotifier.shutdownIfNecessary();
 
           logger.log(Level.INFO, "Creating formula for program");
           status = BMCHelper.unroll(logger, reachedSet, algorithm, cpa);
+          iteration++;
+          BoundsCPA boundsCPA = CPAs.retrieveCPA(cpa, BoundsCPA.class);
+          stats.setCurrentBound(boundsCPA != null ? boundsCPA.getMaxLoopIterations() : iteration);
           if (from(reachedSet)
               .skip(1) // first state of reached is always an abstraction state, so skip it
               .transform(toState(PredicateAbstractState.class))
@@ -254,13 +305,19 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
             return AlgorithmStatus.SOUND_AND_PRECISE;
           }
 
+          if (concurrentSteps != null && status.isSound()) {
+            // the inductive steps run while the base case is checked
+            concurrentSteps.start(getCurrentBound(), from(candidateGenerator).toSet());
+            stats.baseCaseBranch.start();
+          }
+
           // Perform a bounded model check on each candidate invariant
           Iterator<CandidateInvariant> candidateInvariantIterator = candidateGenerator.iterator();
           while (candidateInvariantIterator.hasNext()) {
             CandidateInvariant candidateInvariant = candidateInvariantIterator.next();
             // first check safety in k iterations
 
-            boolean safe = boundedModelCheck(reachedSet, prover, candidateInvariant);
+            boolean safe = boundedModelCheck(reachedSet, prover, incrementalChecker, candidateInvariant);
             if (!safe) {
               candidateInvariantIterator.remove();
             }
@@ -277,17 +334,31 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
           if (status.isSound()) {
 
             // check bounding assertions
-            sound = candidateGenerator.hasCandidatesAvailable() ? checkBoundingAssertions(reachedSet, prover) : true;
+            sound = candidateGenerator.hasCandidatesAvailable() ? checkBoundingAssertions(reachedSet, prover, incrementalChecker) : true;
+            if (stats.baseCaseBranch.isRunning()) {
+              stats.baseCaseBranch.stop();
+            }
 
             if (invariantGenerator.isProgramSafe()) {
               return AlgorithmStatus.SOUND_AND_PRECISE;
             }
 
             // try to prove program safety via induction
-            if (induction) {
-              final int k = CPAs.retrieveCPA(cpa, BoundsCPA.class).getMaxLoopIterations();
+            if (concurrentSteps != null) {
+              // the first conclusive answer decides: if the base case is already sound,
+              // the steps still running are not waited for (and stopped when closing),
+              // but the candidates confirmed by the finished steps are still used
+              sound = sound || concurrentSteps.getResult(getCurrentBound());
+              Collection<CandidateInvariant> confirmedCandidates =
+                  concurrentSteps.getConfirmedCandidates(getCurrentBound());
+              candidateGenerator.confirmCandidates(confirmedCandidates);
+              candidatesConfirmed(confirmedCandidates);
+            } else if (induction) {
+              final int k = getCurrentBound();
               sound = sound || kInductionProver.check(k, from(candidateGenerator).toSet());
-              candidateGenerator.confirmCandidates(kInductionProver.getConfirmedCandidates());
+              Collection<CandidateInvariant> confirmedCandidates = kInductionProver.getConfirmedCandidates();
+              candidateGenerator.confirmCandidates(confirmedCandidates);
+              candidatesConfirmed(confirmedCandidates);
             }
             if (invariantGenerator.isProgramSafe()
                 || (sound && !candidateGenerator.produceMoreCandidates())) {
@@ -308,6 +379,20 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
     }
   }
 
+  private int getCurrentBound() {
+    return CPAs.retrieveCPA(cpa, BoundsCPA.class).getMaxLoopIterations();
+  }
+
+  /**
+   * Called after each induction check with all candidate invariants
+   * that were confirmed so far.
+   *
+   * @param pConfirmedCandidates the confirmed candidate invariants.
+   */
+  protected void candidatesConfirmed(Collection<CandidateInvariant> pConfirmedCandidates) {
+    // nothing to do by default
+  }
+
   /**
    * Gets the candidate invariants to be checked.
    *
@@ -337,7 +422,24 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
   }
 
 
-  protected boolean boundedModelCheck(final ReachedSet pReachedSet, final ProverEnvironment pProver, CandidateInvariant pInductionProblem) throws CPATransferException, InterruptedException, SolverException {
+  protected boolean boundedModelCheck(final ReachedSet pReachedSet, final ProverEnvironment pProver,
+      @Nullable IncrementalReachabilityChecker pIncrementalChecker, CandidateInvariant pInductionProblem)
+      throws CPATransferException, InterruptedException, SolverException {
+    if (pIncrementalChecker != null && pInductionProblem == TargetLocationCandidateInvariant.INSTANCE) {
+      logger.log(Level.INFO, "Starting incremental satisfiability check...");
+      stats.incrementalCheck.start();
+      boolean safe = !pIncrementalChecker.mayBeReachable(from(pReachedSet).filter(IS_TARGET_STATE));
+      stats.incrementalCheck.stop();
+      stats.addSolverTime(stats.incrementalCheck.getLengthOfLastInterval());
+
+      if (safe) {
+        pInductionProblem.assumeTruth(pReachedSet);
+        return true;
+      }
+      // the incremental encoding may over-approximate the path formulas,
+      // the complete ones confirm the violation and provide the counterexample
+    }
+
     BooleanFormula program = bfmgr.not(pInductionProblem.getAssertion(pReachedSet, fmgr, pmgr));
     logger.log(Level.INFO, "Starting satisfiability check...");
     stats.satCheck.start();
@@ -345,6 +447,7 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
     boolean safe = pProver.isUnsat();
     // Leave program formula on solver stack until error path is created
     stats.satCheck.stop();
+    stats.addSolverTime(stats.satCheck.getLengthOfLastInterval());
 
     if (safe) {
       pInductionProblem.assumeTruth(pReachedSet);
@@ -383,18 +486,35 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
    * model check, i.e. where the bounded model check stopped.
    * @param prover the prover to be used to prove that the stop states are
    * unreachable.
+   * @param pIncrementalChecker the checker to be used instead of the prover
+   * if the incremental mode is enabled, {@code null} otherwise. An
+   * over-approximation of the stop states only causes further unrolling.
    *
    * @return {@code true} if the bounded model check covered all reachable
    * states and was thus sound, {@code false} otherwise.
    *
+   * @throws CPATransferException if the formulas of the unrolled edges
+   * cannot be created for the incremental check.
    * @throws InterruptedException if the satisfiability check is interrupted.
    */
-  private boolean checkBoundingAssertions(final ReachedSet pReachedSet, final ProverEnvironment prover)
-      throws SolverException, InterruptedException {
+  private boolean checkBoundingAssertions(final ReachedSet pReachedSet, final ProverEnvironment prover,
+      @Nullable IncrementalReachabilityChecker pIncrementalChecker)
+      throws SolverException, CPATransferException, InterruptedException {
     FluentIterable<AbstractState> stopStates = from(pReachedSet)
                                                     .filter(IS_STOP_STATE);
 
-    if (boundingAssertions) {
+    if (boundingAssertions && pIncrementalChecker != null) {
+      logger.log(Level.INFO, "Starting incremental assertions check...");
+
+      stats.assertionsCheck.start();
+      boolean sound = !pIncrementalChecker.mayBeReachable(stopStates);
+      stats.assertionsCheck.stop();
+      stats.addSolverTime(stats.assertionsCheck.getLengthOfLastInterval());
+
+      logger.log(Level.FINER, "Soundness after assertion checks:", sound);
+      return sound;
+
+    } else if (boundingAssertions) {
       // create formula for unwinding assertions
       BooleanFormula assertions = BMCHelper.createFormulaFor(stopStates, bfmgr);
 
@@ -405,6 +525,7 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
       boolean sound = prover.isUnsat();
       prover.pop();
       stats.assertionsCheck.stop();
+      stats.addSolverTime(stats.assertionsCheck.getLengthOfLastInterval());
 
       logger.log(Level.FINER, "Soundness after assertion checks:", sound);
       return sound;
@@ -436,6 +557,24 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
         stats,
         reachedSetFactory,
         havocLoopTerminationConditionVariablesOnly,
-        shutdownNotifier) : null;
+        stepCaseShutdownNotifier) : null;
+  }
+
+  /**
+   * Creates the prover for the speculative inductive step for k+1
+   * if induction is run concurrently.
+   * It has its own statistics, because it is used at the same time as the other prover.
+   */
+  private KInductionProver createNextStepInductionProver() {
+    return concurrentInduction ? new KInductionProver(
+        cfa,
+        logger,
+        nextStepCaseAlgorithm,
+        nextStepCaseCPA,
+        invariantGenerator,
+        new BMCStatistics(),
+        reachedSetFactory,
+        havocLoopTerminationConditionVariablesOnly,
+        stepCaseShutdownNotifier) : null;
   }
 }
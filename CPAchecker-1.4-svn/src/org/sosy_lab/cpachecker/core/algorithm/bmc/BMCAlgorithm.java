@@ -31,6 +31,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
@@ -146,12 +148,14 @@ public class BMCAlgorithm extends AbstractBMCAlgorithm implements Algorithm {
   }
 
   @Override
-  protected boolean boundedModelCheck(final ReachedSet pReachedSet, final ProverEnvironment pProver, CandidateInvariant pInductionProblem) throws CPATransferException, InterruptedException, SolverException {
+  protected boolean boundedModelCheck(final ReachedSet pReachedSet, final ProverEnvironment pProver,
+      @Nullable IncrementalReachabilityChecker pIncrementalChecker, CandidateInvariant pInductionProblem)
+      throws CPATransferException, InterruptedException, SolverException {
     if (!checkTargetStates) {
       return true;
     }
 
-    return super.boundedModelCheck(pReachedSet, pProver, pInductionProblem);
+    return super.boundedModelCheck(pReachedSet, pProver, pIncrementalChecker, pInductionProblem);
   }
 
   /**
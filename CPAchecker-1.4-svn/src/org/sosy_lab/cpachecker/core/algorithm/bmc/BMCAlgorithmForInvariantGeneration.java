@@ -38,32 +38,40 @@ import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.algorithm.Algorithm;
+import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantChannel;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.CFAUtils;
 import org.sosy_lab.solver.api.BooleanFormula;
+import org.sosy_lab.solver.api.BooleanFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.interfaces.PathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.interfaces.view.FormulaManagerView;
 
 import com.google.common.base.Verify;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 
 public class BMCAlgorithmForInvariantGeneration extends AbstractBMCAlgorithm {
 
   private InvariantSupplier locationInvariantsProvider = InvariantSupplier.TrivialInvariantSupplier.INSTANCE;
 
+  private final InvariantChannel channel;
+
+  private int numberOfPublishedCandidates = 0;
+
   public BMCAlgorithmForInvariantGeneration(Algorithm pAlgorithm, ConfigurableProgramAnalysis pCPA,
                       Configuration pConfig, LogManager pLogger,
                       ReachedSetFactory pReachedSetFactory,
                       ShutdownNotifier pShutdownNotifier, CFA pCFA,
-                      BMCStatistics pBMCStatistics)
+                      BMCStatistics pBMCStatistics, InvariantChannel pChannel)
                       throws InvalidConfigurationException, CPAException {
     super(pAlgorithm, pCPA, pConfig, pLogger, pReachedSetFactory, pShutdownNotifier, pCFA,
         pBMCStatistics,
         true /* invariant generator */ );
     Verify.verify(checkIfInductionIsPossible(pCFA, pLogger));
+    channel = pChannel;
   }
 
   public InvariantSupplier getCurrentInvariants() {
@@ -111,6 +119,42 @@ public class BMCAlgorithmForInvariantGeneration extends AbstractBMCAlgorithm {
     return assumeEdges;
   }
 
+  @Override
+  protected void candidatesConfirmed(Collection<CandidateInvariant> pConfirmedCandidates) {
+    // the channel requires snapshots, so publish a fixed copy of the confirmed candidates
+    if (pConfirmedCandidates.size() > numberOfPublishedCandidates) {
+      numberOfPublishedCandidates = pConfirmedCandidates.size();
+      channel.publish(new ConfirmedCandidatesSupplier(ImmutableList.copyOf(pConfirmedCandidates)));
+    }
+  }
+
+  /**
+   * Immutable supplier of the candidate invariants confirmed up to some point,
+   * which is not affected by candidates that are confirmed later on.
+   */
+  private static class ConfirmedCandidatesSupplier implements InvariantSupplier {
+
+    private final ImmutableList<CandidateInvariant> confirmedCandidates;
+
+    private ConfirmedCandidatesSupplier(ImmutableList<CandidateInvariant> pConfirmedCandidates) {
+      confirmedCandidates = pConfirmedCandidates;
+    }
+
+    @Override
+    public BooleanFormula getInvariantFor(CFANode location, FormulaManagerView fmgr, PathFormulaManager pfmgr) {
+      BooleanFormulaManager bfmgr = fmgr.getBooleanFormulaManager();
+      BooleanFormula invariant = bfmgr.makeBoolean(true);
+      try {
+        for (CandidateInvariant confirmedCandidate : confirmedCandidates) {
+          invariant = bfmgr.and(invariant, confirmedCandidate.getFormula(fmgr, pfmgr));
+        }
+      } catch (InterruptedException | CPAException e) {
+        return bfmgr.makeBoolean(true);
+      }
+      return invariant;
+    }
+  }
+
   @Override
   protected KInductionProver createInductionProver() {
     final KInductionProver prover = super.createInductionProver();
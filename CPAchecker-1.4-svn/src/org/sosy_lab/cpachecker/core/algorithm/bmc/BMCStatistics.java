@@ -24,33 +24,83 @@
 package org.sosy_lab.cpachecker.core.algorithm.bmc;
 
 import java.io.PrintStream;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
-import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.util.statistics.ConcurrentStatTimer;
 
 public class BMCStatistics implements Statistics {
 
-  final Timer satCheck = new Timer();
-  final Timer errorPathCreation = new Timer();
-  final Timer assertionsCheck = new Timer();
+  final ConcurrentStatTimer satCheck = new ConcurrentStatTimer("Time for final sat check");
+  final ConcurrentStatTimer errorPathCreation = new ConcurrentStatTimer("Time for error path creation");
+  final ConcurrentStatTimer assertionsCheck = new ConcurrentStatTimer("Time for bounding assertions check");
+  final ConcurrentStatTimer incrementalCheck = new ConcurrentStatTimer("Time for incremental sat check");
 
-  final Timer inductionPreparation = new Timer();
-  final Timer inductionCheck = new Timer();
+  final ConcurrentStatTimer inductionPreparation = new ConcurrentStatTimer("Time for induction formula creation");
+  final ConcurrentStatTimer inductionCheck = new ConcurrentStatTimer("Time for induction check");
   private int inductionCutPoints = 0;
 
+  // branches of concurrent k-induction
+  final ConcurrentStatTimer baseCaseBranch = new ConcurrentStatTimer("Time for base case");
+  final ConcurrentStatTimer evenInductionStepBranch = new ConcurrentStatTimer("Time for inductive steps with even k");
+  final ConcurrentStatTimer oddInductionStepBranch = new ConcurrentStatTimer("Time for inductive steps with odd k");
+  int speculativeInductionSteps = 0;
+
+  // literal definitions of the incremental reachability checks
+  int incrementalDefinitions = 0;
+  int incrementalFallbacks = 0;
+
+  // time spent in the sat checks of BMC for each bound
+  private final Map<Integer, TimeSpan> solverTimePerBound = new TreeMap<>();
+  private int currentBound = 0;
+
+  void setCurrentBound(int pBound) {
+    currentBound = pBound;
+  }
+
+  void addSolverTime(TimeSpan pTime) {
+    TimeSpan previous = solverTimePerBound.get(currentBound);
+    solverTimePerBound.put(currentBound,
+        previous == null ? pTime : TimeSpan.sum(previous, pTime));
+  }
+
   @Override
   public void printStatistics(PrintStream out, Result pResult, ReachedSet pReached) {
     if (satCheck.getNumberOfIntervals() > 0) {
       out.println("Time for final sat check:            " + satCheck);
     }
+    if (incrementalCheck.getNumberOfIntervals() > 0) {
+      out.println("Time for incremental sat check:      " + incrementalCheck);
+    }
     if (errorPathCreation.getNumberOfIntervals() > 0) {
       out.println("Time for error path creation:        " + errorPathCreation);
     }
     if (assertionsCheck.getNumberOfIntervals() > 0) {
       out.println("Time for bounding assertions check:  " + assertionsCheck);
     }
+    if (evenInductionStepBranch.getNumberOfIntervals() + oddInductionStepBranch.getNumberOfIntervals() > 0) {
+      out.println("Time for base case:                  " + baseCaseBranch);
+      out.println("Time for inductive steps, even k:    " + evenInductionStepBranch);
+      out.println("Time for inductive steps, odd k:     " + oddInductionStepBranch);
+      out.println("Number of speculative steps used:    " + speculativeInductionSteps);
+    }
+    if (incrementalDefinitions > 0) {
+      out.println("Number of incremental definitions:   " + incrementalDefinitions);
+      out.println("  of which with full path formula:   " + incrementalFallbacks);
+    }
+    if (!solverTimePerBound.isEmpty()) {
+      out.println("Time for sat checks per bound:");
+      for (Entry<Integer, TimeSpan> entry : solverTimePerBound.entrySet()) {
+        out.println("  Bound " + entry.getKey() + ": "
+            + entry.getValue().formatAs(TimeUnit.SECONDS));
+      }
+    }
     if (inductionCheck.getNumberOfIntervals() > 0) {
       out.println("Number of cut points for induction:  " + inductionCutPoints);
       out.println("Time for induction formula creation: " + inductionPreparation);
@@ -0,0 +1,230 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.concurrency.Threads;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.statistics.ConcurrentStatTimer;
+import org.sosy_lab.solver.SolverException;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Runs the inductive steps of k-induction concurrently to the base case.
+ *
+ * For a bound k, the step for k is started together with a speculative step for k+1,
+ * such that the result of the latter is usually available
+ * when the base case for k+1 has been checked.
+ * The steps for even bounds are run by one {@link KInductionProver}
+ * and the steps for odd bounds by a second one, so the two provers alternate.
+ * Each prover has its own step-case CPA and thus its own solver instance,
+ * and each prover works on its own thread,
+ * so the bounds given to a prover are increasing as required by it.
+ *
+ * A speculative step is reused for the next bound
+ * if the candidates to check are a subset of the candidates it was started with,
+ * because each candidate is proven separately.
+ * Otherwise the step is repeated with the current candidates,
+ * but the candidates confirmed by the speculative step are still used.
+ */
+final class ConcurrentInductionSteps implements AutoCloseable {
+
+  private static class Step {
+    private final int k;
+    private final Set<CandidateInvariant> candidates;
+    private final Future<Collection<CandidateInvariant>> confirmedCandidates;
+
+    private Step(int pK, Set<CandidateInvariant> pCandidates,
+        Future<Collection<CandidateInvariant>> pConfirmedCandidates) {
+      k = pK;
+      candidates = pCandidates;
+      confirmedCandidates = pConfirmedCandidates;
+    }
+  }
+
+  private final KInductionProver evenStepProver;
+  private final KInductionProver oddStepProver;
+  private final ShutdownNotifier stepCaseShutdownNotifier;
+  private final BMCStatistics stats;
+
+  // One thread per prover, tasks of a prover are executed in submission order.
+  private final ExecutorService evenStepExecutor;
+  private final ExecutorService oddStepExecutor;
+
+  // the latest step for each bound
+  private final Map<Integer, Step> currentSteps = new HashMap<>();
+
+  // all steps that were started, including the ones that were repeated
+  private final List<Step> allSteps = new ArrayList<>();
+
+  // the candidates to check for each bound
+  private final Map<Integer, Set<CandidateInvariant>> requestedCandidates = new HashMap<>();
+
+  ConcurrentInductionSteps(KInductionProver pEvenStepProver, KInductionProver pOddStepProver,
+      ShutdownNotifier pStepCaseShutdownNotifier, BMCStatistics pStats) {
+    evenStepProver = checkNotNull(pEvenStepProver);
+    oddStepProver = checkNotNull(pOddStepProver);
+    stepCaseShutdownNotifier = checkNotNull(pStepCaseShutdownNotifier);
+    stats = checkNotNull(pStats);
+
+    // important to use daemon threads here, because the analysis may end without closing us
+    evenStepExecutor = Executors.newSingleThreadExecutor(
+        Threads.threadFactoryBuilder().setDaemon(true).setNameFormat("InductionStepEven").build());
+    oddStepExecutor = Executors.newSingleThreadExecutor(
+        Threads.threadFactoryBuilder().setDaemon(true).setNameFormat("InductionStepOdd").build());
+  }
+
+  /**
+   * Starts the inductive steps for k and k+1,
+   * unless they have already been started for a previous bound
+   * with a superset of the given candidates.
+   */
+  void start(int k, Set<CandidateInvariant> pCandidates) {
+    requestedCandidates.put(k, pCandidates);
+    Step step = currentSteps.get(k);
+    if (step == null || !step.candidates.containsAll(pCandidates)) {
+      submit(k, pCandidates);
+    } else {
+      stats.speculativeInductionSteps++;
+    }
+    if (!currentSteps.containsKey(k + 1)) {
+      submit(k + 1, pCandidates);
+    }
+  }
+
+  private void submit(int k, Set<CandidateInvariant> pCandidates) {
+    Callable<Collection<CandidateInvariant>> task = k % 2 == 0
+        ? createStep(evenStepProver, k, pCandidates, stats.evenInductionStepBranch)
+        : createStep(oddStepProver, k, pCandidates, stats.oddInductionStepBranch);
+    ExecutorService executor = k % 2 == 0 ? evenStepExecutor : oddStepExecutor;
+
+    Step step = new Step(k, pCandidates, executor.submit(task));
+    currentSteps.put(k, step);
+    allSteps.add(step);
+  }
+
+  private static Callable<Collection<CandidateInvariant>> createStep(final KInductionProver pProver,
+      final int k, final Set<CandidateInvariant> pCandidates, final ConcurrentStatTimer pTimer) {
+    return new Callable<Collection<CandidateInvariant>>() {
+      @Override
+      public Collection<CandidateInvariant> call()
+          throws CPAException, InterruptedException, SolverException {
+        pTimer.start();
+        try {
+          pProver.check(k, pCandidates);
+          return pProver.getConfirmedCandidates();
+        } finally {
+          pTimer.stop();
+        }
+      }
+    };
+  }
+
+  /**
+   * Waits for the inductive step for k, which needs to be started before.
+   *
+   * @return whether k-induction proved all candidate invariants given for k.
+   */
+  boolean getResult(int k) throws CPAException, InterruptedException, SolverException {
+    Step step = currentSteps.get(k);
+    checkNotNull(step, "inductive step was not started");
+
+    Collection<CandidateInvariant> confirmed;
+    try {
+      confirmed = step.confirmedCandidates.get();
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.propagateIfInstanceOf(t, InterruptedException.class);
+      Throwables.propagateIfPossible(t, CPAException.class, SolverException.class);
+      throw new UnexpectedCheckedException("inductive step", t);
+    }
+    return confirmed.containsAll(requestedCandidates.get(k));
+  }
+
+  /**
+   * Gets the candidates confirmed by all steps for bounds up to k that have finished,
+   * without waiting for the steps that are still running.
+   * This should only be called after the base case for k has been checked.
+   */
+  Collection<CandidateInvariant> getConfirmedCandidates(int k) {
+    Set<CandidateInvariant> result = new HashSet<>();
+    for (Step step : allSteps) {
+      if (step.k <= k && step.confirmedCandidates.isDone()) {
+        try {
+          result.addAll(step.confirmedCandidates.get());
+        } catch (ExecutionException | InterruptedException e) {
+          // cannot happen for the interruption, because the step is done,
+          // and failed steps are reported by getResult
+        }
+      }
+    }
+    return ImmutableSet.copyOf(result);
+  }
+
+  /**
+   * Stops all steps that are still running, which is only necessary
+   * if the analysis was decided before their result was needed.
+   * The step-case analyses cannot be used afterwards.
+   */
+  @Override
+  public void close() {
+    boolean running = false;
+    for (Step step : allSteps) {
+      running |= !step.confirmedCandidates.isDone();
+    }
+    if (running) {
+      stepCaseShutdownNotifier.requestShutdown("Result of k-induction already known");
+    }
+    // queued steps still run, but they terminate immediately after the shutdown request
+    evenStepExecutor.shutdown();
+    oddStepExecutor.shutdown();
+
+    // wait for the steps, the provers must not be closed while they are used
+    try {
+      evenStepExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      oddStepExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,246 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import static com.google.common.collect.FluentIterable.from;
+import static org.sosy_lab.cpachecker.util.AbstractStates.extractStateByType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.sosy_lab.common.UniqueIdGenerator;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.predicate.PredicateAbstractState;
+import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+import org.sosy_lab.cpachecker.util.predicates.Solver;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.PathFormulaManager;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.view.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
+import org.sosy_lab.solver.SolverException;
+import org.sosy_lab.solver.api.BooleanFormula;
+import org.sosy_lab.solver.api.InterpolatingProverEnvironmentWithAssumptions;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Checks the reachability of states of the BMC reached set with a single
+ * prover environment that is kept across all bounds.
+ *
+ * Each state of the ARG is represented by a literal whose definition contains
+ * only the formulas of the edges from its parents, guarded by their literals.
+ * Definitions are asserted once and stay on the solver stack, so the query
+ * for the next bound only adds the formulas of the newly unrolled states.
+ * The states of a query are selected by an assumption literal.
+ *
+ * If a path formula cannot be split into the formulas of the edges
+ * from the parents, the complete path formula is used instead.
+ * The encoding may still over-approximate path formulas that were strengthened
+ * without changing their SSA map, so only unreachability is conclusive.
+ */
+final class IncrementalReachabilityChecker implements AutoCloseable {
+
+  private static final String STATE_LITERAL_PREFIX = "__bmc_reached_";
+  private static final String QUERY_LITERAL_PREFIX = "__bmc_query_";
+
+  private static final class Definition {
+
+    private final BooleanFormula literal;
+    private final List<ARGState> parents;
+    private final List<BooleanFormula> parentLiterals;
+
+    private Definition(BooleanFormula pLiteral, List<ARGState> pParents,
+        List<BooleanFormula> pParentLiterals) {
+      literal = pLiteral;
+      parents = pParents;
+      parentLiterals = pParentLiterals;
+    }
+  }
+
+  private final UniqueIdGenerator literalIds = new UniqueIdGenerator();
+
+  private final BooleanFormulaManagerView bfmgr;
+  private final PathFormulaManager pmgr;
+  private final BMCStatistics stats;
+
+  private final InterpolatingProverEnvironmentWithAssumptions<?> prover;
+
+  private final Map<ARGState, Definition> definitions = new HashMap<>();
+
+  IncrementalReachabilityChecker(Solver pSolver, PathFormulaManager pPmgr, BMCStatistics pStats) {
+    bfmgr = pSolver.getFormulaManager().getBooleanFormulaManager();
+    pmgr = pPmgr;
+    stats = pStats;
+    prover = pSolver.newProverEnvironmentWithInterpolation();
+  }
+
+  /**
+   * Checks whether one of the given states may be reachable.
+   *
+   * @param pStates the states of the reached set to check.
+   *
+   * @return {@code false} if none of the states is reachable,
+   * {@code true} if one of them may be reachable.
+   */
+  boolean mayBeReachable(Iterable<AbstractState> pStates)
+      throws CPATransferException, InterruptedException, SolverException {
+    removeDestroyedStates();
+
+    List<BooleanFormula> newDefinitions = new ArrayList<>();
+    Set<ARGState> definedStates = new HashSet<>();
+    List<BooleanFormula> stateLiterals = new ArrayList<>();
+    for (ARGState state : from(pStates).filter(ARGState.class)) {
+      define(state, definedStates, newDefinitions);
+      stateLiterals.add(definitions.get(state).literal);
+    }
+    if (stateLiterals.isEmpty()) {
+      return false;
+    }
+
+    BooleanFormula query = bfmgr.makeVariable(QUERY_LITERAL_PREFIX + literalIds.getFreshId());
+    newDefinitions.add(bfmgr.implication(query, bfmgr.or(stateLiterals)));
+
+    // stays on the stack, later queries only add the definitions of new states
+    prover.push(bfmgr.and(newDefinitions));
+    return !prover.isUnsatWithAssumptions(ImmutableList.of(query));
+  }
+
+  /**
+   * Makes sure that the given state and all its ancestors have a definition
+   * that matches their current parents, adding new definitions where necessary.
+   */
+  private void define(ARGState pState, Set<ARGState> pDefinedStates,
+      List<BooleanFormula> pNewDefinitions) throws CPATransferException, InterruptedException {
+    Deque<ARGState> toDefine = new ArrayDeque<>();
+    toDefine.push(pState);
+    while (!toDefine.isEmpty()) {
+      ARGState state = toDefine.peek();
+      if (pDefinedStates.contains(state)) {
+        toDefine.pop();
+        continue;
+      }
+
+      boolean parentsDefined = true;
+      for (ARGState parent : state.getParents()) {
+        if (!pDefinedStates.contains(parent)) {
+          toDefine.push(parent);
+          parentsDefined = false;
+        }
+      }
+      if (!parentsDefined) {
+        continue;
+      }
+      toDefine.pop();
+
+      List<ARGState> parents = ImmutableList.copyOf(state.getParents());
+      List<BooleanFormula> parentLiterals = new ArrayList<>(parents.size());
+      for (ARGState parent : parents) {
+        parentLiterals.add(definitions.get(parent).literal);
+      }
+
+      // ARG states are replaced when merged, so a definition can only be reused
+      // as long as the parents (and thus the formulas of their edges) are unchanged
+      Definition definition = definitions.get(state);
+      if (definition == null
+          || !definition.parents.equals(parents)
+          || !definition.parentLiterals.equals(parentLiterals)) {
+        definition = new Definition(
+            bfmgr.makeVariable(STATE_LITERAL_PREFIX + literalIds.getFreshId()),
+            parents, parentLiterals);
+        pNewDefinitions.add(bfmgr.implication(definition.literal, makeBody(state, definition)));
+        definitions.put(state, definition);
+        stats.incrementalDefinitions++;
+      }
+      pDefinedStates.add(state);
+    }
+  }
+
+  private BooleanFormula makeBody(ARGState pState, Definition pDefinition)
+      throws CPATransferException, InterruptedException {
+    PathFormula pathFormula = getPathFormula(pState);
+    if (pDefinition.parents.isEmpty()) {
+      return pathFormula.getFormula();
+    }
+
+    PathFormula stepFormulas = makeStepFormulas(pState, pDefinition);
+    if (stepFormulas != null
+        && stepFormulas.getSsa().equals(pathFormula.getSsa())
+        && stepFormulas.getPointerTargetSet().equals(pathFormula.getPointerTargetSet())) {
+      return stepFormulas.getFormula();
+    }
+    stats.incrementalFallbacks++;
+    return pathFormula.getFormula();
+  }
+
+  /**
+   * Creates the disjunction of the formulas of the edges from the parents,
+   * each one guarded by the literal of the respective parent.
+   *
+   * @return the disjunction, or {@code null} if a parent is not connected
+   * to the state by a single edge.
+   */
+  private @Nullable PathFormula makeStepFormulas(ARGState pState, Definition pDefinition)
+      throws CPATransferException, InterruptedException {
+    PathFormula result = null;
+    for (int i = 0; i < pDefinition.parents.size(); i++) {
+      ARGState parent = pDefinition.parents.get(i);
+      CFAEdge edge = parent.getEdgeToChild(pState);
+      if (edge == null) {
+        return null;
+      }
+      PathFormula step = pmgr.makeAnd(pmgr.makeEmptyPathFormula(getPathFormula(parent)), edge);
+      step = step.updateFormula(bfmgr.and(pDefinition.parentLiterals.get(i), step.getFormula()));
+      result = result == null ? step : pmgr.makeOr(result, step);
+    }
+    return result;
+  }
+
+  private static PathFormula getPathFormula(ARGState pState) {
+    return extractStateByType(pState, PredicateAbstractState.class).getPathFormula();
+  }
+
+  private void removeDestroyedStates() {
+    Iterator<ARGState> it = definitions.keySet().iterator();
+    while (it.hasNext()) {
+      if (it.next().isDestroyed()) {
+        it.remove();
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    prover.close();
+  }
+}
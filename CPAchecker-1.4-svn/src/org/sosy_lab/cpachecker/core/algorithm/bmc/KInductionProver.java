@@ -39,6 +39,8 @@ import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.logging.Level;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
@@ -47,6 +49,7 @@ import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cfa.postprocessing.global.singleloop.CFASingleLoopTransformation;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.core.algorithm.Algorithm;
+import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantChannel;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantGenerator;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
@@ -80,6 +83,7 @@ import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap.SSAMapBuilder;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
@@ -131,6 +135,9 @@ class KInductionProver implements AutoCloseable {
 
   private InvariantSupplier invariantsSupplier;
 
+  // provides the invariants of an invariant generator that runs in parallel, if available
+  private final @Nullable InvariantSupplier invariantSubscription;
+
   private BooleanFormula loopHeadInvariants;
 
   private int stackDepth = 0;
@@ -176,6 +183,9 @@ class KInductionProver implements AutoCloseable {
     loopHeadInvariants = bfmgr.makeBoolean(true);
 
     invariantsSupplier = InvariantSupplier.TrivialInvariantSupplier.INSTANCE;
+
+    Optional<InvariantChannel> channel = invariantGenerator.getChannel();
+    invariantSubscription = channel.isPresent() ? channel.get().subscribe() : null;
   }
 
   public Collection<CandidateInvariant> getConfirmedCandidates() {
@@ -215,6 +225,10 @@ class KInductionProver implements AutoCloseable {
   }
 
   private InvariantSupplier getCurrentInvariantSupplier() throws InterruptedException {
+    if (invariantSubscription != null) {
+      // new invariants are picked up at each induction step without waiting for the generator
+      return invariantSubscription;
+    }
     if (!invariantGenerationRunning) {
       return invariantsSupplier;
     }
@@ -0,0 +1,536 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.interpreter;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.log.LogManagerWithoutDuplicates;
+import org.sosy_lab.cpachecker.cfa.ast.c.CAssignment;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpressionAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCall;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializers;
+import org.sosy_lab.cpachecker.cfa.ast.c.CLeftHandSide;
+import org.sosy_lab.cpachecker.cfa.ast.c.CParameterDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.AssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
+import org.sosy_lab.cpachecker.cfa.model.MultiEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CAssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionCallEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionReturnEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CReturnStatementEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CType;
+import org.sosy_lab.cpachecker.core.algorithm.interpreter.InterpreterMemory.InvalidMemoryAccessException;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.cpa.value.type.Value;
+import org.sosy_lab.cpachecker.exceptions.UnrecognizedCCodeException;
+import org.sosy_lab.cpachecker.util.BuiltinFunctions;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+
+/**
+ * Concrete interpreter for C programs given as CFA.
+ *
+ * The interpreter can either replay a given sequence of edges (e.g., a counterexample)
+ * and check whether all assumptions on it hold for given input values,
+ * or execute the program from a function entry, choosing the branches according to the
+ * concrete values.
+ * Inputs of the program are the return values of calls to functions without definition
+ * (e.g., __VERIFIER_nondet_int()), they are requested from an {@link InputSupplier}.
+ * Memory is modeled byte-precise according to the {@link MachineModel} in a single
+ * {@link InterpreterMemory}, such that pointer arithmetic, casts between pointer types,
+ * and dynamic allocation behave as in a real run of the program.
+ *
+ * Each run starts with a fresh state, so an instance can be reused for many runs.
+ */
+public class CFAInterpreter {
+
+  /** Supplier for the values of program inputs. */
+  public static interface InputSupplier {
+
+    /**
+     * Returns the value of an input.
+     *
+     * @param pStep The index of the current edge in the replayed path, or the number of executed edges.
+     * @param pEdge The edge with the call to the input function.
+     * @param pLhs The left-hand side the input is assigned to, or null if the value is discarded.
+     * @param pType The type of the input.
+     * @return the value, or null for the default value 0
+     */
+    @Nullable Value getInput(int pStep, CFAEdge pEdge, @Nullable CLeftHandSide pLhs, CType pType);
+  }
+
+  /** Input supplier that returns 0 for all inputs. */
+  public static final InputSupplier ZERO_INPUTS = new InputSupplier() {
+    @Override
+    public Value getInput(int pStep, CFAEdge pEdge, CLeftHandSide pLhs, CType pType) {
+      return null;
+    }
+  };
+
+  public static enum Outcome {
+    /** The replayed path was completely executed, or a target edge was reached. */
+    TARGET_REACHED,
+    /** An assumption does not hold for the given inputs. */
+    ASSUMPTION_VIOLATED,
+    /** The program terminated before reaching a target. */
+    TERMINATED,
+    /** The program accessed invalid memory. */
+    INVALID_MEMORY_ACCESS,
+    /** The maximal number of steps was executed. */
+    STEP_LIMIT_REACHED,
+  }
+
+  public static final class ExecutionResult {
+
+    private final Outcome outcome;
+    private final List<CFAEdge> executedEdges;
+    private final @Nullable String message;
+
+    private ExecutionResult(Outcome pOutcome, List<CFAEdge> pExecutedEdges, @Nullable String pMessage) {
+      outcome = pOutcome;
+      executedEdges = Collections.unmodifiableList(pExecutedEdges);
+      message = pMessage;
+    }
+
+    public Outcome getOutcome() {
+      return outcome;
+    }
+
+    /** The edges that were executed, the last edge is the one where execution stopped. */
+    public List<CFAEdge> getExecutedEdges() {
+      return executedEdges;
+    }
+
+    /** A description of an invalid memory access, if any. */
+    public @Nullable String getMessage() {
+      return message;
+    }
+
+    @Override
+    public String toString() {
+      return outcome + " after " + executedEdges.size() + " edges" + (message == null ? "" : ": " + message);
+    }
+  }
+
+  private final MachineModel machineModel;
+  private final LogManagerWithoutDuplicates logger;
+
+  // reused for all runs, reset in replay() and execute()
+  private InterpreterState state;
+  private InputSupplier inputs;
+  private int step;
+
+  public CFAInterpreter(MachineModel pMachineModel, LogManager pLogger) {
+    machineModel = pMachineModel;
+    logger = new LogManagerWithoutDuplicates(pLogger);
+  }
+
+  /**
+   * Replays a path of the CFA.
+   * The path needs to start in the function in which the analysis started
+   * (i.e., it needs to contain the declarations of global variables),
+   * and needs to be connected.
+   *
+   * @return {@link Outcome#TARGET_REACHED} if all edges could be executed
+   */
+  public ExecutionResult replay(List<CFAEdge> pPath, InputSupplier pInputs) throws UnrecognizedCCodeException {
+    checkArgument(!pPath.isEmpty(), "Cannot replay empty path");
+    start(pPath.get(0).getPredecessor().getFunctionName(), pInputs);
+
+    List<CFAEdge> executed = new ArrayList<>(pPath.size());
+    try {
+      for (step = 0; step < pPath.size(); step++) {
+        CFAEdge edge = pPath.get(step);
+        executed.add(edge);
+        if (!executeEdge(edge)) {
+          return new ExecutionResult(Outcome.ASSUMPTION_VIOLATED, executed, null);
+        }
+        if (state.isTerminated() && step < pPath.size() - 1) {
+          return new ExecutionResult(Outcome.TERMINATED, executed, null);
+        }
+      }
+    } catch (InvalidMemoryAccessException e) {
+      return new ExecutionResult(Outcome.INVALID_MEMORY_ACCESS, executed, e.getMessage());
+    }
+    return new ExecutionResult(Outcome.TARGET_REACHED, executed, null);
+  }
+
+  /**
+   * Executes the program starting at the given function entry,
+   * until a target edge is reached, the program terminates,
+   * or the maximal number of steps was executed.
+   * Target edges are not executed.
+   *
+   * @param pEntry The entry of the function where execution starts, usually the main function.
+   * @param pInputs The supplier for input values.
+   * @param pIsTarget Predicate that determines the target edges.
+   * @param pMaxSteps The maximal number of executed edges.
+   */
+  public ExecutionResult execute(CFunctionEntryNode pEntry, InputSupplier pInputs,
+      Predicate<? super CFAEdge> pIsTarget, int pMaxSteps) throws UnrecognizedCCodeException {
+    start(pEntry.getFunctionName(), pInputs);
+    List<CFAEdge> executed = new ArrayList<>();
+
+    try {
+      enterFunction(pEntry);
+
+      CFANode node = pEntry;
+      for (step = 0; step < pMaxSteps; step++) {
+        CFAEdge edge = chooseEdge(node);
+        if (edge == null) {
+          return new ExecutionResult(Outcome.TERMINATED, executed, null);
+        }
+        executed.add(edge);
+        if (pIsTarget.apply(edge)) {
+          return new ExecutionResult(Outcome.TARGET_REACHED, executed, null);
+        }
+        if (!executeEdge(edge)) {
+          return new ExecutionResult(Outcome.ASSUMPTION_VIOLATED, executed, null);
+        }
+        if (state.isTerminated()) {
+          return new ExecutionResult(Outcome.TERMINATED, executed, null);
+        }
+        node = edge.getSuccessor();
+      }
+    } catch (InvalidMemoryAccessException e) {
+      return new ExecutionResult(Outcome.INVALID_MEMORY_ACCESS, executed, e.getMessage());
+    }
+    return new ExecutionResult(Outcome.STEP_LIMIT_REACHED, executed, null);
+  }
+
+  private void start(String pFunctionName, InputSupplier pInputs) {
+    state = new InterpreterState(machineModel);
+    state.pushFrame(pFunctionName, null);
+    inputs = pInputs;
+    step = 0;
+  }
+
+  /**
+   * Chooses the edge that is taken from the given node according to the current state.
+   * @return the edge, or null if the program terminates at this node
+   */
+  private @Nullable CFAEdge chooseEdge(CFANode pNode) throws UnrecognizedCCodeException {
+    if (pNode instanceof FunctionExitNode) {
+      InterpreterState.Frame frame = state.getCurrentFrame();
+      if (frame.getCallSite() == null) {
+        return null; // return from entry function
+      }
+      for (CFAEdge edge : CFAUtils.leavingEdges(pNode)) {
+        if (((CFunctionReturnEdge) edge).getSummaryEdge().equals(frame.getCallSite())) {
+          return edge;
+        }
+      }
+      throw new AssertionError("Missing return edge to " + frame.getCallSite());
+    }
+
+    CFAEdge result = null;
+    for (CFAEdge edge : CFAUtils.leavingEdges(pNode)) {
+      if (edge instanceof AssumeEdge) {
+        if (holds((CAssumeEdge) edge)) {
+          return edge;
+        }
+      } else {
+        result = edge;
+      }
+    }
+    return result;
+  }
+
+  private boolean holds(CAssumeEdge pEdge) throws UnrecognizedCCodeException {
+    return visitor().evaluateCondition(pEdge.getExpression()) == pEdge.getTruthAssumption();
+  }
+
+  private InterpreterExpressionVisitor visitor() {
+    return new InterpreterExpressionVisitor(state, logger);
+  }
+
+  /**
+   * Executes an edge.
+   * @return false if the edge is an assumption that does not hold
+   */
+  private boolean executeEdge(CFAEdge pEdge) throws UnrecognizedCCodeException {
+    switch (pEdge.getEdgeType()) {
+    case BlankEdge:
+      return true;
+
+    case AssumeEdge:
+      return holds((CAssumeEdge) pEdge);
+
+    case DeclarationEdge:
+      declare((CDeclarationEdge) pEdge);
+      return true;
+
+    case StatementEdge:
+      return executeStatement((CStatementEdge) pEdge);
+
+    case ReturnStatementEdge:
+      Optional<CAssignment> assignment = ((CReturnStatementEdge) pEdge).asAssignment();
+      if (assignment.isPresent()) {
+        CAssignment returnAssignment = assignment.get();
+        assign(returnAssignment.getLeftHandSide(), visitor().evaluateTo(
+            returnAssignment.getRightHandSide(), returnAssignment.getLeftHandSide().getExpressionType()));
+      }
+      return true;
+
+    case FunctionCallEdge:
+      callFunction((CFunctionCallEdge) pEdge);
+      return true;
+
+    case FunctionReturnEdge:
+      returnFromFunction((CFunctionReturnEdge) pEdge);
+      return true;
+
+    case MultiEdge:
+      for (CFAEdge edge : (MultiEdge) pEdge) {
+        if (!executeEdge(edge)) {
+          return false;
+        }
+        if (state.isTerminated()) {
+          return true;
+        }
+      }
+      return true;
+
+    default:
+      throw new UnrecognizedCCodeException("interpreter does not support edge type " + pEdge.getEdgeType(), pEdge);
+    }
+  }
+
+  private void declare(CDeclarationEdge pEdge) throws UnrecognizedCCodeException {
+    CDeclaration declaration = pEdge.getDeclaration();
+    if (!(declaration instanceof CVariableDeclaration)) {
+      return; // functions and types
+    }
+    CVariableDeclaration variable = (CVariableDeclaration) declaration;
+    state.declare(variable);
+    for (CExpressionAssignmentStatement init : CInitializers.convertToAssignments(variable, pEdge)) {
+      assign(init.getLeftHandSide(), visitor().evaluateTo(
+          init.getRightHandSide(), init.getLeftHandSide().getExpressionType()));
+    }
+  }
+
+  private void assign(CLeftHandSide pLhs, Value pValue) throws UnrecognizedCCodeException {
+    state.store(visitor().getAddress(pLhs), pLhs.getExpressionType(), pValue);
+  }
+
+  private boolean executeStatement(CStatementEdge pEdge) throws UnrecognizedCCodeException {
+    CStatement statement = pEdge.getStatement();
+
+    if (statement instanceof CExpressionAssignmentStatement) {
+      CExpressionAssignmentStatement assignment = (CExpressionAssignmentStatement) statement;
+      CLeftHandSide lhs = assignment.getLeftHandSide();
+      assign(lhs, visitor().evaluateTo(assignment.getRightHandSide(), lhs.getExpressionType()));
+      return true;
+
+    } else if (statement instanceof CFunctionCall) {
+      // calls of functions without definition
+      CLeftHandSide lhs = null;
+      if (statement instanceof CFunctionCallAssignmentStatement) {
+        lhs = ((CFunctionCallAssignmentStatement) statement).getLeftHandSide();
+      }
+      return callExternalFunction(pEdge, ((CFunctionCall) statement).getFunctionCallExpression(), lhs);
+    }
+
+    // expression statements have no side effects
+    return true;
+  }
+
+  private boolean callExternalFunction(CFAEdge pEdge, CFunctionCallExpression pCall, @Nullable CLeftHandSide pLhs)
+      throws UnrecognizedCCodeException {
+    CExpression nameExpression = pCall.getFunctionNameExpression();
+    if (!(nameExpression instanceof CIdExpression)) {
+      throw new UnrecognizedCCodeException("interpreter does not support function pointers", pEdge, pCall);
+    }
+    String name = ((CIdExpression) nameExpression).getName();
+    List<CExpression> params = pCall.getParameterExpressions();
+    InterpreterExpressionVisitor visitor = visitor();
+    InterpreterMemory memory = state.getMemory();
+    Value result;
+
+    switch (name) {
+    case "malloc":
+    case "alloca":
+    case "__builtin_alloca":
+      result = new NumericValue(memory.allocate(visitor.evaluateToLong(params.get(0))));
+      break;
+
+    case "calloc":
+      result = new NumericValue(memory.allocate(
+          visitor.evaluateToLong(params.get(0)) * visitor.evaluateToLong(params.get(1))));
+      break;
+
+    case "realloc": {
+      long oldAddress = visitor.evaluateToLong(params.get(0));
+      long size = visitor.evaluateToLong(params.get(1));
+      long newAddress = memory.allocate(size);
+      if (oldAddress != 0) {
+        memory.copy(oldAddress, newAddress, Math.min(size, memory.getBlockSize(oldAddress)));
+        memory.free(oldAddress);
+      }
+      result = new NumericValue(newAddress);
+      break;
+    }
+
+    case "free":
+      memory.free(visitor.evaluateToLong(params.get(0)));
+      return true;
+
+    case "memset": {
+      long address = visitor.evaluateToLong(params.get(0));
+      memory.fill(address, visitor.evaluateToLong(params.get(2)), (byte) visitor.evaluateToLong(params.get(1)));
+      result = new NumericValue(address);
+      break;
+    }
+
+    case "memcpy":
+    case "memmove": {
+      long target = visitor.evaluateToLong(params.get(0));
+      memory.copy(visitor.evaluateToLong(params.get(1)), target, visitor.evaluateToLong(params.get(2)));
+      result = new NumericValue(target);
+      break;
+    }
+
+    case "__VERIFIER_assume":
+      return visitor.evaluateCondition(params.get(0));
+
+    case "exit":
+    case "abort":
+    case "__assert_fail":
+      state.terminate();
+      return true;
+
+    default:
+      if (pLhs == null) {
+        return true;
+      }
+      result = null;
+      if (BuiltinFunctions.isBuiltinFunction(name)) {
+        Value value = pCall.accept(visitor);
+        if (value.isNumericValue()) {
+          result = value;
+        }
+      }
+      if (result == null) {
+        result = inputs.getInput(step, pEdge, pLhs, pLhs.getExpressionType());
+      }
+      if (result == null) {
+        result = new NumericValue(0L);
+      }
+    }
+
+    if (pLhs != null) {
+      assign(pLhs, visitor.cast(result, pLhs.getExpressionType(), pCall));
+    }
+    return true;
+  }
+
+  private void callFunction(CFunctionCallEdge pEdge) throws UnrecognizedCCodeException {
+    CFunctionEntryNode entry = pEdge.getSuccessor();
+    List<CParameterDeclaration> params = entry.getFunctionParameters();
+    List<CExpression> args = pEdge.getArguments();
+
+    // evaluate arguments in the scope of the caller
+    InterpreterExpressionVisitor visitor = visitor();
+    List<Value> values = new ArrayList<>(params.size());
+    for (int i = 0; i < params.size() && i < args.size(); i++) {
+      values.add(visitor.evaluateTo(args.get(i), params.get(i).getType()));
+    }
+
+    state.pushFrame(entry.getFunctionName(), pEdge.getSummaryEdge());
+    enterFunction(entry);
+    for (int i = 0; i < values.size(); i++) {
+      CParameterDeclaration param = params.get(i);
+      Long address = state.getAddress(param.getQualifiedName());
+      state.store(address, param.getType(), values.get(i));
+    }
+  }
+
+  /** Allocates the parameters and the return variable of a function in the current frame. */
+  private void enterFunction(CFunctionEntryNode pEntry) {
+    for (CParameterDeclaration param : pEntry.getFunctionParameters()) {
+      state.declare(param);
+    }
+    Optional<CVariableDeclaration> returnVariable = pEntry.getReturnVariable();
+    if (returnVariable.isPresent()) {
+      state.declare(returnVariable.get());
+    }
+  }
+
+  private void returnFromFunction(CFunctionReturnEdge pEdge) throws UnrecognizedCCodeException {
+    CFunctionCall call = pEdge.getSummaryEdge().getExpression();
+    Optional<CVariableDeclaration> returnVariable = pEdge.getFunctionEntry().getReturnVariable();
+    InterpreterMemory memory = state.getMemory();
+
+    Value returnValue = null;
+    long temporary = 0;
+    if (call instanceof CFunctionCallAssignmentStatement && returnVariable.isPresent()) {
+      CVariableDeclaration variable = returnVariable.get();
+      long address = state.getAddress(variable.getQualifiedName());
+      if (InterpreterState.isAggregate(variable.getType())) {
+        // the memory of the callee is freed when its frame is removed, thus keep a copy
+        int size = state.sizeof(variable.getType());
+        temporary = memory.allocate(size);
+        memory.copy(address, temporary, size);
+        returnValue = new NumericValue(temporary);
+      } else {
+        returnValue = state.load(address, variable.getType());
+      }
+    }
+
+    if (state.getStackDepth() > 1) {
+      state.popFrame();
+    }
+
+    if (returnValue != null) {
+      CLeftHandSide lhs = ((CFunctionCallAssignmentStatement) call).getLeftHandSide();
+      InterpreterExpressionVisitor visitor = visitor();
+      assign(lhs, visitor.cast(returnValue, lhs.getExpressionType(), call.getFunctionCallExpression()));
+      if (temporary != 0) {
+        memory.free(temporary);
+      }
+    }
+  }
+}
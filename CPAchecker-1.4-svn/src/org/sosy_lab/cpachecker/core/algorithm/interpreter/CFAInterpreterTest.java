@@ -0,0 +1,162 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.interpreter;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.log.TestLogManager;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArraySubscriptExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CLeftHandSide;
+import org.sosy_lab.cpachecker.cfa.ast.c.CParameterDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CPointerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression.UnaryOperator;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CArrayType;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
+import org.sosy_lab.cpachecker.cfa.types.c.CType;
+import org.sosy_lab.cpachecker.core.algorithm.interpreter.CFAInterpreter.InputSupplier;
+import org.sosy_lab.cpachecker.core.algorithm.interpreter.CFAInterpreter.Outcome;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.cpa.value.type.Value;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+import com.google.common.collect.ImmutableList;
+
+public class CFAInterpreterTest {
+
+  private static final FileLocation LOC = FileLocation.DUMMY;
+  private static final CType INT = CNumericTypes.INT;
+
+  private CFAInterpreter interpreter;
+
+  @Before
+  public void setUp() {
+    interpreter = new CFAInterpreter(MachineModel.LINUX32, TestLogManager.getInstance());
+  }
+
+  private static InputSupplier constantInput(final long pValue) {
+    return new InputSupplier() {
+      @Override
+      public Value getInput(int pStep, CFAEdge pEdge, CLeftHandSide pLhs, CType pType) {
+        return new NumericValue(pValue);
+      }
+    };
+  }
+
+  private static CExpression literal(long pValue) {
+    return new CIntegerLiteralExpression(LOC, INT, BigInteger.valueOf(pValue));
+  }
+
+  private static CExpression equal(CExpression pOp1, CExpression pOp2) {
+    return new CBinaryExpression(LOC, INT, INT, pOp1, pOp2, BinaryOperator.EQUALS);
+  }
+
+  private static CFAEdge nondetAssignment(CLeftHandSide pLhs) {
+    CFunctionDeclaration function = TestDataTools.makeFunctionDeclaration(
+        "__VERIFIER_nondet_int", INT, ImmutableList.<CParameterDeclaration>of()).getSecond();
+    CFunctionCallExpression call = new CFunctionCallExpression(LOC, INT,
+        new CIdExpression(LOC, function), ImmutableList.<CExpression>of(), function);
+    return new CStatementEdge("x = __VERIFIER_nondet_int();",
+        new CFunctionCallAssignmentStatement(LOC, pLhs, call), LOC,
+        new CFANode("main"), new CFANode("main"));
+  }
+
+  @Test
+  public void testReplayWithInput() throws Exception {
+    CIdExpression x = TestDataTools.makeDeclaration("x", INT, null).getThird();
+    List<CFAEdge> path = ImmutableList.of(
+        TestDataTools.makeDeclaration("x", INT, null).getFirst(),
+        nondetAssignment(x),
+        TestDataTools.makeAssume(equal(x, literal(42))).getFirst());
+
+    assertThat(interpreter.replay(path, constantInput(42)).getOutcome()).isEqualTo(Outcome.TARGET_REACHED);
+    assertThat(interpreter.replay(path, constantInput(41)).getOutcome()).isEqualTo(Outcome.ASSUMPTION_VIOLATED);
+  }
+
+  @Test
+  public void testUnsignedOverflow() throws Exception {
+    CIdExpression c = TestDataTools.makeVariable("c", CNumericTypes.UNSIGNED_CHAR);
+    CExpression sum = new CBinaryExpression(LOC, CNumericTypes.UNSIGNED_CHAR, INT,
+        c, literal(10), BinaryOperator.PLUS);
+    List<CFAEdge> path = ImmutableList.of(
+        TestDataTools.makeAssignment(c, literal(250)).getFirst(),
+        TestDataTools.makeAssignment(c, sum).getFirst(),
+        TestDataTools.makeAssume(equal(c, literal(4))).getFirst());
+
+    assertThat(interpreter.replay(path, CFAInterpreter.ZERO_INPUTS).getOutcome())
+        .isEqualTo(Outcome.TARGET_REACHED);
+  }
+
+  @Test
+  public void testArrayThroughPointer() throws Exception {
+    CArrayType arrayType = new CArrayType(false, false, INT, literal(3));
+    CPointerType pointerType = new CPointerType(false, false, INT);
+    CIdExpression a = TestDataTools.makeDeclaration("a", arrayType, null).getThird();
+    CIdExpression p = TestDataTools.makeDeclaration("p", pointerType, null).getThird();
+    CExpression a1 = new CArraySubscriptExpression(LOC, INT, a, literal(1));
+
+    List<CFAEdge> path = ImmutableList.of(
+        TestDataTools.makeDeclaration("a", arrayType, null).getFirst(),
+        TestDataTools.makeDeclaration("p", pointerType, null).getFirst(),
+        TestDataTools.makeAssignment(p, new CUnaryExpression(LOC, pointerType, a1, UnaryOperator.AMPER)).getFirst(),
+        TestDataTools.makeAssignment(new CPointerExpression(LOC, INT, p), literal(7)).getFirst(),
+        TestDataTools.makeAssume(equal(a1, literal(7))).getFirst());
+
+    assertThat(interpreter.replay(path, CFAInterpreter.ZERO_INPUTS).getOutcome())
+        .isEqualTo(Outcome.TARGET_REACHED);
+  }
+
+  @Test
+  public void testNullDereference() throws Exception {
+    CPointerType pointerType = new CPointerType(false, false, INT);
+    CIdExpression p = TestDataTools.makeDeclaration("p", pointerType, null).getThird();
+
+    List<CFAEdge> path = ImmutableList.of(
+        TestDataTools.makeDeclaration("p", pointerType, null).getFirst(),
+        TestDataTools.makeAssignment(p, literal(0)).getFirst(),
+        TestDataTools.makeAssignment(new CPointerExpression(LOC, INT, p), literal(1)).getFirst());
+
+    assertThat(interpreter.replay(path, CFAInterpreter.ZERO_INPUTS).getOutcome())
+        .isEqualTo(Outcome.INVALID_MEMORY_ACCESS);
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.interpreter;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+
+import javax.annotation.Nullable;
+
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.Language;
+import org.sosy_lab.cpachecker.cfa.ast.AExpressionStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CCastExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CCharLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFloatLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CLeftHandSide;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
+import org.sosy_lab.cpachecker.cfa.types.c.CType;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.CounterexampleInfo;
+import org.sosy_lab.cpachecker.core.algorithm.interpreter.CFAInterpreter.ExecutionResult;
+import org.sosy_lab.cpachecker.core.algorithm.interpreter.CFAInterpreter.InputSupplier;
+import org.sosy_lab.cpachecker.core.counterexample.CFAEdgeWithAssumptions;
+import org.sosy_lab.cpachecker.core.counterexample.CFAMultiEdgeWithAssumptions;
+import org.sosy_lab.cpachecker.core.counterexample.CFAPathWithAssumptions;
+import org.sosy_lab.cpachecker.core.interfaces.CounterexampleChecker;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGCPA;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.cpa.value.type.Value;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.exceptions.CounterexampleAnalysisFailed;
+import org.sosy_lab.cpachecker.exceptions.UnrecognizedCCodeException;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Counterexample checker that replays the counterexample path with the {@link CFAInterpreter},
+ * using the input values from the model of the counterexample.
+ * In contrast to the checkers based on CBMC or a C compiler,
+ * no external process is started.
+ * The counterexample is only reported as infeasible if all inputs
+ * of the replay were taken from the model,
+ * otherwise a failed replay does not prove anything.
+ */
+public class InterpreterChecker implements CounterexampleChecker, Statistics {
+
+  private final LogManager logger;
+  private final ARGCPA cpa;
+  private final CFAInterpreter interpreter;
+
+  private final Timer replayTime = new Timer();
+  private int numberOfConfirmedPaths = 0;
+  private long numberOfReplayedEdges = 0;
+
+  public InterpreterChecker(LogManager pLogger, CFA pCfa, ARGCPA pCpa)
+      throws InvalidConfigurationException {
+    if (pCfa.getLanguage() != Language.C) {
+      throw new InvalidConfigurationException("The interpreter can only be used as counterexample checker for C programs.");
+    }
+    logger = pLogger;
+    cpa = pCpa;
+    interpreter = new CFAInterpreter(pCfa.getMachineModel(), pLogger);
+  }
+
+  @Override
+  public boolean checkCounterexample(ARGState pRootState, ARGState pErrorState,
+      Set<ARGState> pErrorPathStates) throws CPAException, InterruptedException {
+
+    CounterexampleInfo ceInfo = cpa.getCounterexamples().get(pErrorState);
+    if (ceInfo == null || ceInfo.isSpurious()) {
+      throw new CounterexampleAnalysisFailed("No model for counterexample available, cannot replay it.");
+    }
+
+    List<CFAEdge> path = ceInfo.getTargetPath().getInnerEdges();
+    if (path.contains(null)) {
+      throw new CounterexampleAnalysisFailed("Counterexample path is not connected, cannot replay it.");
+    }
+    CFAPathWithAssumptions assignments = ceInfo.getTargetPathModel().getCFAPathWithAssignments();
+    GuessCountingInputSupplier inputs;
+    if (assignments.size() == path.size()) {
+      inputs = new GuessCountingInputSupplier(new ModelInputSupplier(assignments));
+    } else {
+      logger.log(Level.WARNING, "Model does not match counterexample path, replaying with all inputs set to 0.");
+      inputs = new GuessCountingInputSupplier(CFAInterpreter.ZERO_INPUTS);
+    }
+
+    ExecutionResult result;
+    replayTime.start();
+    try {
+      result = interpreter.replay(path, inputs);
+    } catch (UnrecognizedCCodeException e) {
+      throw new CounterexampleAnalysisFailed("Interpreter cannot replay counterexample: " + e.getMessage(), e);
+    } finally {
+      replayTime.stop();
+    }
+    numberOfReplayedEdges += result.getExecutedEdges().size();
+    logger.log(Level.FINE, "Replay of counterexample finished:", result);
+
+    switch (result.getOutcome()) {
+    case TARGET_REACHED:
+      numberOfConfirmedPaths++;
+      return true;
+    case ASSUMPTION_VIOLATED:
+    case TERMINATED:
+      if (inputs.guessedInputs > 0) {
+        throw new CounterexampleAnalysisFailed("Replay of counterexample did not reach the target, "
+            + "but " + inputs.guessedInputs + " input values were not taken from the model: " + result);
+      }
+      return false;
+    default:
+      throw new CounterexampleAnalysisFailed("Replay of counterexample failed: " + result);
+    }
+  }
+
+  /**
+   * Input supplier that counts the inputs for which the delegate has no value,
+   * and for which the interpreter thus uses 0.
+   */
+  private static class GuessCountingInputSupplier implements InputSupplier {
+
+    private final InputSupplier delegate;
+    private int guessedInputs = 0;
+
+    private GuessCountingInputSupplier(InputSupplier pDelegate) {
+      delegate = pDelegate;
+    }
+
+    @Override
+    public @Nullable Value getInput(int pStep, CFAEdge pEdge, @Nullable CLeftHandSide pLhs, CType pType) {
+      Value result = delegate.getInput(pStep, pEdge, pLhs, pType);
+      if (result == null) {
+        guessedInputs++;
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Input supplier that takes the values from the assumptions of a {@link CFAPathWithAssumptions}
+   * that was created for the replayed path.
+   */
+  private static class ModelInputSupplier implements InputSupplier {
+
+    // may contain null entries
+    private final List<CFAEdgeWithAssumptions> assignments;
+
+    private ModelInputSupplier(CFAPathWithAssumptions pAssignments) {
+      assignments = Lists.newArrayList(pAssignments);
+    }
+
+    @Override
+    public @Nullable Value getInput(int pStep, CFAEdge pEdge, @Nullable CLeftHandSide pLhs, CType pType) {
+      if (pLhs == null || pStep >= assignments.size()
+          || pType.getCanonicalType() instanceof CPointerType) {
+        // addresses in the model do not match addresses of the interpreter
+        return null;
+      }
+      CFAEdgeWithAssumptions edge = assignments.get(pStep);
+      if (edge instanceof CFAMultiEdgeWithAssumptions) {
+        edge = findInnerEdge((CFAMultiEdgeWithAssumptions) edge, pEdge);
+      }
+      if (edge == null) {
+        return null;
+      }
+
+      String lhs = pLhs.toASTString();
+      for (AExpressionStatement assumption : edge.getExpStmts()) {
+        if (assumption.getExpression() instanceof CBinaryExpression) {
+          CBinaryExpression equality = (CBinaryExpression) assumption.getExpression();
+          if (equality.getOperator() == CBinaryExpression.BinaryOperator.EQUALS
+              && equality.getOperand1().toASTString().equals(lhs)) {
+            return getConstantValue(equality.getOperand2());
+          }
+        }
+      }
+      return null;
+    }
+
+    private static @Nullable CFAEdgeWithAssumptions findInnerEdge(CFAMultiEdgeWithAssumptions pMultiEdge,
+        CFAEdge pEdge) {
+      for (CFAEdgeWithAssumptions edge : pMultiEdge) {
+        if (edge.getCFAEdge().equals(pEdge)) {
+          return edge;
+        }
+      }
+      return null;
+    }
+
+    private static @Nullable Value getConstantValue(CExpression pExp) {
+      if (pExp instanceof CIntegerLiteralExpression) {
+        return new NumericValue(((CIntegerLiteralExpression) pExp).getValue());
+      } else if (pExp instanceof CFloatLiteralExpression) {
+        return new NumericValue(((CFloatLiteralExpression) pExp).getValue());
+      } else if (pExp instanceof CCharLiteralExpression) {
+        return new NumericValue((long) ((CCharLiteralExpression) pExp).getCharacter());
+      } else if (pExp instanceof CCastExpression) {
+        return getConstantValue(((CCastExpression) pExp).getOperand());
+      } else if (pExp instanceof CUnaryExpression
+          && ((CUnaryExpression) pExp).getOperator() == CUnaryExpression.UnaryOperator.MINUS) {
+        Value value = getConstantValue(((CUnaryExpression) pExp).getOperand());
+        return value == null ? null : ((NumericValue) value).negate();
+      }
+      return null;
+    }
+  }
+
+  @Override
+  public void printStatistics(PrintStream out, Result pResult, ReachedSet pReached) {
+    out.println("Time for interpreting counterexamples:  " + replayTime);
+    out.println("Number of confirmed counterexamples:    " + numberOfConfirmedPaths);
+    out.println("Number of interpreted edges:            " + numberOfReplayedEdges);
+  }
+
+  @Override
+  public String getName() {
+    return "Interpreter Counterexample Check";
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.interpreter;
+
+import org.sosy_lab.common.log.LogManagerWithoutDuplicates;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArraySubscriptExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFieldReference;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CPointerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CRightHandSide;
+import org.sosy_lab.cpachecker.cfa.ast.c.CSimpleDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CStringLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.java.JIdExpression;
+import org.sosy_lab.cpachecker.cfa.types.c.CArrayType;
+import org.sosy_lab.cpachecker.cfa.types.c.CBasicType;
+import org.sosy_lab.cpachecker.cfa.types.c.CCompositeType;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
+import org.sosy_lab.cpachecker.cfa.types.c.CSimpleType;
+import org.sosy_lab.cpachecker.cfa.types.c.CType;
+import org.sosy_lab.cpachecker.cpa.value.AbstractExpressionValueVisitor;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.cpa.value.type.Value;
+import org.sosy_lab.cpachecker.exceptions.UnrecognizedCCodeException;
+
+/**
+ * Evaluates C expressions on the concrete state of the {@link CFAInterpreter}.
+ *
+ * Arithmetic, comparisons and casts are inherited from the value analysis,
+ * this class adds memory accesses, address computations and pointer arithmetic.
+ * Pointers are numeric values that are addresses in the {@link InterpreterMemory}.
+ */
+class InterpreterExpressionVisitor extends AbstractExpressionValueVisitor {
+
+  private final InterpreterState state;
+  private final LogManagerWithoutDuplicates logger;
+
+  InterpreterExpressionVisitor(InterpreterState pState, LogManagerWithoutDuplicates pLogger) {
+    super(pState.getCurrentFrame().getFunctionName(), pState.getMachineModel(), pLogger);
+    state = pState;
+    logger = pLogger;
+  }
+
+  /**
+   * Evaluates an expression and converts the value to the given type.
+   * The result is never unknown.
+   */
+  Value evaluateTo(CRightHandSide pExp, CType pTargetType) throws UnrecognizedCCodeException {
+    Value value = pExp.accept(this);
+    if (!value.isNumericValue()) {
+      throw new UnrecognizedCCodeException("interpreter cannot evaluate expression", pExp);
+    }
+    return cast(value, pTargetType, pExp);
+  }
+
+  Value cast(Value pValue, CType pTargetType, CRightHandSide pExp) {
+    CType type = pTargetType.getCanonicalType();
+    if (type instanceof CSimpleType && ((CSimpleType) type).getType() == CBasicType.DOUBLE
+        && getSizeof(type) > 8) {
+      // long double is computed with double precision
+      type = CNumericTypes.DOUBLE;
+    }
+    return castCValue(pValue, type, state.getMachineModel(), logger, pExp.getFileLocation());
+  }
+
+  long evaluateToLong(CExpression pExp) throws UnrecognizedCCodeException {
+    Value value = pExp.accept(this);
+    if (!value.isNumericValue()) {
+      throw new UnrecognizedCCodeException("interpreter cannot evaluate expression", pExp);
+    }
+    return ((NumericValue) value).longValue();
+  }
+
+  boolean evaluateCondition(CExpression pExp) throws UnrecognizedCCodeException {
+    Value value = pExp.accept(this);
+    if (!value.isNumericValue()) {
+      throw new UnrecognizedCCodeException("interpreter cannot evaluate condition", pExp);
+    }
+    Number number = ((NumericValue) value).getNumber();
+    if (number instanceof Double || number instanceof Float) {
+      return number.doubleValue() != 0;
+    }
+    return ((NumericValue) value).bigDecimalValue().signum() != 0;
+  }
+
+  /**
+   * Computes the address of an l-value.
+   */
+  long getAddress(CExpression pExp) throws UnrecognizedCCodeException {
+    if (pExp instanceof CIdExpression) {
+      CSimpleDeclaration decl = ((CIdExpression) pExp).getDeclaration();
+      if (decl == null || decl instanceof CFunctionDeclaration) {
+        throw new UnrecognizedCCodeException("interpreter does not support function pointers", pExp);
+      }
+      Long address = state.getAddress(decl.getQualifiedName());
+      if (address == null) {
+        if (!(decl instanceof CVariableDeclaration)) {
+          throw new UnrecognizedCCodeException("undeclared variable", pExp);
+        }
+        // e.g., extern variables without declaration on the path
+        address = state.declare(decl);
+      }
+      return address;
+
+    } else if (pExp instanceof CPointerExpression) {
+      return evaluateToLong(((CPointerExpression) pExp).getOperand());
+
+    } else if (pExp instanceof CFieldReference) {
+      CFieldReference field = (CFieldReference) pExp;
+      CExpression owner = field.getFieldOwner();
+      CType ownerType = owner.getExpressionType().getCanonicalType();
+      long base;
+      if (field.isPointerDereference()) {
+        if (!(ownerType instanceof CPointerType)) {
+          throw new UnrecognizedCCodeException("field dereference of non-pointer", pExp);
+        }
+        ownerType = ((CPointerType) ownerType).getType().getCanonicalType();
+        base = evaluateToLong(owner);
+      } else {
+        base = getAddress(owner);
+      }
+      if (!(ownerType instanceof CCompositeType)) {
+        throw new UnrecognizedCCodeException("field access in incomplete type", pExp);
+      }
+      return base + state.getFieldOffset((CCompositeType) ownerType, field.getFieldName());
+
+    } else if (pExp instanceof CArraySubscriptExpression) {
+      CArraySubscriptExpression subscript = (CArraySubscriptExpression) pExp;
+      long base = evaluateToLong(subscript.getArrayExpression());
+      long index = evaluateToLong(subscript.getSubscriptExpression());
+      return base + index * getSizeof(pExp.getExpressionType());
+
+    } else if (pExp instanceof CStringLiteralExpression) {
+      return state.getStringLiteral((CStringLiteralExpression) pExp);
+    }
+
+    throw new UnrecognizedCCodeException("interpreter cannot compute address", pExp);
+  }
+
+  private Value load(CExpression pExp) throws UnrecognizedCCodeException {
+    return state.load(getAddress(pExp), pExp.getExpressionType());
+  }
+
+  @Override
+  protected Value evaluateCIdExpression(CIdExpression pExp) throws UnrecognizedCCodeException {
+    return load(pExp);
+  }
+
+  @Override
+  protected Value evaluateCPointerExpression(CPointerExpression pExp) throws UnrecognizedCCodeException {
+    return load(pExp);
+  }
+
+  @Override
+  protected Value evaluateCFieldReference(CFieldReference pExp) throws UnrecognizedCCodeException {
+    return load(pExp);
+  }
+
+  @Override
+  protected Value evaluateCArraySubscriptExpression(CArraySubscriptExpression pExp)
+      throws UnrecognizedCCodeException {
+    return load(pExp);
+  }
+
+  @Override
+  protected Value evaluateJIdExpression(JIdExpression pVarName) {
+    return Value.UnknownValue.getInstance();
+  }
+
+  @Override
+  public Value visit(CStringLiteralExpression pExp) throws UnrecognizedCCodeException {
+    return new NumericValue(state.getStringLiteral(pExp));
+  }
+
+  @Override
+  public Value visit(CUnaryExpression pExp) throws UnrecognizedCCodeException {
+    if (pExp.getOperator() == CUnaryExpression.UnaryOperator.AMPER) {
+      return new NumericValue(getAddress(pExp.getOperand()));
+    }
+    return super.visit(pExp);
+  }
+
+  @Override
+  public Value visit(CBinaryExpression pExp) throws UnrecognizedCCodeException {
+    BinaryOperator op = pExp.getOperator();
+    CType type1 = pExp.getOperand1().getExpressionType().getCanonicalType();
+    CType type2 = pExp.getOperand2().getExpressionType().getCanonicalType();
+
+    if ((op == BinaryOperator.PLUS || op == BinaryOperator.MINUS)
+        && (isPointerOrArray(type1) || isPointerOrArray(type2))) {
+      long left = evaluateToLong(pExp.getOperand1());
+      long right = evaluateToLong(pExp.getOperand2());
+
+      if (isPointerOrArray(type1) && isPointerOrArray(type2)) {
+        long elementSize = Math.max(1, getElementSize(type1));
+        return new NumericValue((left - right) / elementSize);
+      } else if (isPointerOrArray(type1)) {
+        long offset = right * getElementSize(type1);
+        return new NumericValue(op == BinaryOperator.PLUS ? left + offset : left - offset);
+      } else {
+        return new NumericValue(right + left * getElementSize(type2));
+      }
+    }
+    return super.visit(pExp);
+  }
+
+  private static boolean isPointerOrArray(CType pType) {
+    return pType instanceof CPointerType || pType instanceof CArrayType;
+  }
+
+  private long getElementSize(CType pType) {
+    CType elementType = pType instanceof CPointerType
+        ? ((CPointerType) pType).getType()
+        : ((CArrayType) pType).getType();
+    return getSizeof(elementType);
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.interpreter;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Flat, byte-addressed memory of the {@link CFAInterpreter}.
+ *
+ * All variables and heap objects are allocated as blocks in a single byte array.
+ * Address 0 is never allocated and serves as null pointer.
+ * Values are stored in little-endian byte order.
+ * Each access is checked against the allocated blocks, invalid accesses are signaled
+ * with an {@link InvalidMemoryAccessException}.
+ */
+final class InterpreterMemory {
+
+  /** Alignment of all blocks, large enough for every scalar type. */
+  private static final int ALIGNMENT = 8;
+
+  /** Upper limit for the size of the memory, larger programs are aborted. */
+  static final int MAX_MEMORY_SIZE = 64 * 1024 * 1024;
+
+  private byte[] data = new byte[4096];
+
+  /** First address that was never allocated. */
+  private int top = ALIGNMENT;
+
+  /** All blocks that were ever allocated, mapped from start address to block. */
+  private final TreeMap<Long, Block> blocks = new TreeMap<>();
+
+  private static final class Block {
+    private final int size;
+    private boolean freed = false;
+
+    private Block(int pSize) {
+      size = pSize;
+    }
+  }
+
+  /**
+   * Allocates a new zero-initialized block.
+   * @return the start address of the block
+   */
+  long allocate(long pSize) {
+    if (pSize < 0 || top + pSize + ALIGNMENT > MAX_MEMORY_SIZE) {
+      throw new InvalidMemoryAccessException("cannot allocate " + pSize + " bytes");
+    }
+    int size = (int) pSize;
+    int address = top;
+    // size 0 still gets a unique address
+    top = align(top + Math.max(size, 1));
+    if (top > data.length) {
+      data = Arrays.copyOf(data, Math.min(MAX_MEMORY_SIZE, Math.max(top, 2 * data.length)));
+    }
+    blocks.put((long) address, new Block(size));
+    return address;
+  }
+
+  private static int align(int pAddress) {
+    return (pAddress + ALIGNMENT - 1) & -ALIGNMENT;
+  }
+
+  /**
+   * Frees the block starting at the given address.
+   * Freeing the null pointer is allowed and has no effect.
+   */
+  void free(long pAddress) {
+    if (pAddress == 0) {
+      return;
+    }
+    Block block = blocks.get(pAddress);
+    if (block == null || block.freed) {
+      throw new InvalidMemoryAccessException("invalid free of address " + pAddress);
+    }
+    block.freed = true;
+  }
+
+  /** Returns the size of the live block starting at the given address. */
+  int getBlockSize(long pAddress) {
+    Block block = blocks.get(pAddress);
+    if (block == null || block.freed) {
+      throw new InvalidMemoryAccessException("no allocated block at address " + pAddress);
+    }
+    return block.size;
+  }
+
+  private int check(long pAddress, long pSize) {
+    Map.Entry<Long, Block> entry = blocks.floorEntry(pAddress);
+    if (entry == null) {
+      throw new InvalidMemoryAccessException("invalid access to address " + pAddress);
+    }
+    Block block = entry.getValue();
+    if (block.freed) {
+      throw new InvalidMemoryAccessException("access to freed memory at address " + pAddress);
+    }
+    if (pAddress + pSize > entry.getKey() + block.size || pSize < 0) {
+      throw new InvalidMemoryAccessException("out-of-bounds access of " + pSize + " bytes at address " + pAddress);
+    }
+    return (int) pAddress;
+  }
+
+  /** Reads an integer with the given number of bytes (at most 8) without sign extension. */
+  long readUnsigned(long pAddress, int pSize) {
+    int address = check(pAddress, pSize);
+    long result = 0;
+    for (int i = Math.min(pSize, 8) - 1; i >= 0; i--) {
+      result = (result << 8) | (data[address + i] & 0xFF);
+    }
+    return result;
+  }
+
+  /** Reads an integer with the given number of bytes (at most 8) with sign extension. */
+  long readSigned(long pAddress, int pSize) {
+    long result = readUnsigned(pAddress, pSize);
+    if (pSize < 8) {
+      int shift = 64 - 8 * pSize;
+      result = (result << shift) >> shift;
+    }
+    return result;
+  }
+
+  /** Writes the lower bytes of an integer, bytes beyond the 8th are set to zero. */
+  void writeInteger(long pAddress, int pSize, long pValue) {
+    int address = check(pAddress, pSize);
+    for (int i = 0; i < pSize; i++) {
+      data[address + i] = (byte) (i < 8 ? pValue >>> (8 * i) : 0);
+    }
+  }
+
+  void fill(long pAddress, long pSize, byte pValue) {
+    int address = check(pAddress, pSize);
+    Arrays.fill(data, address, address + (int) pSize, pValue);
+  }
+
+  void copy(long pFrom, long pTo, long pSize) {
+    int from = check(pFrom, pSize);
+    int to = check(pTo, pSize);
+    System.arraycopy(data, from, data, to, (int) pSize);
+  }
+
+  /** Number of bytes that were allocated so far. */
+  int getUsedSize() {
+    return top;
+  }
+
+  /**
+   * Signals an invalid memory access of the interpreted program,
+   * e.g., a null-pointer dereference or an access to freed memory.
+   */
+  static class InvalidMemoryAccessException extends RuntimeException {
+
+    private static final long serialVersionUID = -3447652195946186712L;
+
+    InvalidMemoryAccessException(String pMsg) {
+      super(pMsg);
+    }
+  }
+}
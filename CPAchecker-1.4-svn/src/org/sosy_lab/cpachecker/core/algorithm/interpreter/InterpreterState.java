@@ -0,0 +1,301 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.interpreter;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.sosy_lab.cpachecker.cfa.ast.c.CSimpleDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CStringLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionSummaryEdge;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CArrayType;
+import org.sosy_lab.cpachecker.cfa.types.c.CComplexType.ComplexTypeKind;
+import org.sosy_lab.cpachecker.cfa.types.c.CCompositeType;
+import org.sosy_lab.cpachecker.cfa.types.c.CCompositeType.CCompositeTypeMemberDeclaration;
+import org.sosy_lab.cpachecker.cfa.types.c.CEnumType;
+import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
+import org.sosy_lab.cpachecker.cfa.types.c.CSimpleType;
+import org.sosy_lab.cpachecker.cfa.types.c.CType;
+import org.sosy_lab.cpachecker.core.algorithm.interpreter.InterpreterMemory.InvalidMemoryAccessException;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.cpa.value.type.Value;
+
+/**
+ * The concrete state of a program run in the {@link CFAInterpreter}:
+ * the memory, the global variables and the stack of function frames.
+ *
+ * Scalars are stored in memory with their size according to the {@link MachineModel}.
+ * Values of aggregate types (arrays, structs and unions) are represented by their address.
+ */
+final class InterpreterState {
+
+  static final class Frame {
+    private final String functionName;
+    private final @Nullable CFunctionSummaryEdge callSite;
+    private final Map<String, Long> variables = new HashMap<>();
+    private final List<Long> allocations = new ArrayList<>();
+
+    private Frame(String pFunctionName, @Nullable CFunctionSummaryEdge pCallSite) {
+      functionName = pFunctionName;
+      callSite = pCallSite;
+    }
+
+    String getFunctionName() {
+      return functionName;
+    }
+
+    /** The call of this function, or null for the function in which the run started. */
+    @Nullable CFunctionSummaryEdge getCallSite() {
+      return callSite;
+    }
+  }
+
+  private final MachineModel machineModel;
+  private final InterpreterMemory memory = new InterpreterMemory();
+  private final Map<String, Long> globals = new HashMap<>();
+  private final Deque<Frame> frames = new ArrayDeque<>();
+  private final Map<CStringLiteralExpression, Long> stringLiterals = new IdentityHashMap<>();
+
+  private boolean terminated = false;
+
+  InterpreterState(MachineModel pMachineModel) {
+    machineModel = pMachineModel;
+  }
+
+  MachineModel getMachineModel() {
+    return machineModel;
+  }
+
+  InterpreterMemory getMemory() {
+    return memory;
+  }
+
+  void pushFrame(String pFunctionName, @Nullable CFunctionSummaryEdge pCallSite) {
+    frames.push(new Frame(pFunctionName, pCallSite));
+  }
+
+  Frame getCurrentFrame() {
+    return frames.peek();
+  }
+
+  /** Removes the current frame and frees the memory of its local variables. */
+  Frame popFrame() {
+    Frame frame = frames.pop();
+    for (long address : frame.allocations) {
+      memory.free(address);
+    }
+    return frame;
+  }
+
+  int getStackDepth() {
+    return frames.size();
+  }
+
+  boolean isTerminated() {
+    return terminated;
+  }
+
+  void terminate() {
+    terminated = true;
+  }
+
+  /**
+   * Allocates zero-initialized memory for a variable in the current frame
+   * (or globally if the variable is global).
+   * An earlier variable with the same name is hidden, as with a re-declaration in a loop.
+   */
+  long declare(CSimpleDeclaration pDeclaration) {
+    long address = memory.allocate(sizeof(pDeclaration.getType()));
+    if (isGlobal(pDeclaration) || frames.isEmpty()) {
+      globals.put(pDeclaration.getQualifiedName(), address);
+    } else {
+      Frame frame = frames.peek();
+      frame.variables.put(pDeclaration.getQualifiedName(), address);
+      frame.allocations.add(address);
+    }
+    return address;
+  }
+
+  private static boolean isGlobal(CSimpleDeclaration pDeclaration) {
+    return pDeclaration instanceof CVariableDeclaration && ((CVariableDeclaration) pDeclaration).isGlobal();
+  }
+
+  /**
+   * Returns the address of a variable, or null if it was never declared.
+   */
+  @Nullable Long getAddress(String pQualifiedName) {
+    if (!frames.isEmpty()) {
+      Long address = frames.peek().variables.get(pQualifiedName);
+      if (address != null) {
+        return address;
+      }
+    }
+    return globals.get(pQualifiedName);
+  }
+
+  long getStringLiteral(CStringLiteralExpression pLiteral) {
+    Long address = stringLiterals.get(pLiteral);
+    if (address == null) {
+      String content = unescape(pLiteral.getContentString());
+      address = memory.allocate(content.length() + 1);
+      for (int i = 0; i < content.length(); i++) {
+        memory.writeInteger(address + i, 1, content.charAt(i));
+      }
+      stringLiterals.put(pLiteral, address);
+    }
+    return address;
+  }
+
+  private static String unescape(String pContent) {
+    if (pContent.indexOf('\\') < 0) {
+      return pContent;
+    }
+    StringBuilder result = new StringBuilder(pContent.length());
+    for (int i = 0; i < pContent.length(); i++) {
+      char c = pContent.charAt(i);
+      if (c == '\\' && i + 1 < pContent.length()) {
+        char next = pContent.charAt(++i);
+        switch (next) {
+        case 'n': c = '\n'; break;
+        case 't': c = '\t'; break;
+        case 'r': c = '\r'; break;
+        case '0': c = '\0'; break;
+        default: c = next; break;
+        }
+      }
+      result.append(c);
+    }
+    return result.toString();
+  }
+
+  int sizeof(CType pType) {
+    return machineModel.getSizeof(pType);
+  }
+
+  /** Returns the offset of a field in a struct or union (without padding, as in {@link MachineModel}). */
+  int getFieldOffset(CCompositeType pType, String pFieldName) {
+    int offset = 0;
+    for (CCompositeTypeMemberDeclaration member : pType.getMembers()) {
+      if (member.getName().equals(pFieldName)) {
+        return offset;
+      }
+      if (pType.getKind() == ComplexTypeKind.STRUCT) {
+        offset += sizeof(member.getType());
+      }
+    }
+    throw new IllegalArgumentException("No field " + pFieldName + " in " + pType);
+  }
+
+  static boolean isAggregate(CType pType) {
+    CType type = pType.getCanonicalType();
+    return type instanceof CArrayType || type instanceof CCompositeType;
+  }
+
+  /** Reads a value of the given type from memory. */
+  Value load(long pAddress, CType pType) {
+    CType type = pType.getCanonicalType();
+
+    if (isAggregate(type)) {
+      return new NumericValue(pAddress);
+
+    } else if (type instanceof CSimpleType) {
+      CSimpleType simpleType = (CSimpleType) type;
+      int size = sizeof(simpleType);
+      switch (simpleType.getType()) {
+      case FLOAT:
+        return new NumericValue(Float.intBitsToFloat((int) memory.readUnsigned(pAddress, 4)));
+      case DOUBLE:
+        if (size == 4) {
+          return new NumericValue(Float.intBitsToFloat((int) memory.readUnsigned(pAddress, 4)));
+        }
+        return new NumericValue(Double.longBitsToDouble(memory.readUnsigned(pAddress, 8)));
+      default:
+        if (machineModel.isSigned(simpleType)) {
+          return new NumericValue(memory.readSigned(pAddress, size));
+        }
+        long value = memory.readUnsigned(pAddress, size);
+        if (value < 0) {
+          // unsigned 64-bit value beyond Long.MAX_VALUE
+          return new NumericValue(BigInteger.valueOf(value).add(BigInteger.ONE.shiftLeft(64)));
+        }
+        return new NumericValue(value);
+      }
+
+    } else if (type instanceof CPointerType) {
+      return new NumericValue(memory.readUnsigned(pAddress, machineModel.getSizeofPtr()));
+
+    } else if (type instanceof CEnumType) {
+      return new NumericValue(memory.readSigned(pAddress, machineModel.getSizeofInt()));
+    }
+
+    throw new InvalidMemoryAccessException("cannot read value of type " + pType);
+  }
+
+  /**
+   * Writes a value of the given type to memory.
+   * The value needs to be already converted to the type.
+   */
+  void store(long pAddress, CType pType, Value pValue) {
+    CType type = pType.getCanonicalType();
+    NumericValue value = (NumericValue) pValue;
+
+    if (isAggregate(type)) {
+      memory.copy(value.longValue(), pAddress, sizeof(type));
+
+    } else if (type instanceof CSimpleType) {
+      CSimpleType simpleType = (CSimpleType) type;
+      int size = sizeof(simpleType);
+      switch (simpleType.getType()) {
+      case FLOAT:
+        memory.writeInteger(pAddress, size, Float.floatToRawIntBits(value.floatValue()));
+        break;
+      case DOUBLE:
+        if (size == 4) {
+          memory.writeInteger(pAddress, size, Float.floatToRawIntBits(value.floatValue()));
+        } else {
+          memory.writeInteger(pAddress, size, Double.doubleToRawLongBits(value.doubleValue()));
+        }
+        break;
+      default:
+        memory.writeInteger(pAddress, size, value.getNumber().longValue());
+      }
+
+    } else if (type instanceof CPointerType || type instanceof CEnumType) {
+      memory.writeInteger(pAddress, sizeof(type), value.longValue());
+
+    } else {
+      throw new InvalidMemoryAccessException("cannot write value of type " + pType);
+    }
+  }
+}
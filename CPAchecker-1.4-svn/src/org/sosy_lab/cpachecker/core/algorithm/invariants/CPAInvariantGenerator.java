@@ -24,7 +24,6 @@
 package org.sosy_lab.cpachecker.core.algorithm.invariants;
 
 import static com.google.common.base.Preconditions.*;
-import static com.google.common.base.Verify.verifyNotNull;
 import static com.google.common.collect.FluentIterable.from;
 import static org.sosy_lab.cpachecker.util.AbstractStates.IS_TARGET_STATE;
 
@@ -38,7 +37,6 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 
 import org.sosy_lab.common.Classes.UnexpectedCheckedException;
@@ -54,7 +52,6 @@ import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.Path;
 import org.sosy_lab.common.log.LogManager;
-import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.AssumeEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
@@ -82,7 +79,9 @@ import org.sosy_lab.solver.api.BooleanFormula;
 import org.sosy_lab.solver.api.BooleanFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.interfaces.PathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.interfaces.view.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.statistics.ConcurrentStatTimer;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 
 /**
@@ -90,17 +89,25 @@ import com.google.common.base.Throwables;
  * with an appropriate configuration.
  * Supports synchronous and asynchronous execution,
  * and continuously-refined invariants.
+ * In asynchronous mode, the invariants of each iteration are published
+ * on an {@link InvariantChannel} as soon as the iteration finished.
  */
 @Options(prefix="invariantGeneration")
 public class CPAInvariantGenerator implements InvariantGenerator, StatisticsProvider {
 
   private static class CPAInvariantGeneratorStatistics implements Statistics {
 
-    final Timer invariantGeneration = new Timer();
+    final ConcurrentStatTimer invariantGeneration = new ConcurrentStatTimer("Time for invariant generation");
+    private final InvariantChannel channel;
+
+    private CPAInvariantGeneratorStatistics(InvariantChannel pChannel) {
+      channel = pChannel;
+    }
 
     @Override
     public void printStatistics(PrintStream out, Result result, ReachedSet reached) {
       out.println("Time for invariant generation:   " + invariantGeneration);
+      out.println("Number of published invariants:  " + channel.getNumberOfPublications());
     }
 
     @Override
@@ -121,7 +128,11 @@ public class CPAInvariantGenerator implements InvariantGenerator, StatisticsProv
   @Option(secure=true, description="adjust invariant generation conditions if supported by the analysis")
   private boolean adjustConditions = false;
 
-  private final CPAInvariantGeneratorStatistics stats = new CPAInvariantGeneratorStatistics();
+  // In case of async, the invariants of each finished iteration are published here,
+  // such that consumers can use them while the generation is still running.
+  private final InvariantChannel channel = new InvariantChannel();
+
+  private final CPAInvariantGeneratorStatistics stats = new CPAInvariantGeneratorStatistics(channel);
   private final LogManager logger;
   private final CPAAlgorithm algorithm;
   private final ConfigurableProgramAnalysis cpa;
@@ -134,10 +145,6 @@ public class CPAInvariantGenerator implements InvariantGenerator, StatisticsProv
   // to be able to ask for termination and see thrown exceptions.
   private Future<InvariantSupplier> invariantGenerationFuture = null;
 
-  // In case of (async & adjustConditions), this will point to the last invariant
-  // that the continuously-refining invariant generation produced so far.
-  private final AtomicReference<InvariantSupplier> latestInvariant = new AtomicReference<>();
-
   private volatile boolean programIsSafe = false;
 
   private final ShutdownRequestListener shutdownListener = new ShutdownRequestListener() {
@@ -188,10 +195,6 @@ public class CPAInvariantGenerator implements InvariantGenerator, StatisticsProv
     Callable<InvariantSupplier> task = new InvariantGenerationTask(initialLocation);
 
     if (async) {
-      if (adjustConditions) {
-        latestInvariant.set(InvariantSupplier.TrivialInvariantSupplier.INSTANCE);
-      }
-
       // start invariant generation asynchronously
       ExecutorService executor = Executors.newSingleThreadExecutor(Threads.threadFactory());
       invariantGenerationFuture = executor.submit(task);
@@ -217,7 +220,7 @@ public class CPAInvariantGenerator implements InvariantGenerator, StatisticsProv
 
     if (async && adjustConditions && !invariantGenerationFuture.isDone()) {
       // grab intermediate result that is available so far
-      return verifyNotNull(latestInvariant.get());
+      return channel.getCurrentInvariants();
 
     } else {
       try {
@@ -245,6 +248,11 @@ public class CPAInvariantGenerator implements InvariantGenerator, StatisticsProv
     }
   }
 
+  @Override
+  public Optional<InvariantChannel> getChannel() {
+    return async ? Optional.of(channel) : Optional.<InvariantChannel>absent();
+  }
+
   @Override
   public void collectStatistics(Collection<Statistics> pStatsCollection) {
     if (cpa instanceof StatisticsProvider) {
@@ -290,7 +298,7 @@ public class CPAInvariantGenerator implements InvariantGenerator, StatisticsProv
    * Callable for creating invariants by running the CPAAlgorithm,
    * potentially in a loop with increasing precision.
    * Returns the final invariants,
-   * and publishes intermediate results to {@link CPAInvariantGenerator#latestInvariant}.
+   * and publishes intermediate results to {@link CPAInvariantGenerator#channel}.
    */
   private class InvariantGenerationTask implements Callable<InvariantSupplier> {
 
@@ -318,7 +326,10 @@ public class CPAInvariantGenerator implements InvariantGenerator, StatisticsProv
           logger.log(Level.INFO, "Starting iteration", ++i, "of invariant generation with abstract interpretation.");
 
           invariant = runInvariantGeneration(initialLocation);
-          latestInvariant.set(invariant);
+          if (invariant != TrivialInvariantSupplier.INSTANCE) {
+            // do not replace invariants of a previous iteration by an unsound result
+            channel.publish(invariant);
+          }
         } while (!programIsSafe && adjustConditions());
 
         return invariant;
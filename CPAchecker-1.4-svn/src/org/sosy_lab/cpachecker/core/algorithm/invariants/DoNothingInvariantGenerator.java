@@ -26,6 +26,8 @@ package org.sosy_lab.cpachecker.core.algorithm.invariants;
 import org.sosy_lab.cpachecker.cfa.model.AssumeEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 
+import com.google.common.base.Optional;
+
 /**
  * Trivial implementation of an invariant generator
  * that does nothing and always returns the invariant true.
@@ -50,4 +52,9 @@ public class DoNothingInvariantGenerator implements InvariantGenerator {
 
   @Override
   public void injectInvariant(CFANode pLocation, AssumeEdge pAssumption) { }
+
+  @Override
+  public Optional<InvariantChannel> getChannel() {
+    return Optional.absent();
+  }
 }
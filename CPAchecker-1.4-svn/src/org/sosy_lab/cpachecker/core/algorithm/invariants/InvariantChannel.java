@@ -0,0 +1,142 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.invariants;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.PathFormulaManager;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.view.FormulaManagerView;
+import org.sosy_lab.solver.api.BooleanFormula;
+
+/**
+ * Channel on which an invariant generator publishes invariants as soon as
+ * they are proven, while it is still running.
+ *
+ * Consumers {@link #subscribe()} to the channel once and then query the
+ * subscription at each location where they need an invariant.
+ * They always see the latest published invariants and never block,
+ * in contrast to {@link InvariantGenerator#get()}.
+ *
+ * Each publication replaces the previous one, so published suppliers need to
+ * be snapshots that include all invariants proven so far.
+ * A publisher of a supplier that changes over time has to publish it again
+ * after each change, otherwise subscribers may keep using outdated invariants.
+ */
+public class InvariantChannel {
+
+  private static final class Publication {
+
+    private final int version;
+    private final InvariantSupplier supplier;
+
+    private Publication(int pVersion, InvariantSupplier pSupplier) {
+      version = pVersion;
+      supplier = pSupplier;
+    }
+  }
+
+  private volatile Publication latest =
+      new Publication(0, InvariantSupplier.TrivialInvariantSupplier.INSTANCE);
+
+  /**
+   * Publish new invariants to all subscribers.
+   * The invariants are picked up at the next query of each subscriber.
+   */
+  public synchronized void publish(InvariantSupplier pSupplier) {
+    latest = new Publication(latest.version + 1, checkNotNull(pSupplier));
+  }
+
+  /**
+   * Return the latest published invariants.
+   */
+  public InvariantSupplier getCurrentInvariants() {
+    return latest.supplier;
+  }
+
+  /**
+   * Return the number of publications so far.
+   */
+  public int getNumberOfPublications() {
+    return latest.version;
+  }
+
+  /**
+   * Create a new subscription to this channel.
+   */
+  public Subscription subscribe() {
+    return new Subscription();
+  }
+
+  /**
+   * Subscription to an {@link InvariantChannel}.
+   * It provides the latest published invariants and caches the invariant
+   * for each location until new invariants are published.
+   * Subscriptions may be queried from several threads.
+   */
+  public final class Subscription implements InvariantSupplier {
+
+    private final ConcurrentMap<CFANode, CachedInvariant> cache = new ConcurrentHashMap<>();
+
+    private Subscription() { }
+
+    @Override
+    public BooleanFormula getInvariantFor(CFANode pLocation, FormulaManagerView pFmgr, PathFormulaManager pPfmgr) {
+      Publication publication = latest;
+
+      CachedInvariant cached = cache.get(pLocation);
+      if (cached != null && cached.version == publication.version && cached.fmgr == pFmgr) {
+        return cached.invariant;
+      }
+
+      BooleanFormula invariant = publication.supplier.getInvariantFor(pLocation, pFmgr, pPfmgr);
+      cache.put(pLocation, new CachedInvariant(publication.version, pFmgr, invariant));
+      return invariant;
+    }
+
+    /**
+     * Return the version of the invariants this subscription currently provides.
+     * The version increases with each publication on the channel.
+     */
+    public int getVersion() {
+      return latest.version;
+    }
+  }
+
+  private static final class CachedInvariant {
+
+    private final int version;
+    private final FormulaManagerView fmgr;
+    private final BooleanFormula invariant;
+
+    private CachedInvariant(int pVersion, FormulaManagerView pFmgr, BooleanFormula pInvariant) {
+      version = pVersion;
+      fmgr = pFmgr;
+      invariant = pInvariant;
+    }
+  }
+}
@@ -28,6 +28,8 @@ import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.UnrecognizedCodeException;
 
+import com.google.common.base.Optional;
+
 
 /**
  * Interface for methods to generate invariants about the program.
@@ -42,6 +44,10 @@ import org.sosy_lab.cpachecker.exceptions.UnrecognizedCodeException;
  *
  * It is also a good idea to call {@link #get()} only if really necessary
  * (in synchronous case, it is expensive).
+ *
+ * Generators running in parallel to the analysis may additionally provide
+ * an {@link InvariantChannel} that streams invariants as soon as they are
+ * proven, such that consumers do not need to wait for {@link #get()}.
  */
 public interface InvariantGenerator {
 
@@ -88,4 +94,14 @@ public interface InvariantGenerator {
    * @throws UnrecognizedCodeException if a problem occurred during the injection.
    */
   void injectInvariant(CFANode pLocation, AssumeEdge pAssumption) throws UnrecognizedCodeException;
-}
\ No newline at end of file
+
+  /**
+   * Return the channel on which this generator publishes invariants
+   * while it is running, if it runs in parallel to its consumers.
+   * Can be called before {@link #start(CFANode)}.
+   *
+   * @return the channel, or {@code Optional.absent()} if the invariants
+   * are only available through {@link #get()}.
+   */
+  Optional<InvariantChannel> getChannel();
+}
@@ -42,7 +42,6 @@ import org.sosy_lab.common.concurrency.Threads;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.log.LogManager;
-import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.AssumeEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
@@ -63,8 +62,10 @@ import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.cpa.predicate.PredicateCPA;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.CPAs;
+import org.sosy_lab.cpachecker.util.statistics.ConcurrentStatTimer;
 import org.sosy_lab.solver.SolverException;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 
 /**
@@ -74,7 +75,7 @@ public class KInductionInvariantGenerator implements InvariantGenerator, Statist
 
   private static class KInductionInvariantGeneratorStatistics extends BMCStatistics {
 
-    final Timer invariantGeneration = new Timer();
+    final ConcurrentStatTimer invariantGeneration = new ConcurrentStatTimer("Time for invariant generation");
 
     @Override
     public void printStatistics(PrintStream out, Result result, ReachedSet reached) {
@@ -99,6 +100,9 @@ public class KInductionInvariantGenerator implements InvariantGenerator, Statist
 
   private final boolean async;
 
+  // the invariants are published here whenever new candidates were confirmed
+  private final InvariantChannel channel = new InvariantChannel();
+
   // After start(), this will hold a Future for the final result of the invariant generation.
   // We use a Future instead of just the atomic reference below
   // to be able to ask for termination and see thrown exceptions.
@@ -140,7 +144,7 @@ public class KInductionInvariantGenerator implements InvariantGenerator, Statist
     Algorithm cpaAlgorithm = CPAAlgorithm.create(cpa, logger, config, pShutdownNotifier);
     algorithm = new BMCAlgorithmForInvariantGeneration(
         cpaAlgorithm, cpa, config, logger, pReachedSetFactory,
-        pShutdownNotifier, cfa, stats);
+        pShutdownNotifier, cfa, stats, channel);
 
     PredicateCPA predicateCPA = CPAs.retrieveCPA(cpa, PredicateCPA.class);
     if (predicateCPA == null) {
@@ -208,6 +212,11 @@ public class KInductionInvariantGenerator implements InvariantGenerator, Statist
     // ignore for now (never called anyway)
   }
 
+  @Override
+  public Optional<InvariantChannel> getChannel() {
+    return async ? Optional.of(channel) : Optional.<InvariantChannel>absent();
+  }
+
   @Override
   public void collectStatistics(Collection<Statistics> pStatsCollection) {
     algorithm.collectStatistics(pStatsCollection);
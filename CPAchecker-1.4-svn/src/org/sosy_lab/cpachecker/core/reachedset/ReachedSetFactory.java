@@ -28,9 +28,13 @@ import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFAIndex;
 import org.sosy_lab.cpachecker.core.waitlist.AutomatonFailedMatchesWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.AutomatonMatchesWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.CallstackSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.CoverageGuidedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.DistanceToTargetWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.ExplicitSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.LoopstackSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.PostorderSortedWaitlist;
@@ -75,6 +79,20 @@ public class ReachedSetFactory {
       + "The secondary strategy is selected with 'analysis.traversal.order'.")
   boolean usePostorder = false;
 
+  @Option(secure=true, name = "traversal.useCoverage",
+      description = "handle states first from which more CFA edges are reachable that were not yet covered. "
+      + "The secondary strategy is selected with 'analysis.traversal.order'.")
+  boolean useCoverage = false;
+
+  @Option(secure=true, name = "traversal.useDistanceToTarget",
+      description = "handle states first that are closer to a call of the target function "
+      + "(directed search). The secondary strategy is selected with 'analysis.traversal.order'.")
+  boolean useDistanceToTarget = false;
+
+  @Option(secure=true, name = "traversal.targetFunction",
+      description = "the function whose calls are the target for 'analysis.traversal.useDistanceToTarget'")
+  String targetFunction = "__VERIFIER_error";
+
   @Option(secure=true, name = "traversal.useExplicitInformation",
       description = "handle more abstract states (with less information) first? (only for ExplicitCPA)")
   boolean useExplicitInformation = false;
@@ -100,6 +118,18 @@ public class ReachedSetFactory {
   }
 
   public ReachedSet create() {
+    return create(CFAIndex.empty());
+  }
+
+  /**
+   * Create a reached set for the analysis of the given CFA.
+   * Some waitlists use the CFA to precompute information about all its nodes.
+   */
+  public ReachedSet create(CFA pCfa) {
+    return create(pCfa.getIndex());
+  }
+
+  private ReachedSet create(CFAIndex pCfaIndex) {
     WaitlistFactory waitlistFactory = traversalMethod;
 
     if (useAutomatonInformation) {
@@ -112,6 +142,12 @@ public class ReachedSetFactory {
     if (usePostorder) {
       waitlistFactory = PostorderSortedWaitlist.factory(waitlistFactory);
     }
+    if (useCoverage) {
+      waitlistFactory = CoverageGuidedWaitlist.factory(waitlistFactory);
+    }
+    if (useDistanceToTarget) {
+      waitlistFactory = DistanceToTargetWaitlist.factory(waitlistFactory, targetFunction, pCfaIndex);
+    }
     if (useLoopstack) {
       waitlistFactory = LoopstackSortedWaitlist.factory(waitlistFactory);
     }
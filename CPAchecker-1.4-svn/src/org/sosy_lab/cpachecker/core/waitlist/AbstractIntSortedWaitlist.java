@@ -0,0 +1,236 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Iterables;
+import com.google.errorprone.annotations.ForOverride;
+
+/**
+ * Implementation of a sorted waitlist for integer keys
+ * that has the same semantics as {@link AbstractSortedWaitlist}
+ * (states with the highest key are handled first,
+ * states with the same key are handled by a secondary strategy),
+ * but avoids boxing the keys and allocating a new waitlist for each key.
+ *
+ * The states are stored in an array of buckets, one for each key between the lowest and the highest key
+ * that was seen so far. Buckets that become empty are kept and reused later,
+ * thus after the range of keys is known, adding and popping states does not allocate.
+ * This is intended for keys from a dense range such as reverse postorder ids or callstack depths,
+ * for sparse keys {@link AbstractSortedWaitlist} should be used.
+ *
+ * Secondary waitlists that become empty are cleared,
+ * such that they behave like new instances when they are reused.
+ *
+ * The iterators created by this class are unmodifiable.
+ */
+public abstract class AbstractIntSortedWaitlist implements Waitlist {
+
+  private static final int INITIAL_BUCKETS = 8;
+
+  private final WaitlistFactory wrappedWaitlist;
+
+  // buckets[i] contains the states with key (i + offset), may be null or empty
+  private Waitlist[] buckets = new Waitlist[0];
+  private int offset = 0;
+
+  // index of the highest non-empty bucket, all buckets above are empty (-1 if waitlist is empty)
+  private int highestBucket = -1;
+
+  private int size = 0;
+
+  /**
+   * Constructor that needs a factory for the waitlist implementation that
+   * should be used to store states with the same sorting key.
+   */
+  protected AbstractIntSortedWaitlist(WaitlistFactory pSecondaryStrategy) {
+    wrappedWaitlist = Preconditions.checkNotNull(pSecondaryStrategy);
+  }
+
+  /**
+   * Method that generates the sorting key for any abstract state.
+   * If this method throws an exception, no guarantees about the state of the
+   * current instance of this class are made.
+   */
+  @ForOverride
+  protected abstract int getSortKey(AbstractState pState);
+
+  /**
+   * Get the index of the bucket for the given key,
+   * or -1 if there is no such bucket.
+   */
+  private int getIndex(int pKey) {
+    long index = (long) pKey - offset;
+    return (index >= 0 && index < buckets.length) ? (int) index : -1;
+  }
+
+  /**
+   * Get the index of the bucket for the given key,
+   * and grow the array of buckets if necessary.
+   */
+  private int getOrCreateIndex(int pKey) {
+    int index = getIndex(pKey);
+    if (index >= 0) {
+      return index;
+    }
+
+    if (buckets.length == 0) {
+      buckets = new Waitlist[INITIAL_BUCKETS];
+      offset = pKey;
+      return 0;
+    }
+
+    long lowestKey = Math.min((long) pKey, offset);
+    long highestKey = Math.max((long) pKey, (long) offset + buckets.length - 1);
+    long newLength = Math.max(highestKey - lowestKey + 1, 2L * buckets.length);
+    Preconditions.checkState(newLength <= Integer.MAX_VALUE, "Range of sort keys too large");
+
+    Waitlist[] newBuckets = new Waitlist[(int) newLength];
+    int shift;
+    if (pKey < offset) {
+      // grow towards lower keys
+      shift = (int) (newLength - buckets.length);
+      offset -= shift;
+    } else {
+      shift = 0;
+    }
+    System.arraycopy(buckets, 0, newBuckets, shift, buckets.length);
+    buckets = newBuckets;
+    if (highestBucket >= 0) {
+      highestBucket += shift;
+    }
+    return getIndex(pKey);
+  }
+
+  @Override
+  public void add(AbstractState pState) {
+    int index = getOrCreateIndex(getSortKey(pState));
+    Waitlist bucket = buckets[index];
+    if (bucket == null) {
+      bucket = wrappedWaitlist.createWaitlistInstance();
+      buckets[index] = bucket;
+    }
+    bucket.add(pState);
+    highestBucket = Math.max(highestBucket, index);
+    size++;
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    int index = getIndex(getSortKey(pState));
+    if (index < 0 || buckets[index] == null) {
+      return false;
+    }
+    return buckets[index].contains(pState);
+  }
+
+  @Override
+  public void clear() {
+    if (size == 0) {
+      // all buckets were already cleared when they became empty
+      return;
+    }
+    for (Waitlist bucket : buckets) {
+      if (bucket != null) {
+        bucket.clear();
+      }
+    }
+    highestBucket = -1;
+    size = 0;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    assert (highestBucket < 0) == (size == 0);
+    return size == 0;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return Iterables.concat(Iterables.filter(Arrays.asList(buckets), Predicates.notNull())).iterator();
+  }
+
+  @Override
+  public final AbstractState pop() {
+    Waitlist bucket = buckets[highestBucket];
+    assert !bucket.isEmpty();
+    AbstractState result = bucket.pop();
+    if (bucket.isEmpty()) {
+      bucketEmptied(highestBucket);
+    }
+    size--;
+    return result;
+  }
+
+  @Override
+  public boolean remove(AbstractState pState) {
+    int index = getIndex(getSortKey(pState));
+    if (index < 0 || buckets[index] == null) {
+      return false;
+    }
+    Waitlist bucket = buckets[index];
+    boolean result = bucket.remove(pState);
+    if (result) {
+      if (bucket.isEmpty()) {
+        bucketEmptied(index);
+      }
+      size--;
+    }
+    return result;
+  }
+
+  private void bucketEmptied(int pIndex) {
+    buckets[pIndex].clear();
+    if (pIndex == highestBucket) {
+      do {
+        highestBucket--;
+      } while (highestBucket >= 0 && (buckets[highestBucket] == null || buckets[highestBucket].isEmpty()));
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < buckets.length; i++) {
+      if (buckets[i] != null && !buckets[i].isEmpty()) {
+        if (sb.length() > 1) {
+          sb.append(", ");
+        }
+        sb.append(i + offset).append('=').append(buckets[i]);
+      }
+    }
+    return sb.append('}').toString();
+  }
+}
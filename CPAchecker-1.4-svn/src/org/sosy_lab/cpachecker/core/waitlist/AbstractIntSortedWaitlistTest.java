@@ -0,0 +1,125 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+
+import com.google.common.collect.ImmutableList;
+
+public class AbstractIntSortedWaitlistTest {
+
+  private static class KeyState implements AbstractState {
+    private final int key;
+
+    private KeyState(int pKey) {
+      key = pKey;
+    }
+
+    @Override
+    public String toString() {
+      return "State with key " + key;
+    }
+  }
+
+  private static class IntSortedWaitlist extends AbstractIntSortedWaitlist {
+    private IntSortedWaitlist(WaitlistFactory pSecondaryStrategy) {
+      super(pSecondaryStrategy);
+    }
+
+    @Override
+    protected int getSortKey(AbstractState pState) {
+      return ((KeyState) pState).key;
+    }
+  }
+
+  private static class SortedWaitlist extends AbstractSortedWaitlist<Integer> {
+    private SortedWaitlist(WaitlistFactory pSecondaryStrategy) {
+      super(pSecondaryStrategy);
+    }
+
+    @Override
+    protected Integer getSortKey(AbstractState pState) {
+      return ((KeyState) pState).key;
+    }
+  }
+
+  @Test
+  public void testOrder() {
+    Waitlist waitlist = new IntSortedWaitlist(TraversalMethod.BFS);
+    KeyState s1 = new KeyState(5);
+    KeyState s2 = new KeyState(-3);
+    KeyState s3 = new KeyState(5);
+    KeyState s4 = new KeyState(100);
+    for (KeyState s : ImmutableList.of(s1, s2, s3, s4)) {
+      waitlist.add(s);
+    }
+
+    assertThat(waitlist.size()).isEqualTo(4);
+    assertThat(waitlist).containsExactly(s2, s1, s3, s4).inOrder();
+    assertThat(waitlist.pop()).isSameAs(s4);
+    assertThat(waitlist.pop()).isSameAs(s1);
+    assertThat(waitlist.remove(s2)).isTrue();
+    assertThat(waitlist.remove(s2)).isFalse();
+    assertThat(waitlist.pop()).isSameAs(s3);
+    assertThat(waitlist.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testSameBehaviorAsAbstractSortedWaitlist() {
+    Random random = new Random(0);
+    Waitlist expected = new SortedWaitlist(TraversalMethod.DFS);
+    Waitlist actual = new IntSortedWaitlist(TraversalMethod.DFS);
+    List<KeyState> added = new ArrayList<>();
+
+    for (int i = 0; i < 10000; i++) {
+      int operation = random.nextInt(10);
+      if (operation < 5 || expected.isEmpty()) {
+        KeyState state = new KeyState(random.nextInt(200) - 100);
+        added.add(state);
+        expected.add(state);
+        actual.add(state);
+      } else if (operation < 9) {
+        assertThat(actual.pop()).isSameAs(expected.pop());
+      } else {
+        KeyState state = added.get(random.nextInt(added.size()));
+        assertThat(actual.contains(state)).isEqualTo(expected.contains(state));
+        assertThat(actual.remove(state)).isEqualTo(expected.remove(state));
+      }
+      assertThat(actual.size()).isEqualTo(expected.size());
+    }
+    assertThat(ImmutableList.copyOf(actual)).isEqualTo(ImmutableList.copyOf(expected));
+    assertThat(actual.toString()).isEqualTo(expected.toString());
+
+    actual.clear();
+    assertThat(actual.isEmpty()).isTrue();
+  }
+}
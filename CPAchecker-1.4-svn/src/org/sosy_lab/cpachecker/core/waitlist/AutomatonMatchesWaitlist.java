@@ -28,14 +28,14 @@ import org.sosy_lab.cpachecker.cpa.automaton.AutomatonState;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 
 
-public class AutomatonMatchesWaitlist extends AbstractSortedWaitlist<Integer> {
+public class AutomatonMatchesWaitlist extends AbstractIntSortedWaitlist {
 
   protected AutomatonMatchesWaitlist(WaitlistFactory pSecondaryStrategy) {
     super(pSecondaryStrategy);
   }
 
   @Override
-  protected Integer getSortKey(AbstractState pState) {
+  protected int getSortKey(AbstractState pState) {
     int sortKey = 0;
     for (AutomatonState automatonState : AbstractStates.asIterable(pState).filter(AutomatonState.class)) {
       sortKey = Math.max(sortKey, automatonState.getMatches());
@@ -0,0 +1,155 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+
+/**
+ * Waitlist that handles states first from whose location
+ * the most CFA edges are reachable that were not covered yet.
+ *
+ * An edge counts as covered as soon as a state at its predecessor was popped
+ * from the waitlist, because then the analysis computes the successors for this edge.
+ * This is the same coverage criterion as for CoverageCPA in TRANSFER mode.
+ * All waitlists created by the same factory share their coverage information.
+ *
+ * The score of a state is computed when it is added and is used as its key
+ * in an {@link AbstractIntSortedWaitlist}. It may become outdated
+ * when more edges are covered. Because scores can only decrease,
+ * it is sufficient to recompute the score of the state with the highest key when popping,
+ * and to re-insert it with its current score if this is lower than its key.
+ *
+ * States with the same score are handled according to a secondary strategy.
+ * The iterators created by this class are unmodifiable.
+ */
+public class CoverageGuidedWaitlist implements Waitlist {
+
+  private final UncoveredEdgesIndex index;
+
+  // the score of each state when it was added, which is its key in the waitlist
+  private final Map<AbstractState, Integer> keys = new IdentityHashMap<>();
+
+  private final AbstractIntSortedWaitlist waitlist;
+
+  private CoverageGuidedWaitlist(WaitlistFactory pSecondaryStrategy, UncoveredEdgesIndex pIndex) {
+    index = pIndex;
+    waitlist = new AbstractIntSortedWaitlist(pSecondaryStrategy) {
+      @Override
+      protected int getSortKey(AbstractState pState) {
+        Integer key = keys.get(pState);
+        // states that are not in the waitlist get a key without bucket
+        return key == null ? -1 : key;
+      }
+    };
+  }
+
+  private int getScore(AbstractState pState) {
+    CFANode location = AbstractStates.extractLocation(pState);
+    assert location != null;
+    return index.getUncoveredReachableEdges(location);
+  }
+
+  @Override
+  public void add(AbstractState pState) {
+    addWithScore(pState, getScore(pState));
+  }
+
+  private void addWithScore(AbstractState pState, int pScore) {
+    keys.put(pState, pScore);
+    waitlist.add(pState);
+  }
+
+  @Override
+  public AbstractState pop() {
+    while (true) {
+      AbstractState result = waitlist.pop();
+      int key = keys.remove(result);
+      int score = getScore(result);
+      assert score <= key;
+      if (score == key) {
+        // all other states have at most this score
+        index.markLeavingEdgesCovered(AbstractStates.extractLocation(result));
+        return result;
+      }
+      addWithScore(result, score);
+    }
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    return waitlist.contains(pState);
+  }
+
+  @Override
+  public boolean remove(AbstractState pState) {
+    if (waitlist.remove(pState)) {
+      keys.remove(pState);
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void clear() {
+    waitlist.clear();
+    keys.clear();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return waitlist.isEmpty();
+  }
+
+  @Override
+  public int size() {
+    return waitlist.size();
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return waitlist.iterator();
+  }
+
+  @Override
+  public String toString() {
+    return waitlist.toString();
+  }
+
+  public static WaitlistFactory factory(final WaitlistFactory pSecondaryStrategy) {
+    final UncoveredEdgesIndex index = new UncoveredEdgesIndex();
+    return new WaitlistFactory() {
+
+      @Override
+      public Waitlist createWaitlistInstance() {
+        return new CoverageGuidedWaitlist(pSecondaryStrategy, index);
+      }
+    };
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.CFACreationUtils;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CParameterDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.types.c.CFunctionType;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithLocation;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+
+import com.google.common.base.Optional;
+
+public class CoverageGuidedWaitlistTest {
+
+  private static final String FUNCTION = "main";
+
+  private static class LocState implements AbstractStateWithLocation {
+    private final CFANode location;
+
+    private LocState(CFANode pLocation) {
+      location = pLocation;
+    }
+
+    @Override
+    public CFANode getLocationNode() {
+      return location;
+    }
+
+    @Override
+    public Iterable<CFAEdge> getOutgoingEdges() {
+      return CFAUtils.leavingEdges(location);
+    }
+
+    @Override
+    public String toString() {
+      return "State at " + location;
+    }
+  }
+
+  private CFANode a;
+  private CFANode b;
+  private CFANode d;
+
+  private static void addEdge(CFANode pPredecessor, CFANode pSuccessor) {
+    CFAEdge edge = new BlankEdge("", FileLocation.DUMMY, pPredecessor, pSuccessor, "");
+    CFACreationUtils.addEdgeUnconditionallyToCFA(edge);
+  }
+
+  /**
+   * Creates the function entry -> a -> b -> c -> x and entry -> d -> y -> z.
+   */
+  @Before
+  public void setUp() {
+    CFunctionEntryNode entry = new CFunctionEntryNode(
+        FileLocation.DUMMY,
+        new CFunctionDeclaration(FileLocation.DUMMY,
+            CFunctionType.functionTypeWithReturnType(CNumericTypes.INT), FUNCTION,
+            Collections.<CParameterDeclaration>emptyList()),
+        new FunctionExitNode(FUNCTION),
+        Collections.<String>emptyList(),
+        Optional.<CVariableDeclaration>absent());
+    a = new CFANode(FUNCTION);
+    b = new CFANode(FUNCTION);
+    CFANode c = new CFANode(FUNCTION);
+    CFANode x = new CFANode(FUNCTION);
+    d = new CFANode(FUNCTION);
+    CFANode y = new CFANode(FUNCTION);
+    CFANode z = new CFANode(FUNCTION);
+    addEdge(entry, a);
+    addEdge(a, b);
+    addEdge(b, c);
+    addEdge(c, x);
+    addEdge(entry, d);
+    addEdge(d, y);
+    addEdge(y, z);
+  }
+
+  @Test
+  public void testOrder() {
+    Waitlist waitlist = CoverageGuidedWaitlist.factory(TraversalMethod.BFS).createWaitlistInstance();
+    LocState atB = new LocState(b);
+    LocState atD = new LocState(d);
+    LocState atA = new LocState(a);
+    LocState atA2 = new LocState(a);
+    waitlist.add(atB);  // 2 uncovered edges
+    waitlist.add(atD);  // 2 uncovered edges
+    waitlist.add(atA);  // 3 uncovered edges
+    waitlist.add(atA2); // 3 uncovered edges
+    assertThat(waitlist.size()).isEqualTo(4);
+
+    assertThat(waitlist.pop()).isSameAs(atA);
+    // a -> b is covered now, thus the second state at a has only 2 uncovered edges
+    // and is handled after the states that were added before with the same score
+    assertThat(waitlist.pop()).isSameAs(atB);
+    assertThat(waitlist.pop()).isSameAs(atD);
+    assertThat(waitlist.contains(atA2)).isTrue();
+    assertThat(waitlist.pop()).isSameAs(atA2);
+    assertThat(waitlist.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testRemove() {
+    Waitlist waitlist = CoverageGuidedWaitlist.factory(TraversalMethod.BFS).createWaitlistInstance();
+    LocState atA = new LocState(a);
+    LocState atD = new LocState(d);
+    waitlist.add(atA);
+    waitlist.add(atD);
+    assertThat(waitlist.remove(atA)).isTrue();
+    assertThat(waitlist.remove(atA)).isFalse();
+    assertThat(waitlist.contains(atA)).isFalse();
+    assertThat(waitlist).containsExactly(atD);
+    assertThat(waitlist.pop()).isSameAs(atD);
+    assertThat(waitlist.isEmpty()).isTrue();
+  }
+}
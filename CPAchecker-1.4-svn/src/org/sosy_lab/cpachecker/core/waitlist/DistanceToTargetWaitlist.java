@@ -0,0 +1,179 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.sosy_lab.cpachecker.cfa.CFAIndex;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Iterables;
+
+/**
+ * Waitlist for directed search that handles states first
+ * whose location is closest to a call of the target function
+ * (usually the error function).
+ *
+ * States are kept in a bucket queue indexed by the distance,
+ * states in the same bucket are handled according to a secondary strategy
+ * (e.g., use the secondary strategy RAND for randomized tie-breaking).
+ * States that cannot reach the target are handled last.
+ * Buckets are never discarded but reused when they become empty,
+ * thus adding and popping states does not allocate new buckets after the initial phase.
+ *
+ * All waitlists created by the same factory share the precomputed distances.
+ * The iterators created by this class are unmodifiable.
+ */
+public class DistanceToTargetWaitlist implements Waitlist {
+
+  private final WaitlistFactory wrappedWaitlist;
+  private final TargetDistances distances;
+
+  // buckets[i] contains the states with distance i, buckets may be null or empty,
+  // the last bucket contains the states that cannot reach the target
+  private Waitlist[] buckets = new Waitlist[16];
+
+  // all buckets below this index are empty
+  private int lowestBucket = 0;
+
+  private int size = 0;
+
+  private DistanceToTargetWaitlist(WaitlistFactory pSecondaryStrategy, TargetDistances pDistances) {
+    wrappedWaitlist = Preconditions.checkNotNull(pSecondaryStrategy);
+    distances = pDistances;
+  }
+
+  private int getBucketIndex(AbstractState pState) {
+    CFANode location = AbstractStates.extractLocation(pState);
+    assert location != null;
+    int distance = distances.getDistance(location);
+    if (distance == TargetDistances.UNREACHABLE) {
+      return buckets.length - 1;
+    }
+    if (distance >= buckets.length - 1) {
+      grow(distance + 2);
+    }
+    return distance;
+  }
+
+  private void grow(int pMinLength) {
+    int newLength = Math.max(pMinLength, 2 * buckets.length);
+    Waitlist[] newBuckets = Arrays.copyOf(buckets, newLength);
+    // keep bucket for unreachable states at the end
+    newBuckets[newLength - 1] = buckets[buckets.length - 1];
+    newBuckets[buckets.length - 1] = null;
+    buckets = newBuckets;
+  }
+
+  @Override
+  public void add(AbstractState pState) {
+    int index = getBucketIndex(pState);
+    Waitlist bucket = buckets[index];
+    if (bucket == null) {
+      bucket = wrappedWaitlist.createWaitlistInstance();
+      buckets[index] = bucket;
+    }
+    bucket.add(pState);
+    lowestBucket = Math.min(lowestBucket, index);
+    size++;
+  }
+
+  @Override
+  public AbstractState pop() {
+    Preconditions.checkState(size > 0);
+    while (buckets[lowestBucket] == null || buckets[lowestBucket].isEmpty()) {
+      lowestBucket++;
+    }
+    size--;
+    return buckets[lowestBucket].pop();
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    Waitlist bucket = buckets[getBucketIndex(pState)];
+    return bucket != null && bucket.contains(pState);
+  }
+
+  @Override
+  public boolean remove(AbstractState pState) {
+    Waitlist bucket = buckets[getBucketIndex(pState)];
+    if (bucket != null && bucket.remove(pState)) {
+      size--;
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void clear() {
+    for (Waitlist bucket : buckets) {
+      if (bucket != null) {
+        bucket.clear();
+      }
+    }
+    lowestBucket = 0;
+    size = 0;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return Iterables.concat(Iterables.filter(Arrays.asList(buckets), Predicates.notNull())).iterator();
+  }
+
+  @Override
+  public String toString() {
+    return Iterables.toString(this);
+  }
+
+  /**
+   * @param pCfaIndex The index of the analyzed CFA, or {@link CFAIndex#empty()}
+   *        if the relevant part of the CFA should be discovered on the fly.
+   */
+  public static WaitlistFactory factory(final WaitlistFactory pSecondaryStrategy, final String pTargetFunction,
+      CFAIndex pCfaIndex) {
+    final TargetDistances distances = new TargetDistances(pTargetFunction, pCfaIndex);
+    return new WaitlistFactory() {
+
+      @Override
+      public Waitlist createWaitlistInstance() {
+        return new DistanceToTargetWaitlist(pSecondaryStrategy, distances);
+      }
+    };
+  }
+}
@@ -65,6 +65,13 @@ public class RandomPathWaitlist extends AbstractWaitlist<LinkedList<AbstractStat
   }
 
 
+  @Override
+  public void clear() {
+    super.clear();
+    parent = null;
+    successorsOfParent = 0;
+  }
+
   @Override
   public AbstractState pop() {
     AbstractState state;
@@ -0,0 +1,173 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.sosy_lab.cpachecker.cfa.CFAIndex;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCall;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CStatement;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.MultiEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+
+/**
+ * Shortest distances (in number of CFA edges) from CFA nodes to the next call of a target function.
+ *
+ * Distances are computed by a backwards breadth-first search from all target locations
+ * (the predecessors of edges that call the target function).
+ * Function call, return, and summary edges are all followed and count as one step each,
+ * the callstack is not considered.
+ * The relevant part of the CFA is discovered by a forward search from the first node that is queried
+ * (usually the entry of the main function), such that no CFA object is necessary.
+ * If a {@link CFAIndex} is given, the distances for all nodes of the index
+ * are instead computed at once and stored in an array.
+ */
+final class TargetDistances {
+
+  static final int UNREACHABLE = Integer.MAX_VALUE;
+
+  private final String targetFunction;
+  private final Map<CFANode, Integer> distances = new HashMap<>();
+
+  // distances by node index in cfaIndex, computed on the first query
+  private final CFAIndex cfaIndex;
+  private int[] indexedDistances;
+
+  /**
+   * @param pCfaIndex The index of the analyzed CFA, or {@link CFAIndex#empty()}
+   *        to discover the CFA on the fly.
+   */
+  TargetDistances(String pTargetFunction, CFAIndex pCfaIndex) {
+    targetFunction = pTargetFunction;
+    cfaIndex = pCfaIndex;
+  }
+
+  /**
+   * Get the length of the shortest path from the given node to a call of the target function,
+   * or {@link #UNREACHABLE}.
+   */
+  int getDistance(CFANode pNode) {
+    if (indexedDistances == null) {
+      computeIndexedDistances();
+    }
+    int node = cfaIndex.getNodeIndex(pNode);
+    if (node >= 0) {
+      return indexedDistances[node];
+    }
+
+    // node not in the index (no index given, or inner node of a MultiEdge)
+    Integer distance = distances.get(pNode);
+    if (distance == null) {
+      computeDistances(pNode);
+      distance = distances.get(pNode);
+    }
+    return distance;
+  }
+
+  private void computeIndexedDistances() {
+    BitSet targets = new BitSet(cfaIndex.getNumberOfNodes());
+    for (int n = 0; n < cfaIndex.getNumberOfNodes(); n++) {
+      for (int e = cfaIndex.getLeavingEdgesStart(n); e < cfaIndex.getLeavingEdgesEnd(n); e++) {
+        if (isTargetCall(cfaIndex.getEdge(e))) {
+          targets.set(n);
+          break;
+        }
+      }
+    }
+    indexedDistances = cfaIndex.getBackwardsDistances(targets);
+  }
+
+  private void computeDistances(CFANode pNewRoot) {
+    // discover all nodes reachable from the new root and from the nodes known so far
+    Deque<CFANode> waitlist = new ArrayDeque<>(distances.keySet());
+    waitlist.add(pNewRoot);
+    for (CFANode node : waitlist) {
+      distances.put(node, UNREACHABLE);
+    }
+    Deque<CFANode> targets = new ArrayDeque<>();
+    while (!waitlist.isEmpty()) {
+      CFANode node = waitlist.poll();
+      for (CFAEdge edge : CFAUtils.allLeavingEdges(node)) {
+        if (isTargetCall(edge) && distances.get(node) != 0) {
+          distances.put(node, 0);
+          targets.add(node);
+        }
+        CFANode successor = edge.getSuccessor();
+        if (!distances.containsKey(successor)) {
+          distances.put(successor, UNREACHABLE);
+          waitlist.add(successor);
+        }
+      }
+    }
+
+    // backwards breadth-first search from the targets
+    while (!targets.isEmpty()) {
+      CFANode node = targets.poll();
+      int distance = distances.get(node) + 1;
+      for (CFAEdge edge : CFAUtils.allEnteringEdges(node)) {
+        CFANode predecessor = edge.getPredecessor();
+        Integer oldDistance = distances.get(predecessor);
+        if (oldDistance != null && oldDistance > distance) {
+          distances.put(predecessor, distance);
+          targets.add(predecessor);
+        }
+      }
+    }
+  }
+
+  private boolean isTargetCall(CFAEdge pEdge) {
+    switch (pEdge.getEdgeType()) {
+    case MultiEdge:
+      for (CFAEdge innerEdge : ((MultiEdge) pEdge).getEdges()) {
+        if (isTargetCall(innerEdge)) {
+          return true;
+        }
+      }
+      return false;
+    case FunctionCallEdge:
+      return pEdge.getSuccessor().getFunctionName().equals(targetFunction);
+    case StatementEdge:
+      if (pEdge instanceof CStatementEdge) {
+        CStatement statement = ((CStatementEdge) pEdge).getStatement();
+        if (statement instanceof CFunctionCall) {
+          CExpression function = ((CFunctionCall) statement).getFunctionCallExpression().getFunctionNameExpression();
+          return function instanceof CIdExpression
+              && ((CIdExpression) function).getName().equals(targetFunction);
+        }
+      }
+      return false;
+    default:
+      return false;
+    }
+  }
+}
@@ -0,0 +1,300 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionSummaryEdge;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+
+/**
+ * Index that knows for each CFA node how many edges that are not yet covered
+ * are reachable from this node.
+ *
+ * The reachable edges are computed per function without considering the callstack:
+ * the edges reachable from a node are the edges of the same function
+ * that are reachable without returning from the function (function calls are skipped),
+ * and all edges of the functions that are (transitively) called on the way.
+ * The index is built lazily for each function when it is first needed.
+ *
+ * Coverage only grows, thus the number of uncovered reachable edges of a node only decreases.
+ * The numbers are cached, and when an edge is covered, only the cached numbers of nodes
+ * from which this edge is reachable (possibly via function calls) are invalidated.
+ */
+final class UncoveredEdgesIndex {
+
+  private final Map<String, FunctionIndex> functions = new HashMap<>();
+
+  // for each function name, the indexed functions that call it
+  private final SetMultimap<String, FunctionIndex> callers = HashMultimap.create();
+
+  /**
+   * Get the number of edges that are reachable from the given node and not yet covered.
+   */
+  int getUncoveredReachableEdges(CFANode pNode) {
+    return getFunction(pNode).getScore(pNode);
+  }
+
+  /**
+   * Mark all edges leaving the given node as covered.
+   */
+  void markLeavingEdgesCovered(CFANode pNode) {
+    FunctionIndex function = getFunction(pNode);
+    boolean changed = false;
+    for (CFAEdge edge : CFAUtils.leavingEdges(pNode)) {
+      Integer id = function.edgeIds.get(edge);
+      if (id != null && !function.covered.get(id)) {
+        function.covered.set(id);
+        function.invalidateScores(function.edgeSets.get(id));
+        changed = true;
+      }
+    }
+    if (changed) {
+      invalidateCallers(pNode.getFunctionName());
+    }
+  }
+
+  /**
+   * Invalidate the cached scores of all nodes that may call the given function,
+   * directly or transitively.
+   */
+  private void invalidateCallers(String pFunction) {
+    Set<String> visited = new HashSet<>();
+    Deque<String> waitlist = new ArrayDeque<>();
+    waitlist.push(pFunction);
+    visited.add(pFunction);
+    while (!waitlist.isEmpty()) {
+      String callee = waitlist.pop();
+      for (FunctionIndex caller : callers.get(callee)) {
+        caller.invalidateScores(caller.callEdgesByCallee.get(callee));
+        if (visited.add(caller.name)) {
+          waitlist.push(caller.name);
+        }
+      }
+    }
+  }
+
+  private FunctionIndex getFunction(CFANode pNode) {
+    FunctionIndex result = functions.get(pNode.getFunctionName());
+    if (result == null) {
+      result = new FunctionIndex(findFunctionEntry(pNode));
+      functions.put(pNode.getFunctionName(), result);
+    }
+    return result;
+  }
+
+  private static FunctionEntryNode findFunctionEntry(CFANode pNode) {
+    Set<CFANode> visited = new HashSet<>();
+    Deque<CFANode> waitlist = new ArrayDeque<>();
+    waitlist.add(pNode);
+    while (!waitlist.isEmpty()) {
+      CFANode node = waitlist.poll();
+      if (node instanceof FunctionEntryNode) {
+        return (FunctionEntryNode) node;
+      }
+      if (!visited.add(node)) {
+        continue;
+      }
+      if (node.getEnteringSummaryEdge() != null) {
+        waitlist.add(node.getEnteringSummaryEdge().getPredecessor());
+      }
+      for (CFAEdge edge : CFAUtils.enteringEdges(node)) {
+        if (edge.getEdgeType() != CFAEdgeType.FunctionReturnEdge) {
+          waitlist.add(edge.getPredecessor());
+        }
+      }
+    }
+    throw new IllegalArgumentException("No function entry found for " + pNode);
+  }
+
+  private final class FunctionIndex {
+
+    private final String name;
+    private final Map<CFANode, Integer> nodeIds = new HashMap<>();
+    private final Map<CFAEdge, Integer> edgeIds = new HashMap<>();
+    private final List<CFAEdge> edges = new ArrayList<>();
+
+    // for each node, the edges of this function that are reachable
+    private final List<BitSet> reachableEdges = new ArrayList<>();
+    private final BitSet callEdges = new BitSet();
+    private final Map<String, BitSet> callEdgesByCallee = new HashMap<>();
+    private final BitSet covered = new BitSet();
+
+    // for each edge, the set containing only this edge
+    private final List<BitSet> edgeSets = new ArrayList<>();
+
+    // -1 if the score of the node needs to be recomputed
+    private final int[] cachedScores;
+
+    // reused for computing scores
+    private final BitSet uncovered = new BitSet();
+
+    private FunctionIndex(FunctionEntryNode pEntry) {
+      name = pEntry.getFunctionName();
+      List<CFANode> nodes = new ArrayList<>();
+      List<int[]> successors = new ArrayList<>();
+      addNode(pEntry, nodes);
+
+      for (int i = 0; i < nodes.size(); i++) {
+        CFANode node = nodes.get(i);
+        int[] edgeSuccessors = new int[node.getNumLeavingEdges()];
+        int j = 0;
+        for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+          int id = edges.size();
+          edges.add(edge);
+          edgeIds.put(edge, id);
+          BitSet edgeSet = new BitSet();
+          edgeSet.set(id);
+          edgeSets.add(edgeSet);
+
+          CFANode successor;
+          if (edge.getEdgeType() == CFAEdgeType.FunctionCallEdge) {
+            callEdges.set(id);
+            String callee = edge.getSuccessor().getFunctionName();
+            BitSet calls = callEdgesByCallee.get(callee);
+            if (calls == null) {
+              calls = new BitSet();
+              callEdgesByCallee.put(callee, calls);
+              callers.put(callee, this);
+            }
+            calls.set(id);
+            FunctionSummaryEdge summary = node.getLeavingSummaryEdge();
+            successor = summary == null ? null : summary.getSuccessor();
+          } else if (edge.getEdgeType() == CFAEdgeType.FunctionReturnEdge) {
+            successor = null;
+          } else {
+            successor = edge.getSuccessor();
+          }
+          edgeSuccessors[j++] = successor == null ? -1 : addNode(successor, nodes);
+        }
+        successors.add(edgeSuccessors);
+      }
+
+      // fixpoint iteration, nodes are visited against the order of discovery
+      for (int i = 0; i < nodes.size(); i++) {
+        reachableEdges.add(new BitSet());
+      }
+      boolean changed = true;
+      while (changed) {
+        changed = false;
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+          BitSet reachable = reachableEdges.get(i);
+          int before = reachable.cardinality();
+          int j = 0;
+          for (CFAEdge edge : CFAUtils.leavingEdges(nodes.get(i))) {
+            reachable.set(edgeIds.get(edge));
+            int successor = successors.get(i)[j++];
+            if (successor >= 0) {
+              reachable.or(reachableEdges.get(successor));
+            }
+          }
+          changed |= reachable.cardinality() != before;
+        }
+      }
+
+      cachedScores = new int[nodes.size()];
+      Arrays.fill(cachedScores, -1);
+    }
+
+    /** Invalidate the cached scores of all nodes from which one of the given edges is reachable. */
+    private void invalidateScores(BitSet pEdges) {
+      for (int i = 0; i < cachedScores.length; i++) {
+        if (cachedScores[i] >= 0 && reachableEdges.get(i).intersects(pEdges)) {
+          cachedScores[i] = -1;
+        }
+      }
+    }
+
+    private int addNode(CFANode pNode, List<CFANode> pNodes) {
+      Integer id = nodeIds.get(pNode);
+      if (id == null) {
+        id = pNodes.size();
+        pNodes.add(pNode);
+        nodeIds.put(pNode, id);
+      }
+      return id;
+    }
+
+    private int getUncoveredEdges() {
+      return edges.size() - covered.cardinality();
+    }
+
+    private int getScore(CFANode pNode) {
+      Integer id = nodeIds.get(pNode);
+      if (id == null) {
+        // not reachable from the function entry
+        return 0;
+      }
+      if (cachedScores[id] >= 0) {
+        return cachedScores[id];
+      }
+
+      BitSet reachable = reachableEdges.get(id);
+      uncovered.clear();
+      uncovered.or(reachable);
+      uncovered.andNot(covered);
+      int score = uncovered.cardinality();
+
+      // add uncovered edges of all functions that may be called
+      Set<FunctionIndex> callees = new HashSet<>();
+      Deque<FunctionIndex> waitlist = new ArrayDeque<>();
+      collectCallees(reachable, callees, waitlist);
+      while (!waitlist.isEmpty()) {
+        FunctionIndex callee = waitlist.pop();
+        score += callee.getUncoveredEdges();
+        callee.collectCallees(callee.callEdges, callees, waitlist);
+      }
+
+      cachedScores[id] = score;
+      return score;
+    }
+
+    private void collectCallees(BitSet pEdges, Set<FunctionIndex> pCallees, Deque<FunctionIndex> pWaitlist) {
+      for (int i = callEdges.nextSetBit(0); i >= 0; i = callEdges.nextSetBit(i + 1)) {
+        if (pEdges.get(i)) {
+          FunctionIndex callee = getFunction(edges.get(i).getSuccessor());
+          if (pCallees.add(callee) && callee != this) {
+            pWaitlist.push(callee);
+          }
+        }
+      }
+    }
+  }
+}
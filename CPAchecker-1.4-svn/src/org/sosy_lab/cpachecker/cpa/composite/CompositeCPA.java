@@ -27,6 +27,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -73,6 +75,11 @@ public class CompositeCPA implements ConfigurableProgramAnalysis, StatisticsProv
     description="inform Composite CPA if it is run in a CPA enabled analysis because then it must "
       + "behave differntly during merge.")
     private boolean inCPAEnabledAnalysis = false;
+
+    @Option(secure=true, name="profiling",
+        description="measure calls, time and allocations of the operators of each component CPA,"
+          + " separately for each CFA edge type")
+    private boolean profiling = false;
   }
 
   private static class CompositeCPAFactory extends AbstractCPAFactory {
@@ -100,6 +107,11 @@ public class CompositeCPA implements ConfigurableProgramAnalysis, StatisticsProv
 
       PredicateAbstractionManager abmgr = null;
 
+      CompositeCPAProfiler profiler = null;
+      if (options.profiling) {
+        profiler = new CompositeCPAProfiler(cpas, getConfiguration(), getLogger());
+      }
+
       for (ConfigurableProgramAnalysis sp : cpas) {
         if (sp instanceof org.sosy_lab.cpachecker.cpa.predicate.PredicateCPA) {
           abmgr = ((org.sosy_lab.cpachecker.cpa.predicate.PredicateCPA)sp).getPredicateManager();
@@ -138,9 +150,9 @@ public class CompositeCPA implements ConfigurableProgramAnalysis, StatisticsProv
           }
         } else {
           if (options.merge.equals("AGREE")) {
-            compositeMerge = new CompositeMergeAgreeOperator(mergeOperators.build(), stopOps);
+            compositeMerge = new CompositeMergeAgreeOperator(mergeOperators.build(), stopOps, profiler);
           } else if (options.merge.equals("PLAIN")) {
-            compositeMerge = new CompositeMergePlainOperator(mergeOperators.build());
+            compositeMerge = new CompositeMergePlainOperator(mergeOperators.build(), profiler);
           } else {
             throw new AssertionError();
           }
@@ -148,19 +160,19 @@ public class CompositeCPA implements ConfigurableProgramAnalysis, StatisticsProv
       }
 
       CompositeDomain compositeDomain = new CompositeDomain(domains.build());
-      CompositeTransferRelation compositeTransfer = new CompositeTransferRelation(transferRelations.build(), getConfiguration());
-      CompositeStopOperator compositeStop = new CompositeStopOperator(stopOps);
+      CompositeTransferRelation compositeTransfer = new CompositeTransferRelation(transferRelations.build(), getConfiguration(), profiler);
+      CompositeStopOperator compositeStop = new CompositeStopOperator(stopOps, profiler);
 
       PrecisionAdjustment compositePrecisionAdjustment;
       if (simplePrec) {
-        compositePrecisionAdjustment = new CompositeSimplePrecisionAdjustment(simplePrecisionAdjustments.build());
+        compositePrecisionAdjustment = new CompositeSimplePrecisionAdjustment(simplePrecisionAdjustments.build(), profiler);
       } else {
         compositePrecisionAdjustment =
-            new CompositePrecisionAdjustment(precisionAdjustments.build());
+            new CompositePrecisionAdjustment(precisionAdjustments.build(), profiler);
       }
 
       return new CompositeCPA(compositeDomain, compositeTransfer, compositeMerge, compositeStop,
-          compositePrecisionAdjustment, cpas);
+          compositePrecisionAdjustment, cpas, profiler);
     }
 
     @Override
@@ -198,6 +210,7 @@ public class CompositeCPA implements ConfigurableProgramAnalysis, StatisticsProv
   private final CompositeStopOperator stopOperator;
   private final PrecisionAdjustment precisionAdjustment;
   private final Reducer reducer;
+  private final @Nullable CompositeCPAProfiler profiler;
 
   private final ImmutableList<ConfigurableProgramAnalysis> cpas;
 
@@ -206,13 +219,15 @@ public class CompositeCPA implements ConfigurableProgramAnalysis, StatisticsProv
       MergeOperator mergeOperator,
       CompositeStopOperator stopOperator,
       PrecisionAdjustment precisionAdjustment,
-      ImmutableList<ConfigurableProgramAnalysis> cpas) {
+      ImmutableList<ConfigurableProgramAnalysis> cpas,
+      @Nullable CompositeCPAProfiler profiler) {
     this.abstractDomain = abstractDomain;
     this.transferRelation = transferRelation;
     this.mergeOperator = mergeOperator;
     this.stopOperator = stopOperator;
     this.precisionAdjustment = precisionAdjustment;
     this.cpas = cpas;
+    this.profiler = profiler;
 
     List<Reducer> wrappedReducers = new ArrayList<>();
     for (ConfigurableProgramAnalysis cpa : cpas) {
@@ -294,6 +309,10 @@ public class CompositeCPA implements ConfigurableProgramAnalysis, StatisticsProv
     if (precisionAdjustment instanceof StatisticsProvider) {
       ((StatisticsProvider)precisionAdjustment).collectStatistics(pStatsCollection);
     }
+
+    if (profiler != null) {
+      pStatsCollection.add(profiler);
+    }
   }
 
   @Override
@@ -0,0 +1,354 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.composite;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import javax.annotation.Nullable;
+
+import org.sosy_lab.common.JSON;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.io.Path;
+import org.sosy_lab.common.io.Paths;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.util.statistics.PerThreadCells;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * Profiler for the operators of the component CPAs of a {@link CompositeCPA}.
+ * The composite operators report each call to a component operator,
+ * and the profiler records the number of calls, the total and maximal time,
+ * and optionally the allocated bytes, separately for each CFA edge type.
+ *
+ * The counters are plain arrays indexed by component, operator and edge type,
+ * so recording a call does not allocate.
+ * Each thread records into its own counters (the component operators may be called
+ * from several threads, e.g., by the parallel proof-checking strategies),
+ * the counters of all threads are added up when the statistics are printed.
+ */
+@Options(prefix="cpa.composite.profiling")
+class CompositeCPAProfiler implements Statistics {
+
+  enum Operator {
+    TRANSFER("transfer relation"),
+    STRENGTHEN("strengthen"),
+    MERGE("merge operator"),
+    STOP("stop operator"),
+    PRECISION_ADJUSTMENT("precision adjustment"),
+    ;
+
+    private final String description;
+
+    private Operator(String pDescription) {
+      description = pDescription;
+    }
+  }
+
+  @Option(secure=true, description="also measure the bytes allocated by each operator of the component CPAs"
+      + " (only available on JVMs that support thread allocation measurement)")
+  private boolean trackAllocations = false;
+
+  @Option(secure=true, description="export the per-component operator profile as JSON file")
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private Path exportFile = Paths.get("CompositeCPAProfile.json");
+
+  private static final Operator[] OPERATORS = Operator.values();
+  private static final CFAEdgeType[] EDGE_TYPES = CFAEdgeType.values();
+
+  // operators that are not called for a specific edge are recorded in the last slot
+  private static final int NO_EDGE = EDGE_TYPES.length;
+  private static final int SLOTS_PER_OPERATOR = EDGE_TYPES.length + 1;
+  private static final int SLOTS_PER_COMPONENT = OPERATORS.length * SLOTS_PER_OPERATOR;
+
+  private final LogManager logger;
+  private final String[] componentNames;
+
+  private final int slots;
+  private final PerThreadCells<ThreadProfile> profiles = new PerThreadCells<ThreadProfile>() {
+    @Override
+    protected ThreadProfile newCell() {
+      return new ThreadProfile(slots);
+    }
+  };
+
+  private final @Nullable com.sun.management.ThreadMXBean allocationBean;
+
+  private static class Counters {
+    final long[] calls;
+    final long[] totalTime;
+    final long[] maxTime;
+    final long[] allocatedBytes;
+
+    private Counters(int pSlots) {
+      calls = new long[pSlots];
+      totalTime = new long[pSlots];
+      maxTime = new long[pSlots];
+      allocatedBytes = new long[pSlots];
+    }
+
+    private void addAll(Counters pOther) {
+      for (int slot = 0; slot < calls.length; slot++) {
+        calls[slot] += pOther.calls[slot];
+        totalTime[slot] += pOther.totalTime[slot];
+        maxTime[slot] = Math.max(maxTime[slot], pOther.maxTime[slot]);
+        allocatedBytes[slot] += pOther.allocatedBytes[slot];
+      }
+    }
+  }
+
+  /** The counters of one thread, only accessed by this thread while it is measuring. */
+  private static class ThreadProfile extends Counters {
+
+    // start values of the currently running measurements (measurements may nest)
+    private long[] startTimes = new long[4];
+    private long[] startAllocations = new long[4];
+    private int depth = 0;
+
+    private ThreadProfile(int pSlots) {
+      super(pSlots);
+    }
+  }
+
+  CompositeCPAProfiler(List<ConfigurableProgramAnalysis> pComponents, Configuration pConfig, LogManager pLogger)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+
+    componentNames = new String[pComponents.size()];
+    for (int i = 0; i < componentNames.length; i++) {
+      componentNames[i] = pComponents.get(i).getClass().getSimpleName();
+    }
+
+    slots = componentNames.length * SLOTS_PER_COMPONENT;
+
+    allocationBean = trackAllocations ? getAllocationBean(pLogger) : null;
+  }
+
+  private static @Nullable com.sun.management.ThreadMXBean getAllocationBean(LogManager pLogger) {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+      if (allocationBean.isThreadAllocatedMemorySupported()) {
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+        return allocationBean;
+      }
+    }
+    pLogger.log(Level.WARNING, "Measuring allocated memory per thread is not supported by this JVM,"
+        + " allocations of component operators are not profiled.");
+    return null;
+  }
+
+  /**
+   * Start measuring a call to a component operator.
+   * Each call to this method needs to be followed by a call to {@link #end(int, Operator, CFAEdge)}.
+   */
+  void begin() {
+    ThreadProfile profile = profiles.local();
+    int depth = profile.depth;
+    if (depth == profile.startTimes.length) {
+      profile.startTimes = Arrays.copyOf(profile.startTimes, 2 * depth);
+      profile.startAllocations = Arrays.copyOf(profile.startAllocations, 2 * depth);
+    }
+    if (allocationBean != null) {
+      profile.startAllocations[depth] = allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    profile.startTimes[depth] = System.nanoTime();
+    profile.depth = depth + 1;
+  }
+
+  /**
+   * Finish measuring a call to a component operator, which was started by {@link #begin()}.
+   *
+   * @param pComponent The index of the component CPA.
+   * @param pOperator The operator that was called.
+   * @param pEdge The edge for which the operator was called, or null if the operator is edge-independent.
+   */
+  void end(int pComponent, Operator pOperator, @Nullable CFAEdge pEdge) {
+    ThreadProfile profile = profiles.local();
+    int depth = --profile.depth;
+    long time = System.nanoTime() - profile.startTimes[depth];
+    int edgeSlot = pEdge == null ? NO_EDGE : pEdge.getEdgeType().ordinal();
+    int slot = pComponent * SLOTS_PER_COMPONENT + pOperator.ordinal() * SLOTS_PER_OPERATOR + edgeSlot;
+
+    profile.calls[slot]++;
+    profile.totalTime[slot] += time;
+    if (time > profile.maxTime[slot]) {
+      profile.maxTime[slot] = time;
+    }
+    if (allocationBean != null) {
+      profile.allocatedBytes[slot] +=
+          allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - profile.startAllocations[depth];
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "CompositeCPA Operator Profile";
+  }
+
+  /**
+   * Add up the counters of all threads.
+   */
+  private Counters merge() {
+    Counters result = new Counters(slots);
+    for (ThreadProfile profile : profiles.all()) {
+      result.addAll(profile);
+    }
+    return result;
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, ReachedSet pReached) {
+    StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(pOut);
+    Counters counters = merge();
+
+    for (int component = 0; component < componentNames.length; component++) {
+      StatisticsWriter componentWriter = writer.beginLevel();
+      pOut.println(componentNames[component] + ":");
+
+      for (Operator op : OPERATORS) {
+        int first = component * SLOTS_PER_COMPONENT + op.ordinal() * SLOTS_PER_OPERATOR;
+        Profile sum = sum(counters, first);
+        if (sum.calls == 0) {
+          continue;
+        }
+        componentWriter.put(op.description, sum);
+
+        StatisticsWriter edgeWriter = componentWriter.beginLevel();
+        for (CFAEdgeType edgeType : EDGE_TYPES) {
+          int slot = first + edgeType.ordinal();
+          if (counters.calls[slot] > 0 && counters.calls[slot] != sum.calls) {
+            edgeWriter.put(edgeType.toString(), new Profile(counters, slot));
+          }
+        }
+      }
+    }
+
+    if (exportFile != null) {
+      try {
+        JSON.writeJSONString(toJSON(counters), exportFile);
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not write CompositeCPA profile to file");
+      }
+    }
+  }
+
+  private Profile sum(Counters pCounters, int pFirstSlot) {
+    Profile sum = new Profile();
+    for (int slot = pFirstSlot; slot < pFirstSlot + SLOTS_PER_OPERATOR; slot++) {
+      sum.calls += pCounters.calls[slot];
+      sum.totalTime += pCounters.totalTime[slot];
+      sum.maxTime = Math.max(sum.maxTime, pCounters.maxTime[slot]);
+      sum.allocatedBytes += pCounters.allocatedBytes[slot];
+    }
+    return sum;
+  }
+
+  private Map<String, Object> toJSON(Counters pCounters) {
+    Map<String, Object> result = new LinkedHashMap<>();
+    for (int component = 0; component < componentNames.length; component++) {
+      Map<String, Object> operators = new LinkedHashMap<>();
+
+      for (Operator op : OPERATORS) {
+        int first = component * SLOTS_PER_COMPONENT + op.ordinal() * SLOTS_PER_OPERATOR;
+        Profile sum = sum(pCounters, first);
+        if (sum.calls == 0) {
+          continue;
+        }
+        Map<String, Object> operator = sum.toJSON();
+
+        Map<String, Object> edgeTypes = new LinkedHashMap<>();
+        for (CFAEdgeType edgeType : EDGE_TYPES) {
+          int slot = first + edgeType.ordinal();
+          if (pCounters.calls[slot] > 0) {
+            edgeTypes.put(edgeType.toString(), new Profile(pCounters, slot).toJSON());
+          }
+        }
+        if (!edgeTypes.isEmpty()) {
+          operator.put("edgeTypes", edgeTypes);
+        }
+        operators.put(op.name(), operator);
+      }
+
+      // components of the same type are distinguished by their position
+      result.put(component + ":" + componentNames[component], operators);
+    }
+    return result;
+  }
+
+  private class Profile {
+    private long calls;
+    private long totalTime;
+    private long maxTime;
+    private long allocatedBytes;
+
+    private Profile() {}
+
+    private Profile(Counters pCounters, int pSlot) {
+      calls = pCounters.calls[pSlot];
+      totalTime = pCounters.totalTime[pSlot];
+      maxTime = pCounters.maxTime[pSlot];
+      allocatedBytes = pCounters.allocatedBytes[pSlot];
+    }
+
+    private Map<String, Object> toJSON() {
+      Map<String, Object> result = new LinkedHashMap<>();
+      result.put("calls", calls);
+      result.put("totalTimeNs", totalTime);
+      result.put("maxTimeNs", maxTime);
+      if (allocationBean != null) {
+        result.put("allocatedBytes", allocatedBytes);
+      }
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return calls + " calls, "
+          + TimeSpan.ofNanos(totalTime).formatAs(TimeUnit.SECONDS) + " total, "
+          + TimeSpan.ofNanos(maxTime).formatAs(TimeUnit.SECONDS) + " max"
+          + (allocationBean != null ? ", " + (allocatedBytes >> 10) + " KiB allocated" : "");
+    }
+  }
+}
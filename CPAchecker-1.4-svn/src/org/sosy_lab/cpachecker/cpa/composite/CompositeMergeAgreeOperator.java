@@ -29,11 +29,14 @@ import static com.google.common.collect.FluentIterable.from;
 import java.util.Collections;
 import java.util.Iterator;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.NonMergeableAbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeCPAProfiler.Operator;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 import com.google.common.base.Predicate;
@@ -58,10 +61,13 @@ public class CompositeMergeAgreeOperator implements MergeOperator {
 
   private final ImmutableList<MergeOperator> mergeOperators;
   private final ImmutableList<StopOperator> stopOperators;
+  private final @Nullable CompositeCPAProfiler profiler;
 
-  public CompositeMergeAgreeOperator(ImmutableList<MergeOperator> mergeOperators, ImmutableList<StopOperator> stopOperators) {
+  public CompositeMergeAgreeOperator(ImmutableList<MergeOperator> mergeOperators, ImmutableList<StopOperator> stopOperators,
+      @Nullable CompositeCPAProfiler pProfiler) {
     this.mergeOperators = mergeOperators;
     this.stopOperators  = stopOperators;
+    this.profiler       = pProfiler;
   }
 
   @Override
@@ -89,6 +95,7 @@ public class CompositeMergeAgreeOperator implements MergeOperator {
     Iterator<Precision> precIter      = compPrecision.getPrecisions().iterator();
 
     boolean identicalStates = true;
+    int idx = 0;
     for (MergeOperator mergeOp : mergeOperators) {
       AbstractState absSuccessorState = comp1Iter.next();
       AbstractState absReachedState   = comp2Iter.next();
@@ -96,11 +103,34 @@ public class CompositeMergeAgreeOperator implements MergeOperator {
       Precision prec      = precIter.next();
       StopOperator stopOp = stopIter.next();
 
-      AbstractState mergedState = mergeOp.merge(absSuccessorState, absReachedState, prec);
+      AbstractState mergedState;
+      if (profiler != null) {
+        profiler.begin();
+      }
+      try {
+        mergedState = mergeOp.merge(absSuccessorState, absReachedState, prec);
+      } finally {
+        if (profiler != null) {
+          profiler.end(idx, Operator.MERGE, null);
+        }
+      }
 
       // Check if 'mergedState' also covers 'absSuccessorState', i.e., if 'mergeOp' performed a join.
       // By definition of MergeOperator, we know it covers 'absReachedState'.
-      if (!stopOp.stop(absSuccessorState, Collections.singleton(mergedState), prec)) {
+      boolean covered;
+      if (profiler != null) {
+        profiler.begin();
+      }
+      try {
+        covered = stopOp.stop(absSuccessorState, Collections.singleton(mergedState), prec);
+      } finally {
+        if (profiler != null) {
+          profiler.end(idx, Operator.STOP, null);
+        }
+      }
+      idx++;
+
+      if (!covered) {
         // the result of merge does not cover 'absSuccessorState'
         // (which is the successor state currently considered by the CPAAlgorithm
         // We prevent merging for all CPAs in this case, because the current successor
@@ -25,9 +25,12 @@ package org.sosy_lab.cpachecker.cpa.composite;
 
 import java.util.Iterator;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeCPAProfiler.Operator;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 import com.google.common.collect.ImmutableList;
@@ -39,9 +42,12 @@ import com.google.common.collect.ImmutableList;
 public class CompositeMergePlainOperator implements MergeOperator {
 
   private final ImmutableList<MergeOperator> mergeOperators;
+  private final @Nullable CompositeCPAProfiler profiler;
 
-  public CompositeMergePlainOperator(ImmutableList<MergeOperator> mergeOperators) {
+  public CompositeMergePlainOperator(ImmutableList<MergeOperator> mergeOperators,
+      @Nullable CompositeCPAProfiler pProfiler) {
     this.mergeOperators = mergeOperators;
+    profiler = pProfiler;
   }
 
   @Override
@@ -62,10 +68,22 @@ public class CompositeMergePlainOperator implements MergeOperator {
     Iterator<Precision> iterPrec  = compPrecision.getPrecisions().iterator();
 
     boolean identicalStates = true;
+    int idx = 0;
     for (MergeOperator mergeOp : mergeOperators) {
       AbstractState absSuccessorState = iter1.next();
       AbstractState absReachedState   = iter2.next();
-      AbstractState mergedState       = mergeOp.merge(absSuccessorState, absReachedState, iterPrec.next());
+      AbstractState mergedState;
+      if (profiler != null) {
+        profiler.begin();
+      }
+      try {
+        mergedState = mergeOp.merge(absSuccessorState, absReachedState, iterPrec.next());
+      } finally {
+        if (profiler != null) {
+          profiler.end(idx, Operator.MERGE, null);
+        }
+      }
+      idx++;
 
       if (mergedState != absReachedState) {
         identicalStates = false;
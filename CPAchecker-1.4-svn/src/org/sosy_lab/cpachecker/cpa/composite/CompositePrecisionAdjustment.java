@@ -23,12 +23,15 @@
  */
 package org.sosy_lab.cpachecker.cpa.composite;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustment;
 import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult;
 import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult.Action;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeCPAProfiler.Operator;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 import com.google.common.base.Function;
@@ -40,9 +43,12 @@ public class CompositePrecisionAdjustment implements PrecisionAdjustment {
   protected final ImmutableList<PrecisionAdjustment> precisionAdjustments;
   protected final ImmutableList<StateProjectionFunction> stateProjectionFunctions;
   protected final ImmutableList<PrecisionProjectionFunction> precisionProjectionFunctions;
+  private final @Nullable CompositeCPAProfiler profiler;
 
-  public CompositePrecisionAdjustment(ImmutableList<PrecisionAdjustment> precisionAdjustments) {
+  public CompositePrecisionAdjustment(ImmutableList<PrecisionAdjustment> precisionAdjustments,
+      @Nullable CompositeCPAProfiler pProfiler) {
     this.precisionAdjustments = precisionAdjustments;
+    this.profiler = pProfiler;
 
     ImmutableList.Builder<StateProjectionFunction> stateProjectionFunctions = ImmutableList.builder();
     ImmutableList.Builder<PrecisionProjectionFunction> precisionProjectionFunctions = ImmutableList.builder();
@@ -109,11 +115,21 @@ public class CompositePrecisionAdjustment implements PrecisionAdjustment {
       PrecisionAdjustment precisionAdjustment = precisionAdjustments.get(i);
       AbstractState oldElement = comp.get(i);
       Precision oldPrecision = prec.get(i);
-      Optional<PrecisionAdjustmentResult> out = precisionAdjustment.prec(
-          oldElement, oldPrecision, pElements,
-          Functions.compose(stateProjectionFunctions.get(i), projection),
-          fullState
-      );
+      Optional<PrecisionAdjustmentResult> out;
+      if (profiler != null) {
+        profiler.begin();
+      }
+      try {
+        out = precisionAdjustment.prec(
+            oldElement, oldPrecision, pElements,
+            Functions.compose(stateProjectionFunctions.get(i), projection),
+            fullState
+        );
+      } finally {
+        if (profiler != null) {
+          profiler.end(i, Operator.PRECISION_ADJUSTMENT, null);
+        }
+      }
 
       if (!out.isPresent()) {
         return Optional.absent();
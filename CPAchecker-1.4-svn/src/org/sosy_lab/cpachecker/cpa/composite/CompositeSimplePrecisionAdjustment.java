@@ -23,12 +23,15 @@
  */
 package org.sosy_lab.cpachecker.cpa.composite;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.cpachecker.core.defaults.BreakOnTargetsPrecisionAdjustment;
 import org.sosy_lab.cpachecker.core.defaults.SimplePrecisionAdjustment;
 import org.sosy_lab.cpachecker.core.defaults.StaticPrecisionAdjustment;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult.Action;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeCPAProfiler.Operator;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 import com.google.common.collect.ImmutableList;
@@ -45,9 +48,12 @@ import com.google.common.collect.ImmutableList;
 class CompositeSimplePrecisionAdjustment extends SimplePrecisionAdjustment {
 
   private final ImmutableList<SimplePrecisionAdjustment> precisionAdjustments;
+  private final @Nullable CompositeCPAProfiler profiler;
 
-  public CompositeSimplePrecisionAdjustment(ImmutableList<SimplePrecisionAdjustment> precisionAdjustments) {
+  public CompositeSimplePrecisionAdjustment(ImmutableList<SimplePrecisionAdjustment> precisionAdjustments,
+      @Nullable CompositeCPAProfiler pProfiler) {
     this.precisionAdjustments = precisionAdjustments;
+    this.profiler = pProfiler;
   }
 
   @Override
@@ -61,7 +67,17 @@ class CompositeSimplePrecisionAdjustment extends SimplePrecisionAdjustment {
       SimplePrecisionAdjustment precisionAdjustment = precisionAdjustments.get(i);
       AbstractState oldElement = comp.get(i);
       Precision oldPrecision = prec.get(i);
-      Action action = precisionAdjustment.prec(oldElement, oldPrecision);
+      Action action;
+      if (profiler != null) {
+        profiler.begin();
+      }
+      try {
+        action = precisionAdjustment.prec(oldElement, oldPrecision);
+      } finally {
+        if (profiler != null) {
+          profiler.end(i, Operator.PRECISION_ADJUSTMENT, null);
+        }
+      }
 
       if (action == Action.BREAK) {
         return Action.BREAK;
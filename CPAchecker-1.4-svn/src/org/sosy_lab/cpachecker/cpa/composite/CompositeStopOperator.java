@@ -29,12 +29,15 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.ForcedCoveringStopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeCPAProfiler.Operator;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 import com.google.common.collect.ImmutableList;
@@ -42,9 +45,11 @@ import com.google.common.collect.ImmutableList;
 public class CompositeStopOperator implements StopOperator, ForcedCoveringStopOperator {
 
   protected final ImmutableList<StopOperator> stopOperators;
+  private final @Nullable CompositeCPAProfiler profiler;
 
-  public CompositeStopOperator(ImmutableList<StopOperator> stopOperators) {
+  public CompositeStopOperator(ImmutableList<StopOperator> stopOperators, @Nullable CompositeCPAProfiler pProfiler) {
     this.stopOperators = stopOperators;
+    profiler = pProfiler;
   }
 
   @Override
@@ -74,7 +79,18 @@ public class CompositeStopOperator implements StopOperator, ForcedCoveringStopOp
       AbstractState absElem2 = compositeReachedStates.get(idx);
       Precision prec = compositePrecisions.get(idx);
 
-      if (!stopOp.stop(absElem1, Collections.singleton(absElem2), prec)) {
+      boolean stop;
+      if (profiler != null) {
+        profiler.begin();
+      }
+      try {
+        stop = stopOp.stop(absElem1, Collections.singleton(absElem2), prec);
+      } finally {
+        if (profiler != null) {
+          profiler.end(idx, Operator.STOP, null);
+        }
+      }
+      if (!stop) {
         return false;
       }
     }
@@ -35,6 +35,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
@@ -48,6 +50,7 @@ import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
 import org.sosy_lab.cpachecker.cpa.assumptions.storage.AssumptionStorageTransferRelation;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeCPAProfiler.Operator;
 import org.sosy_lab.cpachecker.cpa.predicate.PredicateTransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
@@ -69,11 +72,13 @@ public final class CompositeTransferRelation implements TransferRelation {
   private final int size;
   private int assumptionIndex = -1;
   private int predicatesIndex = -1;
+  private final @Nullable CompositeCPAProfiler profiler;
 
   public CompositeTransferRelation(ImmutableList<TransferRelation> transferRelations,
-      Configuration config) throws InvalidConfigurationException {
+      Configuration config, @Nullable CompositeCPAProfiler pProfiler) throws InvalidConfigurationException {
     config.inject(this);
     this.transferRelations = transferRelations;
+    profiler = pProfiler;
     size = transferRelations.size();
 
     // prepare special case handling if both predicates and assumptions are used
@@ -192,8 +197,17 @@ public final class CompositeTransferRelation implements TransferRelation {
       Precision lCurrentPrecision = compositePrecision.get(i);
 
       Collection<? extends AbstractState> componentSuccessors;
-      componentSuccessors = lCurrentTransfer.getAbstractSuccessorsForEdge(
-          lCurrentElement, lCurrentPrecision, cfaEdge);
+      if (profiler != null) {
+        profiler.begin();
+      }
+      try {
+        componentSuccessors = lCurrentTransfer.getAbstractSuccessorsForEdge(
+            lCurrentElement, lCurrentPrecision, cfaEdge);
+      } finally {
+        if (profiler != null) {
+          profiler.end(i, Operator.TRANSFER, cfaEdge);
+        }
+      }
       resultCount *= componentSuccessors.size();
 
       if (resultCount == 0) {
@@ -221,7 +235,17 @@ public final class CompositeTransferRelation implements TransferRelation {
       AbstractState lCurrentElement = reachedState.get(i);
       Precision lCurrentPrecision = compositePrecision.get(i);
 
-      Collection<? extends AbstractState> lResultsList = lCurrentTransfer.strengthen(lCurrentElement, reachedState, cfaEdge, lCurrentPrecision);
+      Collection<? extends AbstractState> lResultsList;
+      if (profiler != null) {
+        profiler.begin();
+      }
+      try {
+        lResultsList = lCurrentTransfer.strengthen(lCurrentElement, reachedState, cfaEdge, lCurrentPrecision);
+      } finally {
+        if (profiler != null) {
+          profiler.end(i, Operator.STRENGTHEN, cfaEdge);
+        }
+      }
 
       if (lResultsList == null) {
         lStrengthenResults.add(Collections.singleton(lCurrentElement));
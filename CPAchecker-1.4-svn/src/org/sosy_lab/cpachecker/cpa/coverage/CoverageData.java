@@ -39,7 +39,7 @@ import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
 
 
-class CoverageData {
+public class CoverageData {
 
   public enum CoverageMode { NONE, REACHED, TRANSFER }
 
@@ -72,7 +72,7 @@ class CoverageData {
     return fileInfos;
   }
 
-  boolean putExistingFunction(FunctionEntryNode pNode) {
+  public boolean putExistingFunction(FunctionEntryNode pNode) {
     final String functionName = pNode.getFunctionName();
     final FileLocation loc = pNode.getFileLocation();
 
@@ -91,7 +91,7 @@ class CoverageData {
     return true;
   }
 
-  void handleEdgeCoverage(
+  public void handleEdgeCoverage(
       final CFAEdge pEdge,
       final boolean pVisited) {
 
@@ -67,7 +67,7 @@ public class LocationCPA implements ConfigurableProgramAnalysis, ConfigurablePro
 
   public LocationCPA(CFA pCfa, Configuration config) throws InvalidConfigurationException {
     stateFactory = new LocationStateFactory(pCfa, LocationStateType.FORWARD, config);
-    transferRelation = new LocationTransferRelation(stateFactory);
+    transferRelation = new LocationTransferRelation(stateFactory, pCfa.getIndex());
 
     Optional<CFAInfo> cfaInfo = GlobalInfo.getInstance().getCFAInfo();
     if (cfaInfo.isPresent()) {
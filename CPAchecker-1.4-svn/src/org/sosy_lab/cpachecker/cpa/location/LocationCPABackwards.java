@@ -54,7 +54,7 @@ public class LocationCPABackwards implements ConfigurableProgramAnalysis {
 
   public LocationCPABackwards(CFA pCfa, Configuration pConfig) throws InvalidConfigurationException {
     stateFactory = new LocationStateFactory(pCfa, LocationStateType.BACKWARD, pConfig);
-    transferRelation = new LocationTransferRelationBackwards(stateFactory);
+    transferRelation = new LocationTransferRelationBackwards(stateFactory, pCfa.getIndex());
   }
 
   public static CPAFactory factory() {
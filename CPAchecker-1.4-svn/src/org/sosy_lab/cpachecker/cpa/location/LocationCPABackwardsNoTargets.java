@@ -54,7 +54,7 @@ public class LocationCPABackwardsNoTargets implements ConfigurableProgramAnalysi
 
   public LocationCPABackwardsNoTargets(CFA pCfa, Configuration pConfig) throws InvalidConfigurationException {
     stateFactory = new LocationStateFactory(pCfa, LocationStateType.BACKWARDNOTARGET, pConfig);
-    transferRelation = new LocationTransferRelationBackwards(stateFactory);
+    transferRelation = new LocationTransferRelationBackwards(stateFactory, pCfa.getIndex());
   }
 
   public static CPAFactory factory() {
@@ -28,6 +28,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
+import org.sosy_lab.cpachecker.cfa.CFAIndex;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cfa.model.MultiEdge;
@@ -41,9 +42,25 @@ import org.sosy_lab.cpachecker.util.CFAUtils;
 public class LocationTransferRelation implements TransferRelation {
 
   private final LocationStateFactory factory;
+  private final CFAIndex cfaIndex;
 
-  public LocationTransferRelation(LocationStateFactory pFactory) {
+  public LocationTransferRelation(LocationStateFactory pFactory, CFAIndex pCfaIndex) {
     factory = pFactory;
+    cfaIndex = pCfaIndex;
+  }
+
+  private boolean isLeavingEdge(CFANode pNode, CFAEdge pEdge) {
+    int node = cfaIndex.getNodeIndex(pNode);
+    if (node < 0) {
+      // inner node of a MultiEdge, not part of the index
+      return CFAUtils.allLeavingEdges(pNode).contains(pEdge);
+    }
+    for (int e = cfaIndex.getLeavingEdgesStart(node); e < cfaIndex.getLeavingEdgesEnd(node); e++) {
+      if (cfaIndex.getEdge(e).equals(pEdge)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @Override
@@ -53,7 +70,7 @@ public class LocationTransferRelation implements TransferRelation {
     LocationState inputElement = (LocationState) element;
     CFANode node = inputElement.getLocationNode();
 
-    if (CFAUtils.allLeavingEdges(node).contains(cfaEdge)) {
+    if (isLeavingEdge(node, cfaEdge)) {
       return Collections.singleton(factory.getState(cfaEdge.getSuccessor()));
 
     } else if (node.getNumLeavingEdges() == 1
@@ -73,11 +90,19 @@ public class LocationTransferRelation implements TransferRelation {
       Precision prec) throws CPATransferException {
 
     CFANode node = ((LocationState)element).getLocationNode();
+    int nodeIndex = cfaIndex.getNodeIndex(node);
 
     List<LocationState> allSuccessors = new ArrayList<>(node.getNumLeavingEdges());
 
-    for (CFANode successor : CFAUtils.successorsOf(node)) {
-      allSuccessors.add(factory.getState(successor));
+    if (nodeIndex < 0) {
+      for (CFANode successor : CFAUtils.successorsOf(node)) {
+        allSuccessors.add(factory.getState(successor));
+      }
+    } else {
+      // like CFAUtils.successorsOf(), this excludes the summary edge
+      for (int e = cfaIndex.getNonSummaryLeavingEdgesStart(nodeIndex); e < cfaIndex.getLeavingEdgesEnd(nodeIndex); e++) {
+        allSuccessors.add(factory.getState(cfaIndex.getEdge(e).getSuccessor()));
+      }
     }
 
     return allSuccessors;
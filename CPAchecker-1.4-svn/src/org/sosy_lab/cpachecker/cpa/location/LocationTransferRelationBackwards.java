@@ -28,6 +28,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
+import org.sosy_lab.cpachecker.cfa.CFAIndex;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
@@ -40,9 +41,25 @@ import org.sosy_lab.cpachecker.util.CFAUtils;
 public class LocationTransferRelationBackwards implements TransferRelation {
 
   private final LocationStateFactory factory;
+  private final CFAIndex cfaIndex;
 
-  public LocationTransferRelationBackwards(LocationStateFactory pFactory) {
+  public LocationTransferRelationBackwards(LocationStateFactory pFactory, CFAIndex pCfaIndex) {
     factory = pFactory;
+    cfaIndex = pCfaIndex;
+  }
+
+  private boolean isEnteringEdge(CFANode pNode, CFAEdge pEdge) {
+    int node = cfaIndex.getNodeIndex(pNode);
+    if (node < 0) {
+      // inner node of a MultiEdge, not part of the index
+      return CFAUtils.allEnteringEdges(pNode).contains(pEdge);
+    }
+    for (int i = 0; i < cfaIndex.getNumEnteringEdges(node); i++) {
+      if (cfaIndex.getEdge(cfaIndex.getEnteringEdge(node, i)).equals(pEdge)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @Override
@@ -52,7 +69,7 @@ public class LocationTransferRelationBackwards implements TransferRelation {
     LocationState predState = (LocationState) state;
     CFANode predLocation = predState.getLocationNode();
 
-    if (CFAUtils.allEnteringEdges(predLocation).contains(cfaEdge)) {
+    if (isEnteringEdge(predLocation, cfaEdge)) {
       return Collections.singleton(factory.getState(cfaEdge.getPredecessor()));
     }
 
@@ -64,11 +81,20 @@ public class LocationTransferRelationBackwards implements TransferRelation {
       Precision prec) throws CPATransferException {
 
     CFANode predLocation = ((LocationState)state).getLocationNode();
+    int nodeIndex = cfaIndex.getNodeIndex(predLocation);
 
     List<LocationState> allSuccessors = new ArrayList<>(predLocation.getNumEnteringEdges());
 
-    for (CFANode predecessor : CFAUtils.predecessorsOf(predLocation)) {
-      allSuccessors.add(factory.getState(predecessor));
+    if (nodeIndex < 0) {
+      for (CFANode predecessor : CFAUtils.predecessorsOf(predLocation)) {
+        allSuccessors.add(factory.getState(predecessor));
+      }
+    } else {
+      // like CFAUtils.predecessorsOf(), this excludes the summary edge
+      for (int i = cfaIndex.getNonSummaryEnteringEdgesStart(nodeIndex); i < cfaIndex.getNumEnteringEdges(nodeIndex); i++) {
+        CFAEdge edge = cfaIndex.getEdge(cfaIndex.getEnteringEdge(nodeIndex, i));
+        allSuccessors.add(factory.getState(edge.getPredecessor()));
+      }
     }
 
     return allSuccessors;
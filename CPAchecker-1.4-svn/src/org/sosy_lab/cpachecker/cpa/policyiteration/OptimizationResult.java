@@ -0,0 +1,50 @@
+package org.sosy_lab.cpachecker.cpa.policyiteration;
+
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.solver.AssignableTerm;
+import org.sosy_lab.solver.api.OptEnvironment.OptStatus;
+
+import com.google.common.base.Optional;
+
+/**
+ * Outcome of maximizing a single template,
+ * independent of the solver instance which has computed it.
+ */
+final class OptimizationResult {
+
+  final OptStatus status;
+
+  /**
+   * Upper bound for the objective, absent if it is unbounded
+   * or if the status is not {@link OptStatus#OPT}.
+   */
+  final Optional<Rational> bound;
+
+  /**
+   * Model of the optimal solution, {@code null} if it was not requested
+   * or if the status is not {@link OptStatus#OPT}.
+   */
+  final @Nullable Map<AssignableTerm, Object> model;
+
+  /**
+   * Time in nanoseconds the solver spent on the query.
+   */
+  final long time;
+
+  private OptimizationResult(OptStatus pStatus, Optional<Rational> pBound,
+      Map<AssignableTerm, Object> pModel, long pTime) {
+    status = pStatus;
+    bound = pBound;
+    model = pModel;
+    time = pTime;
+  }
+
+  static OptimizationResult of(OptStatus pStatus, Optional<Rational> pBound,
+      @Nullable Map<AssignableTerm, Object> pModel, long pTime) {
+    return new OptimizationResult(pStatus, pBound, pModel, pTime);
+  }
+}
@@ -0,0 +1,223 @@
+package org.sosy_lab.cpachecker.cpa.policyiteration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.concurrency.Threads;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.view.FormulaManagerView;
+import org.sosy_lab.solver.AssignableTerm;
+import org.sosy_lab.solver.FormulaManagerFactory;
+import org.sosy_lab.solver.SolverException;
+import org.sosy_lab.solver.api.BooleanFormula;
+import org.sosy_lab.solver.api.Formula;
+import org.sosy_lab.solver.api.FormulaManager;
+import org.sosy_lab.solver.api.FormulaType;
+import org.sosy_lab.solver.api.OptEnvironment;
+import org.sosy_lab.solver.api.OptEnvironment.OptStatus;
+import org.sosy_lab.solver.api.UnsafeFormulaManager;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Maximizes several templates subject to the same constraints in parallel,
+ * each worker thread using an {@link OptEnvironment} of its own solver instance.
+ *
+ * Formulas are copied into the worker solvers as strings.
+ * As only boolean formulas can be dumped, each objective is transferred
+ * as the definition of an auxiliary variable, which is then maximized instead.
+ */
+final class ParallelTemplateOptimizer implements AutoCloseable {
+
+  private static final String OBJECTIVE_VAR_PREFIX = "__policy_objective_";
+
+  private final FormulaManagerView fmgr;
+  private final Rational epsilon;
+  private final List<FormulaManager> workerFmgrs;
+  private final ExecutorService executor;
+  private final LogManager logger;
+
+  ParallelTemplateOptimizer(FormulaManagerView pFmgr, Rational pEpsilon,
+      int pThreads, Configuration config, LogManager pLogger,
+      ShutdownNotifier shutdownNotifier) throws InvalidConfigurationException {
+    fmgr = pFmgr;
+    epsilon = pEpsilon;
+    logger = pLogger;
+    List<FormulaManager> managers = new ArrayList<>(pThreads);
+    for (int i = 0; i < pThreads; i++) {
+      managers.add(new FormulaManagerFactory(config, logger, shutdownNotifier)
+          .getFormulaManager());
+    }
+    workerFmgrs = Collections.unmodifiableList(managers);
+
+    // Daemon threads, as the analysis may terminate without shutting us down.
+    executor = Executors.newFixedThreadPool(pThreads,
+        Threads.threadFactoryBuilder().setDaemon(true).build());
+  }
+
+  /**
+   * Maximize each of the {@code objectives} subject to the {@code constraints}
+   * and the corresponding entry of {@code objectiveConstraints}.
+   *
+   * @param needsModel Whether the model of each optimal solution is required.
+   * @return Results in the same order as {@code objectives}.
+   */
+  List<OptimizationResult> optimize(
+      BooleanFormula constraints,
+      List<Formula> objectives,
+      List<BooleanFormula> objectiveConstraints,
+      final boolean needsModel) throws SolverException, InterruptedException {
+    assert objectives.size() == objectiveConstraints.size();
+
+    final String constraintsDump = fmgr.dumpFormula(constraints).toString();
+    final List<String> objectiveDefinitions = new ArrayList<>(objectives.size());
+    final List<String> objectiveVarNames = new ArrayList<>(objectives.size());
+    for (int i = 0; i < objectives.size(); i++) {
+      Formula objective = objectives.get(i);
+      FormulaType<Formula> type = fmgr.getFormulaType(objective);
+
+      // One variable per sort, a name must not be declared with several sorts.
+      String objectiveVarName = OBJECTIVE_VAR_PREFIX
+          + type.toString().replaceAll("[^A-Za-z0-9]", "_");
+      Formula objectiveVar = fmgr.makeVariable(type, objectiveVarName);
+      objectiveVarNames.add(objectiveVarName);
+      objectiveDefinitions.add(fmgr.dumpFormula(fmgr.getBooleanFormulaManager().and(
+          fmgr.makeEqual(objectiveVar, objective),
+          objectiveConstraints.get(i))).toString());
+    }
+
+    final OptimizationResult[] results =
+        new OptimizationResult[objectives.size()];
+    final int numWorkers = Math.min(workerFmgrs.size(), objectives.size());
+    List<Callable<Void>> tasks = new ArrayList<>(numWorkers);
+    for (int i = 0; i < numWorkers; i++) {
+      final int worker = i;
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() throws SolverException, InterruptedException {
+          FormulaManager workerFmgr = workerFmgrs.get(worker);
+
+          try (OptEnvironment optEnvironment = workerFmgr.newOptEnvironment()) {
+            optEnvironment.addConstraint(workerFmgr.parse(constraintsDump));
+
+            // Each worker handles every numWorkers-th objective,
+            // the entries of the result array are disjoint.
+            for (int o = worker; o < objectiveDefinitions.size(); o += numWorkers) {
+              BooleanFormula definition =
+                  workerFmgr.parse(objectiveDefinitions.get(o));
+
+              optEnvironment.push();
+              optEnvironment.addConstraint(definition);
+              int handle = optEnvironment.maximize(
+                  findObjectiveVariable(workerFmgr, definition,
+                      objectiveVarNames.get(o)));
+
+              long start = System.nanoTime();
+              OptStatus status = optEnvironment.check();
+              long time = System.nanoTime() - start;
+
+              Optional<Rational> bound = Optional.absent();
+              Map<AssignableTerm, Object> model = null;
+              if (status == OptStatus.OPT) {
+                bound = optEnvironment.upper(handle, epsilon);
+                if (needsModel) {
+                  model = ImmutableMap.copyOf(optEnvironment.getModel());
+                }
+              }
+              results[o] = OptimizationResult.of(status, bound, model, time);
+              optEnvironment.pop();
+            }
+          }
+          return null;
+        }
+      });
+    }
+
+    invokeAll(tasks);
+    List<OptimizationResult> out = new ArrayList<>(results.length);
+    Collections.addAll(out, results);
+    return out;
+  }
+
+  /**
+   * Find the auxiliary objective variable in the parsed definition
+   * {@code (and (= var objective) constraint)},
+   * the solver may have reordered the arguments while parsing.
+   */
+  private static Formula findObjectiveVariable(FormulaManager workerFmgr,
+      BooleanFormula definition, String name) {
+    UnsafeFormulaManager unsafe = workerFmgr.getUnsafeFormulaManager();
+    List<Formula> toVisit = new ArrayList<>();
+    toVisit.add(definition);
+    while (!toVisit.isEmpty()) {
+      Formula f = toVisit.remove(toVisit.size() - 1);
+      if (unsafe.isVariable(f)) {
+        if (unsafe.getName(f).equals(name)) {
+          return f;
+        }
+      } else {
+        for (int i = 0; i < unsafe.getArity(f); i++) {
+          toVisit.add(unsafe.getArg(f, i));
+        }
+      }
+    }
+    throw new AssertionError("Objective variable lost while parsing "
+        + definition);
+  }
+
+  private void invokeAll(List<Callable<Void>> pTasks)
+      throws SolverException, InterruptedException {
+    // invokeAll() waits until all tasks are finished
+    List<Future<Void>> futures = executor.invokeAll(pTasks);
+    try {
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, SolverException.class,
+          InterruptedException.class);
+      throw new UnexpectedCheckedException("parallel template optimization", t);
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    try {
+      // the solvers must not be closed while a worker still uses them
+      if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+        logger.log(Level.WARNING, "Workers of parallel template optimization did not terminate");
+        return;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    for (FormulaManager workerFmgr : workerFmgrs) {
+      if (workerFmgr instanceof AutoCloseable) {
+        try {
+          ((AutoCloseable) workerFmgr).close();
+        } catch (Exception e) {
+          logger.logUserException(Level.WARNING, e, "Could not close solver of parallel template optimization");
+        }
+      }
+    }
+  }
+}
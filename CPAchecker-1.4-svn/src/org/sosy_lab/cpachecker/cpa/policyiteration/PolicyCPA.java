@@ -43,6 +43,7 @@ import org.sosy_lab.cpachecker.cpa.policyiteration.polyhedra.PolyhedraWideningMa
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.solver.FormulaManagerFactory;
+import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.predicates.Solver;
 import org.sosy_lab.solver.api.FormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.interfaces.PathFormulaManager;
@@ -63,7 +64,8 @@ public class PolicyCPA extends SingleEdgeTransferRelation
                AbstractDomain,
                PrecisionAdjustment,
                AdjustableConditionCPA,
-               ReachedSetAdjustingCPA {
+               ReachedSetAdjustingCPA,
+               AutoCloseable {
 
 
   @Option(secure=true, description="Generate invariants and strengthen the formulas during abstraction with them.")
@@ -273,6 +275,11 @@ public class PolicyCPA extends SingleEdgeTransferRelation
     policyIterationManager.adjustReachedSet(pReachedSet);
   }
 
+  @Override
+  public void close() {
+    CPAs.closeIfPossible(policyIterationManager, logger);
+  }
+
   public LogManager getLogger() {
     return logger;
   }
@@ -6,15 +6,18 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.logging.Level;
 
+import org.sosy_lab.common.Pair;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.UniqueIdGenerator;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -72,7 +75,7 @@ import com.google.common.collect.Sets;
  * Main logic in a single class.
  */
 @Options(prefix="cpa.stator.policy")
-public class PolicyIterationManager implements IPolicyIterationManager {
+public class PolicyIterationManager implements IPolicyIterationManager, AutoCloseable {
 
   @Option(secure = true,
       description = "Call [simplify] on the formulas resulting from the C code")
@@ -127,6 +130,23 @@ public class PolicyIterationManager implements IPolicyIterationManager {
   @Option(secure=true, description="Use extra invariant during abstraction")
   private boolean useExtraPredicateDuringAbstraction = true;
 
+  @Option(secure=true, description="Number of threads for optimizing the "
+      + "templates of an abstraction or value determination step in parallel, "
+      + "each one on its own solver instance. "
+      + "Value '0' optimizes all templates on the main solver.")
+  @IntegerOption(min=0)
+  private int optimizationThreads = 0;
+
+  @Option(secure=true, description="Cache the results of optimization "
+      + "queries, keyed by the formula and the optimized template. "
+      + "Not used together with policy linearization.")
+  private boolean cacheOptimizationResults = true;
+
+  @Option(secure=true, description="Maximum number of cached optimization "
+      + "results, the least recently used ones are evicted.")
+  @IntegerOption(min=1)
+  private int optimizationCacheSize = 10000;
+
   private final FormulaManagerView fmgr;
   private final boolean joinOnMerge;
   private final CFA cfa;
@@ -144,6 +164,7 @@ public class PolicyIterationManager implements IPolicyIterationManager {
   private final InvariantGenerator invariantGenerator;
   private final StateFormulaConversionManager stateFormulaConversionManager;
   private final CBinaryExpressionBuilder expressionBuilder;
+  private final ParallelTemplateOptimizer parallelOptimizer;
 
   public PolicyIterationManager(
       Configuration config,
@@ -181,6 +202,12 @@ public class PolicyIterationManager implements IPolicyIterationManager {
     invariantGenerator = pInvariantGenerator;
     expressionBuilder = new CBinaryExpressionBuilder(cfa.getMachineModel(),
         logger);
+    if (optimizationThreads > 0) {
+      parallelOptimizer = new ParallelTemplateOptimizer(fmgr, EPSILON,
+          optimizationThreads, config, logger, shutdownNotifier);
+    } else {
+      parallelOptimizer = null;
+    }
 
     /** Compute the cache for loops */
     ImmutableMap.Builder<CFANode, LoopStructure.Loop> loopStructureBuilder =
@@ -210,6 +237,20 @@ public class PolicyIterationManager implements IPolicyIterationManager {
    */
   private final UniqueIdGenerator locationIDGenerator = new UniqueIdGenerator();
 
+  // Results of optimization queries, keyed by the query formula
+  // (without the objective) and the instantiated template.
+  private final Map<Pair<BooleanFormula, Formula>, OptimizationResult>
+      optimizationCache =
+      new LinkedHashMap<Pair<BooleanFormula, Formula>, OptimizationResult>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(
+            Map.Entry<Pair<BooleanFormula, Formula>, OptimizationResult> pEldest) {
+          return size() > optimizationCacheSize;
+        }
+      };
+
   private boolean invariantGenerationStarted = false;
 
   /**
@@ -566,32 +607,61 @@ public class PolicyIterationManager implements IPolicyIterationManager {
         optEnvironment.addConstraint(constraint);
       }
 
+      List<TemplateQuery> queries = new ArrayList<>(updated.size());
       for (Entry<Template, PolicyBound> policyValue : updated.entrySet()) {
-        shutdownNotifier.shutdownIfNecessary();
-        optEnvironment.push();
-
         Template template = policyValue.getKey();
         Formula objective = valDetConstraints.outVars.get(template,
             stateWithUpdates.getLocationID());
         assert objective != null;
         PolicyBound existingBound = policyValue.getValue();
 
-        int handle = optEnvironment.maximize(objective);
         BooleanFormula consistencyConstraint =
             fmgr.makeGreaterOrEqual(
                 objective,
                 fmgr.makeNumber(objective, existingBound.getBound()),
                 true);
+        queries.add(new TemplateQuery(template, objective,
+            consistencyConstraint));
+      }
 
-        optEnvironment.addConstraint(consistencyConstraint);
+      BooleanFormula constraints = bfmgr.and(valDetConstraints.constraints);
+      Map<Template, OptimizationResult> precomputed =
+          precomputeOptimizationResults(constraints, queries, false);
+
+      for (TemplateQuery query : queries) {
+        shutdownNotifier.shutdownIfNecessary();
+
+        Template template = query.template;
+        Formula objective = query.objective;
+        PolicyBound existingBound = updated.get(template);
+
+        OptimizationResult optResult = precomputed.get(template);
+        if (optResult == null) {
+          optEnvironment.push();
+          int handle = optEnvironment.maximize(objective);
+          optEnvironment.addConstraint(query.constraint);
+
+          OptEnvironment.OptStatus status;
+          long start = System.nanoTime();
+          try {
+            statistics.startOPTTimer();
+            status = optEnvironment.check();
+          } finally {
+            statistics.stopOPTTimer();
+          }
+          long time = System.nanoTime() - start;
+
+          Optional<Rational> bound = Optional.absent();
+          if (status == OptEnvironment.OptStatus.OPT) {
+            bound = optEnvironment.upper(handle, EPSILON);
+          }
+          optEnvironment.pop();
 
-        OptEnvironment.OptStatus result;
-        try {
-          statistics.startOPTTimer();
-          result = optEnvironment.check();
-        } finally {
-          statistics.stopOPTTimer();
+          optResult = OptimizationResult.of(status, bound, null, time);
+          recordOptimizationResult(constraints, query, optResult);
         }
+
+        OptEnvironment.OptStatus result = optResult.status;
         if (result != OptEnvironment.OptStatus.OPT) {
           shutdownNotifier.shutdownIfNecessary();
 
@@ -609,7 +679,7 @@ public class PolicyIterationManager implements IPolicyIterationManager {
           throw new CPATransferException("Unexpected solver state");
         }
 
-        Optional<Rational> value = optEnvironment.upper(handle, EPSILON);
+        Optional<Rational> value = optResult.bound;
 
         if (value.isPresent()) {
           Rational v = value.get();
@@ -617,7 +687,6 @@ public class PolicyIterationManager implements IPolicyIterationManager {
         } else {
           newAbstraction.remove(template);
         }
-        optEnvironment.pop();
       }
     } catch(SolverException e){
       throw new CPATransferException("Failed maximization ", e);
@@ -723,27 +792,34 @@ public class PolicyIterationManager implements IPolicyIterationManager {
         stateFormulaConversionManager.getStartConstraints(state, true);
 
     try (OptEnvironment optEnvironment = solver.newOptEnvironment()) {
-      optEnvironment.addConstraint(annotatedFormula);
-      optEnvironment.addConstraint(startConstraints);
+      List<BooleanFormula> constraints = new ArrayList<>();
+      constraints.add(annotatedFormula);
+      constraints.add(startConstraints);
 
       if (useExtraPredicateDuringAbstraction) {
 
         // Invariant from other CPAs.
-        optEnvironment.addConstraint(
+        constraints.add(
             fmgr.instantiate(extraPredicate, state.getPathFormula().getSsa())
         );
       }
 
       // Invariant from the invariant generator.
-      optEnvironment.addConstraint(
+      constraints.add(
           fmgr.instantiate(
               stateFormulaConversionManager.getInvariantFor(state.getNode()),
               state.getPathFormula().getSsa()
           )
       );
 
+      for (BooleanFormula constraint : constraints) {
+        optEnvironment.addConstraint(constraint);
+      }
+
       Set<String> formulaVars = fmgr.extractFunctionNames(
           state.getPathFormula().getFormula(), true);
+      List<TemplateQuery> queries = new ArrayList<>();
+      Map<Template, PolicyBound> prevBounds = new HashMap<>();
       for (Template template : precision) {
         shutdownNotifier.shutdownIfNecessary();
 
@@ -756,7 +832,6 @@ public class PolicyIterationManager implements IPolicyIterationManager {
         // Skip the iteration if the previous value is already unbounded,
         // add a lemma that the new value has to be strictly larger otherwise.
         BooleanFormula prevStateConstraint = bfmgr.makeBoolean(true);
-        PolicyBound prevBound = null;
         if (usePreviousBounds && !otherStates.isEmpty()) {
           PolicyAbstractedState prevState = otherStates.iterator().next()
               .getLatestVersion();
@@ -766,7 +841,8 @@ public class PolicyIterationManager implements IPolicyIterationManager {
             // Can't do better than unbounded.
             continue;
           } else {
-            prevBound = bound.get();
+            PolicyBound prevBound = bound.get();
+            prevBounds.put(template, prevBound);
             Rational prevValue = prevBound.getBound();
 
             prevStateConstraint = fmgr.makeGreaterThan(
@@ -788,29 +864,75 @@ public class PolicyIterationManager implements IPolicyIterationManager {
           }
         }
 
-        optEnvironment.push();
-        optEnvironment.addConstraint(prevStateConstraint);
+        queries.add(new TemplateQuery(template, objective, prevStateConstraint));
+      }
+
+      // Linearization needs the model in the optimization environment,
+      // so the policies can only be built on the main solver then.
+      BooleanFormula constraint = bfmgr.and(constraints);
+      Map<Template, OptimizationResult> precomputed;
+      if (linearizePolicy) {
+        precomputed = ImmutableMap.of();
+      } else {
+        precomputed = precomputeOptimizationResults(constraint, queries, true);
+      }
+
+      for (TemplateQuery query : queries) {
+        shutdownNotifier.shutdownIfNecessary();
+
+        Template template = query.template;
+        Formula objective = query.objective;
+        PolicyBound prevBound = prevBounds.get(template);
+
+        // Lower bound on unsigned variables is at least zero.
+        boolean unsignedAndLower = template.isUnsigned() &&
+            (template.getKind() == Kind.NEG_LOWER_BOUND ||
+            template.getKind() == Kind.NEG_SUM_LOWER_BOUND);
+
+        OptimizationResult result = precomputed.get(template);
+        if (result == null) {
+          optEnvironment.push();
+          optEnvironment.addConstraint(query.constraint);
+
+          logger.log(Level.FINE, "Optimizing for ", objective);
+          int handle = optEnvironment.maximize(objective);
+
+          OptEnvironment.OptStatus status;
+          long start = System.nanoTime();
+          try {
+            statistics.startOPTTimer();
+            status = optEnvironment.check();
+          } finally {
+            statistics.stopOPTTimer();
+          }
+          long time = System.nanoTime() - start;
+
+          Optional<Rational> bound = Optional.absent();
+          Map<AssignableTerm, Object> model = null;
+          if (status == OptEnvironment.OptStatus.OPT) {
+            bound = optEnvironment.upper(handle, EPSILON);
+            model = optEnvironment.getModel();
 
-        logger.log(Level.FINE, "Optimizing for ", objective);
-        int handle = optEnvironment.maximize(objective);
+            if (linearizePolicy && (bound.isPresent() || unsignedAndLower)) {
+              annotatedFormula = linearizationManager.convertToPolicy(
+                  annotatedFormula, optEnvironment);
+            }
+          }
+          optEnvironment.pop();
 
-        OptEnvironment.OptStatus status;
-        try {
-          statistics.startOPTTimer();
-          status = optEnvironment.check();
-        } finally {
-          statistics.stopOPTTimer();
+          result = OptimizationResult.of(status, bound, model, time);
+          if (linearizePolicy) {
+            statistics.recordTemplateOptimization(template, time);
+          } else {
+            recordOptimizationResult(constraint, query, result);
+          }
         }
 
-        switch (status) {
+        switch (result.status) {
           case OPT:
-            Optional<Rational> bound = optEnvironment.upper(handle, EPSILON);
-            Map<AssignableTerm, Object> model = optEnvironment.getModel();
+            Optional<Rational> bound = result.bound;
+            Map<AssignableTerm, Object> model = result.model;
 
-            // Lower bound on unsigned variables is at least zero.
-            boolean unsignedAndLower = template.isUnsigned() &&
-                (template.getKind() == Kind.NEG_LOWER_BOUND ||
-                template.getKind() == Kind.NEG_SUM_LOWER_BOUND);
             if (bound.isPresent() || unsignedAndLower) {
               Rational boundValue;
               if (bound.isPresent() && unsignedAndLower) {
@@ -821,11 +943,6 @@ public class PolicyIterationManager implements IPolicyIterationManager {
                 boundValue = Rational.ZERO;
               }
 
-              if (linearizePolicy) {
-                annotatedFormula = linearizationManager.convertToPolicy(
-                    annotatedFormula, optEnvironment);
-              }
-
               CSimpleType templateType = getTemplateType(template);
               if (templateType.getType().isIntegerType()) {
                 BigInteger maxValue = cfa.getMachineModel()
@@ -862,7 +979,6 @@ public class PolicyIterationManager implements IPolicyIterationManager {
             shutdownNotifier.shutdownIfNecessary();
             throw new CPATransferException("Solver returned undefined status");
         }
-        optEnvironment.pop();
       }
     } catch (SolverException e) {
       throw new CPATransferException("Solver error: ", e);
@@ -890,6 +1006,93 @@ public class PolicyIterationManager implements IPolicyIterationManager {
         );
   }
 
+  /**
+   * Look up the results of the optimization {@code queries} in the cache,
+   * and solve the remaining ones in parallel if enabled.
+   * Queries missing in the returned map have to be solved on the main solver.
+   *
+   * @param constraints Constraints shared by all queries.
+   * @param needsModel Whether the results have to contain a model.
+   */
+  private Map<Template, OptimizationResult> precomputeOptimizationResults(
+      BooleanFormula constraints, List<TemplateQuery> queries,
+      boolean needsModel) throws SolverException, InterruptedException {
+    Map<Template, OptimizationResult> results = new HashMap<>();
+    List<TemplateQuery> toSolve = new ArrayList<>();
+    for (TemplateQuery query : queries) {
+      OptimizationResult cached = null;
+      if (cacheOptimizationResults) {
+        cached = optimizationCache.get(getCacheKey(constraints, query));
+      }
+      if (cached != null && (!needsModel || cached.model != null
+          || cached.status != OptEnvironment.OptStatus.OPT)) {
+        statistics.optimizationCacheHits++;
+        results.put(query.template, cached);
+      } else {
+        toSolve.add(query);
+      }
+    }
+
+    if (parallelOptimizer == null || toSolve.size() < 2) {
+      return results;
+    }
+
+    List<Formula> objectives = new ArrayList<>(toSolve.size());
+    List<BooleanFormula> objectiveConstraints = new ArrayList<>(toSolve.size());
+    for (TemplateQuery query : toSolve) {
+      objectives.add(query.objective);
+      objectiveConstraints.add(query.constraint);
+    }
+
+    List<OptimizationResult> solved;
+    statistics.parallelOptTimer.start();
+    try {
+      solved = parallelOptimizer.optimize(
+          constraints, objectives, objectiveConstraints, needsModel);
+    } finally {
+      statistics.parallelOptTimer.stop();
+    }
+
+    for (int i = 0; i < toSolve.size(); i++) {
+      TemplateQuery query = toSolve.get(i);
+      OptimizationResult result = solved.get(i);
+      recordOptimizationResult(constraints, query, result);
+      results.put(query.template, result);
+    }
+    return results;
+  }
+
+  private void recordOptimizationResult(BooleanFormula constraints,
+      TemplateQuery query, OptimizationResult result) {
+    statistics.recordTemplateOptimization(query.template, result.time);
+    if (cacheOptimizationResults) {
+      optimizationCache.put(getCacheKey(constraints, query), result);
+    }
+  }
+
+  private Pair<BooleanFormula, Formula> getCacheKey(
+      BooleanFormula constraints, TemplateQuery query) {
+    return Pair.of(bfmgr.and(constraints, query.constraint), query.objective);
+  }
+
+  /**
+   * Optimization query for a single template.
+   */
+  private static final class TemplateQuery {
+    private final Template template;
+    private final Formula objective;
+
+    /** Constraint which is only asserted when optimizing this template. */
+    private final BooleanFormula constraint;
+
+    private TemplateQuery(Template pTemplate, Formula pObjective,
+        BooleanFormula pConstraint) {
+      template = pTemplate;
+      objective = pObjective;
+      constraint = pConstraint;
+    }
+  }
+
   private CSimpleType getTemplateType(Template t) {
     CExpression sum = null;
 
@@ -1079,6 +1282,13 @@ public class PolicyIterationManager implements IPolicyIterationManager {
     pReachedSet.clear();
   }
 
+  @Override
+  public void close() {
+    if (parallelOptimizer != null) {
+      parallelOptimizer.close();
+    }
+  }
+
   @Override
   public boolean isLessOrEqual(PolicyState state1, PolicyState state2) {
     try {
@@ -2,11 +2,18 @@ package org.sosy_lab.cpachecker.cpa.policyiteration;
 
 import java.io.PrintStream;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
@@ -34,6 +41,23 @@ public class PolicyIterationStatistics implements Statistics {
   final Timer simplifyTimer = new Timer();
   final Timer congruenceTimer = new Timer();
   final Timer comparisonTimer = new Timer();
+  final Timer parallelOptTimer = new Timer();
+
+  int optimizationCacheHits = 0;
+
+  private static final int MAX_TEMPLATES_PRINTED = 10;
+
+  // Solver time in nanoseconds and number of queries for each template,
+  // also covers the queries solved in parallel.
+  private final Map<Template, Long> templateOptimizationTime = new HashMap<>();
+  private final Multiset<Template> templateOptimizationCounter =
+      HashMultiset.create();
+
+  public void recordTemplateOptimization(Template template, long nanos) {
+    Long time = templateOptimizationTime.get(template);
+    templateOptimizationTime.put(template, (time == null ? 0 : time) + nanos);
+    templateOptimizationCounter.add(template);
+  }
 
   private BigInteger wideningTemplatesGenerated = BigInteger.ZERO;
 
@@ -107,6 +131,10 @@ public class PolicyIterationStatistics implements Statistics {
     printTimer(out, optTimer, "optimization (OPT-SMT)");
     out.printf("Number of optimization queries sent: %d%n",
         optTimer.getNumberOfIntervals());
+    printTimer(out, parallelOptTimer, "parallel optimization (OPT-SMT)");
+    out.printf("Number of cached optimization results used: %d%n",
+        optimizationCacheHits);
+    printTemplateTimes(out);
     printTimer(out, checkSATTimer, "checking bad states (SMT)");
     out.printf("Number of check-SAT calls sent: %d%n",
         checkSATTimer.getNumberOfIntervals());
@@ -130,6 +158,26 @@ public class PolicyIterationStatistics implements Statistics {
     printStats(out, mergeUpdateStats, "merges of abstract states on a given location");
   }
 
+  private void printTemplateTimes(PrintStream out) {
+    List<Map.Entry<Template, Long>> entries =
+        new ArrayList<>(templateOptimizationTime.entrySet());
+    Collections.sort(entries, new Comparator<Map.Entry<Template, Long>>() {
+      @Override
+      public int compare(Map.Entry<Template, Long> e1,
+          Map.Entry<Template, Long> e2) {
+        return e2.getValue().compareTo(e1.getValue());
+      }
+    });
+    out.printf("Number of optimized templates: %d%n", entries.size());
+    for (Map.Entry<Template, Long> entry :
+        entries.subList(0, Math.min(entries.size(), MAX_TEMPLATES_PRINTED))) {
+      out.printf("  Time spent optimizing %s: %s (%d queries)%n",
+          entry.getKey(),
+          TimeSpan.ofNanos(entry.getValue()).formatAs(TimeUnit.SECONDS),
+          templateOptimizationCounter.count(entry.getKey()));
+    }
+  }
+
   private void printStats(PrintStream out, UpdateStats<?> stats, String description) {
     out.printf("Max number of %s: %d, for object: %s%n",
         description, stats.max, stats.maxObject);
@@ -0,0 +1,147 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.predicates.Solver;
+import org.sosy_lab.solver.api.BooleanFormula;
+import org.sosy_lab.solver.api.ProverEnvironment;
+
+/**
+ * Keeps one prover environment per abstraction location alive
+ * across several abstraction computations (and thus across refinements).
+ *
+ * The stack of each prover has two fixed levels:
+ * the block formula on the lower level and the instantiated previous abstraction
+ * on the upper level. A level is only popped and pushed again if its formula
+ * changed since the last abstraction computation at the same location,
+ * such that the solver can keep everything it learned about an unchanged
+ * block formula. The predicate queries of the abstraction computation are
+ * pushed on top and have to be popped by the caller before the prover is released.
+ *
+ * The number of provers is bounded, the least-recently used one is closed if necessary.
+ */
+final class IncrementalAbstractionProvers implements AutoCloseable {
+
+  private static final class IncrementalProver {
+    private final ProverEnvironment prover;
+    private BooleanFormula blockFormula = null;
+    private BooleanFormula abstractionFormula = null;
+
+    private IncrementalProver(ProverEnvironment pProver) {
+      prover = pProver;
+    }
+  }
+
+  private final Solver solver;
+  private final PredicateAbstractionManager.Stats stats;
+  private final Map<CFANode, IncrementalProver> provers;
+
+  IncrementalAbstractionProvers(Solver pSolver, PredicateAbstractionManager.Stats pStats, final int maxProvers) {
+    solver = pSolver;
+    stats = pStats;
+    provers = new LinkedHashMap<CFANode, IncrementalProver>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<CFANode, IncrementalProver> pEldest) {
+        if (size() > maxProvers) {
+          pEldest.getValue().prover.close();
+          stats.numIncrementalProverEvictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Get the prover for the given location with the formula
+   * "pAbstractionFormula & pBlockFormula" asserted on its stack.
+   * The returned prover has to be given back with {@link #release(CFANode, boolean)}.
+   */
+  ProverEnvironment getProver(CFANode pLocation,
+      BooleanFormula pAbstractionFormula, BooleanFormula pBlockFormula) {
+
+    IncrementalProver entry = provers.get(pLocation);
+    if (entry == null) {
+      entry = new IncrementalProver(solver.newProverEnvironment());
+      provers.put(pLocation, entry);
+      stats.numIncrementalProversCreated++;
+    } else {
+      stats.numSolverRestartsAvoided++;
+    }
+
+    if (pBlockFormula.equals(entry.blockFormula)) {
+      stats.numIncrementalBlockFormulaReuses++;
+    } else {
+      if (entry.abstractionFormula != null) {
+        entry.prover.pop();
+        entry.abstractionFormula = null;
+      }
+      if (entry.blockFormula != null) {
+        entry.prover.pop();
+      }
+      entry.prover.push(pBlockFormula);
+      entry.blockFormula = pBlockFormula;
+    }
+
+    if (!pAbstractionFormula.equals(entry.abstractionFormula)) {
+      if (entry.abstractionFormula != null) {
+        entry.prover.pop();
+      }
+      entry.prover.push(pAbstractionFormula);
+      entry.abstractionFormula = pAbstractionFormula;
+    }
+
+    return entry.prover;
+  }
+
+  /**
+   * Give back the prover for the given location after all formulas
+   * that were pushed onto it on top of the abstraction were popped again.
+   * If the computation was not successful (i.e., an exception occurred),
+   * the state of the stack is unknown and the prover is closed.
+   */
+  void release(CFANode pLocation, boolean pSuccess) {
+    if (!pSuccess) {
+      IncrementalProver entry = provers.remove(pLocation);
+      if (entry != null) {
+        entry.prover.close();
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    for (Iterator<IncrementalProver> it = provers.values().iterator(); it.hasNext(); ) {
+      it.next().prover.close();
+      it.remove();
+    }
+  }
+}
@@ -0,0 +1,313 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.concurrency.Threads;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.view.FormulaManagerView;
+import org.sosy_lab.solver.FormulaManagerFactory;
+import org.sosy_lab.solver.SolverException;
+import org.sosy_lab.solver.api.BooleanFormula;
+import org.sosy_lab.solver.api.BooleanFormulaManager;
+import org.sosy_lab.solver.api.Formula;
+import org.sosy_lab.solver.api.FormulaManager;
+import org.sosy_lab.solver.api.ProverEnvironment;
+import org.sosy_lab.solver.api.ProverEnvironment.AllSatCallback;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Solves the queries of an abstraction computation in parallel
+ * on several independent instances of the SMT solver.
+ *
+ * Each worker thread owns one formula manager created by its own {@link FormulaManagerFactory},
+ * so no solver context is ever shared between threads.
+ * Formulas are copied into the worker's solver as strings,
+ * like {@link org.sosy_lab.cpachecker.util.predicates.interpolation.SeparateInterpolatingProverEnvironment}
+ * does for a separate interpolation solver.
+ * The workers only return plain truth values,
+ * the regions are built by the caller from these values,
+ * such that the result is exactly the same as with the sequential computation.
+ */
+final class ParallelAbstractionComputation implements AutoCloseable {
+
+  private final FormulaManagerView fmgr;
+  private final LogManager logger;
+  private final List<FormulaManager> workerFmgrs;
+  private final ExecutorService executor;
+
+  ParallelAbstractionComputation(FormulaManagerView pFmgr, int pThreads,
+      Configuration config, LogManager pLogger, ShutdownNotifier shutdownNotifier)
+          throws InvalidConfigurationException {
+    fmgr = pFmgr;
+    logger = pLogger;
+    List<FormulaManager> managers = new ArrayList<>(pThreads);
+    for (int i = 0; i < pThreads; i++) {
+      managers.add(new FormulaManagerFactory(config, pLogger, shutdownNotifier).getFormulaManager());
+    }
+    workerFmgrs = Collections.unmodifiableList(managers);
+
+    // important to use daemon threads here, because the analysis may end without closing us
+    executor = Executors.newFixedThreadPool(pThreads, Threads.threadFactoryBuilder().setDaemon(true).build());
+  }
+
+  int getNumberOfThreads() {
+    return workerFmgrs.size();
+  }
+
+  /**
+   * Compute the cartesian abstraction of a satisfiable formula for the given predicates.
+   * The predicates are distributed over the worker threads.
+   *
+   * @param f The (satisfiable) formula to abstract.
+   * @param pPredicates The instantiated predicates.
+   * @return For each predicate: 1 if it is implied by f, -1 if its negation is implied by f, 0 otherwise.
+   */
+  byte[] computeCartesianAbstraction(BooleanFormula f, List<BooleanFormula> pPredicates)
+      throws SolverException, InterruptedException {
+
+    final byte[] result = new byte[pPredicates.size()];
+    final String formula = fmgr.dumpFormula(f).toString();
+    final List<String> predicates = new ArrayList<>(pPredicates.size());
+    for (BooleanFormula pred : pPredicates) {
+      predicates.add(fmgr.dumpFormula(pred).toString());
+    }
+
+    final int numWorkers = Math.min(workerFmgrs.size(), predicates.size());
+    List<Callable<Void>> tasks = new ArrayList<>(numWorkers);
+    for (int i = 0; i < numWorkers; i++) {
+      final int worker = i;
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() throws SolverException, InterruptedException {
+          FormulaManager workerFmgr = workerFmgrs.get(worker);
+          BooleanFormulaManager workerBfmgr = workerFmgr.getBooleanFormulaManager();
+
+          try (ProverEnvironment prover = workerFmgr.newProverEnvironment(false, false)) {
+            prover.push(workerFmgr.parse(formula));
+
+            // each worker handles every numWorkers-th predicate,
+            // the entries of the result array are disjoint
+            for (int p = worker; p < predicates.size(); p += numWorkers) {
+              BooleanFormula predTrue = workerFmgr.parse(predicates.get(p));
+
+              prover.push(workerBfmgr.not(predTrue));
+              boolean isTrue = prover.isUnsat();
+              prover.pop();
+
+              if (isTrue) {
+                result[p] = 1;
+              } else {
+                prover.push(predTrue);
+                boolean isFalse = prover.isUnsat();
+                prover.pop();
+
+                if (isFalse) {
+                  result[p] = -1;
+                }
+              }
+            }
+          }
+          return null;
+        }
+      });
+    }
+
+    invokeAll(tasks);
+    return result;
+  }
+
+  /**
+   * Enumerate all models of "f & pPredicateDefinitions" with respect to the given predicate variables.
+   * The model space is split into cubes over the first few predicate variables,
+   * and the cubes are distributed over the worker threads.
+   * As the cubes are disjoint, the union of the models of all cubes
+   * is exactly the set of models that a single AllSAT enumeration would return.
+   *
+   * @return The models, each one as an array with an entry for each predicate variable:
+   *        1 if it is true, -1 if it is false, and 0 if it is not assigned in the model.
+   */
+  List<byte[]> computeBooleanAbstraction(BooleanFormula f, BooleanFormula pPredicateDefinitions,
+      List<BooleanFormula> pPredicateVariables) throws SolverException, InterruptedException {
+
+    final String formula = fmgr.dumpFormula(f).toString();
+    final String definitions = fmgr.dumpFormula(pPredicateDefinitions).toString();
+    final List<String> variables = new ArrayList<>(pPredicateVariables.size());
+    for (BooleanFormula var : pPredicateVariables) {
+      variables.add(fmgr.dumpFormula(var).toString());
+    }
+
+    // number of predicates used for splitting, such that there are at least as many cubes as threads
+    int splitSize = 0;
+    while ((1 << splitSize) < workerFmgrs.size() && splitSize < variables.size()) {
+      splitSize++;
+    }
+    final int cubeSize = splitSize;
+    final int numCubes = 1 << cubeSize;
+    final int numWorkers = Math.min(workerFmgrs.size(), numCubes);
+
+    List<Callable<List<byte[]>>> tasks = new ArrayList<>(numWorkers);
+    for (int i = 0; i < numWorkers; i++) {
+      final int worker = i;
+      tasks.add(new Callable<List<byte[]>>() {
+        @Override
+        public List<byte[]> call() throws SolverException, InterruptedException {
+          FormulaManager workerFmgr = workerFmgrs.get(worker);
+          BooleanFormulaManager workerBfmgr = workerFmgr.getBooleanFormulaManager();
+
+          List<BooleanFormula> workerVariables = new ArrayList<>(variables.size());
+          Map<Formula, Integer> variableIndices = new HashMap<>();
+          for (String var : variables) {
+            BooleanFormula workerVar = workerFmgr.parse(var);
+            variableIndices.put(workerVar, workerVariables.size());
+            workerVariables.add(workerVar);
+          }
+
+          ModelCollector collector = new ModelCollector(workerFmgr, variableIndices);
+          try (ProverEnvironment prover = workerFmgr.newProverEnvironment(false, false)) {
+            prover.push(workerFmgr.parse(formula));
+            prover.push(workerFmgr.parse(definitions));
+
+            for (int cube = worker; cube < numCubes; cube += numWorkers) {
+              List<BooleanFormula> literals = new ArrayList<>(cubeSize);
+              for (int v = 0; v < cubeSize; v++) {
+                BooleanFormula var = workerVariables.get(v);
+                literals.add(((cube >> v) & 1) != 0 ? var : workerBfmgr.not(var));
+              }
+
+              prover.push(workerBfmgr.and(literals));
+              prover.allSat(collector, workerVariables);
+              prover.pop();
+            }
+          }
+          return collector.getResult();
+        }
+      });
+    }
+
+    List<byte[]> result = new ArrayList<>();
+    for (List<byte[]> models : invokeAll(tasks)) {
+      result.addAll(models);
+    }
+    return result;
+  }
+
+  private static class ModelCollector implements AllSatCallback<List<byte[]>> {
+
+    private final BooleanFormulaManager bfmgr;
+    private final FormulaManager workerFmgr;
+    private final Map<Formula, Integer> variableIndices;
+    private final List<byte[]> models = new ArrayList<>();
+
+    private ModelCollector(FormulaManager pFmgr, Map<Formula, Integer> pVariableIndices) {
+      workerFmgr = pFmgr;
+      bfmgr = pFmgr.getBooleanFormulaManager();
+      variableIndices = pVariableIndices;
+    }
+
+    @Override
+    public void apply(List<BooleanFormula> pModel) {
+      byte[] model = new byte[variableIndices.size()];
+      for (BooleanFormula literal : pModel) {
+        if (bfmgr.isNot(literal)) {
+          model[getIndex(workerFmgr.getUnsafeFormulaManager().getArg(literal, 0))] = -1;
+        } else {
+          model[getIndex(literal)] = 1;
+        }
+      }
+      models.add(model);
+    }
+
+    private int getIndex(Formula pVariable) {
+      Integer index = variableIndices.get(pVariable);
+      if (index == null) {
+        throw new AssertionError("AllSAT model contains unknown atom " + pVariable);
+      }
+      return index;
+    }
+
+    @Override
+    public List<byte[]> getResult() {
+      return models;
+    }
+  }
+
+  private <T> List<T> invokeAll(List<? extends Callable<T>> pTasks)
+      throws SolverException, InterruptedException {
+    // invokeAll() waits until all tasks are finished
+    List<Future<T>> futures = executor.invokeAll(pTasks);
+    List<T> result = new ArrayList<>(futures.size());
+    try {
+      for (Future<T> future : futures) {
+        result.add(future.get());
+      }
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, SolverException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("parallel abstraction computation", t);
+    }
+    return result;
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    try {
+      // the solvers must not be closed while a worker still uses them
+      if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+        logger.log(Level.WARNING, "Workers of parallel abstraction computation did not terminate");
+        return;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    for (FormulaManager workerFmgr : workerFmgrs) {
+      if (workerFmgr instanceof AutoCloseable) {
+        try {
+          ((AutoCloseable) workerFmgr).close();
+        } catch (Exception e) {
+          logger.logUserException(Level.WARNING, e, "Could not close solver of parallel abstraction computation");
+        }
+      }
+    }
+  }
+}
@@ -47,6 +47,7 @@ import org.sosy_lab.common.Pair;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -88,6 +89,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
@@ -122,6 +124,14 @@ public class PredicateAbstractionManager {
 
     public long allSatCount = 0;
     public int maxAllSatCount = 0;
+
+    public int numIncrementalProversCreated = 0;
+    public int numIncrementalProverEvictions = 0;
+    public int numSolverRestartsAvoided = 0; // abstraction computed on an existing prover
+    public int numIncrementalBlockFormulaReuses = 0; // block formula was still asserted on the prover
+
+    public int numParallelCartesianAbstractions = 0;
+    public int numParallelBooleanAbstractions = 0;
   }
 
   final Stats stats = new Stats();
@@ -183,6 +193,29 @@ public class PredicateAbstractionManager {
       description="Eliminate propositions about dead variables in abstraction predicates by running a generalization procedure.")
   private boolean elimDeadVariablePredsByGeneralization = false;
 
+  @Option(secure=true, name = "abstraction.incremental",
+      description="Keep one prover per abstraction location alive across abstraction computations "
+          + "and refinements, such that the block formula does not need to be asserted and solved "
+          + "from scratch again if it did not change. Not used for abstraction.computation=ELIMINATION.")
+  private boolean incrementalAbstraction = false;
+
+  @Option(secure=true, name = "abstraction.incremental.maxProvers",
+      description="maximal number of provers kept alive for incremental abstraction computation "
+          + "(the least-recently used one is closed if necessary)")
+  @IntegerOption(min=1)
+  private int maxIncrementalProvers = 100;
+
+  @Option(secure=true, name = "abstraction.parallel.threads",
+      description="Number of threads (each with its own solver instance) for solving the queries "
+          + "of cartesian and boolean abstraction computations in parallel (0 for sequential computation).")
+  @IntegerOption(min=0)
+  private int parallelAbstractionThreads = 0;
+
+  @Option(secure=true, name = "abstraction.parallel.minPredicates",
+      description="minimal number of predicates for which an abstraction is computed in parallel")
+  @IntegerOption(min=1)
+  private int parallelAbstractionMinPredicates = 10;
+
   private boolean warnedOfCartesianAbstraction = false;
 
   private boolean abstractionReuseDisabledBecauseOfAmbiguity = false;
@@ -203,6 +236,10 @@ public class PredicateAbstractionManager {
 
   private Optional<LiveVariables> liveVars;
 
+  private final IncrementalAbstractionProvers incrementalProvers;
+
+  private final ParallelAbstractionComputation parallelAbstraction;
+
   public PredicateAbstractionManager(
       AbstractionManager pAmgr,
       FormulaManagerView pFmgr,
@@ -246,6 +283,19 @@ public class PredicateAbstractionManager {
       cartesianAbstractionCache = null;
     }
 
+    if (incrementalAbstraction && abstractionType != AbstractionType.ELIMINATION) {
+      incrementalProvers = new IncrementalAbstractionProvers(solver, stats, maxIncrementalProvers);
+    } else {
+      incrementalProvers = null;
+    }
+
+    if (parallelAbstractionThreads > 0) {
+      parallelAbstraction = new ParallelAbstractionComputation(fmgr, parallelAbstractionThreads,
+          config, logger, shutdownNotifier);
+    } else {
+      parallelAbstraction = null;
+    }
+
     abstractionStorage = new PredicateAbstractionsStorage(reuseAbstractionsFrom, logger, fmgr, null);
     SSAMap extractionSsa = SSAMap.emptySSAMap().withDefault(1);
     for (AbstractionNode an : abstractionStorage.getAbstractions().values()) {
@@ -435,8 +485,15 @@ public class PredicateAbstractionManager {
       stats.trivialPredicatesTime.stop();
     }
 
-    try (ProverEnvironment thmProver = solver.newProverEnvironment()) {
+    ProverEnvironment thmProver;
+    if (incrementalProvers != null) {
+      thmProver = incrementalProvers.getProver(location, absFormula, symbFormula);
+    } else {
+      thmProver = solver.newProverEnvironment();
       thmProver.push(f);
+    }
+    boolean success = false;
+    try {
 
       if (predicates.isEmpty() && (abstractionType != AbstractionType.ELIMINATION)) {
         stats.numSatCheckAbstractions++;
@@ -487,7 +544,7 @@ public class PredicateAbstractionManager {
           stats.booleanAbstractionTime.start();
           try {
             abs = rmgr.makeAnd(abs,
-                buildBooleanAbstraction(ssa, thmProver, predicates));
+                buildBooleanAbstraction(f, ssa, thmProver, predicates));
           } finally {
             stats.booleanAbstractionTime.stop();
           }
@@ -496,6 +553,13 @@ public class PredicateAbstractionManager {
           // buildBooleanAbstraction() does not clean up thmProver, so do not use it here.
         }
       }
+      success = true;
+    } finally {
+      if (incrementalProvers != null) {
+        incrementalProvers.release(location, success);
+      } else {
+        thmProver.close();
+      }
     }
 
     AbstractionFormula result = makeAbstractionFormula(abs, ssa, pathFormula);
@@ -796,65 +860,68 @@ public class PredicateAbstractionManager {
 
       // check whether each of the predicate is implied in the next state...
 
+      Map<AbstractionPredicate, Byte> parallelResults = ImmutableMap.of();
+      if (parallelAbstraction != null) {
+        List<AbstractionPredicate> uncachedPredicates = new ArrayList<>(predicates.size());
+        for (AbstractionPredicate p : predicates) {
+          if (!useCache || !cartesianAbstractionCache.containsKey(Pair.of(f, p))) {
+            uncachedPredicates.add(p);
+          }
+        }
+
+        if (uncachedPredicates.size() >= parallelAbstractionMinPredicates) {
+          stats.numParallelCartesianAbstractions++;
+          List<BooleanFormula> instantiatedPredicates = new ArrayList<>(uncachedPredicates.size());
+          for (AbstractionPredicate p : uncachedPredicates) {
+            instantiatedPredicates.add(fmgr.instantiate(p.getSymbolicAtom(), ssa));
+          }
+
+          byte[] values = parallelAbstraction.computeCartesianAbstraction(f, instantiatedPredicates);
+          parallelResults = new HashMap<>(values.length);
+          for (int i = 0; i < values.length; i++) {
+            parallelResults.put(uncachedPredicates.get(i), values[i]);
+          }
+        }
+      }
+
       for (AbstractionPredicate p : predicates) {
         Pair<BooleanFormula, AbstractionPredicate> cacheKey = Pair.of(f, p);
+        byte predVal;
         if (useCache && cartesianAbstractionCache.containsKey(cacheKey)) {
-          byte predVal = cartesianAbstractionCache.get(cacheKey);
+          predVal = cartesianAbstractionCache.get(cacheKey);
           stats.numCartesianAbsPredicatesCached++;
 
-          stats.abstractionEnumTime.getCurentInnerTimer().start();
-          Region v = p.getAbstractVariable();
-          if (predVal == -1) { // pred is false
-            stats.numCartesianAbsPredicates++;
-            v = rmgr.makeNot(v);
-            absbdd = rmgr.makeAnd(absbdd, v);
-          } else if (predVal == 1) { // pred is true
-            stats.numCartesianAbsPredicates++;
-            absbdd = rmgr.makeAnd(absbdd, v);
-          } else {
-            assert predVal == 0 : "predicate value is neither false, true, nor unknown";
-          }
-          stats.abstractionEnumTime.getCurentInnerTimer().stop();
-
         } else {
-          logger.log(Level.ALL, "DEBUG_1",
-              "CHECKING VALUE OF PREDICATE: ", p.getSymbolicAtom());
-
-          // instantiate the definition of the predicate
-          BooleanFormula predTrue = fmgr.instantiate(p.getSymbolicAtom(), ssa);
-          BooleanFormula predFalse = bfmgr.not(predTrue);
+          if (parallelResults.containsKey(p)) {
+            predVal = parallelResults.get(p);
 
-          // check whether this predicate has a truth value in the next
-          // state
-          byte predVal = 0; // pred is neither true nor false
+          } else {
+            logger.log(Level.ALL, "DEBUG_1",
+                "CHECKING VALUE OF PREDICATE: ", p.getSymbolicAtom());
 
-          thmProver.push(predFalse);
-          boolean isTrue = thmProver.isUnsat();
-          thmProver.pop();
+            // instantiate the definition of the predicate
+            BooleanFormula predTrue = fmgr.instantiate(p.getSymbolicAtom(), ssa);
+            BooleanFormula predFalse = bfmgr.not(predTrue);
 
-          if (isTrue) {
-            stats.numCartesianAbsPredicates++;
-            stats.abstractionEnumTime.getCurentInnerTimer().start();
-            Region v = p.getAbstractVariable();
-            absbdd = rmgr.makeAnd(absbdd, v);
-            stats.abstractionEnumTime.getCurentInnerTimer().stop();
+            // check whether this predicate has a truth value in the next
+            // state
+            predVal = 0; // pred is neither true nor false
 
-            predVal = 1;
-          } else {
-            // check whether it's false...
-            thmProver.push(predTrue);
-            boolean isFalse = thmProver.isUnsat();
+            thmProver.push(predFalse);
+            boolean isTrue = thmProver.isUnsat();
             thmProver.pop();
 
-            if (isFalse) {
-              stats.numCartesianAbsPredicates++;
-              stats.abstractionEnumTime.getCurentInnerTimer().start();
-              Region v = p.getAbstractVariable();
-              v = rmgr.makeNot(v);
-              absbdd = rmgr.makeAnd(absbdd, v);
-              stats.abstractionEnumTime.getCurentInnerTimer().stop();
+            if (isTrue) {
+              predVal = 1;
+            } else {
+              // check whether it's false...
+              thmProver.push(predTrue);
+              boolean isFalse = thmProver.isUnsat();
+              thmProver.pop();
 
-              predVal = -1;
+              if (isFalse) {
+                predVal = -1;
+              }
             }
           }
 
@@ -862,6 +929,20 @@ public class PredicateAbstractionManager {
             cartesianAbstractionCache.put(cacheKey, predVal);
           }
         }
+
+        stats.abstractionEnumTime.getCurentInnerTimer().start();
+        Region v = p.getAbstractVariable();
+        if (predVal == -1) { // pred is false
+          stats.numCartesianAbsPredicates++;
+          v = rmgr.makeNot(v);
+          absbdd = rmgr.makeAnd(absbdd, v);
+        } else if (predVal == 1) { // pred is true
+          stats.numCartesianAbsPredicates++;
+          absbdd = rmgr.makeAnd(absbdd, v);
+        } else {
+          assert predVal == 0 : "predicate value is neither false, true, nor unknown";
+        }
+        stats.abstractionEnumTime.getCurentInnerTimer().stop();
       }
 
       return absbdd;
@@ -885,7 +966,7 @@ public class PredicateAbstractionManager {
     return symbFormula;
   }
 
-  private Region buildBooleanAbstraction(SSAMap ssa,
+  private Region buildBooleanAbstraction(BooleanFormula f, SSAMap ssa,
       ProverEnvironment thmProver, Collection<AbstractionPredicate> predicates) throws InterruptedException, SolverException {
 
     // build the definition of the predicates, and instantiate them
@@ -908,13 +989,21 @@ public class PredicateAbstractionManager {
       predVars.add(var);
     }
 
+    if (parallelAbstraction != null && predicates.size() >= parallelAbstractionMinPredicates) {
+      stats.numParallelBooleanAbstractions++;
+      return buildBooleanAbstractionInParallel(f, predDef, predVars);
+    }
+
     // the formula is (abstractionFormula & pathFormula & predDef)
     thmProver.push(predDef);
     AllSatCallbackImpl callback = new AllSatCallbackImpl();
     Region result = thmProver.allSat(callback, predVars);
 
-    // pop() is actually costly sometimes, and we delete the environment anyway
-    // thmProver.pop();
+    // pop() is actually costly sometimes, and we delete the environment anyway,
+    // except if the prover is kept for incremental abstraction computation
+    if (incrementalProvers != null) {
+      thmProver.pop();
+    }
 
     // update statistics
     int numModels = callback.getCount();
@@ -926,6 +1015,46 @@ public class PredicateAbstractionManager {
     return result;
   }
 
+  private Region buildBooleanAbstractionInParallel(BooleanFormula f, BooleanFormula predDef,
+      List<BooleanFormula> predVars) throws InterruptedException, SolverException {
+
+    stats.abstractionSolveTime.start();
+    List<byte[]> models;
+    try {
+      models = parallelAbstraction.computeBooleanAbstraction(f, predDef, predVars);
+    } finally {
+      stats.abstractionSolveTime.stop();
+    }
+
+    List<Region> predRegions = new ArrayList<>(predVars.size());
+    for (BooleanFormula var : predVars) {
+      predRegions.add(amgr.getPredicate(var).getAbstractVariable());
+    }
+
+    // same as in AllSatCallbackImpl, but all models are already known
+    stats.abstractionEnumTime.startBoth();
+    try (RegionBuilder builder = rmgr.builder(shutdownNotifier)) {
+      for (byte[] model : models) {
+        builder.startNewConjunction();
+        for (int i = 0; i < model.length; i++) {
+          if (model[i] == 1) {
+            builder.addPositiveRegion(predRegions.get(i));
+          } else if (model[i] == -1) {
+            builder.addNegativeRegion(predRegions.get(i));
+          }
+        }
+        builder.finishConjunction();
+      }
+      Region result = builder.getResult();
+
+      stats.maxAllSatCount = Math.max(models.size(), stats.maxAllSatCount);
+      stats.allSatCount += models.size();
+      return result;
+    } finally {
+      stats.abstractionEnumTime.stopBoth();
+    }
+  }
+
   private class AllSatCallbackImpl
       extends DefaultBooleanFormulaVisitor<BooleanFormula>
       implements AllSatCallback<Region> {
@@ -1123,6 +1252,19 @@ public class PredicateAbstractionManager {
     return makeAbstractionFormula(expandedRegion, newSSA, blockFormula);
   }
 
+  /**
+   * Close the provers that are kept alive for incremental abstraction computation
+   * and the solvers used for parallel abstraction computation.
+   */
+  public void close() throws Exception {
+    if (incrementalProvers != null) {
+      incrementalProvers.close();
+    }
+    if (parallelAbstraction != null) {
+      parallelAbstraction.close();
+    }
+  }
+
   /**
    * Extract all atoms from a formula and create predicates for them.
    * @param pFormula The formula with the atoms (with SSA indices).
@@ -215,7 +215,7 @@ public class PredicateCPA implements ConfigurableProgramAnalysis, StatisticsProv
     stats = new PredicateCPAStatistics(this, blk, regionManager, abstractionManager,
         cfa, config);
 
-    prec = new PredicatePrecisionAdjustment(this, invariantGenerator);
+    prec = new PredicatePrecisionAdjustment(this, blk, invariantGenerator);
 
     if (stopType.equals("SEP")) {
       stop = new PredicateStopOperator(domain);
@@ -307,6 +307,7 @@ public class PredicateCPA implements ConfigurableProgramAnalysis, StatisticsProv
 
   @Override
   public void close() throws Exception {
+    predicateManager.close();
     solver.close();
   }
 
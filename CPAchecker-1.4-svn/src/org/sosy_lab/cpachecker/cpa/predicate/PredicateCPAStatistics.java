@@ -273,12 +273,24 @@ class PredicateCPAStatistics extends AbstractStatistics {
       out.println("  Because of loop head:            " + valueWithPercentage(blk.numBlkLoops, prec.numAbstractions));
       out.println("  Because of join nodes:           " + valueWithPercentage(blk.numBlkJoins, prec.numAbstractions));
       out.println("  Because of threshold:            " + valueWithPercentage(blk.numBlkThreshold, prec.numAbstractions));
+      if (blk.isAdaptive()) {
+        out.println("  Because of block size:           " + valueWithPercentage(blk.numBlkAdaptive, prec.numAbstractions));
+      }
       out.println("  Times precision was empty:       " + valueWithPercentage(as.numSymbolicAbstractions, as.numCallsAbstraction));
       out.println("  Times precision was {false}:     " + valueWithPercentage(as.numSatCheckAbstractions, as.numCallsAbstraction));
       out.println("  Times result was cached:         " + valueWithPercentage(as.numCallsAbstractionCached, as.numCallsAbstraction));
       out.println("  Times cartesian abs was used:    " + valueWithPercentage(as.cartesianAbstractionTime.getNumberOfIntervals(), as.numCallsAbstraction));
       out.println("  Times boolean abs was used:      " + valueWithPercentage(as.booleanAbstractionTime.getNumberOfIntervals(), as.numCallsAbstraction));
+      if (as.numParallelCartesianAbstractions + as.numParallelBooleanAbstractions > 0) {
+        out.println("  Times cartesian abs in parallel: " + valueWithPercentage(as.numParallelCartesianAbstractions, as.cartesianAbstractionTime.getNumberOfIntervals()));
+        out.println("  Times boolean abs in parallel:   " + valueWithPercentage(as.numParallelBooleanAbstractions, as.booleanAbstractionTime.getNumberOfIntervals()));
+      }
       out.println("  Times result was 'false':        " + valueWithPercentage(prec.numAbstractionsFalse, prec.numAbstractions));
+      if (as.numIncrementalProversCreated > 0) {
+        out.println("  Incremental provers created:     " + as.numIncrementalProversCreated + " (" + as.numIncrementalProverEvictions + " evicted)");
+        out.println("  Solver restarts avoided:         " + as.numSolverRestartsAvoided);
+        out.println("  Times block formula was kept:    " + as.numIncrementalBlockFormulaReuses);
+      }
     }
 
     if (trans.satCheckTimer.getNumberOfIntervals() > 0) {
@@ -304,6 +316,15 @@ class PredicateCPAStatistics extends AbstractStatistics {
     out.println("  cached:                          " + solver.cachedSatChecks);
     out.println();
     out.println("Max ABE block size:                       " + prec.maxBlockSize);
+    if (blk.isAdaptive()) {
+      out.println("Adaptive block encoding:");
+      out.println("  Current global size limit:              " + blk.getCurrentGlobalSizeLimit());
+      out.println("  Locations with own size limit:          " + blk.getNumberOfAdaptedLocations());
+      out.println("  Times size limit was decreased:         " + blk.numAdaptiveLimitDecreases);
+      out.println("  Times size limit was increased:         " + blk.numAdaptiveLimitIncreases);
+      out.println("  Length of blocks ended at limit:        " + blk.adaptiveBlockSizes);
+      out.println("  Length of blocks at abstractions:       " + blk.adaptiveAbstractionSizes);
+    }
     out.println("Number of predicates discovered:          " + allDistinctPreds);
     if (precisionStatistics && allDistinctPreds > 0) {
       out.println("Number of abstraction locations:          " + allLocs);
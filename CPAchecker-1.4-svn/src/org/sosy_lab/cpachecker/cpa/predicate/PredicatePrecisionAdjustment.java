@@ -35,6 +35,7 @@ import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantChannel;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantGenerator;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
@@ -46,6 +47,7 @@ import org.sosy_lab.cpachecker.cpa.predicate.PredicateAbstractState.ComputeAbstr
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionFormula;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionPredicate;
+import org.sosy_lab.cpachecker.util.predicates.BlockOperator;
 import org.sosy_lab.solver.SolverException;
 import org.sosy_lab.solver.api.BooleanFormula;
 import org.sosy_lab.cpachecker.util.predicates.interfaces.PathFormulaManager;
@@ -71,17 +73,19 @@ public class PredicatePrecisionAdjustment implements PrecisionAdjustment {
   private final PredicateAbstractionManager formulaManager;
   private final PathFormulaManager pathFormulaManager;
   private final FormulaManagerView fmgr;
+  private final BlockOperator blk;
 
   private @Nullable InvariantGenerator invariantGenerator;
   private InvariantSupplier invariants;
 
-  public PredicatePrecisionAdjustment(PredicateCPA pCpa,
+  public PredicatePrecisionAdjustment(PredicateCPA pCpa, BlockOperator pBlk,
       InvariantGenerator pInvariantGenerator) {
 
     logger = pCpa.getLogger();
     formulaManager = pCpa.getPredicateManager();
     pathFormulaManager = pCpa.getPathFormulaManager();
     fmgr = pCpa.getSolver().getFormulaManager();
+    blk = pBlk;
 
     invariantGenerator = checkNotNull(pInvariantGenerator);
     invariants = InvariantSupplier.TrivialInvariantSupplier.INSTANCE;
@@ -156,6 +160,9 @@ public class PredicatePrecisionAdjustment implements PrecisionAdjustment {
       computingAbstractionTime.stop();
     }
 
+    // report the costs of this abstraction, such that the size of later blocks can be adjusted
+    blk.abstractionComputed(loc, pathFormula, computingAbstractionTime.getLengthOfLastInterval());
+
     for (BooleanFormula constraint : element.getConstraints()) {
       // add constraint to the current abstraction, such that it can be used for further steps in the analysis.
       // We manually set the SSA-indices for the constraint with the indices available in the current (new) abstractionFormula.
@@ -201,6 +208,15 @@ public class PredicatePrecisionAdjustment implements PrecisionAdjustment {
       return; // already done
     }
 
+    Optional<InvariantChannel> channel = invariantGenerator.getChannel();
+    if (channel.isPresent()) {
+      // invariants are published while the generation is running,
+      // the subscription provides the latest ones at each abstraction without blocking
+      invariants = channel.get().subscribe();
+      invariantGenerator = null;
+      return;
+    }
+
     try {
       invariants = invariantGenerator.get();
 
@@ -47,13 +47,17 @@ import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.Path;
 import org.sosy_lab.common.io.Paths;
 import org.sosy_lab.common.log.LogManager;
-import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.PCCStrategy;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateFormat;
+import org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateReader;
+import org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateWriter;
+import org.sosy_lab.cpachecker.util.statistics.ConcurrentStatCounter;
+import org.sosy_lab.cpachecker.util.statistics.ConcurrentStatTimer;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -76,6 +80,18 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
   @IntegerOption(min=1)
   protected int numThreads = 1;
 
+  @Option(secure=true,
+      name = "binaryCertificate",
+      description = "write proof in versioned binary certificate format instead of using Java serialization."
+          + " Only supported by partitioning strategies, other strategies reject this option."
+          + " When reading, the format is detected automatically.")
+  private boolean writeBinaryCertificate = false;
+
+  @Option(secure=true,
+      name = "binaryCertificate.compress",
+      description = "compress the single partitions of a binary certificate")
+  private boolean compressBinaryCertificate = true;
+
   public AbstractStrategy(Configuration pConfig, LogManager pLogger) throws InvalidConfigurationException {
     pConfig.inject(this, AbstractStrategy.class);
     numThreads = Math.max(1, numThreads);
@@ -83,11 +99,20 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
     logger = pLogger;
     stats = new PCStrategyStatistics();
     pccStats.add(stats);
+
+    if (writeBinaryCertificate && !(this instanceof BinaryCertificateStrategy)) {
+      throw new InvalidConfigurationException("Proof checking strategy " + getClass().getSimpleName()
+          + " does not support binary certificates (option pcc.binaryCertificate).");
+    }
   }
 
   @Override
   @SuppressFBWarnings(value="OS_OPEN_STREAM", justification="Do not close stream o because it wraps stream zos/fos which need to remain open and would be closed if o.close() is called.")
   public void writeProof(UnmodifiableReachedSet pReached) {
+    if (writeBinaryCertificate) {
+      writeBinaryProof((BinaryCertificateStrategy) this, pReached);
+      return;
+    }
 
     OutputStream fos = null;
     try {
@@ -137,9 +162,34 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
   protected abstract void writeProofToStream(ObjectOutputStream out, UnmodifiableReachedSet reached)
       throws IOException, InvalidConfigurationException, InterruptedException;
 
+  private void writeBinaryProof(BinaryCertificateStrategy pStrategy, UnmodifiableReachedSet pReached) {
+    try (BinaryCertificateWriter out = new BinaryCertificateWriter(file.asByteSink().openStream(), pReached.size(),
+        compressBinaryCertificate)) {
+      pStrategy.writeProofToBinary(out, pReached);
+      logger.log(Level.INFO, "Binary certificate with", out.getNumPartitions(), "partitions written,",
+          out.getSize(), "bytes (" + out.getRawSize(), "bytes of encoded partitions before compression)");
+    } catch (IOException e) {
+      logger.logUserException(Level.SEVERE, e, "Proof cannot be written");
+    } catch (InvalidConfigurationException e) {
+      logger.log(Level.SEVERE, "Proof cannot be constructed due to conflicting configuration.", e.getMessage());
+    } catch (InterruptedException e) {
+      logger.log(Level.SEVERE, "Proof cannot be written due to time out during proof construction");
+    }
+  }
 
   @Override
   public void readProof() throws IOException, ClassNotFoundException, InvalidConfigurationException {
+    if (BinaryCertificateFormat.isBinaryCertificate(file)) {
+      if (!(this instanceof BinaryCertificateStrategy)) {
+        throw new IOException("Proof checking strategy " + getClass().getSimpleName()
+            + " does not support binary certificates");
+      }
+      try (BinaryCertificateReader in = new BinaryCertificateReader(file)) {
+        ((BinaryCertificateStrategy) this).readProofFromBinary(in);
+      }
+      return;
+    }
+
     Triple<InputStream, ZipInputStream, ObjectInputStream> proofStream = openProofStream();
     readProofFromStream(proofStream.getThird());
     proofStream.getThird().close();
@@ -184,47 +234,51 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
     statsCollection.addAll(pccStats);
   }
 
+  /**
+   * Statistics of the proof checking strategies.
+   * Thread-safe, because parallel strategies update them from several threads.
+   */
   public static class PCStrategyStatistics implements Statistics {
 
-    protected Timer transferTimer = new Timer();
-    protected Timer stopTimer = new Timer();
-    protected Timer preparationTimer = new Timer();
-    protected Timer propertyCheckingTimer = new Timer();
+    protected final ConcurrentStatTimer transferTimer = new ConcurrentStatTimer("Time for abstract successor checks");
+    protected final ConcurrentStatTimer stopTimer = new ConcurrentStatTimer("Time for covering checks");
+    protected final ConcurrentStatTimer preparationTimer = new ConcurrentStatTimer("Time for preparing proof for checking");
+    protected final ConcurrentStatTimer propertyCheckingTimer = new ConcurrentStatTimer("Time for checking property");
 
-    protected int countIterations = 0;
-    protected int proofSize = 0;
+    protected final ConcurrentStatCounter countIterations = new ConcurrentStatCounter("Number of iterations");
+    protected final ConcurrentStatCounter proofSize = new ConcurrentStatCounter("Number of proof elements");
 
     @Override
     public String getName() {
       return "Proof Checking Strategy Statistics";
     }
 
-    public Timer getPreparationTimer() {
+    public ConcurrentStatTimer getPreparationTimer() {
       return preparationTimer;
     }
 
-    public Timer getStopTimer() {
+    public ConcurrentStatTimer getStopTimer() {
       return stopTimer;
     }
 
-    public Timer getTransferTimer() {
+    public ConcurrentStatTimer getTransferTimer() {
       return transferTimer;
     }
 
-    public Timer getPropertyCheckingTimer() {
+    public ConcurrentStatTimer getPropertyCheckingTimer() {
       return propertyCheckingTimer;
     }
 
     public void increaseIteration() {
-      countIterations++;
+      countIterations.inc();
     }
 
     @Override
     public void printStatistics(PrintStream out, Result pResult,
         ReachedSet pReached) {
-      out.println("Number of iterations:                     " + countIterations);
+      out.println("Number of iterations:                     " + countIterations.getValue());
       out.println();
-      out.println("Number of proof elements:                     " + proofSize);
+      out.println("Number of proof elements:                     " + proofSize.getValue());
       out.println();
       out.println("  Time for preparing proof for checking:          " + preparationTimer);
       out.println("  Time for abstract successor checks:     " + transferTimer + " (Calls: "
@@ -236,7 +290,7 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
     }
 
     public void increaseProofSize(int pIncrement) {
-      proofSize+=pIncrement;
+      proofSize.add(pIncrement);
     }
 
   }
@@ -0,0 +1,44 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy;
+
+import java.io.IOException;
+
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateReader;
+import org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateWriter;
+
+/**
+ * Interface for proof checking strategies that can write and read their proof
+ * in the versioned binary certificate format.
+ * Only strategies implementing this interface accept the option pcc.binaryCertificate.
+ */
+public interface BinaryCertificateStrategy {
+
+  void writeProofToBinary(BinaryCertificateWriter pOut, UnmodifiableReachedSet pReached)
+      throws IOException, InvalidConfigurationException, InterruptedException;
+
+  void readProofFromBinary(BinaryCertificateReader pIn) throws InvalidConfigurationException, IOException;
+}
@@ -134,7 +134,7 @@ public class PartialReachedSetStrategy extends ReachedSetStrategy {
     while (certificateSize<certificate.size()) {
 
       shutdownNotifier.shutdownIfNecessary();
-      stats.countIterations++;
+      stats.increaseIteration();
 
       try {
         stats.transferTimer.start();
@@ -46,13 +46,15 @@ import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitionChecker;
 import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningIOHelper;
 import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningUtils;
+import org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateReader;
+import org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateWriter;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 
 
-public class PartitionedReachedSetStrategy extends AbstractStrategy {
+public class PartitionedReachedSetStrategy extends AbstractStrategy implements BinaryCertificateStrategy {
 
   private final PartitioningIOHelper ioHelper;
   private final PropertyCheckerCPA cpa;
@@ -154,4 +156,15 @@ public class PartitionedReachedSetStrategy extends AbstractStrategy {
    ioHelper.readProof(pIn, stats);
   }
 
+  @Override
+  public void writeProofToBinary(BinaryCertificateWriter pOut, UnmodifiableReachedSet pReached)
+      throws IOException, InvalidConfigurationException, InterruptedException {
+    ioHelper.writeProof(pOut, pReached);
+  }
+
+  @Override
+  public void readProofFromBinary(BinaryCertificateReader pIn) throws InvalidConfigurationException, IOException {
+    ioHelper.readProof(pIn, stats);
+  }
+
 }
@@ -105,7 +105,7 @@ public class ReachedSetStrategy extends SequentialReadStrategy {
     for (AbstractState state : reachedSet) {
 
       shutdownNotifier.shutdownIfNecessary();
-      stats.countIterations++;
+      stats.increaseIteration();
 
       try {
         stats.transferTimer.start();
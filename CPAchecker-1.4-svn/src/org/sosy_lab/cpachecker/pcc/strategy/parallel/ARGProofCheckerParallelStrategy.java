@@ -32,13 +32,11 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Stack;
-import java.util.concurrent.BrokenBarrierException;
-import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 
 import org.sosy_lab.common.Pair;
 import org.sosy_lab.common.ShutdownNotifier;
-import org.sosy_lab.common.concurrency.Threads;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Options;
@@ -57,6 +55,7 @@ import org.sosy_lab.cpachecker.cpa.bam.BAMCPA;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.pcc.propertychecker.NoTargetStateChecker;
 import org.sosy_lab.cpachecker.pcc.strategy.SequentialReadStrategy;
+import org.sosy_lab.cpachecker.pcc.strategy.parallel.ParallelCheckingScheduler.ElementChecker;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 
 /**
@@ -71,6 +70,7 @@ public class ARGProofCheckerParallelStrategy extends SequentialReadStrategy {
   private ARGState[] args;
   private ProofChecker checker;
   private PropertyChecker propChecker;
+  private final ParallelCheckingScheduler scheduler;
 
   public ARGProofCheckerParallelStrategy(Configuration pConfig, LogManager pLogger,
       ShutdownNotifier pShutdownNotifier, ProofChecker pChecker)
@@ -81,6 +81,8 @@ public class ARGProofCheckerParallelStrategy extends SequentialReadStrategy {
     if (pChecker instanceof PropertyCheckerCPA) {
       propChecker = ((PropertyCheckerCPA) pChecker).getPropChecker();
     }
+    scheduler = new ParallelCheckingScheduler(numThreads, pShutdownNotifier);
+    addPCCStatistic(scheduler);
   }
 
   @Override
@@ -93,107 +95,65 @@ public class ARGProofCheckerParallelStrategy extends SequentialReadStrategy {
 
   @Override
   public boolean checkCertificate(final ReachedSet pReachedSet) throws CPAException, InterruptedException {
-    //TODO does not account for strengthen yet (proof check will fail if strengthen is needed to explain successor states)
-    // TODO if ARG too small avoid parallel checking, check with less threads
-
-    logger.log(Level.INFO, "Proof check algorithm started");
     try {
+      return checkCertificateInParallel(pReachedSet);
+    } finally {
+      // the certificate is checked only once, afterwards the worker threads are not needed anymore
+      scheduler.close();
+    }
+  }
 
-      StateCheckingHelper helper[] = new StateCheckingHelper[numThreads - 1];
-      Thread helperThreads[] = new Thread[numThreads - 1];
-      CyclicBarrier barrier = new CyclicBarrier(numThreads);
-      CommonResult result = new CommonResult(numThreads);
-
-      for (int i = 0; i < helper.length; i++) {
-        helper[i] = new StateCheckingHelper(barrier, result, propChecker, checker);
-        helperThreads[i] = Threads.newThread(helper[i]);
-        helperThreads[i].start();
-      }
-
-      //check BAMARG blocks
-      Block block;
-      BAMARGBlockStartState bamState;
-      Collection<ARGState> returnNodes;
-      ArrayList<ARGState> partialReturnNodes = new ArrayList<>();
-      List<ARGState> argStates;
-      int numElems;
-      for (int i = 0; i < args.length - 2; i++) {
-        bamState = (BAMARGBlockStartState) args[i];
-        block =
-            ((BAMCPA) checker).getTransferRelation().getBlockPartitioning()
-                .getBlockForCallNode(AbstractStates.extractLocation(bamState));
-
-        // traverse
-        argStates = getARGElements(bamState.getAnalyzedBlock());
-
-        // init checking
-        numElems = argStates.size() / numThreads;
-        for (int j = 0; j < helper.length; j++) {
-          helper[j].setCheckingInfo(j * numElems, numElems, argStates, block);
-        }
-        barrier.await();
+  private boolean checkCertificateInParallel(final ReachedSet pReachedSet) throws CPAException, InterruptedException {
+    //TODO does not account for strengthen yet (proof check will fail if strengthen is needed to explain successor states)
 
-        // check
-        for (int j = helper.length * numElems; j < argStates.size(); j++) {
-          if (!checkInnerElement(propChecker, checker, argStates.get(j), block, partialReturnNodes)) { return false; }
-        }
+    logger.log(Level.INFO, "Proof check algorithm started");
 
-        result.addReturnNodes(partialReturnNodes);
-        partialReturnNodes.clear();
+    //check BAMARG blocks
+    Block block;
+    BAMARGBlockStartState bamState;
+    Collection<ARGState> returnNodes;
+    List<ARGState> argStates;
+    for (int i = 0; i < args.length - 2; i++) {
+      bamState = (BAMARGBlockStartState) args[i];
+      block =
+          ((BAMCPA) checker).getTransferRelation().getBlockPartitioning()
+              .getBlockForCallNode(AbstractStates.extractLocation(bamState));
 
-        // wait for every Thread to finish
-        returnNodes = result.getResult();
-        if (returnNodes == null) {
-          // checking failed
-          return false;
-        }
+      // traverse
+      argStates = getARGElements(bamState.getAnalyzedBlock());
 
-        // add ARG as checked
-        ((BAMCPA) checker).getTransferRelation().setCorrectARG(Pair.of(args[i], block), returnNodes);
+      // check
+      returnNodes = new ConcurrentLinkedQueue<>();
+      if (!scheduler.checkAll(argStates.size(), new InnerElementChecker(argStates, block, returnNodes))) {
+        return false;
       }
 
-      // check main block
-
-      // check root
-      ARGState root = args[args.length - 1];
+      // add ARG as checked
+      ((BAMCPA) checker).getTransferRelation().setCorrectARG(Pair.of(args[i], block), new ArrayList<>(returnNodes));
+    }
 
-      AbstractState initialState = pReachedSet.popFromWaitlist();
+    // check main block
 
-      logger.log(Level.FINE, "Checking root state");
+    // check root
+    ARGState root = args[args.length - 1];
 
-      if (!(checker.isCoveredBy(initialState, root) && checker.isCoveredBy(root, initialState))) { return false; }
+    AbstractState initialState = pReachedSet.popFromWaitlist();
 
-      // traverse
-      argStates = getARGElements(root);
+    logger.log(Level.FINE, "Checking root state");
 
-      // init checking
-      numElems = argStates.size() / numThreads;
-      for (int j = 0; j < helper.length; j++) {
-        helper[j].setCheckingInfo(j * numElems, numElems, argStates);
-      }
+    if (!(checker.isCoveredBy(initialState, root) && checker.isCoveredBy(root, initialState))) { return false; }
 
-      barrier.await();
+    // traverse
+    final List<ARGState> mainStates = getARGElements(root);
 
-      // check
-      for (int j = helper.length * numElems; j < argStates.size(); j++) {
-        if (!checkElement(propChecker, checker, argStates.get(j))) { return false; }
-      }
+    // check
+    return scheduler.checkAll(mainStates.size(), new ElementChecker() {
 
-      // wait for every Thread to finish
-      for (int j = 0; j < helper.length; j++) {
-        helperThreads[j].join();
-        if (!result.isSuccess()) { return false; }
-      }
-      returnNodes = result.getResult();
-      if (returnNodes == null) {
-        // checking failed
-        return false;
+      @Override
+      public boolean check(int pIndex) {
+        return checkElement(propChecker, checker, mainStates.get(pIndex));
       }
-    } catch (BrokenBarrierException e) {
-      logger.log(Level.SEVERE, "Synchronization with barrier faild.");
-      return false;
-    }
-    return true;
+    });
   }
 
   private List<ARGState> getARGElements(ARGState pRoot) {
@@ -416,131 +376,21 @@ public class ARGProofCheckerParallelStrategy extends SequentialReadStrategy {
     return result;
   }
 
-  private static class StateCheckingHelper implements Runnable {
-
-    private boolean lastRound;
-    private int startCheck;
-    private int numElemsToCheck;
-    private CyclicBarrier barrier;
-    private List<ARGState> states;
-    private CommonResult result;
-    private PropertyChecker propC;
-    private ProofChecker proofC;
-    private Block currentB;
-
-    public StateCheckingHelper(CyclicBarrier pBarrier, CommonResult pResult, PropertyChecker pPropCheck,
-        ProofChecker pProofCheck) {
-      this.barrier = pBarrier;
-      result = pResult;
-      propC = pPropCheck;
-      proofC = pProofCheck;
-    }
-
+  private class InnerElementChecker implements ElementChecker {
 
-    public void setCheckingInfo(int pStartIndex, int pNumberElems, List<ARGState> argStates) {
-      lastRound = true;
-      startCheck = pStartIndex;
-      numElemsToCheck = pNumberElems;
-      states = argStates;
-    }
+    private final List<ARGState> states;
+    private final Block block;
+    private final Collection<ARGState> returnNodes;
 
-    public void setCheckingInfo(int pStartIndex, int pNumberElems, List<ARGState> argStates, Block block) {
-      lastRound = false;
-      startCheck = pStartIndex;
-      numElemsToCheck = pNumberElems;
-      currentB = block;
-      states = argStates;
+    private InnerElementChecker(List<ARGState> pStates, Block pBlock, Collection<ARGState> pReturnNodes) {
+      states = pStates;
+      block = pBlock;
+      returnNodes = pReturnNodes;
     }
 
     @Override
-    public void run() {
-      int end;
-      ArrayList<ARGState> returnNodes = new ArrayList<>();
-      boolean fail = false;
-      try {
-        do {
-          barrier.await();
-
-          end = startCheck + numElemsToCheck;
-          for (int i = startCheck; i < end; i++) {
-            if (lastRound) {
-              if (!checkElement(propC, proofC, states.get(i))) {
-                fail = true;
-                break;
-              }
-            } else {
-              if (!checkInnerElement(propC, proofC, states.get(i), currentB, returnNodes)) {
-                fail = true;
-                break;
-              }
-            }
-          }
-
-          if (!fail) {
-            if (!lastRound) {
-              result.addReturnNodes(returnNodes);
-              returnNodes.clear();
-            }
-          } else {
-            result.setFailure();
-          }
-
-        } while (!lastRound && !fail);
-      } catch (BrokenBarrierException | InterruptedException e) {
-        result.setFailure();
-      }
-    }
-
-  }
-
-  private static class CommonResult {
-
-    private boolean success = true;
-    private int max;
-    private int numSetResults;
-    private ArrayList<ARGState> returnNodes;
-
-    public CommonResult(int maxParticipants) {
-      max = maxParticipants;
-      numSetResults = 0;
-      returnNodes = new ArrayList<>();
-    }
-
-    public boolean isSuccess() {
-      return success;
-    }
-
-    public synchronized void setFailure() {
-      success = false;
-      increaseSetResults();
-    }
-
-    public synchronized void addReturnNodes(Collection<ARGState> partialReturnNodes) {
-      returnNodes.addAll(partialReturnNodes);
-      increaseSetResults();
-    }
-
-    public synchronized Collection<ARGState> getResult() throws InterruptedException {
-      try {
-        if (numSetResults != max) {
-          wait();
-        }
-        if (!success) {
-          return null;
-        } else {
-          return returnNodes;
-        }
-      } finally {
-        numSetResults = 0;
-        returnNodes = new ArrayList<>();
-      }
-    }
-
-    public void increaseSetResults() {
-      numSetResults++;
-      if (numSetResults == max) {
-        notify();
-      }
+    public boolean check(int pIndex) {
+      return checkInnerElement(propChecker, checker, states.get(pIndex), block, returnNodes);
     }
   }
 
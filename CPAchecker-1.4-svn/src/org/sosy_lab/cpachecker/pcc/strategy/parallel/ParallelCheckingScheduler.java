@@ -0,0 +1,276 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.parallel;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.statistics.ConcurrentStatCounter;
+
+/**
+ * Work-stealing scheduler shared by the parallel proof checking strategies.
+ *
+ * Elements are checked by recursively splitting the index range. A worker only splits its range further
+ * if few of its own tasks are waiting to be stolen, thus chunks become small when threads run out of
+ * work and stay large as long as all threads are busy. This balances skewed checking costs without
+ * the overhead of one task per element.
+ *
+ * The scheduler also records how long each worker thread was busy, such that the statistics show
+ * the utilization of the threads.
+ *
+ * The scheduler has to be closed after checking, otherwise its worker threads stay alive.
+ */
+public class ParallelCheckingScheduler implements Statistics, AutoCloseable {
+
+  /** Split only if a worker has at most that many own tasks which were not stolen yet. */
+  private static final int SURPLUS_TASK_THRESHOLD = 2;
+
+  public static interface ElementChecker {
+
+    /**
+     * Checks the element with the given index.
+     * @return false if the element could not be checked successfully, the remaining elements are skipped then
+     */
+    boolean check(int pIndex) throws CPAException, InterruptedException;
+  }
+
+  private final ForkJoinPool pool;
+  private final ShutdownNotifier shutdownNotifier;
+
+  private final List<WorkerStatistics> workers = new ArrayList<>();
+  private final ThreadLocal<WorkerStatistics> currentWorker = new ThreadLocal<WorkerStatistics>() {
+    @Override
+    protected WorkerStatistics initialValue() {
+      WorkerStatistics result = new WorkerStatistics();
+      synchronized (workers) {
+        workers.add(result);
+      }
+      return result;
+    }
+  };
+
+  // incremented by all workers, thus a counter without contention between them
+  private final ConcurrentStatCounter numberOfTasks = new ConcurrentStatCounter("Number of tasks");
+
+  // time during which at least one task was running
+  private int activeTasks = 0;
+  private long activeSince;
+  private long wallTime = 0;
+
+  public ParallelCheckingScheduler(final int pNumThreads, final ShutdownNotifier pShutdownNotifier) {
+    pool = new ForkJoinPool(Math.max(1, pNumThreads));
+    shutdownNotifier = pShutdownNotifier;
+  }
+
+  public int getParallelism() {
+    return pool.getParallelism();
+  }
+
+  /**
+   * Checks all elements with an index in [0, pNumElements) in parallel and waits until checking finished.
+   * Checking stops as soon as one element could not be checked successfully.
+   *
+   * @return true if all elements were checked successfully
+   */
+  public boolean checkAll(final int pNumElements, final ElementChecker pChecker)
+      throws CPAException, InterruptedException {
+    if (pNumElements <= 0) {
+      return true;
+    }
+
+    AtomicBoolean success = new AtomicBoolean(true);
+    AtomicReference<Exception> failure = new AtomicReference<>();
+
+    taskStarted();
+    try {
+      pool.invoke(new RangeTask(0, pNumElements, pChecker, success, failure));
+    } finally {
+      taskFinished();
+    }
+
+    Exception e = failure.get();
+    if (e instanceof CPAException) {
+      throw (CPAException) e;
+    } else if (e instanceof InterruptedException) {
+      throw (InterruptedException) e;
+    } else if (e != null) {
+      throw new AssertionError(e);
+    }
+    return success.get();
+  }
+
+  /**
+   * Executes the given task asynchronously on one of the worker threads.
+   * Used by strategies which coordinate their tasks themselves, e.g. by interleaving reading and checking.
+   */
+  public void execute(final Runnable pTask) {
+    pool.execute(new Runnable() {
+      @Override
+      public void run() {
+        WorkerStatistics worker = currentWorker.get();
+        taskStarted();
+        long start = System.nanoTime();
+        try {
+          pTask.run();
+        } finally {
+          worker.busyTime += System.nanoTime() - start;
+          worker.tasks++;
+          numberOfTasks.inc();
+          taskFinished();
+        }
+      }
+    });
+  }
+
+  /**
+   * Stops the worker threads, tasks that are still running are interrupted.
+   * The scheduler cannot execute tasks afterwards, but its statistics are still available.
+   */
+  @Override
+  public void close() {
+    pool.shutdownNow();
+  }
+
+  private synchronized void taskStarted() {
+    if (activeTasks++ == 0) {
+      activeSince = System.nanoTime();
+    }
+  }
+
+  private synchronized void taskFinished() {
+    if (--activeTasks == 0) {
+      wallTime += System.nanoTime() - activeSince;
+    }
+  }
+
+  private class RangeTask extends RecursiveAction {
+
+    private static final long serialVersionUID = -1434587162624733519L;
+
+    private final int from;
+    private int to;
+    private final ElementChecker checker;
+    private final AtomicBoolean success;
+    private final AtomicReference<Exception> failure;
+
+    private RangeTask(final int pFrom, final int pTo, final ElementChecker pChecker, final AtomicBoolean pSuccess,
+        final AtomicReference<Exception> pFailure) {
+      from = pFrom;
+      to = pTo;
+      checker = pChecker;
+      success = pSuccess;
+      failure = pFailure;
+    }
+
+    @Override
+    protected void compute() {
+      numberOfTasks.inc();
+      List<RangeTask> forked = null;
+
+      // split lazily, only if other threads may need work
+      while (to - from > 1 && getSurplusQueuedTaskCount() <= SURPLUS_TASK_THRESHOLD && success.get()) {
+        int middle = (from + to) >>> 1;
+        RangeTask right = new RangeTask(middle, to, checker, success, failure);
+        to = middle;
+        right.fork();
+        if (forked == null) {
+          forked = new ArrayList<>();
+        }
+        forked.add(right);
+      }
+
+      WorkerStatistics worker = currentWorker.get();
+      long start = System.nanoTime();
+      try {
+        for (int i = from; i < to && success.get(); i++) {
+          shutdownNotifier.shutdownIfNecessary();
+          worker.elements++;
+          if (!checker.check(i)) {
+            success.set(false);
+          }
+        }
+      } catch (CPAException | InterruptedException e) {
+        failure.compareAndSet(null, e);
+        success.set(false);
+      } finally {
+        worker.busyTime += System.nanoTime() - start;
+        worker.tasks++;
+      }
+
+      if (forked != null) {
+        for (int i = forked.size() - 1; i >= 0; i--) {
+          RangeTask task = forked.get(i);
+          if (!success.get() && task.tryUnfork()) {
+            // not started yet, no need to execute it
+            continue;
+          }
+          task.join();
+        }
+      }
+    }
+  }
+
+  private static class WorkerStatistics {
+    // only written by the owning worker thread, read after the tasks were joined
+    private volatile long busyTime = 0;
+    private volatile int elements = 0;
+    private volatile int tasks = 0;
+  }
+
+  @Override
+  public String getName() {
+    return "Parallel Proof Checking Scheduler";
+  }
+
+  @Override
+  public synchronized void printStatistics(PrintStream pOut, Result pResult, ReachedSet pReached) {
+    pOut.println("Number of worker threads:                " + pool.getParallelism());
+    pOut.println("Number of tasks:                         " + numberOfTasks.getValue());
+    pOut.println("Number of stolen tasks:                  " + pool.getStealCount());
+    pOut.println("Time for parallel checking:              "
+        + TimeSpan.ofNanos(wallTime).formatAs(TimeUnit.SECONDS));
+
+    synchronized (workers) {
+      int i = 0;
+      for (WorkerStatistics worker : workers) {
+        pOut.format(Locale.ENGLISH, "  Worker %d: %d elements in %d tasks, busy %s (%.1f%%)%n",
+            i++, worker.elements, worker.tasks, TimeSpan.ofNanos(worker.busyTime).formatAs(TimeUnit.SECONDS),
+            wallTime > 0 ? 100.0 * worker.busyTime / wallTime : 0.0);
+      }
+    }
+  }
+}
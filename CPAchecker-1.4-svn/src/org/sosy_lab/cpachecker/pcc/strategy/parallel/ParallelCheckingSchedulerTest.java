@@ -0,0 +1,98 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.parallel;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.pcc.strategy.parallel.ParallelCheckingScheduler.ElementChecker;
+
+public class ParallelCheckingSchedulerTest {
+
+  private ParallelCheckingScheduler scheduler;
+
+  @Before
+  public void setUp() {
+    scheduler = new ParallelCheckingScheduler(4, ShutdownNotifier.create());
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.close();
+  }
+
+  @Test
+  public void testAllElementsCheckedOnce() throws Exception {
+    final AtomicIntegerArray checked = new AtomicIntegerArray(10000);
+
+    boolean result = scheduler.checkAll(checked.length(), new ElementChecker() {
+      @Override
+      public boolean check(int pIndex) {
+        checked.incrementAndGet(pIndex);
+        return true;
+      }
+    });
+
+    assertThat(result).isTrue();
+    for (int i = 0; i < checked.length(); i++) {
+      assertThat(checked.get(i)).isEqualTo(1);
+    }
+  }
+
+  @Test
+  public void testFailingElement() throws Exception {
+    boolean result = scheduler.checkAll(10000, new ElementChecker() {
+      @Override
+      public boolean check(int pIndex) {
+        return pIndex != 4711;
+      }
+    });
+
+    assertThat(result).isFalse();
+  }
+
+  @Test(expected = CPAException.class)
+  public void testExceptionIsPropagated() throws Exception {
+    scheduler.checkAll(100, new ElementChecker() {
+      @Override
+      public boolean check(int pIndex) throws CPAException {
+        if (pIndex == 42) {
+          throw new CPAException("check failed");
+        }
+        return true;
+      }
+    });
+  }
+
+  @Test
+  public void testNoElements() throws Exception {
+    assertThat(scheduler.checkAll(0, null)).isTrue();
+  }
+}
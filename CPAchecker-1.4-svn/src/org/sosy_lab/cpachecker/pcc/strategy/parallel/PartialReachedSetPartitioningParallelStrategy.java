@@ -28,8 +28,6 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -49,19 +47,23 @@ import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.PropertyChecker.PropertyCheckerCPA;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.pcc.strategy.AbstractStrategy;
+import org.sosy_lab.cpachecker.pcc.strategy.BinaryCertificateStrategy;
 import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningIOHelper;
 import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningUtils;
+import org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateReader;
+import org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateWriter;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 
 
-public class PartialReachedSetPartitioningParallelStrategy extends AbstractStrategy{
+public class PartialReachedSetPartitioningParallelStrategy extends AbstractStrategy implements BinaryCertificateStrategy {
 
   private final PartitioningIOHelper ioHelper;
   private final PropertyCheckerCPA cpa;
   private final ShutdownNotifier shutdownNotifier;
+  private final ParallelCheckingScheduler scheduler;
 
   public PartialReachedSetPartitioningParallelStrategy(final Configuration pConfig, final LogManager pLogger,
       final ShutdownNotifier pShutdownNotifier, final PropertyCheckerCPA pCpa)
@@ -71,6 +73,8 @@ public class PartialReachedSetPartitioningParallelStrategy extends AbstractStrat
     cpa = pCpa;
     ioHelper = new PartitioningIOHelper(pConfig, pLogger, pShutdownNotifier);
     addPCCStatistic(ioHelper.getPartitioningStatistc());
+    scheduler = new ParallelCheckingScheduler(numThreads, pShutdownNotifier);
+    addPCCStatistic(scheduler);
   }
 
   @Override
@@ -81,6 +85,15 @@ public class PartialReachedSetPartitioningParallelStrategy extends AbstractStrat
 
   @Override
   public boolean checkCertificate(ReachedSet pReachedSet) throws CPAException, InterruptedException {
+    try {
+      return checkCertificateInParallel(pReachedSet);
+    } finally {
+      // the certificate is checked only once, afterwards the worker threads are not needed anymore
+      scheduler.close();
+    }
+  }
+
+  private boolean checkCertificateInParallel(ReachedSet pReachedSet) throws CPAException, InterruptedException {
     AtomicBoolean checkResult = new AtomicBoolean(true);
     AtomicInteger availablePartitions = new AtomicInteger(0);
     AtomicInteger nextId = new AtomicInteger(0);
@@ -95,45 +108,40 @@ public class PartialReachedSetPartitioningParallelStrategy extends AbstractStrat
     Precision initPrec = pReachedSet.getPrecision(initialState);
 
     logger.log(Level.INFO, "Create and start threads");
-    ExecutorService executor = Executors.newFixedThreadPool(numThreads );
-    try {
-      for (int i = 0; i < numThreads; i++) {
-        executor.execute(new ParallelPartitionChecker(availablePartitions, nextId, checkResult, readButUnprocessed,
-            partitionChecked, lock, ioHelper, partitionNodes, certificate, inOtherPartition, initPrec,
-            cpa.getStopOperator(), cpa.getTransferRelation(), shutdownNotifier, logger));
-      }
+    for (int i = 0; i < scheduler.getParallelism(); i++) {
+      scheduler.execute(new ParallelPartitionChecker(availablePartitions, nextId, checkResult, readButUnprocessed,
+          partitionChecked, lock, ioHelper, partitionNodes, certificate, inOtherPartition, initPrec,
+          cpa.getStopOperator(), cpa.getTransferRelation(), shutdownNotifier, logger));
+    }
 
-      partitionChecked.acquire(ioHelper.getNumPartitions());
+    partitionChecked.acquire(ioHelper.getNumPartitions());
 
-      if (!checkResult.get()) { return false; }
+    if (!checkResult.get()) { return false; }
 
-      logger.log(Level.INFO, "Add initial state to elements for which it will be checked if they are covered by partition nodes of certificate.");
-      inOtherPartition.add(initialState);
+    logger.log(Level.INFO, "Add initial state to elements for which it will be checked if they are covered by partition nodes of certificate.");
+    inOtherPartition.add(initialState);
 
-      logger.log(Level.INFO,
-              "Check if initial state and all nodes which should be contained in different partition are covered by certificate (partition node).");
-      if (!PartitioningUtils.areElementsCoveredByPartitionElement(inOtherPartition, partitionNodes, cpa.getStopOperator(),
-          initPrec)) {
-        logger.log(Level.SEVERE,
-            "Initial state or a state which should be in other partition is not covered by certificate.");
-        return false;
-      }
+    logger.log(Level.INFO,
+            "Check if initial state and all nodes which should be contained in different partition are covered by certificate (partition node).");
+    if (!PartitioningUtils.areElementsCoveredByPartitionElement(inOtherPartition, partitionNodes, cpa.getStopOperator(),
+        initPrec)) {
+      logger.log(Level.SEVERE,
+          "Initial state or a state which should be in other partition is not covered by certificate.");
+      return false;
+    }
 
-      logger.log(Level.INFO, "Check property.");
-      stats.getPropertyCheckingTimer().start();
-      try {
-        if (!cpa.getPropChecker().satisfiesProperty(certificate)) {
-          logger.log(Level.SEVERE, "Property violated");
-          return false;
-        }
-      } finally {
-        stats.getPropertyCheckingTimer().stop();
+    logger.log(Level.INFO, "Check property.");
+    stats.getPropertyCheckingTimer().start();
+    try {
+      if (!cpa.getPropChecker().satisfiesProperty(certificate)) {
+        logger.log(Level.SEVERE, "Property violated");
+        return false;
       }
-
-      return true;
     } finally {
-      executor.shutdown();
+      stats.getPropertyCheckingTimer().stop();
     }
+
+    return true;
   }
 
   @Override
@@ -148,4 +156,15 @@ public class PartialReachedSetPartitioningParallelStrategy extends AbstractStrat
     ioHelper.readProof(pIn, stats);
   }
 
+  @Override
+  public void writeProofToBinary(BinaryCertificateWriter pOut, UnmodifiableReachedSet pReached)
+      throws IOException, InvalidConfigurationException, InterruptedException {
+    ioHelper.writeProof(pOut, pReached);
+  }
+
+  @Override
+  public void readProofFromBinary(BinaryCertificateReader pIn) throws InvalidConfigurationException, IOException {
+    ioHelper.readProof(pIn, stats);
+  }
+
 }
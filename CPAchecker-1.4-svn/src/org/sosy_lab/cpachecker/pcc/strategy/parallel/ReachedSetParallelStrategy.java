@@ -24,11 +24,9 @@
 package org.sosy_lab.cpachecker.pcc.strategy.parallel;
 
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.logging.Level;
 
 import org.sosy_lab.common.ShutdownNotifier;
-import org.sosy_lab.common.concurrency.Threads;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Options;
@@ -41,21 +39,35 @@ import org.sosy_lab.cpachecker.cpa.PropertyChecker.PropertyCheckerCPA;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.pcc.strategy.ReachedSetStrategy;
+import org.sosy_lab.cpachecker.pcc.strategy.parallel.ParallelCheckingScheduler.ElementChecker;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 
 @Options
 public class ReachedSetParallelStrategy extends ReachedSetStrategy{
 
+  private final ParallelCheckingScheduler scheduler;
+
   public ReachedSetParallelStrategy(Configuration pConfig, LogManager pLogger, ShutdownNotifier pShutdownNotifier,
       PropertyCheckerCPA pCpa) throws InvalidConfigurationException {
     super(pConfig, pLogger, pShutdownNotifier, pCpa);
+    scheduler = new ParallelCheckingScheduler(numThreads, pShutdownNotifier);
+    addPCCStatistic(scheduler);
   }
 
   @Override
   public boolean checkCertificate(final ReachedSet pReachedSet) throws CPAException, InterruptedException {
+    try {
+      return checkCertificateInParallel(pReachedSet);
+    } finally {
+      // the certificate is checked only once, afterwards the worker threads are not needed anymore
+      scheduler.close();
+    }
+  }
+
+  private boolean checkCertificateInParallel(final ReachedSet pReachedSet) throws CPAException, InterruptedException {
     /*also restrict stop to elements of same location as analysis does*/
-    StopOperator stop = cpa.getStopOperator();
-    Precision initialPrec = pReachedSet.getPrecision(pReachedSet.getFirstState());
+    final StopOperator stop = cpa.getStopOperator();
+    final Precision initialPrec = pReachedSet.getPrecision(pReachedSet.getFirstState());
 
     // check if initial element covered
     AbstractState initialState = pReachedSet.popFromWaitlist();
@@ -71,47 +83,33 @@ public class ReachedSetParallelStrategy extends ReachedSetStrategy{
       return false;
     }
 
-    // instantiate parallel threads and check if elements form transitive closure
-    //TODO possibly instantiate (and start) threads earlier in constructor
-    CheckingHelper[] helper = new CheckingHelper[numThreads-1];
-    Thread[] helperThreads = new Thread[numThreads-1];
-    int length = reachedSet.length/numThreads;
-
-    for (int i = 0; i < helper.length; i++) {
-      shutdownNotifier.shutdownIfNecessary();
-      helper[i] = new CheckingHelper(i * length, length, initialPrec);
-      helperThreads[i] = Threads.newThread(helper[i]);
-      helperThreads[i].start();
-    }
-
-    Collection<? extends AbstractState> successors;
-    for (int i = length * helper.length; i < reachedSet.length; i++) {
-
-      shutdownNotifier.shutdownIfNecessary();
-      stats.increaseIteration();
+    // check in parallel if elements form transitive closure
+    boolean isClosed = scheduler.checkAll(reachedSet.length, new ElementChecker() {
 
-      try {
-        successors = cpa.getTransferRelation().getAbstractSuccessors(reachedSet[i], initialPrec);
-
-        for (AbstractState succ : successors) {
+      @Override
+      public boolean check(int pIndex) throws InterruptedException {
+        stats.increaseIteration();
+        try {
+          for (AbstractState succ : cpa.getTransferRelation().getAbstractSuccessors(reachedSet[pIndex], initialPrec)) {
             if (!stop.stop(succ, statesPerLocation.get(AbstractStates.extractLocation(succ)), initialPrec)) {
               logger.log(Level.FINE, "Cannot check that result is transitive closure.", "Successor ", succ,
-                  "of element ", reachedSet[i], "not covered by result.");
+                  "of element ", reachedSet[pIndex], "not covered by result.");
               return false;
             }
+          }
+        } catch (CPATransferException e) {
+          logger.logException(Level.FINE, e, "Computation of successors failed.");
+          return false;
+        } catch (CPAException e) {
+          logger.logException(Level.FINE, e, "Stop check failed for successor.");
+          return false;
         }
-      } catch (CPATransferException e) {
-        logger.logException(Level.FINE, e, "Computation of successors failed.");
-        return false;
-      } catch (CPAException e) {
-        logger.logException(Level.FINE, e, "Stop check failed for successor.");
-        return false;
+        return true;
       }
-    }
+    });
 
-    for (int i = 0; i < helper.length; i++) {
-      helperThreads[i].join();
-      if (!helper[i].result) { return false; }
+    if (!isClosed) {
+      return false;
     }
 
     stats.getPropertyCheckingTimer().start();
@@ -122,51 +120,4 @@ public class ReachedSetParallelStrategy extends ReachedSetStrategy{
     }
   }
 
-  protected class CheckingHelper implements Runnable {
-
-    private int start;
-    private int numElem;
-    private Precision initialPrec;
-    private boolean result = true;
-
-
-    protected CheckingHelper(int startIndex, int pNumElem, Precision pInitialPrec) {
-      if (startIndex < 0 || pNumElem < 1) {
-        throw new NumberFormatException(
-            "Start index must be postive or 0 and number of elements to check must be positive.");
-      }
-      start = startIndex;
-      numElem = pNumElem;
-      initialPrec = pInitialPrec;
-    }
-
-    @Override
-    public void run() {// TODO how to integrate shutdown notifier in here, unprotected access to stats
-      // ExecutorService one possibility
-      StopOperator stop = cpa.getStopOperator();
-      Collection<? extends AbstractState> successors;
-      for (int i=start;i<start+numElem;i++) {
-
-        try {
-          successors = cpa.getTransferRelation().getAbstractSuccessors(reachedSet[i], initialPrec);
-
-          for (AbstractState succ : successors) {
-
-              if (!stop.stop(succ, statesPerLocation.get(AbstractStates.extractLocation(succ)), initialPrec)) {
-                logger.log(Level.FINE, "Cannot check that result is transitive closure.", "Successor ", succ,
-                    "of element ", reachedSet[i], "not covered by result.");
-                result = false;
-              }
-          }
-        } catch (CPATransferException | InterruptedException e) {// TODO how to deal with interrupted exception
-          logger.logException(Level.FINE, e, "Computation of successors failed.");
-          result = false;
-        } catch (CPAException e) {
-          logger.logException(Level.FINE, e, "Stop check failed for successor.");
-          result = false;
-        }
-      }
-    }
-  }
-
 }
@@ -34,11 +34,14 @@ import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.zip.ZipInputStream;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.common.Triple;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.pcc.strategy.AbstractStrategy;
 import org.sosy_lab.cpachecker.pcc.strategy.AbstractStrategy.PCStrategyStatistics;
 import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningIOHelper;
+import org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateReader;
 
 
 public class ParallelPartitionReader implements Runnable {
@@ -49,7 +52,8 @@ public class ParallelPartitionReader implements Runnable {
 
   private final AtomicInteger nextPartition;
 
-  private final AbstractStrategy strategy;
+  private final @Nullable AbstractStrategy strategy;
+  private final @Nullable BinaryCertificateReader certificate;
   private final PartitioningIOHelper ioHelper;
 
   private final PCStrategyStatistics stats;
@@ -62,11 +66,28 @@ public class ParallelPartitionReader implements Runnable {
       final Semaphore pPartitionChecked, final AtomicInteger nextPartitionId, final AbstractStrategy proofReader,
       final PartitioningIOHelper pIOHelper, final PCStrategyStatistics pStats,
       final LogManager pLogger) {
+    this(isSuccess, partitionsRead, pPartitionChecked, nextPartitionId, proofReader, null, pIOHelper, pStats,
+        pLogger);
+  }
+
+  public ParallelPartitionReader(final AtomicBoolean isSuccess, final Semaphore partitionsRead,
+      final AtomicInteger nextPartitionId, final BinaryCertificateReader pCertificate,
+      final PartitioningIOHelper pIOHelper, final PCStrategyStatistics pStats,
+      final LogManager pLogger) {
+    this(isSuccess, partitionsRead, null, nextPartitionId, null, pCertificate, pIOHelper, pStats, pLogger);
+  }
+
+  private ParallelPartitionReader(final AtomicBoolean isSuccess, final Semaphore partitionsRead,
+      final Semaphore pPartitionChecked, final AtomicInteger nextPartitionId,
+      final @Nullable AbstractStrategy proofReader, final @Nullable BinaryCertificateReader pCertificate,
+      final PartitioningIOHelper pIOHelper, final PCStrategyStatistics pStats,
+      final LogManager pLogger) {
     success = isSuccess;
     waitRead = partitionsRead;
     partitionChecked = pPartitionChecked;
     nextPartition = nextPartitionId;
     strategy = proofReader;
+    certificate = pCertificate;
     ioHelper = pIOHelper;
     stats = pStats;
     logger = pLogger;
@@ -94,8 +115,13 @@ public class ParallelPartitionReader implements Runnable {
     int nextId;
     while ((nextId = nextPartition.getAndIncrement()) < ioHelper.getNumPartitions()) {
       try {
-        streams = strategy.openAdditionalProofStream(nextId);
-        ioHelper.readPartition(streams.getThird(), stats, lock);
+        if (certificate != null) {
+          // partitions of binary certificates can be accessed directly
+          ioHelper.readPartition(certificate, nextId, stats, lock);
+        } else {
+          streams = strategy.openAdditionalProofStream(nextId);
+          ioHelper.readPartition(streams.getThird(), stats, lock);
+        }
         waitRead.release();
       } catch (IOException | ClassNotFoundException e) {
         logger.logUserException(Level.SEVERE, e, "Partition reading failed. Stop checking");
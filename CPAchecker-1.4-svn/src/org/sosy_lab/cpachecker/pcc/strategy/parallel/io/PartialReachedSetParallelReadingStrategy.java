@@ -37,6 +37,8 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -51,16 +53,19 @@ import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.PropertyChecker.PropertyCheckerCPA;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.pcc.strategy.AbstractStrategy;
+import org.sosy_lab.cpachecker.pcc.strategy.BinaryCertificateStrategy;
 import org.sosy_lab.cpachecker.pcc.strategy.parallel.ParallelPartitionChecker;
 import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningIOHelper;
 import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningUtils;
+import org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateReader;
+import org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateWriter;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 
 @Options(prefix = "pcc.parallel.io")
-public class PartialReachedSetParallelReadingStrategy extends AbstractStrategy {
+public class PartialReachedSetParallelReadingStrategy extends AbstractStrategy implements BinaryCertificateStrategy {
 
   private final PartitioningIOHelper ioHelper;
   private final PropertyCheckerCPA cpa;
@@ -167,7 +172,30 @@ public class PartialReachedSetParallelReadingStrategy extends AbstractStrategy {
       InvalidConfigurationException, IOException {
     // read metadata
     ioHelper.readMetadata(pIn, true);
-    // read partitions in parallel
+    readPartitionsInParallel(null);
+  }
+
+  @Override
+  public void writeProofToBinary(final BinaryCertificateWriter pOut, final UnmodifiableReachedSet pReached)
+      throws IOException, InvalidConfigurationException, InterruptedException {
+    ioHelper.constructInternalProofRepresentation(pReached);
+    for (int i = 0; i < ioHelper.getNumPartitions(); i++) {
+      ioHelper.writePartition(pOut, ioHelper.getPartition(i));
+    }
+  }
+
+  @Override
+  public void readProofFromBinary(final BinaryCertificateReader pIn) throws InvalidConfigurationException,
+      IOException {
+    ioHelper.readMetadata(pIn);
+    readPartitionsInParallel(pIn);
+  }
+
+  /**
+   * Reads all partitions in parallel, either from the additional streams of a proof written with
+   * Java serialization or, if given, directly from the binary certificate.
+   */
+  private void readPartitionsInParallel(final @Nullable BinaryCertificateReader pCertificate) throws IOException {
     ExecutorService executor = Executors.newFixedThreadPool(numThreads);
     try {
       AtomicBoolean success = new AtomicBoolean(true);
@@ -176,7 +204,12 @@ public class PartialReachedSetParallelReadingStrategy extends AbstractStrategy {
       int numPartition = ioHelper.getNumPartitions();
 
       for (int i = 0; i < numThreads; i++) {
-        executor.execute(new ParallelPartitionReader(success,waitRead, nextId, this, ioHelper, stats, logger));
+        if (pCertificate == null) {
+          executor.execute(new ParallelPartitionReader(success, waitRead, nextId, this, ioHelper, stats, logger));
+        } else {
+          executor.execute(new ParallelPartitionReader(success, waitRead, nextId, pCertificate, ioHelper, stats,
+              logger));
+        }
       }
 
       try {
@@ -55,6 +55,8 @@ import org.sosy_lab.cpachecker.pcc.strategy.AbstractStrategy.PCStrategyStatistic
 import org.sosy_lab.cpachecker.pcc.strategy.partialcertificate.PartialCertificateTypeProvider;
 import org.sosy_lab.cpachecker.pcc.strategy.partialcertificate.PartialReachedSetDirectedGraph;
 import org.sosy_lab.cpachecker.pcc.strategy.partitioning.GraphPartitionerFactory.PartitioningHeuristics;
+import org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateReader;
+import org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateWriter;
 
 @Options(prefix = "pcc.partitioning")
 public class PartitioningIOHelper {
@@ -149,9 +151,18 @@ public class PartitioningIOHelper {
 
   public void readPartition(final ObjectInputStream pIn, final PCStrategyStatistics pStats)
       throws ClassNotFoundException, IOException {
-    Pair<AbstractState[], AbstractState[]> result = readPartitionContent(pIn);
-    partitions.add(result);
-    pStats.increaseProofSize(result.getFirst().length+result.getSecond().length);
+    addPartition(readPartitionContent(pIn), pStats);
+  }
+
+  public void readPartition(final BinaryCertificateReader pIn, final int pIndex, final PCStrategyStatistics pStats)
+      throws IOException {
+    addPartition(pIn.readPartition(pIndex), pStats);
+  }
+
+  private void addPartition(final Pair<AbstractState[], AbstractState[]> pPartition,
+      final PCStrategyStatistics pStats) {
+    partitions.add(pPartition);
+    pStats.increaseProofSize(pPartition.getFirst().length + pPartition.getSecond().length);
   }
 
   private Pair<AbstractState[], AbstractState[]> readPartitionContent(final ObjectInputStream pIn)
@@ -162,12 +173,20 @@ public class PartitioningIOHelper {
   public void readPartition(final ObjectInputStream pIn, final PCStrategyStatistics pStats, final Lock pLock)
       throws ClassNotFoundException, IOException {
     if (pLock == null) { throw new IllegalArgumentException("Cannot protect against parallel access"); }
-    Pair<AbstractState[], AbstractState[]> result = readPartitionContent(pIn);
-    int partialProofSize = result.getFirst().length+result.getSecond().length;
+    addPartition(readPartitionContent(pIn), pStats, pLock);
+  }
+
+  public void readPartition(final BinaryCertificateReader pIn, final int pIndex, final PCStrategyStatistics pStats,
+      final Lock pLock) throws IOException {
+    if (pLock == null) { throw new IllegalArgumentException("Cannot protect against parallel access"); }
+    addPartition(pIn.readPartition(pIndex), pStats, pLock);
+  }
+
+  private void addPartition(final Pair<AbstractState[], AbstractState[]> pPartition,
+      final PCStrategyStatistics pStats, final Lock pLock) {
     pLock.lock();
     try {
-      partitions.add(result);
-      pStats.increaseProofSize(partialProofSize);
+      addPartition(pPartition, pStats);
     } finally {
       pLock.unlock();
     }
@@ -192,6 +211,19 @@ public class PartitioningIOHelper {
     }
   }
 
+  public void readMetadata(final BinaryCertificateReader pIn) {
+    savedReachedSetSize = pIn.getSavedReachedSetSize();
+    numPartitions = pIn.getNumPartitions();
+    partitions = new ArrayList<>(numPartitions);
+  }
+
+  public void readProof(final BinaryCertificateReader pIn, final PCStrategyStatistics pStats) throws IOException {
+    readMetadata(pIn);
+    for (int i = 0; i < numPartitions; i++) {
+      readPartition(pIn, i, pStats);
+    }
+  }
+
   public void writeMetadata(final ObjectOutputStream pOut, final int pReachedSetSize, final int pNumPartitions)
       throws IOException {
     logger.log(Level.FINER,"Write metadata of partition");
@@ -229,6 +261,23 @@ public class PartitioningIOHelper {
     }
   }
 
+  public void writePartition(final BinaryCertificateWriter pOut, final Pair<AbstractState[], AbstractState[]> pPartition)
+      throws IOException {
+    logger.log(Level.FINER, "Write partition");
+    pOut.writePartition(pPartition.getFirst(), pPartition.getSecond());
+  }
+
+  public void writeProof(final BinaryCertificateWriter pOut, final UnmodifiableReachedSet pReached)
+      throws InvalidConfigurationException, IOException, InterruptedException {
+    Pair<PartialReachedSetDirectedGraph, List<Set<Integer>>> partitionDescription =
+        computePartialReachedSetAndPartition(pReached);
+
+    for (Set<Integer> partition : partitionDescription.getSecond()) {
+      writePartition(pOut, Pair.of(partitionDescription.getFirst().getSetNodes(partition, false),
+          partitionDescription.getFirst().getSuccessorNodesOutsideSet(partition, false)));
+    }
+  }
+
   public Statistics getPartitioningStatistc() {
     return new PartitioningStatistics();
   }
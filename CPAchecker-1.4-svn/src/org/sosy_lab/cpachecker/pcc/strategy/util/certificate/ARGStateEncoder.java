@@ -0,0 +1,102 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.util.certificate;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+
+/**
+ * ARG states are written together with their wrapped state. Parent and coverage links are
+ * only kept if the linked state was written before in the same partition, because partitions
+ * are read independently of each other. The strategies which need the complete ARG
+ * still write it with Java serialization.
+ */
+class ARGStateEncoder implements StateEncoder {
+
+  @Override
+  public byte getTag() {
+    return BinaryCertificateFormat.TAG_ARG;
+  }
+
+  @Override
+  public boolean canEncode(AbstractState pState) {
+    return pState.getClass() == ARGState.class;
+  }
+
+  @Override
+  public void encode(AbstractState pState, BinaryStateWriter pOut) throws IOException {
+    ARGState state = (ARGState) pState;
+    pOut.writeState(state.getWrappedState());
+
+    List<Integer> parents = new ArrayList<>(state.getParents().size());
+    for (ARGState parent : state.getParents()) {
+      int id = pOut.getWrittenStateId(parent);
+      if (id >= 0) {
+        parents.add(id);
+      }
+    }
+    pOut.writeInt(parents.size());
+    for (Integer id : parents) {
+      pOut.writeInt(id);
+    }
+
+    int coveringId = state.isCovered() ? pOut.getWrittenStateId(state.getCoveringState()) : -1;
+    pOut.writeInt(coveringId + 1);
+  }
+
+  @Override
+  public AbstractState decode(BinaryStateReader pIn) throws IOException {
+    AbstractState wrapped = pIn.readState();
+
+    int numParents = pIn.readInt();
+    List<ARGState> parents = new ArrayList<>(numParents);
+    for (int i = 0; i < numParents; i++) {
+      parents.add(getARGState(pIn, pIn.readInt()));
+    }
+
+    ARGState result = new ARGState(wrapped, parents.isEmpty() ? null : parents.get(0));
+    for (int i = 1; i < parents.size(); i++) {
+      result.addParent(parents.get(i));
+    }
+
+    int coveringId = pIn.readInt() - 1;
+    if (coveringId >= 0) {
+      result.setCovered(getARGState(pIn, coveringId));
+    }
+    return result;
+  }
+
+  private ARGState getARGState(BinaryStateReader pIn, int pId) throws StreamCorruptedException {
+    AbstractState state = pIn.getReadState(pId);
+    if (!(state instanceof ARGState)) {
+      throw new StreamCorruptedException("Link to state " + pId + " which is no ARG state");
+    }
+    return (ARGState) state;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.util.certificate;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.sosy_lab.common.io.Path;
+
+/**
+ * Constants describing the layout of a binary certificate.
+ *
+ * A certificate file consists of
+ * <ul>
+ * <li>a header: magic number, format version, flags and the size of the reached set,</li>
+ * <li>the partitions, each one a (possibly deflated) block of encoded states,</li>
+ * <li>an index with offset, stored length and raw length of every partition,</li>
+ * <li>a trailer with the position of the index, the number of partitions and the magic number.</li>
+ * </ul>
+ */
+public final class BinaryCertificateFormat {
+
+  private BinaryCertificateFormat() { }
+
+  /** "PCCB" */
+  public static final int MAGIC = 0x50434342;
+
+  /** Increase whenever the layout of the file or of one of the state encodings changes. */
+  public static final short VERSION = 1;
+
+  public static final short FLAG_COMPRESSED = 0x1;
+
+  /** magic (4), version (2), flags (2), reached set size (4) */
+  static final int HEADER_SIZE = 12;
+
+  /** index position (8), number of partitions (4), magic (4) */
+  static final int TRAILER_SIZE = 16;
+
+  /** offset (8), stored length (4), raw length (4) */
+  static final int INDEX_ENTRY_SIZE = 16;
+
+  // tags which precede every encoded state
+  static final byte TAG_NULL = 0;
+  static final byte TAG_REFERENCE = 1;
+  static final byte TAG_SERIALIZED = 2;
+  static final byte TAG_LOCATION = 3;
+  static final byte TAG_CALLSTACK = 4;
+  static final byte TAG_PREDICATE = 5;
+  static final byte TAG_VALUE = 6;
+  static final byte TAG_ARG = 7;
+  static final byte TAG_COMPOSITE = 8;
+
+  /**
+   * Checks if the given file starts with the magic number of the binary certificate format.
+   * Proofs written with Java serialization are zip files and never start with this number.
+   */
+  public static boolean isBinaryCertificate(final Path pFile) throws IOException {
+    if (!pFile.exists() || pFile.toFile().length() < HEADER_SIZE + TRAILER_SIZE) {
+      return false;
+    }
+    try (InputStream in = pFile.asByteSource().openStream()) {
+      return new DataInputStream(in).readInt() == MAGIC;
+    }
+  }
+}
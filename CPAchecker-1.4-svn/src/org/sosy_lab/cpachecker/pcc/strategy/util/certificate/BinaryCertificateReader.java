@@ -0,0 +1,171 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.util.certificate;
+
+import static org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateFormat.*;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.sosy_lab.common.Pair;
+import org.sosy_lab.common.io.Path;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+
+/**
+ * Provides random access to the partitions of a binary certificate.
+ * Partitions are memory-mapped on demand, thus different partitions
+ * can be read concurrently from several threads.
+ */
+public class BinaryCertificateReader implements Closeable {
+
+  private final FileChannel channel;
+  private final boolean compressed;
+  private final int reachedSetSize;
+
+  private final long[] offsets;
+  private final int[] storedLengths;
+  private final int[] rawLengths;
+
+  public BinaryCertificateReader(final Path pFile) throws IOException {
+    channel = FileChannel.open(pFile.toFile().toPath(), StandardOpenOption.READ);
+    boolean success = false;
+    try {
+      ByteBuffer header = readFully(0, HEADER_SIZE);
+      if (header.getInt() != MAGIC) {
+        throw new StreamCorruptedException("Not a binary certificate");
+      }
+      short version = header.getShort();
+      if (version != VERSION) {
+        throw new StreamCorruptedException("Unsupported certificate version " + version + ", expected " + VERSION);
+      }
+      compressed = (header.getShort() & FLAG_COMPRESSED) != 0;
+      reachedSetSize = header.getInt();
+
+      ByteBuffer trailer = readFully(channel.size() - TRAILER_SIZE, TRAILER_SIZE);
+      long indexOffset = trailer.getLong();
+      int numPartitions = trailer.getInt();
+      if (trailer.getInt() != MAGIC || numPartitions < 0
+          || indexOffset + (long) numPartitions * INDEX_ENTRY_SIZE + TRAILER_SIZE != channel.size()) {
+        throw new StreamCorruptedException("Certificate is incomplete or corrupted");
+      }
+
+      offsets = new long[numPartitions];
+      storedLengths = new int[numPartitions];
+      rawLengths = new int[numPartitions];
+      ByteBuffer index = readFully(indexOffset, numPartitions * INDEX_ENTRY_SIZE);
+      for (int i = 0; i < numPartitions; i++) {
+        offsets[i] = index.getLong();
+        storedLengths[i] = index.getInt();
+        rawLengths[i] = index.getInt();
+        if (offsets[i] < HEADER_SIZE || offsets[i] + storedLengths[i] > indexOffset) {
+          throw new StreamCorruptedException("Invalid position of partition " + i);
+        }
+      }
+      success = true;
+    } finally {
+      if (!success) {
+        channel.close();
+      }
+    }
+  }
+
+  private ByteBuffer readFully(final long pPosition, final int pLength) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(pLength);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, pPosition + buffer.position()) < 0) {
+        throw new EOFException();
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  public int getNumPartitions() {
+    return offsets.length;
+  }
+
+  public int getSavedReachedSetSize() {
+    return reachedSetSize;
+  }
+
+  /**
+   * Decodes the partition with the given index.
+   * @return the states of the partition and the adjacent states outside of the partition
+   */
+  public Pair<AbstractState[], AbstractState[]> readPartition(final int pIndex) throws IOException {
+    if (pIndex < 0 || pIndex >= offsets.length) {
+      throw new IllegalArgumentException("Not a valid partition index: " + pIndex);
+    }
+
+    ByteBuffer block = channel.map(MapMode.READ_ONLY, offsets[pIndex], storedLengths[pIndex]);
+    if (compressed) {
+      block = inflate(block, rawLengths[pIndex]);
+    }
+
+    BinaryStateReader states = new BinaryStateReader(block);
+    AbstractState[] partitionNodes = states.readStates();
+    AbstractState[] adjacentNodesOutside = states.readStates();
+    return Pair.of(partitionNodes, adjacentNodesOutside);
+  }
+
+  private static ByteBuffer inflate(final ByteBuffer pBlock, final int pRawLength) throws IOException {
+    byte[] input = new byte[pBlock.remaining()];
+    pBlock.get(input);
+    byte[] result = new byte[pRawLength];
+
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(input);
+      int length = 0;
+      while (!inflater.finished() && length < pRawLength) {
+        int inflated = inflater.inflate(result, length, pRawLength - length);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        length += inflated;
+      }
+      if (length != pRawLength || !inflater.finished()) {
+        throw new StreamCorruptedException("Partition has wrong size");
+      }
+    } catch (DataFormatException e) {
+      throw new StreamCorruptedException("Partition is corrupted: " + e.getMessage());
+    } finally {
+      inflater.end();
+    }
+    return ByteBuffer.wrap(result);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,325 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.util.certificate;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
+import java.math.BigInteger;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.Pair;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.io.Path;
+import org.sosy_lab.common.io.Paths;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.log.TestLogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACreationUtils;
+import org.sosy_lab.cpachecker.cfa.Language;
+import org.sosy_lab.cpachecker.cfa.MutableCFA;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CParameterDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.callstack.CallstackState;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeState;
+import org.sosy_lab.cpachecker.cpa.location.LocationCPA;
+import org.sosy_lab.cpachecker.cpa.location.LocationState;
+import org.sosy_lab.cpachecker.cpa.predicate.PredicateAbstractState;
+import org.sosy_lab.cpachecker.cpa.predicate.PredicateCPA;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
+import org.sosy_lab.cpachecker.cpa.value.type.BooleanValue;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.PathFormulaManager;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.SortedSetMultimap;
+import com.google.common.collect.TreeMultimap;
+
+public class BinaryCertificateTest {
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private static ValueAnalysisState valueState(long pValue) {
+    ValueAnalysisState state = new ValueAnalysisState();
+    state.assignConstant(MemoryLocation.valueOf("main", "x", 0), new NumericValue(pValue), CNumericTypes.INT);
+    state.assignConstant(MemoryLocation.valueOf("g", 4), new NumericValue((int) pValue), CNumericTypes.INT);
+    state.assignConstant(MemoryLocation.valueOf("main", "b", 0), BooleanValue.valueOf(pValue > 0),
+        CNumericTypes.BOOL);
+    state.assignConstant(MemoryLocation.valueOf("main", "d", 0), new NumericValue(pValue / 2.0),
+        CNumericTypes.DOUBLE);
+    state.assignConstant(MemoryLocation.valueOf("main", "big", 0),
+        new NumericValue(BigInteger.valueOf(pValue).shiftLeft(70)), CNumericTypes.LONG_LONG_INT);
+    return state;
+  }
+
+  /** A CFA with the function main that consists of the nodes entry, node and exit. */
+  private static CFA makeCFA() {
+    CFunctionDeclaration main = TestDataTools.makeFunctionDeclaration(
+        "main", CNumericTypes.INT, ImmutableList.<CParameterDeclaration>of()).getSecond();
+    FunctionExitNode exit = new FunctionExitNode("main");
+    CFunctionEntryNode entry = new CFunctionEntryNode(FileLocation.DUMMY, main, exit,
+        ImmutableList.<String>of(), Optional.<CVariableDeclaration>absent());
+    exit.setEntryNode(entry);
+    CFANode node = new CFANode("main");
+    CFACreationUtils.addEdgeUnconditionallyToCFA(
+        new BlankEdge("", FileLocation.DUMMY, entry, node, "Function start dummy edge"));
+    CFACreationUtils.addEdgeUnconditionallyToCFA(
+        new BlankEdge("", FileLocation.DUMMY, node, exit, "return"));
+
+    SortedMap<String, FunctionEntryNode> functions = new TreeMap<>();
+    functions.put("main", entry);
+    SortedSetMultimap<String, CFANode> nodes = TreeMultimap.create();
+    nodes.putAll("main", ImmutableList.of(entry, node, exit));
+    return new MutableCFA(MachineModel.LINUX32, functions, nodes, entry, Language.C);
+  }
+
+  private Path write(boolean pCompress, AbstractState[]... pPartitions) throws IOException {
+    File file = folder.newFile();
+    try (BinaryCertificateWriter out =
+        new BinaryCertificateWriter(Paths.get(file).asByteSink().openStream(), 42, pCompress)) {
+      for (int i = 0; i + 1 < pPartitions.length; i += 2) {
+        out.writePartition(pPartitions[i], pPartitions[i + 1]);
+      }
+    }
+    return Paths.get(file);
+  }
+
+  private void testRoundTrip(boolean pCompress) throws IOException {
+    ValueAnalysisState shared = valueState(3);
+    CompositeState first = new CompositeState(ImmutableList.<AbstractState>of(shared, valueState(-5)));
+    CompositeState second = new CompositeState(ImmutableList.<AbstractState>of(shared, valueState(7)));
+
+    Path file = write(pCompress,
+        new AbstractState[] { first, second }, new AbstractState[] { valueState(1) },
+        new AbstractState[] { second }, new AbstractState[0]);
+
+    assertThat(BinaryCertificateFormat.isBinaryCertificate(file)).isTrue();
+    try (BinaryCertificateReader in = new BinaryCertificateReader(file)) {
+      assertThat(in.getNumPartitions()).isEqualTo(2);
+      assertThat(in.getSavedReachedSetSize()).isEqualTo(42);
+
+      // partitions can be read in arbitrary order
+      Pair<AbstractState[], AbstractState[]> partition = in.readPartition(1);
+      assertThat(partition.getFirst()).hasLength(1);
+      assertThat(partition.getSecond()).isEmpty();
+      assertThat(((CompositeState) partition.getFirst()[0]).getWrappedStates())
+          .containsExactlyElementsIn(second.getWrappedStates()).inOrder();
+
+      partition = in.readPartition(0);
+      assertThat(partition.getFirst()).hasLength(2);
+      CompositeState readFirst = (CompositeState) partition.getFirst()[0];
+      CompositeState readSecond = (CompositeState) partition.getFirst()[1];
+      assertThat(readFirst.getWrappedStates()).containsExactlyElementsIn(first.getWrappedStates()).inOrder();
+      assertThat(readSecond.getWrappedStates()).containsExactlyElementsIn(second.getWrappedStates()).inOrder();
+      assertThat(readFirst.get(0)).isSameAs(readSecond.get(0));
+      assertThat(partition.getSecond()).asList().containsExactly(valueState(1));
+    }
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    testRoundTrip(false);
+  }
+
+  @Test
+  public void testCompressedRoundTrip() throws IOException {
+    testRoundTrip(true);
+  }
+
+  @Test
+  public void testARGStates() throws IOException {
+    ARGState root = new ARGState(valueState(1), null);
+    ARGState child = new ARGState(valueState(2), root);
+    ARGState covered = new ARGState(valueState(2), root);
+    covered.setCovered(child);
+    ARGState outside = new ARGState(valueState(3), null);
+    ARGState childOfOutside = new ARGState(valueState(4), outside);
+
+    Path file = write(false,
+        new AbstractState[] { root, child, covered }, new AbstractState[] { childOfOutside });
+
+    try (BinaryCertificateReader in = new BinaryCertificateReader(file)) {
+      Pair<AbstractState[], AbstractState[]> partition = in.readPartition(0);
+      ARGState readRoot = (ARGState) partition.getFirst()[0];
+      ARGState readChild = (ARGState) partition.getFirst()[1];
+      ARGState readCovered = (ARGState) partition.getFirst()[2];
+
+      assertThat(readRoot.getWrappedState()).isEqualTo(valueState(1));
+      assertThat(readRoot.getParents()).isEmpty();
+      assertThat(readChild.getParents()).containsExactly(readRoot);
+      assertThat(readCovered.getParents()).containsExactly(readRoot);
+      assertThat(readRoot.getChildren()).containsExactly(readChild, readCovered);
+      assertThat(readCovered.isCovered()).isTrue();
+      assertThat(readCovered.getCoveringState()).isSameAs(readChild);
+
+      // links to states of other partitions are dropped
+      ARGState readChildOfOutside = (ARGState) partition.getSecond()[0];
+      assertThat(readChildOfOutside.getWrappedState()).isEqualTo(valueState(4));
+      assertThat(readChildOfOutside.getParents()).isEmpty();
+    }
+  }
+
+  @Test
+  public void testLocationAndCallstackStates() throws Exception {
+    CFA cfa = makeCFA();
+    GlobalInfo.getInstance().storeCFA(cfa);
+    LocationCPA locationCPA = new LocationCPA(cfa, TestDataTools.configurationForTest().build());
+
+    CFANode entry = cfa.getMainFunction();
+    CFANode node = entry.getLeavingEdge(0).getSuccessor();
+    LocationState location = (LocationState) locationCPA.getInitialState(node,
+        StateSpacePartition.getDefaultPartition());
+    CallstackState mainFrame = new CallstackState(null, "main", entry);
+    CallstackState innerFrame = new CallstackState(mainFrame, "f", node);
+
+    Path file = write(true,
+        new AbstractState[] { location, innerFrame }, new AbstractState[] { mainFrame });
+
+    try (BinaryCertificateReader in = new BinaryCertificateReader(file)) {
+      Pair<AbstractState[], AbstractState[]> partition = in.readPartition(0);
+      LocationState readLocation = (LocationState) partition.getFirst()[0];
+      assertThat(readLocation.getLocationNode()).isSameAs(node);
+
+      CallstackState readInner = (CallstackState) partition.getFirst()[1];
+      assertThat(readInner.getCurrentFunction()).isEqualTo("f");
+      assertThat(readInner.getCallNode()).isSameAs(node);
+      assertThat(readInner.getDepth()).isEqualTo(2);
+
+      // the previous frame is shared with the adjacent state
+      CallstackState readMain = (CallstackState) partition.getSecond()[0];
+      assertThat(readInner.getPreviousState()).isSameAs(readMain);
+      assertThat(readMain.getCurrentFunction()).isEqualTo("main");
+      assertThat(readMain.getCallNode()).isSameAs(entry);
+      assertThat(readMain.getPreviousState()).isNull();
+    }
+  }
+
+  @Test
+  public void testPredicateStates() throws Exception {
+    Configuration config = TestDataTools.configurationForTest()
+        .setOption("solver.solver", "SMTINTERPOL")
+        .build();
+    LogManager logger = TestLogManager.getInstance();
+    CFA cfa = makeCFA();
+
+    PredicateCPA cpa = (PredicateCPA) PredicateCPA.factory()
+        .setConfiguration(config)
+        .setLogger(logger)
+        .setShutdownNotifier(ShutdownNotifier.create())
+        .set(cfa, CFA.class)
+        .set(new ReachedSetFactory(config, logger), ReachedSetFactory.class)
+        .createInstance();
+    try {
+      GlobalInfo.getInstance().setUpInfoFromCPA(cpa);
+
+      PredicateAbstractState initial = cpa.getInitialState(cfa.getMainFunction(),
+          StateSpacePartition.getDefaultPartition());
+      PathFormulaManager pfmgr = cpa.getPathFormulaManager();
+      CIdExpression x = TestDataTools.makeVariable("x", CNumericTypes.INT);
+      CBinaryExpression condition = new CBinaryExpression(FileLocation.DUMMY, CNumericTypes.INT,
+          CNumericTypes.INT, x, CIntegerLiteralExpression.createDummyLiteral(42, CNumericTypes.INT),
+          BinaryOperator.EQUALS);
+      PathFormula pathFormula = pfmgr.makeAnd(pfmgr.makeEmptyPathFormula(),
+          TestDataTools.makeAssume(condition).getFirst());
+      PredicateAbstractState state =
+          PredicateAbstractState.mkNonAbstractionStateWithNewPathFormula(pathFormula, initial);
+
+      Path file = write(false, new AbstractState[] { initial, state }, new AbstractState[0]);
+
+      try (BinaryCertificateReader in = new BinaryCertificateReader(file)) {
+        AbstractState[] states = in.readPartition(0).getFirst();
+        PredicateAbstractState readInitial = (PredicateAbstractState) states[0];
+        PredicateAbstractState readState = (PredicateAbstractState) states[1];
+
+        assertThat(readInitial.isAbstractionState()).isTrue();
+        assertThat(readInitial.getAbstractionFormula().isTrue()).isTrue();
+
+        // the formulas are re-parsed with the formula manager of the analysis
+        assertThat(readState.isAbstractionState()).isFalse();
+        PathFormula readPathFormula = readState.getPathFormula();
+        assertThat(readPathFormula.getFormula()).isEqualTo(pathFormula.getFormula());
+        assertThat(readPathFormula.getSsa().getIndex("x")).isEqualTo(pathFormula.getSsa().getIndex("x"));
+        assertThat(readPathFormula.getLength()).isEqualTo(pathFormula.getLength());
+        assertThat(readState.getAbstractionFormula().isTrue()).isTrue();
+      }
+    } finally {
+      cpa.close();
+    }
+  }
+
+  @Test
+  public void testSerializedProofIsNotBinary() throws IOException {
+    File file = folder.newFile();
+    try (OutputStream out = Paths.get(file).asByteSink().openStream();
+        ZipOutputStream zos = new ZipOutputStream(out)) {
+      zos.putNextEntry(new ZipEntry("Proof"));
+      zos.write(new byte[64]);
+      zos.closeEntry();
+    }
+    assertThat(BinaryCertificateFormat.isBinaryCertificate(Paths.get(file))).isFalse();
+  }
+
+  @Test(expected = StreamCorruptedException.class)
+  public void testTruncatedCertificate() throws IOException {
+    Path file = write(true, new AbstractState[] { valueState(1) }, new AbstractState[0]);
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.setLength(raf.length() - 1);
+    }
+    new BinaryCertificateReader(file).close();
+  }
+}
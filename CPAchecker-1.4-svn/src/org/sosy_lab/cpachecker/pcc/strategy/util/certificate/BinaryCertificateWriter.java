@@ -0,0 +1,132 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.util.certificate;
+
+import static org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateFormat.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+
+import com.google.common.io.CountingOutputStream;
+
+/**
+ * Writes a binary certificate partition by partition.
+ * Each partition is encoded and written as soon as it is passed to this writer,
+ * the index of all partitions is appended when the writer is closed.
+ */
+public class BinaryCertificateWriter implements Closeable {
+
+  private final CountingOutputStream counter;
+  private final DataOutputStream out;
+  private final boolean compress;
+
+  private final List<Long> offsets = new ArrayList<>();
+  private final List<Integer> storedLengths = new ArrayList<>();
+  private final List<Integer> rawLengths = new ArrayList<>();
+
+  private long rawSize = 0;
+
+  public BinaryCertificateWriter(final OutputStream pOut, final int pReachedSetSize, final boolean pCompress)
+      throws IOException {
+    counter = new CountingOutputStream(pOut);
+    out = new DataOutputStream(counter);
+    compress = pCompress;
+
+    out.writeInt(MAGIC);
+    out.writeShort(VERSION);
+    out.writeShort(compress ? FLAG_COMPRESSED : 0);
+    out.writeInt(pReachedSetSize);
+  }
+
+  public void writePartition(final AbstractState[] pPartitionNodes, final AbstractState[] pAdjacentNodesOutside)
+      throws IOException {
+    BinaryStateWriter states = new BinaryStateWriter();
+    states.writeStates(pPartitionNodes);
+    states.writeStates(pAdjacentNodesOutside);
+
+    byte[] raw = states.toByteArray();
+    byte[] stored = compress ? deflate(raw) : raw;
+
+    out.flush();
+    offsets.add(counter.getCount());
+    storedLengths.add(stored.length);
+    rawLengths.add(raw.length);
+    rawSize += raw.length;
+    out.write(stored);
+  }
+
+  private static byte[] deflate(final byte[] pRaw) throws IOException {
+    ByteArrayOutputStream result = new ByteArrayOutputStream(pRaw.length / 2 + 16);
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try (DeflaterOutputStream deflaterOut = new DeflaterOutputStream(result, deflater)) {
+      deflaterOut.write(pRaw);
+    } finally {
+      deflater.end();
+    }
+    return result.toByteArray();
+  }
+
+  public int getNumPartitions() {
+    return offsets.size();
+  }
+
+  /** The number of bytes of all encoded partitions before compression. */
+  public long getRawSize() {
+    return rawSize;
+  }
+
+  /** The number of bytes written so far. */
+  public long getSize() throws IOException {
+    out.flush();
+    return counter.getCount();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      out.flush();
+      long indexOffset = counter.getCount();
+      for (int i = 0; i < offsets.size(); i++) {
+        out.writeLong(offsets.get(i));
+        out.writeInt(storedLengths.get(i));
+        out.writeInt(rawLengths.get(i));
+      }
+      out.writeLong(indexOffset);
+      out.writeInt(offsets.size());
+      out.writeInt(MAGIC);
+      out.flush();
+    } finally {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.util.certificate;
+
+import static org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateFormat.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+
+/**
+ * Reads the states of a single partition written by a {@link BinaryStateWriter}.
+ */
+public class BinaryStateReader {
+
+  private final ByteBuffer in;
+  private final DataInputStream utfReader;
+
+  private final List<String> strings = new ArrayList<>();
+  private final List<AbstractState> states = new ArrayList<>();
+  private final List<Object> sharedObjects = new ArrayList<>();
+
+  BinaryStateReader(final ByteBuffer pIn) {
+    in = pIn;
+    utfReader = new DataInputStream(new ByteBufferInputStream());
+  }
+
+  public AbstractState[] readStates() throws IOException {
+    AbstractState[] result = new AbstractState[readInt()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = readState();
+    }
+    return result;
+  }
+
+  public @Nullable AbstractState readState() throws IOException {
+    try {
+      byte tag = in.get();
+      switch (tag) {
+      case TAG_NULL:
+        return null;
+      case TAG_REFERENCE:
+        int id = readInt();
+        if (id >= states.size()) {
+          throw new StreamCorruptedException("Reference to unknown state " + id);
+        }
+        return states.get(id);
+      default:
+        AbstractState state = StateEncoders.getDecoder(tag).decode(this);
+        states.add(state);
+        return state;
+      }
+    } catch (BufferUnderflowException e) {
+      throw new StreamCorruptedException("Unexpected end of partition");
+    }
+  }
+
+  /**
+   * Returns the state with the given position in the order in which states were decoded.
+   * Used by encoders which refer to states already read before.
+   */
+  AbstractState getReadState(final int pId) throws StreamCorruptedException {
+    if (pId >= states.size()) {
+      throw new StreamCorruptedException("Reference to unknown state " + pId);
+    }
+    return states.get(pId);
+  }
+
+  public int readInt() throws IOException {
+    int result = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      byte b = in.get();
+      result |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw new StreamCorruptedException("Malformed integer");
+  }
+
+  public long readLong() {
+    return in.getLong();
+  }
+
+  public double readDouble() {
+    return in.getDouble();
+  }
+
+  public boolean readBoolean() {
+    return in.get() != 0;
+  }
+
+  public String readString() throws IOException {
+    int id = readInt();
+    if (id > 0) {
+      if (id > strings.size()) {
+        throw new StreamCorruptedException("Reference to unknown string " + id);
+      }
+      return strings.get(id - 1);
+    }
+    String result = utfReader.readUTF();
+    strings.add(result);
+    return result;
+  }
+
+  public Object readSerialized() throws IOException {
+    byte[] blob = new byte[readInt()];
+    in.get(blob);
+    try (ObjectInputStream o = new ObjectInputStream(new ByteArrayInputStream(blob))) {
+      return o.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Unknown class in certificate", e);
+    }
+  }
+
+  public Object readSharedSerialized() throws IOException {
+    int id = readInt();
+    if (id > 0) {
+      if (id > sharedObjects.size()) {
+        throw new StreamCorruptedException("Reference to unknown object " + id);
+      }
+      return sharedObjects.get(id - 1);
+    }
+    Object result = readSerialized();
+    sharedObjects.add(result);
+    return result;
+  }
+
+  /** Allows to use {@link DataInputStream#readUTF()} on the underlying buffer. */
+  private class ByteBufferInputStream extends java.io.InputStream {
+
+    @Override
+    public int read() {
+      return in.hasRemaining() ? in.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] pBuffer, int pOffset, int pLength) {
+      if (!in.hasRemaining()) {
+        return -1;
+      }
+      int length = Math.min(pLength, in.remaining());
+      in.get(pBuffer, pOffset, length);
+      return length;
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.util.certificate;
+
+import static org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateFormat.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+
+/**
+ * Writes the states of a single partition.
+ * Strings and states that occur several times are written only once,
+ * later occurrences refer to the first one by index.
+ */
+public class BinaryStateWriter {
+
+  private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+  private final DataOutputStream out = new DataOutputStream(bytes);
+
+  private final Map<String, Integer> strings = new HashMap<>();
+  private final Map<Object, Integer> states = new IdentityHashMap<>();
+  private final Map<Object, Integer> sharedObjects = new IdentityHashMap<>();
+
+  public void writeStates(final AbstractState[] pStates) throws IOException {
+    writeInt(pStates.length);
+    for (AbstractState state : pStates) {
+      writeState(state);
+    }
+  }
+
+  public void writeState(final @Nullable AbstractState pState) throws IOException {
+    if (pState == null) {
+      out.writeByte(TAG_NULL);
+      return;
+    }
+
+    Integer id = states.get(pState);
+    if (id != null) {
+      out.writeByte(TAG_REFERENCE);
+      writeInt(id);
+      return;
+    }
+
+    StateEncoder encoder = StateEncoders.getEncoder(pState);
+    out.writeByte(encoder.getTag());
+    encoder.encode(pState, this);
+    // register afterwards, the reader can only refer to the state after it was completely decoded
+    states.put(pState, states.size());
+  }
+
+  /**
+   * Returns the index of the given state if it was already completely written to this partition, -1 otherwise.
+   * Encoders may use this to only keep links to states the reader already knows.
+   */
+  int getWrittenStateId(final AbstractState pState) {
+    Integer id = states.get(pState);
+    return id == null ? -1 : id;
+  }
+
+  /** Writes a non-negative int in a variable length encoding. */
+  public void writeInt(int pValue) throws IOException {
+    assert pValue >= 0;
+    while ((pValue & ~0x7F) != 0) {
+      out.writeByte((pValue & 0x7F) | 0x80);
+      pValue >>>= 7;
+    }
+    out.writeByte(pValue);
+  }
+
+  public void writeLong(final long pValue) throws IOException {
+    out.writeLong(pValue);
+  }
+
+  public void writeDouble(final double pValue) throws IOException {
+    out.writeDouble(pValue);
+  }
+
+  public void writeBoolean(final boolean pValue) throws IOException {
+    out.writeBoolean(pValue);
+  }
+
+  public void writeString(final String pValue) throws IOException {
+    Integer id = strings.get(pValue);
+    if (id != null) {
+      writeInt(id + 1);
+      return;
+    }
+    writeInt(0);
+    out.writeUTF(pValue);
+    strings.put(pValue, strings.size());
+  }
+
+  /** Writes the given object with Java serialization, used for parts without a dedicated encoding. */
+  public void writeSerialized(final Object pValue) throws IOException {
+    if (!(pValue instanceof Serializable)) {
+      throw new NotSerializableException(pValue.getClass().getName());
+    }
+    ByteArrayOutputStream blob = new ByteArrayOutputStream();
+    try (ObjectOutputStream o = new ObjectOutputStream(blob)) {
+      o.writeObject(pValue);
+    }
+    writeInt(blob.size());
+    blob.writeTo(out);
+  }
+
+  /**
+   * Writes the given object with Java serialization if it was not written before to this partition,
+   * otherwise only a reference to the first occurrence.
+   */
+  public void writeSharedSerialized(final Object pValue) throws IOException {
+    Integer id = sharedObjects.get(pValue);
+    if (id != null) {
+      writeInt(id + 1);
+      return;
+    }
+    writeInt(0);
+    writeSerialized(pValue);
+    sharedObjects.put(pValue, sharedObjects.size());
+  }
+
+  int size() {
+    return out.size();
+  }
+
+  byte[] toByteArray() throws IOException {
+    out.flush();
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.util.certificate;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.callstack.CallstackState;
+
+/**
+ * Call stacks are written frame by frame. The previous frame is written as nested state,
+ * thus common stack prefixes are stored only once per partition.
+ */
+class CallstackStateEncoder implements StateEncoder {
+
+  @Override
+  public byte getTag() {
+    return BinaryCertificateFormat.TAG_CALLSTACK;
+  }
+
+  @Override
+  public boolean canEncode(AbstractState pState) {
+    return pState.getClass() == CallstackState.class;
+  }
+
+  @Override
+  public void encode(AbstractState pState, BinaryStateWriter pOut) throws IOException {
+    CallstackState state = (CallstackState) pState;
+    pOut.writeState(state.getPreviousState());
+    pOut.writeString(state.getCurrentFunction());
+    pOut.writeInt(state.getCallNode().getNodeNumber());
+  }
+
+  @Override
+  public AbstractState decode(BinaryStateReader pIn) throws IOException {
+    AbstractState previous = pIn.readState();
+    if (previous != null && !(previous instanceof CallstackState)) {
+      throw new StreamCorruptedException("Previous stack frame is not a call stack state");
+    }
+    String function = pIn.readString();
+    return new CallstackState((CallstackState) previous, function, LocationStateEncoder.getNode(pIn));
+  }
+}
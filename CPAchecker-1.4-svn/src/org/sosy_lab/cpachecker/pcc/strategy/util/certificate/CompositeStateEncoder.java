@@ -0,0 +1,63 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.util.certificate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeState;
+
+class CompositeStateEncoder implements StateEncoder {
+
+  @Override
+  public byte getTag() {
+    return BinaryCertificateFormat.TAG_COMPOSITE;
+  }
+
+  @Override
+  public boolean canEncode(AbstractState pState) {
+    return pState.getClass() == CompositeState.class;
+  }
+
+  @Override
+  public void encode(AbstractState pState, BinaryStateWriter pOut) throws IOException {
+    List<AbstractState> wrapped = ((CompositeState) pState).getWrappedStates();
+    pOut.writeInt(wrapped.size());
+    for (AbstractState state : wrapped) {
+      pOut.writeState(state);
+    }
+  }
+
+  @Override
+  public AbstractState decode(BinaryStateReader pIn) throws IOException {
+    int size = pIn.readInt();
+    List<AbstractState> wrapped = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      wrapped.add(pIn.readState());
+    }
+    return new CompositeState(wrapped);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.util.certificate;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.location.LocationState;
+import org.sosy_lab.cpachecker.util.globalinfo.CFAInfo;
+import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
+
+/**
+ * Location states are identified by the number of their CFA node.
+ */
+class LocationStateEncoder implements StateEncoder {
+
+  @Override
+  public byte getTag() {
+    return BinaryCertificateFormat.TAG_LOCATION;
+  }
+
+  @Override
+  public boolean canEncode(AbstractState pState) {
+    return pState instanceof LocationState;
+  }
+
+  @Override
+  public void encode(AbstractState pState, BinaryStateWriter pOut) throws IOException {
+    pOut.writeInt(((LocationState) pState).getLocationNode().getNodeNumber());
+  }
+
+  @Override
+  public AbstractState decode(BinaryStateReader pIn) throws IOException {
+    CFAInfo cfaInfo = GlobalInfo.getInstance().getCFAInfo().get();
+    return cfaInfo.getLocationStateFactory().getState(getNode(pIn));
+  }
+
+  static CFANode getNode(BinaryStateReader pIn) throws IOException {
+    int nodeNumber = pIn.readInt();
+    CFANode node = GlobalInfo.getInstance().getCFAInfo().get().getNodeByNodeNumber(nodeNumber);
+    if (node == null) {
+      throw new StreamCorruptedException("Unknown CFA node " + nodeNumber);
+    }
+    return node;
+  }
+}
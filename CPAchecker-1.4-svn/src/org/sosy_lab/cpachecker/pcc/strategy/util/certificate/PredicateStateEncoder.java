@@ -0,0 +1,122 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.util.certificate;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.predicate.PredicateAbstractState;
+import org.sosy_lab.cpachecker.cpa.predicate.PredicateAbstractState.ComputeAbstractionState;
+import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
+import org.sosy_lab.cpachecker.util.predicates.AbstractionFormula;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.view.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.PointerTargetSet;
+import org.sosy_lab.solver.api.BooleanFormula;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Formulas are written as SMT-LIB dumps (shared via the string table of the partition),
+ * SSA maps and pointer target sets still use their serialization proxies.
+ * Like the serialization proxies, this only works if the formulas were built with the
+ * formula manager of the PredicateCPA.
+ */
+class PredicateStateEncoder implements StateEncoder {
+
+  @Override
+  public byte getTag() {
+    return BinaryCertificateFormat.TAG_PREDICATE;
+  }
+
+  @Override
+  public boolean canEncode(AbstractState pState) {
+    return pState instanceof PredicateAbstractState && !(pState instanceof ComputeAbstractionState);
+  }
+
+  @Override
+  public void encode(AbstractState pState, BinaryStateWriter pOut) throws IOException {
+    PredicateAbstractState state = (PredicateAbstractState) pState;
+    FormulaManagerView mgr = GlobalInfo.getInstance().getPredicateFormulaManagerView();
+
+    pOut.writeBoolean(state.isAbstractionState());
+    writePathFormula(state.getPathFormula(), mgr, pOut);
+    AbstractionFormula abstraction = state.getAbstractionFormula();
+    pOut.writeString(mgr.dumpFormula(abstraction.asInstantiatedFormula()).toString());
+    writePathFormula(abstraction.getBlockFormula(), mgr, pOut);
+  }
+
+  @Override
+  public AbstractState decode(BinaryStateReader pIn) throws IOException {
+    FormulaManagerView mgr = GlobalInfo.getInstance().getPredicateFormulaManagerView();
+
+    boolean isAbstractionState = pIn.readBoolean();
+    PathFormula pathFormula = readPathFormula(mgr, pIn);
+    BooleanFormula instantiated = parse(mgr, pIn.readString());
+    PathFormula blockFormula = readPathFormula(mgr, pIn);
+
+    BooleanFormula notInstantiated = mgr.uninstantiate(instantiated);
+    AbstractionFormula abstraction = new AbstractionFormula(mgr,
+        GlobalInfo.getInstance().getAbstractionManager().buildRegionFromFormulaWithUnknownAtoms(notInstantiated),
+        notInstantiated, instantiated, blockFormula, ImmutableSet.<Integer> of());
+
+    PredicateAbstractState abstractionState = PredicateAbstractState.mkAbstractionState(
+        isAbstractionState ? pathFormula : blockFormula, abstraction,
+        PathCopyingPersistentTreeMap.<CFANode, Integer> of());
+    if (isAbstractionState) {
+      return abstractionState;
+    }
+    return PredicateAbstractState.mkNonAbstractionStateWithNewPathFormula(pathFormula, abstractionState);
+  }
+
+  private void writePathFormula(PathFormula pFormula, FormulaManagerView pMgr, BinaryStateWriter pOut)
+      throws IOException {
+    pOut.writeString(pMgr.dumpFormula(pFormula.getFormula()).toString());
+    pOut.writeSerialized(pFormula.getSsa());
+    pOut.writeSerialized(pFormula.getPointerTargetSet());
+    pOut.writeInt(pFormula.getLength());
+  }
+
+  private PathFormula readPathFormula(FormulaManagerView pMgr, BinaryStateReader pIn) throws IOException {
+    BooleanFormula formula = parse(pMgr, pIn.readString());
+    Object ssa = pIn.readSerialized();
+    Object pts = pIn.readSerialized();
+    if (!(ssa instanceof SSAMap) || !(pts instanceof PointerTargetSet)) {
+      throw new StreamCorruptedException("Malformed path formula");
+    }
+    return new PathFormula(formula, (SSAMap) ssa, (PointerTargetSet) pts, pIn.readInt());
+  }
+
+  private BooleanFormula parse(FormulaManagerView pMgr, String pDump) throws StreamCorruptedException {
+    try {
+      return pMgr.parse(pDump);
+    } catch (IllegalArgumentException e) {
+      throw new StreamCorruptedException("Cannot parse formula: " + e.getMessage());
+    }
+  }
+}
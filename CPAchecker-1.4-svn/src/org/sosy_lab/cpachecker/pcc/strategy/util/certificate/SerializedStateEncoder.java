@@ -0,0 +1,59 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.util.certificate;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+
+/**
+ * Fallback for all states without a dedicated encoder, uses Java serialization.
+ */
+class SerializedStateEncoder implements StateEncoder {
+
+  @Override
+  public byte getTag() {
+    return BinaryCertificateFormat.TAG_SERIALIZED;
+  }
+
+  @Override
+  public boolean canEncode(AbstractState pState) {
+    return true;
+  }
+
+  @Override
+  public void encode(AbstractState pState, BinaryStateWriter pOut) throws IOException {
+    pOut.writeSerialized(pState);
+  }
+
+  @Override
+  public AbstractState decode(BinaryStateReader pIn) throws IOException {
+    Object state = pIn.readSerialized();
+    if (!(state instanceof AbstractState)) {
+      throw new StreamCorruptedException("Expected abstract state but found " + state.getClass().getName());
+    }
+    return (AbstractState) state;
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.util.certificate;
+
+import java.io.IOException;
+
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+
+/**
+ * Encodes abstract states of one particular kind into the binary certificate format.
+ * Nested states (e.g. the wrapped states of a composite state) are written via
+ * {@link BinaryStateWriter#writeState(AbstractState)} such that they are shared
+ * if they occur more than once in a partition.
+ */
+interface StateEncoder {
+
+  /** The tag which identifies states of this encoder in the certificate. */
+  byte getTag();
+
+  boolean canEncode(AbstractState pState);
+
+  void encode(AbstractState pState, BinaryStateWriter pOut) throws IOException;
+
+  AbstractState decode(BinaryStateReader pIn) throws IOException;
+}
@@ -0,0 +1,77 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.util.certificate;
+
+import static org.sosy_lab.cpachecker.pcc.strategy.util.certificate.BinaryCertificateFormat.TAG_SERIALIZED;
+
+import java.io.StreamCorruptedException;
+
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Registry of all state encoders known to the binary certificate format.
+ * States for which no dedicated encoder exists are written with Java serialization.
+ */
+final class StateEncoders {
+
+  private StateEncoders() { }
+
+  private static final ImmutableList<StateEncoder> ENCODERS = ImmutableList.<StateEncoder>of(
+      new ARGStateEncoder(),
+      new CompositeStateEncoder(),
+      new LocationStateEncoder(),
+      new CallstackStateEncoder(),
+      new PredicateStateEncoder(),
+      new ValueAnalysisStateEncoder());
+
+  private static final StateEncoder FALLBACK = new SerializedStateEncoder();
+
+  private static final StateEncoder[] DECODERS = new StateEncoder[Byte.MAX_VALUE];
+
+  static {
+    DECODERS[TAG_SERIALIZED] = FALLBACK;
+    for (StateEncoder encoder : ENCODERS) {
+      assert DECODERS[encoder.getTag()] == null : "Tag used twice";
+      DECODERS[encoder.getTag()] = encoder;
+    }
+  }
+
+  static StateEncoder getEncoder(final AbstractState pState) {
+    for (StateEncoder encoder : ENCODERS) {
+      if (encoder.canEncode(pState)) {
+        return encoder;
+      }
+    }
+    return FALLBACK;
+  }
+
+  static StateEncoder getDecoder(final byte pTag) throws StreamCorruptedException {
+    if (pTag < 0 || DECODERS[pTag] == null) {
+      throw new StreamCorruptedException("Unknown state tag " + pTag);
+    }
+    return DECODERS[pTag];
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.util.certificate;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentMap;
+import org.sosy_lab.cpachecker.cfa.types.Type;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
+import org.sosy_lab.cpachecker.cpa.value.type.BooleanValue;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.cpa.value.type.Value;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * Writes the assignment of a value analysis state variable by variable.
+ * Numeric and boolean values are encoded directly, all other values with Java serialization.
+ * The types of the memory locations are serialized once per partition.
+ */
+class ValueAnalysisStateEncoder implements StateEncoder {
+
+  private static final byte VALUE_SERIALIZED = 0;
+  private static final byte VALUE_UNKNOWN = 1;
+  private static final byte VALUE_FALSE = 2;
+  private static final byte VALUE_TRUE = 3;
+  private static final byte VALUE_LONG = 4;
+  private static final byte VALUE_INT = 5;
+  private static final byte VALUE_SHORT = 6;
+  private static final byte VALUE_BYTE = 7;
+  private static final byte VALUE_DOUBLE = 8;
+  private static final byte VALUE_FLOAT = 9;
+  private static final byte VALUE_BIG_INTEGER = 10;
+  private static final byte VALUE_BIG_DECIMAL = 11;
+
+  @Override
+  public byte getTag() {
+    return BinaryCertificateFormat.TAG_VALUE;
+  }
+
+  @Override
+  public boolean canEncode(AbstractState pState) {
+    return pState.getClass() == ValueAnalysisState.class;
+  }
+
+  @Override
+  public void encode(AbstractState pState, BinaryStateWriter pOut) throws IOException {
+    ValueAnalysisState state = (ValueAnalysisState) pState;
+    Map<MemoryLocation, Value> assignment = state.getConstantsMapView();
+    pOut.writeInt(assignment.size());
+    for (Map.Entry<MemoryLocation, Value> entry : assignment.entrySet()) {
+      MemoryLocation location = entry.getKey();
+      if (location.isOnFunctionStack()) {
+        pOut.writeBoolean(true);
+        pOut.writeString(location.getFunctionName());
+      } else {
+        pOut.writeBoolean(false);
+      }
+      pOut.writeString(location.getIdentifier());
+      pOut.writeLong(location.getOffset());
+      writeValue(entry.getValue(), pOut);
+
+      Type type = state.getTypeForMemoryLocation(location);
+      pOut.writeBoolean(type != null);
+      if (type != null) {
+        pOut.writeSharedSerialized(type);
+      }
+    }
+  }
+
+  @Override
+  public AbstractState decode(BinaryStateReader pIn) throws IOException {
+    PersistentMap<MemoryLocation, Value> assignment = PathCopyingPersistentTreeMap.of();
+    PersistentMap<MemoryLocation, Type> types = PathCopyingPersistentTreeMap.of();
+    int size = pIn.readInt();
+    for (int i = 0; i < size; i++) {
+      String function = pIn.readBoolean() ? pIn.readString() : null;
+      String identifier = pIn.readString();
+      long offset = pIn.readLong();
+      MemoryLocation location = function == null
+          ? MemoryLocation.valueOf(identifier, offset)
+          : MemoryLocation.valueOf(function, identifier, offset);
+      assignment = assignment.putAndCopy(location, readValue(pIn));
+
+      if (pIn.readBoolean()) {
+        Object type = pIn.readSharedSerialized();
+        if (!(type instanceof Type)) {
+          throw new StreamCorruptedException("Expected type but found " + type.getClass().getName());
+        }
+        types = types.putAndCopy(location, (Type) type);
+      }
+    }
+    return new ValueAnalysisState(assignment, types);
+  }
+
+  private void writeValue(Value pValue, BinaryStateWriter pOut) throws IOException {
+    if (pValue.isUnknown()) {
+      pOut.writeInt(VALUE_UNKNOWN);
+
+    } else if (pValue instanceof BooleanValue) {
+      pOut.writeInt(((BooleanValue) pValue).isTrue() ? VALUE_TRUE : VALUE_FALSE);
+
+    } else if (pValue.getClass() == NumericValue.class) {
+      Number number = ((NumericValue) pValue).getNumber();
+      if (number instanceof Long) {
+        pOut.writeInt(VALUE_LONG);
+        pOut.writeLong(number.longValue());
+      } else if (number instanceof Integer) {
+        pOut.writeInt(VALUE_INT);
+        pOut.writeLong(number.longValue());
+      } else if (number instanceof Short) {
+        pOut.writeInt(VALUE_SHORT);
+        pOut.writeLong(number.longValue());
+      } else if (number instanceof Byte) {
+        pOut.writeInt(VALUE_BYTE);
+        pOut.writeLong(number.longValue());
+      } else if (number instanceof Double) {
+        pOut.writeInt(VALUE_DOUBLE);
+        pOut.writeDouble(number.doubleValue());
+      } else if (number instanceof Float) {
+        pOut.writeInt(VALUE_FLOAT);
+        pOut.writeDouble(number.doubleValue());
+      } else if (number instanceof BigInteger) {
+        pOut.writeInt(VALUE_BIG_INTEGER);
+        pOut.writeString(number.toString());
+      } else if (number instanceof BigDecimal) {
+        pOut.writeInt(VALUE_BIG_DECIMAL);
+        pOut.writeString(number.toString());
+      } else {
+        pOut.writeInt(VALUE_SERIALIZED);
+        pOut.writeSerialized(pValue);
+      }
+
+    } else {
+      pOut.writeInt(VALUE_SERIALIZED);
+      pOut.writeSerialized(pValue);
+    }
+  }
+
+  private Value readValue(BinaryStateReader pIn) throws IOException {
+    int kind = pIn.readInt();
+    switch (kind) {
+    case VALUE_SERIALIZED:
+      Object value = pIn.readSerialized();
+      if (!(value instanceof Value)) {
+        throw new StreamCorruptedException("Expected value but found " + value.getClass().getName());
+      }
+      return (Value) value;
+    case VALUE_UNKNOWN:
+      return Value.UnknownValue.getInstance();
+    case VALUE_FALSE:
+      return BooleanValue.valueOf(false);
+    case VALUE_TRUE:
+      return BooleanValue.valueOf(true);
+    case VALUE_LONG:
+      return new NumericValue(pIn.readLong());
+    case VALUE_INT:
+      return new NumericValue((int) pIn.readLong());
+    case VALUE_SHORT:
+      return new NumericValue((short) pIn.readLong());
+    case VALUE_BYTE:
+      return new NumericValue((byte) pIn.readLong());
+    case VALUE_DOUBLE:
+      return new NumericValue(pIn.readDouble());
+    case VALUE_FLOAT:
+      return new NumericValue((float) pIn.readDouble());
+    case VALUE_BIG_INTEGER:
+      return new NumericValue(new BigInteger(pIn.readString()));
+    case VALUE_BIG_DECIMAL:
+      return new NumericValue(new BigDecimal(pIn.readString()));
+    default:
+      throw new StreamCorruptedException("Unknown value kind " + kind);
+    }
+  }
+}
@@ -23,28 +23,22 @@
  */
 package org.sosy_lab.cpachecker.util.globalinfo;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFAIndex;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cpa.location.LocationState.LocationStateFactory;
 
 
 public class CFAInfo {
-  private final Map<Integer, CFANode> nodeNumberToNode;
+  private final CFAIndex cfaIndex;
   private LocationStateFactory locationStateFactory;
 
   CFAInfo(CFA cfa) {
-    HashMap<Integer, CFANode> nodeNumberToNode = new HashMap<>();
-    for (CFANode node : cfa.getAllNodes()) {
-      nodeNumberToNode.put(node.getNodeNumber(), node);
-    }
-    this.nodeNumberToNode = nodeNumberToNode;
+    cfaIndex = cfa.getIndex();
   }
 
   public CFANode getNodeByNodeNumber(int nodeNumber) {
-    return nodeNumberToNode.get(nodeNumber);
+    return cfaIndex.getNodeByNumber(nodeNumber);
   }
 
   public void storeLocationStateFactory(LocationStateFactory pElementFactory) {
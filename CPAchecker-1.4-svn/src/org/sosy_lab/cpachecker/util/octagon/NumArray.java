@@ -26,15 +26,30 @@ package org.sosy_lab.cpachecker.util.octagon;
 public class NumArray {
 
   private final long array;
+  private final double[] values;
 
   NumArray(long l) {
     array = l;
+    values = null;
+  }
+
+  /**
+   * Creates a num array of the {@link OctagonJavaManager},
+   * infinity is represented by {@link Double#POSITIVE_INFINITY}.
+   */
+  NumArray(double[] pValues) {
+    array = 0;
+    values = pValues;
   }
 
   long getArray() {
     return array;
   }
 
+  double[] getValues() {
+    return values;
+  }
+
   @Override
   public String toString() {
     // TODO
@@ -47,11 +62,17 @@ public class NumArray {
       return false;
     }
     NumArray otherArr = (NumArray) pObj;
+    if (values != null) {
+      return this.values == otherArr.values;
+    }
     return this.array == otherArr.array;
   }
 
   @Override
   public int hashCode() {
+    if (values != null) {
+      return System.identityHashCode(values);
+    }
     return (int)array;
   }
 }
\ No newline at end of file
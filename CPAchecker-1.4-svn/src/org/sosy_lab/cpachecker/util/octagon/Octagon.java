@@ -32,16 +32,28 @@ import java.util.List;
 public class Octagon {
 
   private final long octId;
+  private final PackedOctagon javaOctagon;
   private final OctagonManager manager;
   private static List<OctagonPhantomReference> phantomReferences = new ArrayList<>();
   private static ReferenceQueue<Octagon> referenceQueue = new ReferenceQueue<>();
 
-  Octagon(long l, OctagonManager manager) {
+  Octagon(long l, OctagonNativeManager manager) {
     octId = l;
+    javaOctagon = null;
     this.manager = manager;
     registerPhantomReference(this);
   }
 
+  /**
+   * Creates an octagon of the {@link OctagonJavaManager}, which needs no
+   * explicit freeing of memory.
+   */
+  Octagon(PackedOctagon pJavaOctagon, OctagonJavaManager manager) {
+    octId = 0;
+    javaOctagon = pJavaOctagon;
+    this.manager = manager;
+  }
+
   private static void registerPhantomReference(Octagon oct) {
     phantomReferences.add(new OctagonPhantomReference(oct, referenceQueue));
   }
@@ -57,12 +69,20 @@ public class Octagon {
     return octId;
   }
 
+  PackedOctagon getJavaOctagon() {
+    return javaOctagon;
+  }
+
   public OctagonManager getManager() {
     return manager;
   }
 
   @Override
   public int hashCode() {
+    if (javaOctagon != null) {
+      // equal octagons may have different matrices
+      return javaOctagon.getDimension();
+    }
     return (int)octId;
   }
 
@@ -78,6 +98,9 @@ public class Octagon {
 
   @Override
   public String toString() {
+    if (javaOctagon != null) {
+      return "octagon with dimension: " + javaOctagon.getDimension();
+    }
     return "octagon with id: " + octId;
   }
 }
\ No newline at end of file
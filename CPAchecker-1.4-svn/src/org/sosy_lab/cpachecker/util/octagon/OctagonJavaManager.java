@@ -0,0 +1,430 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import java.util.Arrays;
+
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonDoubleValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonIntValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+import com.google.common.collect.BiMap;
+
+/**
+ * Octagon manager implemented in Java, without the native octagon library.
+ * Octagons are stored as difference-bound matrices ({@link OctagonMatrix}),
+ * which are closed lazily and incrementally after transfer functions
+ * that change only the constraints of one variable.
+ * Optionally, the variables are split into independent packs with one
+ * matrix per pack ({@link PackedOctagon}).
+ *
+ * With integral numbers, all bounds are rounded to integers and the tight
+ * closure is used, like {@link OctagonIntManager}. Otherwise the numbers
+ * are doubles, like in {@link OctagonFloatManager}.
+ */
+public class OctagonJavaManager extends OctagonManager {
+
+  private final boolean integral;
+  private final boolean packing;
+
+  public OctagonJavaManager(boolean pIntegral, boolean pPacking) {
+    integral = pIntegral;
+    packing = pPacking;
+  }
+
+  private Octagon wrap(PackedOctagon octagon) {
+    return new Octagon(octagon, this);
+  }
+
+  private static PackedOctagon octagon(Octagon oct) {
+    return oct.getJavaOctagon();
+  }
+
+  private static double[] values(NumArray n) {
+    return n.getValues();
+  }
+
+  /* num handling function*/
+
+  @Override
+  public NumArray init_num_t(int n) {
+    return new NumArray(new double[n]);
+  }
+
+  @Override
+  public void num_set(NumArray n1, NumArray n2) {
+    values(n1)[0] = values(n2)[0];
+  }
+
+  @Override
+  public Octagon set_bounds(Octagon oct, int pos, NumArray lower, NumArray upper) {
+    return wrap(octagon(oct).addConstraints(
+        new int[] { 2 * pos + 1, 2 * pos },
+        new int[] { 2 * pos, 2 * pos + 1 },
+        new double[] { 2 * values(upper)[0], 2 * values(lower)[0] }));
+  }
+
+  @Override
+  public void num_set_int(NumArray n, int pos, long i) {
+    values(n)[pos] = i;
+  }
+
+  @Override
+  public void num_set_float(NumArray n, int pos, double d) {
+    values(n)[pos] = d;
+  }
+
+  @Override
+  public void num_set_inf(NumArray n, int pos) {
+    values(n)[pos] = Double.POSITIVE_INFINITY;
+  }
+
+  @Override
+  public long num_get_int(NumArray n, int pos) {
+    return (long) values(n)[pos];
+  }
+
+  @Override
+  public double num_get_float(NumArray n, int pos) {
+    return values(n)[pos];
+  }
+
+  @Override
+  public boolean num_infty(NumArray n, int pos) {
+    return Double.isInfinite(values(n)[pos]);
+  }
+
+  @Override
+  public void num_clear_n(NumArray n, int size) {
+    // memory is managed by the garbage collector
+  }
+
+  /* Octagon handling functions */
+
+  @Override
+  public Octagon empty(int n) {
+    return wrap(PackedOctagon.empty(n, integral, packing));
+  }
+
+  @Override
+  public Octagon universe(int n) {
+    return wrap(PackedOctagon.universe(n, integral, packing));
+  }
+
+  @Override
+  public Octagon copy(Octagon oct) {
+    // octagons are immutable
+    return wrap(octagon(oct));
+  }
+
+  @Override
+  public Octagon full_copy(Octagon oct) {
+    return wrap(octagon(oct));
+  }
+
+  @Override
+  public int dimension(Octagon oct) {
+    return octagon(oct).getDimension();
+  }
+
+  @Override
+  public int nbconstraints(Octagon oct) {
+    return octagon(oct).getNumberOfConstraints();
+  }
+
+  @Override
+  public boolean isEmpty(Octagon oct) {
+    return octagon(oct).isEmpty();
+  }
+
+  @Override
+  public int isEmptyLazy(Octagon oct) {
+    return octagon(oct).isEmptyLazy();
+  }
+
+  @Override
+  public boolean isUniverse(Octagon oct) {
+    return octagon(oct).isUniverse();
+  }
+
+  @Override
+  public boolean isIncludedIn(Octagon oct1, Octagon oct2) {
+    return octagon(oct1).isIncludedIn(octagon(oct2));
+  }
+
+  @Override
+  public int isIncludedInLazy(Octagon oct1, Octagon oct2) {
+    return octagon(oct1).isIncludedInLazy(octagon(oct2));
+  }
+
+  @Override
+  public boolean isEqual(Octagon oct1, Octagon oct2) {
+    return octagon(oct1).isEqual(octagon(oct2));
+  }
+
+  @Override
+  public int isEqualLazy(Octagon oct1, Octagon oct2) {
+    return octagon(oct1).isEqualLazy(octagon(oct2));
+  }
+
+  @Override
+  public boolean isIn(Octagon oct1, NumArray array) {
+    return octagon(oct1).contains(values(array));
+  }
+
+  /* Operators */
+
+  @Override
+  public Octagon intersection(Octagon oct1, Octagon oct2) {
+    return wrap(octagon(oct1).intersect(octagon(oct2)));
+  }
+
+  @Override
+  public Octagon union(Octagon oct1, Octagon oct2) {
+    return wrap(octagon(oct1).join(octagon(oct2)));
+  }
+
+  @Override
+  public Octagon widening(Octagon oct1, Octagon oct2) {
+    return wrap(octagon(oct1).widen(octagon(oct2)));
+  }
+
+  @Override
+  public Octagon narrowing(Octagon oct1, Octagon oct2) {
+    return wrap(octagon(oct1).narrow(octagon(oct2)));
+  }
+
+  /* Transfer Functions */
+
+  @Override
+  public Octagon forget(Octagon oct, int k) {
+    return wrap(octagon(oct).forget(k));
+  }
+
+  /**
+   * The array contains the coefficients of the variables and the constant.
+   */
+  @Override
+  public Octagon assingVar(Octagon oct, int k, NumArray array) {
+    int n = dimension(oct);
+    double[] coeffs = Arrays.copyOf(values(array), n);
+    double constant = values(array)[n];
+    return wrap(octagon(oct).assign(k, coeffs, coeffs, constant, constant));
+  }
+
+  /**
+   * The array contains groups of four numbers for each constraint:
+   * the type of the constraint, the indices of both variables, and the constant.
+   * The types are x <= c, -x <= c, x+y <= c, x-y <= c, -x+y <= c, and -x-y <= c.
+   */
+  @Override
+  public Octagon addBinConstraint(Octagon oct, int noOfConstraints, NumArray array) {
+    double[] arr = values(array);
+    int[] is = new int[noOfConstraints];
+    int[] js = new int[noOfConstraints];
+    double[] bounds = new double[noOfConstraints];
+    for (int c = 0; c < noOfConstraints; c++) {
+      int type = (int) arr[4 * c];
+      int x = 2 * (int) arr[4 * c + 1];
+      int y = 2 * (int) arr[4 * c + 2];
+      bounds[c] = arr[4 * c + 3];
+      switch (type) {
+      case 0: // x <= c
+        is[c] = x + 1; js[c] = x; bounds[c] *= 2;
+        break;
+      case 1: // -x <= c
+        is[c] = x; js[c] = x + 1; bounds[c] *= 2;
+        break;
+      case 2: // x+y <= c
+        is[c] = y + 1; js[c] = x;
+        break;
+      case 3: // x-y <= c
+        is[c] = y; js[c] = x;
+        break;
+      case 4: // -x+y <= c
+        is[c] = x; js[c] = y;
+        break;
+      case 5: // -x-y <= c
+        is[c] = y; js[c] = x + 1;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown type of octagon constraint " + type);
+      }
+    }
+    return wrap(octagon(oct).addConstraints(is, js, bounds));
+  }
+
+  @Override
+  public Octagon substituteVar(Octagon oct, int x, NumArray array) {
+    int n = dimension(oct);
+    double[] coeffs = Arrays.copyOf(values(array), n);
+    double constant = values(array)[n];
+    return wrap(octagon(oct).substitute(x, coeffs, coeffs, constant, constant));
+  }
+
+  /**
+   * The array contains the coefficients of the variables and the constant
+   * of the constraint sum coeffs_i * v_i + constant >= 0.
+   */
+  @Override
+  public Octagon addConstraint(Octagon oct, NumArray array) {
+    int n = dimension(oct);
+    double[] coeffs = Arrays.copyOf(values(array), n);
+    return wrap(octagon(oct).addLinearConstraint(coeffs, values(array)[n]));
+  }
+
+  /**
+   * The array contains the upper bound and the negated lower bound
+   * of each coefficient and of the constant.
+   */
+  @Override
+  public Octagon intervAssingVar(Octagon oct, int k, NumArray array) {
+    int n = dimension(oct);
+    double[] arr = values(array);
+    double[] coeffLow = new double[n];
+    double[] coeffHigh = new double[n];
+    splitIntervals(arr, coeffLow, coeffHigh);
+    return wrap(octagon(oct).assign(k, coeffLow, coeffHigh, -arr[2 * n + 1], arr[2 * n]));
+  }
+
+  @Override
+  public Octagon intervSubstituteVar(Octagon oct, int x, NumArray array) {
+    int n = dimension(oct);
+    double[] arr = values(array);
+    double[] coeffLow = new double[n];
+    double[] coeffHigh = new double[n];
+    splitIntervals(arr, coeffLow, coeffHigh);
+    return wrap(octagon(oct).substitute(x, coeffLow, coeffHigh, -arr[2 * n + 1], arr[2 * n]));
+  }
+
+  /**
+   * Only constraints with exact coefficients are added,
+   * with the upper bound of the constant.
+   */
+  @Override
+  public Octagon intervAddConstraint(Octagon oct, NumArray array) {
+    int n = dimension(oct);
+    double[] arr = values(array);
+    double[] coeffLow = new double[n];
+    double[] coeffHigh = new double[n];
+    splitIntervals(arr, coeffLow, coeffHigh);
+    if (!Arrays.equals(coeffLow, coeffHigh)) {
+      return oct;
+    }
+    return wrap(octagon(oct).addLinearConstraint(coeffHigh, arr[2 * n]));
+  }
+
+  private static void splitIntervals(double[] arr, double[] low, double[] high) {
+    for (int i = 0; i < low.length; i++) {
+      high[i] = arr[2 * i];
+      low[i] = -arr[2 * i + 1];
+    }
+  }
+
+  /* change of dimensions */
+
+  @Override
+  public Octagon addDimensionAndEmbed(Octagon oct, int k) {
+    return wrap(octagon(oct).addDimensions(k, false));
+  }
+
+  @Override
+  public Octagon addDimensionAndProject(Octagon oct, int k) {
+    return wrap(octagon(oct).addDimensions(k, true));
+  }
+
+  @Override
+  public Octagon removeDimension(Octagon oct, int k) {
+    return wrap(octagon(oct).removeDimensions(k));
+  }
+
+  @Override
+  public void printNum(NumArray arr, int size) {
+    System.out.println(Arrays.toString(Arrays.copyOf(values(arr), size)));
+  }
+
+  @Override
+  public void printOct(Octagon oct) {
+    System.out.print(octagon(oct));
+  }
+
+  @Override
+  public String print(Octagon oct, BiMap<Integer, MemoryLocation> map) {
+    StringBuilder str = new StringBuilder();
+    str.append("Octagon (dimension: " + dimension(oct) + ")\n");
+    if (isEmpty(oct)) {
+      str.append("[Empty]\n");
+      return str.toString();
+    }
+
+    for (int i = 0; i < map.size(); i++) {
+      str.append(" ").append(map.get(i)).append(" -> [");
+      double[] bounds = octagon(oct).getBounds(i);
+      if (Double.isInfinite(bounds[1])) {
+        str.append("-INFINITY, ");
+      } else {
+        str.append(format(bounds[1] * -1)).append(", ");
+      }
+      if (Double.isInfinite(bounds[0])) {
+        str.append("INFINITY]\n");
+      } else {
+        str.append(format(bounds[0])).append("]\n");
+      }
+    }
+    return str.toString();
+  }
+
+  private Object format(double value) {
+    return integral ? (Object) (long) value : (Object) value;
+  }
+
+  @Override
+  public OctagonInterval getVariableBounds(Octagon oct, int id) {
+    assert id < dimension(oct);
+    double[] bounds = octagon(oct).getBounds(id);
+    if (bounds == null) {
+      return OctagonInterval.EMPTY;
+    }
+    boolean lowerInfinite = Double.isInfinite(bounds[1]);
+    boolean upperInfinite = Double.isInfinite(bounds[0]);
+    double lower = bounds[1] * -1;
+    double upper = bounds[0];
+
+    if (lowerInfinite && upperInfinite) {
+      return new OctagonInterval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    } else if (!integral) {
+      return new OctagonInterval(lowerInfinite ? Double.NEGATIVE_INFINITY : lower,
+                                 upperInfinite ? Double.POSITIVE_INFINITY : upper);
+    } else if (lowerInfinite) {
+      return new OctagonInterval(new OctagonDoubleValue(Double.NEGATIVE_INFINITY),
+                                 OctagonIntValue.of((long) upper));
+    } else if (upperInfinite) {
+      return new OctagonInterval(OctagonIntValue.of((long) lower),
+                                 new OctagonDoubleValue(Double.POSITIVE_INFINITY));
+    } else {
+      return new OctagonInterval((long) lower, (long) upper);
+    }
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
+
+@RunWith(Parameterized.class)
+public class OctagonJavaManagerTest {
+
+  @Parameters(name="packing={0}")
+  public static Object[] getPackingModes() {
+    return new Object[] { false, true };
+  }
+
+  @Parameter(0)
+  public boolean packing;
+
+  private static final int PX = 0;
+  private static final int MX = 1;
+  private static final int PXMY = 3;
+
+  private OctagonJavaManager manager;
+
+  @Before
+  public void setUp() {
+    manager = new OctagonJavaManager(true, packing);
+  }
+
+  private Octagon addConstraint(Octagon oct, int type, int x, int y, long c) {
+    NumArray arr = manager.init_num_t(4);
+    manager.num_set_int(arr, 0, type);
+    manager.num_set_int(arr, 1, x);
+    manager.num_set_int(arr, 2, y);
+    manager.num_set_int(arr, 3, c);
+    return manager.addBinConstraint(oct, 1, arr);
+  }
+
+  private Octagon assign(Octagon oct, int x, long... coefficientsAndConstant) {
+    NumArray arr = manager.init_num_t(coefficientsAndConstant.length);
+    for (int i = 0; i < coefficientsAndConstant.length; i++) {
+      manager.num_set_int(arr, i, coefficientsAndConstant[i]);
+    }
+    return manager.assingVar(oct, x, arr);
+  }
+
+  private void assertBounds(Octagon oct, int x, long low, long high) {
+    OctagonInterval bounds = manager.getVariableBounds(oct, x);
+    assertThat(bounds.getLow().getValue().longValue()).isEqualTo(low);
+    assertThat(bounds.getHigh().getValue().longValue()).isEqualTo(high);
+  }
+
+  @Test
+  public void testClosure() {
+    Octagon oct = manager.universe(3);
+    oct = addConstraint(oct, PX, 0, 0, 5);   // x <= 5
+    oct = addConstraint(oct, PXMY, 1, 0, 2); // y - x <= 2
+    oct = addConstraint(oct, PXMY, 2, 1, 0); // z - y <= 0
+    assertBounds(oct, 2, Long.MIN_VALUE, 7);
+  }
+
+  @Test
+  public void testEmpty() {
+    Octagon oct = manager.universe(2);
+    oct = addConstraint(oct, PX, 0, 0, 1);   // x <= 1
+    oct = addConstraint(oct, PXMY, 1, 0, 0); // y - x <= 0
+    assertThat(manager.isEmpty(oct)).isFalse();
+    oct = addConstraint(oct, MX, 1, 0, -2);  // y >= 2
+    assertThat(manager.isEmpty(oct)).isTrue();
+  }
+
+  @Test
+  public void testTightClosure() {
+    Octagon oct = manager.universe(2);
+    oct = addConstraint(oct, 2, 0, 1, 3);    // x + y <= 3
+    oct = addConstraint(oct, PXMY, 0, 1, 0); // x - y <= 0
+    // 2x <= 3 implies x <= 1 for integers
+    assertBounds(oct, 0, Long.MIN_VALUE, 1);
+  }
+
+  /** Bounds beyond 2^53 are not exact doubles, but must not become unsound. */
+  @Test
+  public void testLargeBounds() {
+    long limit = 1L << 53;
+    Octagon oct = manager.universe(2);
+    oct = addConstraint(oct, PX, 1, 0, limit); // y <= 2^53
+    oct = addConstraint(oct, PXMY, 0, 1, 1);   // x - y <= 1
+    OctagonInterval bounds = manager.getVariableBounds(oct, 0);
+    assertThat(bounds.getHigh().getValue().longValue()).isAtLeast(limit + 1);
+  }
+
+  @Test
+  public void testAssign() {
+    Octagon oct = manager.universe(2);
+    oct = assign(oct, 0, 0, 0, 3);       // x := 3
+    oct = assign(oct, 1, 1, 0, 1);       // y := x + 1
+    assertBounds(oct, 1, 4, 4);
+    oct = assign(oct, 0, -1, 0, 10);     // x := -x + 10
+    assertBounds(oct, 0, 7, 7);
+    oct = assign(oct, 1, 2, 1, 0);       // y := 2x + y
+    assertBounds(oct, 1, 18, 18);
+  }
+
+  @Test
+  public void testJoinAndWidening() {
+    Octagon zero = assign(manager.universe(1), 0, 0, 0);
+    Octagon one = assign(zero, 0, 1, 1);
+    Octagon join = manager.union(zero, one);
+    assertBounds(join, 0, 0, 1);
+    assertThat(manager.isIncludedIn(zero, join)).isTrue();
+    assertThat(manager.isIncludedIn(join, zero)).isFalse();
+
+    Octagon widened = manager.widening(zero, join);
+    assertThat(manager.getVariableBounds(widened, 0).getHigh().isInfinite()).isTrue();
+    assertThat(manager.getVariableBounds(widened, 0).getLow().getValue().longValue()).isEqualTo(0);
+  }
+
+  @Test
+  public void testDimensions() {
+    Octagon oct = assign(manager.universe(1), 0, 0, 3);
+    oct = manager.addDimensionAndEmbed(oct, 1);
+    oct = assign(oct, 1, 1, 0, 1);
+    oct = manager.removeDimension(oct, 1);
+    assertThat(manager.dimension(oct)).isEqualTo(1);
+    assertBounds(oct, 0, 3, 3);
+  }
+
+  /**
+   * The incremental closure after adding constraints to a closed octagon
+   * has to be equal to the full closure.
+   */
+  @Test
+  public void testIncrementalClosure() {
+    Random random = new Random(0);
+    for (int run = 0; run < 200; run++) {
+      int n = 1 + random.nextInt(5);
+      Octagon incremental = manager.universe(n);
+      Octagon full = manager.universe(n);
+      // makes the matrix of the second octagon non-closed
+      full = manager.intersection(full, full);
+      for (int c = 0; c < 6; c++) {
+        int type = random.nextInt(6);
+        int x = random.nextInt(n);
+        int y = random.nextInt(n);
+        if (x == y && type >= 2) {
+          continue;
+        }
+        long bound = random.nextInt(21) - 5;
+        incremental = addConstraint(incremental, type, x, y, bound);
+        full = addConstraint(full, type, x, y, bound);
+        manager.isEmpty(incremental);
+      }
+      assertThat(manager.isEqual(incremental, full)).isTrue();
+    }
+  }
+
+  @Test
+  public void testPacks() {
+    Octagon oct = manager.universe(4);
+    oct = assign(oct, 0, 0, 0, 0, 0, 1);    // x0 := 1
+    oct = assign(oct, 1, 1, 0, 0, 0, 1);    // x1 := x0 + 1
+    oct = assign(oct, 2, 0, 0, 0, 0, 5);    // x2 := 5
+    assertThat(oct.getJavaOctagon().getMaximalPackSize()).isEqualTo(packing ? 2 : 4);
+
+    oct = assign(oct, 1, 0, 0, 0, 0, 7);    // x1 := 7 removes x1 from the pack of x0
+    assertThat(oct.getJavaOctagon().getMaximalPackSize()).isEqualTo(packing ? 1 : 4);
+    oct = addConstraint(oct, PXMY, 3, 2, 0); // x3 - x2 <= 0
+    assertBounds(oct, 3, Long.MIN_VALUE, 5);
+    assertBounds(oct, 1, 7, 7);
+
+    oct = manager.removeDimension(oct, 2);
+    assertThat(manager.dimension(oct)).isEqualTo(2);
+    assertBounds(oct, 0, 1, 1);
+  }
+}
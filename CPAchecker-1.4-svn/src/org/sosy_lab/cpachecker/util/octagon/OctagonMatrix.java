@@ -0,0 +1,1007 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+
+/**
+ * Difference-bound matrix of an octagon, stored as half-matrix in a flat array.
+ *
+ * The octagon over the variables v_0 ... v_(n-1) is represented by a matrix m
+ * over the 2n values V_2i = v_i and V_2i+1 = -v_i, where m[i][j] is an
+ * upper bound for V_j - V_i. Because of coherence (m[i][j] = m[j^1][i^1])
+ * only the elements with j <= (i|1) are stored, row after row.
+ *
+ * Instances are immutable, except for the lazily computed strong closure,
+ * which is cached such that widening can still use the original matrix.
+ * In the integral mode all bounds are rounded down to integers and the
+ * tight closure is computed instead of the strong closure.
+ * Integers are exact as doubles only up to 2^53, so in the integral mode
+ * every computed upper bound of larger magnitude is rounded upward
+ * (and every lower bound downward), which keeps the bounds sound
+ * for long and unsigned long variables, although not necessarily tight.
+ */
+final class OctagonMatrix {
+
+  private static final double INF = Double.POSITIVE_INFINITY;
+
+  // all integers of smaller magnitude and their sums are exact doubles
+  private static final double EXACT_LIMIT = 0x1p53;
+
+  private final int dimension;
+  private final boolean integral;
+
+  // the matrix as it was created, null if the octagon is known to be empty
+  private final double[] matrix;
+
+  // the strong closure of the matrix, null if not computed yet
+  private double[] closed = null;
+  private boolean empty = false;
+
+  private OctagonMatrix(int pDimension, boolean pIntegral, double[] pMatrix, boolean pClosed) {
+    dimension = pDimension;
+    integral = pIntegral;
+    matrix = pMatrix;
+    if (pMatrix == null) {
+      empty = true;
+    } else if (pClosed) {
+      closed = pMatrix;
+    }
+  }
+
+  static OctagonMatrix universe(int pDimension, boolean pIntegral) {
+    double[] m = new double[size(pDimension)];
+    Arrays.fill(m, INF);
+    for (int i = 0; i < 2 * pDimension; i++) {
+      m[pos(i, i)] = 0;
+    }
+    return new OctagonMatrix(pDimension, pIntegral, m, true);
+  }
+
+  static OctagonMatrix empty(int pDimension, boolean pIntegral) {
+    return new OctagonMatrix(pDimension, pIntegral, null, true);
+  }
+
+  /** Number of stored elements of the half-matrix for the given number of variables. */
+  private static int size(int pDimension) {
+    return 2 * pDimension * (pDimension + 1);
+  }
+
+  /** Position of the element m[i][j] in the half-matrix, j has to be at most (i|1). */
+  private static int pos(int i, int j) {
+    return j + (((i + 1) * (i + 1)) >> 1);
+  }
+
+  /** Position of the element m[i][j] in the half-matrix or of its coherent element. */
+  private static int anyPos(int i, int j) {
+    if (j <= (i | 1)) {
+      return pos(i, j);
+    }
+    return pos(j ^ 1, i ^ 1);
+  }
+
+  /**
+   * Round an upper bound that was computed with round-to-nearest upward
+   * if it may be inexact, i.e., in the integral mode beyond 2^53.
+   */
+  private static double up(double bound, boolean integral) {
+    if (integral && Math.abs(bound) >= EXACT_LIMIT) {
+      return Math.nextUp(bound);
+    }
+    return bound;
+  }
+
+  /** Counterpart of {@link #up(double, boolean)} for lower bounds. */
+  private static double down(double bound, boolean integral) {
+    return -up(-bound, integral);
+  }
+
+  int getDimension() {
+    return dimension;
+  }
+
+  /**
+   * Get the strong closure of the matrix, or null if the octagon is empty.
+   * The returned array must not be modified.
+   */
+  private double[] getClosed() {
+    if (closed == null && !empty) {
+      double[] m = matrix.clone();
+      if (close(m, dimension, integral)) {
+        closed = m;
+      } else {
+        empty = true;
+      }
+    }
+    return closed;
+  }
+
+  /** The closed matrix if it is available, otherwise the original matrix. */
+  private double[] getBest() {
+    return closed != null ? closed : matrix;
+  }
+
+  boolean isKnownEmpty() {
+    return empty;
+  }
+
+  boolean isClosed() {
+    return closed != null || empty;
+  }
+
+  private OctagonMatrix emptyOfSameDimension() {
+    return empty(dimension, integral);
+  }
+
+  /* Closure */
+
+  /**
+   * Compute the strong closure (the tight closure in the integral mode) in place.
+   * This is Floyd-Warshall with the two values of each variable as one pivot,
+   * followed by a single strengthening step.
+   * @return false if the octagon is empty
+   */
+  private static boolean close(double[] m, int n, boolean integral) {
+    double[] rowK = new double[2 * n];
+    double[] rowK1 = new double[2 * n];
+    for (int v = 0; v < n; v++) {
+      pivot(m, n, v, rowK, rowK1, integral);
+    }
+    return strengthen(m, n, integral);
+  }
+
+  /**
+   * One step of Floyd-Warshall over all elements, with both values of the
+   * variable v as pivot.
+   */
+  private static void pivot(double[] m, int n, int v, double[] rowK, double[] rowK1,
+      boolean integral) {
+    final int k = 2 * v;
+    final int k1 = k + 1;
+    final double kk1 = m[pos(k, k1)];
+    final double k1k = m[pos(k1, k)];
+
+    // rows k and k+1, including the paths over the other pivot
+    for (int j = 0; j < 2 * n; j++) {
+      double kj = m[anyPos(k, j)];
+      double k1j = m[anyPos(k1, j)];
+      rowK[j] = Math.min(kj, up(kk1 + k1j, integral));
+      rowK1[j] = Math.min(k1j, up(k1k + kj, integral));
+    }
+
+    for (int i = 0; i < 2 * n; i++) {
+      double ik = m[anyPos(i, k)];
+      double ik1 = m[anyPos(i, k1)];
+      final double viaK = Math.min(ik, up(ik1 + k1k, integral));
+      final double viaK1 = Math.min(ik1, up(ik + kk1, integral));
+      if (viaK == INF && viaK1 == INF) {
+        continue;
+      }
+      final int base = pos(i, 0);
+      final int end = i | 1;
+      for (int j = 0; j <= end; j++) {
+        double val = up(Math.min(viaK + rowK[j], viaK1 + rowK1[j]), integral);
+        if (val < m[base + j]) {
+          m[base + j] = val;
+        }
+      }
+    }
+  }
+
+  /**
+   * Strengthening step (with tightening in the integral mode) and emptiness check.
+   * Afterwards the elements on the diagonal are zero again.
+   * @return false if the octagon is empty
+   */
+  private static boolean strengthen(double[] m, int n, boolean integral) {
+    double[] unary = new double[2 * n];
+    for (int i = 0; i < 2 * n; i++) {
+      double val = m[pos(i, i ^ 1)];
+      if (integral) {
+        val = 2 * Math.floor(val / 2);
+        m[pos(i, i ^ 1)] = val;
+      }
+      unary[i] = val;
+    }
+
+    for (int i = 0; i < 2 * n; i++) {
+      final double ii = unary[i];
+      if (ii == INF) {
+        continue;
+      }
+      final int base = pos(i, 0);
+      final int end = i | 1;
+      for (int j = 0; j <= end; j++) {
+        double val = up(ii + unary[j ^ 1], integral) / 2;
+        if (val < m[base + j]) {
+          m[base + j] = val;
+        }
+      }
+    }
+
+    for (int i = 0; i < 2 * n; i++) {
+      int p = pos(i, i);
+      if (m[p] < 0) {
+        return false;
+      }
+      m[p] = 0;
+    }
+    return true;
+  }
+
+  /**
+   * Compute the strong closure in place of a matrix that is strongly closed
+   * except for the elements in the rows and columns of the variable v.
+   * This needs only quadratic time.
+   * @return false if the octagon is empty
+   */
+  private static boolean closeIncrementally(double[] m, int n, int v, boolean integral) {
+    final int a = 2 * v;
+    final int b = a + 1;
+
+    // Shortest paths from V_a and V_b over the other variables. The rest of the
+    // matrix is closed, thus the second iteration makes the paths that leave
+    // and re-enter the rows of v shortest, too.
+    for (int iteration = 0; iteration < 2; iteration++) {
+      for (int k = 0; k < 2 * n; k++) {
+        if (k == a || k == b) {
+          continue;
+        }
+        for (int i = a; i <= b; i++) {
+          final double ik = m[anyPos(i, k)];
+          if (ik == INF) {
+            continue;
+          }
+          for (int j = 0; j < 2 * n; j++) {
+            int p = anyPos(i, j);
+            double val = up(ik + m[anyPos(k, j)], integral);
+            if (val < m[p]) {
+              m[p] = val;
+            }
+          }
+        }
+      }
+    }
+
+    // paths over V_a and V_b for all elements
+    pivot(m, n, v, new double[2 * n], new double[2 * n], integral);
+    return strengthen(m, n, integral);
+  }
+
+  /** Round the bound for m[i][j] in the integral mode. */
+  private double round(int i, int j, double bound) {
+    if (!integral || bound == INF) {
+      return bound;
+    }
+    if (i == (j ^ 1)) {
+      return 2 * Math.floor(bound / 2);
+    }
+    return Math.floor(bound);
+  }
+
+  /* Tests */
+
+  boolean isEmpty() {
+    return getClosed() == null;
+  }
+
+  /**
+   * @return 1 if the octagon is empty, 2 if it is not empty,
+   *         and 3 if this is unknown without computing the closure
+   */
+  int isEmptyLazy() {
+    if (isKnownEmpty()) {
+      return 1;
+    } else if (isClosed()) {
+      return 2;
+    }
+    return 3;
+  }
+
+  boolean isUniverse() {
+    if (isKnownEmpty()) {
+      return false;
+    }
+    double[] m = getBest();
+    for (int i = 0; i < 2 * dimension; i++) {
+      final int base = pos(i, 0);
+      final int end = i | 1;
+      for (int j = 0; j <= end; j++) {
+        if (i != j && m[base + j] != INF) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  boolean isIncludedIn(OctagonMatrix other) {
+    checkArgument(dimension == other.dimension);
+    double[] m1 = getClosed();
+    if (m1 == null) {
+      return true;
+    }
+    if (other.isEmpty()) {
+      return false;
+    }
+    double[] m2 = other.getBest();
+    for (int p = 0; p < m1.length; p++) {
+      if (m1[p] > m2[p]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return 1 if this octagon is included in the other one, 2 if it is not,
+   *         and 3 if this is unknown without computing the closure
+   */
+  int isIncludedInLazy(OctagonMatrix other) {
+    if (isKnownEmpty()) {
+      return 1;
+    } else if (!isClosed()) {
+      return 3;
+    }
+    return isIncludedIn(other) ? 1 : 2;
+  }
+
+  boolean isEqual(OctagonMatrix other) {
+    if (dimension != other.dimension) {
+      return false;
+    }
+    double[] m1 = getClosed();
+    double[] m2 = other.getClosed();
+    if (m1 == null || m2 == null) {
+      return m1 == m2;
+    }
+    return Arrays.equals(m1, m2);
+  }
+
+  /**
+   * @return 1 if the octagons are equal, 2 if they are not,
+   *         and 3 if this is unknown without computing the closure
+   */
+  int isEqualLazy(OctagonMatrix other) {
+    if (!isClosed() || !other.isClosed()) {
+      return 3;
+    }
+    return isEqual(other) ? 1 : 2;
+  }
+
+  /** Check whether the point with the given coordinates is in the octagon. */
+  boolean contains(double[] point) {
+    if (isKnownEmpty()) {
+      return false;
+    }
+    double[] m = getBest();
+    for (int i = 0; i < 2 * dimension; i++) {
+      double vi = (i & 1) == 0 ? point[i / 2] : -point[i / 2];
+      final int base = pos(i, 0);
+      final int end = i | 1;
+      for (int j = 0; j <= end; j++) {
+        double vj = (j & 1) == 0 ? point[j / 2] : -point[j / 2];
+        if (vj - vi > m[base + j]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  int getNumberOfConstraints() {
+    if (isKnownEmpty()) {
+      return 0;
+    }
+    double[] m = getBest();
+    int result = 0;
+    for (int i = 0; i < 2 * dimension; i++) {
+      final int base = pos(i, 0);
+      final int end = i | 1;
+      for (int j = 0; j <= end; j++) {
+        if (i != j && m[base + j] != INF) {
+          result++;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the bounds of a variable.
+   * @return the upper bound and the negated lower bound, or null if the octagon is empty
+   */
+  double[] getBounds(int v) {
+    double[] m = getClosed();
+    if (m == null) {
+      return null;
+    }
+    return new double[] { m[pos(2 * v + 1, 2 * v)] / 2, m[pos(2 * v, 2 * v + 1)] / 2 };
+  }
+
+  /* Operators */
+
+  OctagonMatrix intersect(OctagonMatrix other) {
+    checkArgument(dimension == other.dimension);
+    if (isKnownEmpty() || other.isKnownEmpty()) {
+      return emptyOfSameDimension();
+    }
+    double[] m1 = getBest();
+    double[] m2 = other.getBest();
+    double[] result = new double[m1.length];
+    for (int p = 0; p < result.length; p++) {
+      result[p] = Math.min(m1[p], m2[p]);
+    }
+    return new OctagonMatrix(dimension, integral, result, false);
+  }
+
+  /** Convex hull, the result is closed. */
+  OctagonMatrix join(OctagonMatrix other) {
+    checkArgument(dimension == other.dimension);
+    double[] m1 = getClosed();
+    double[] m2 = other.getClosed();
+    if (m1 == null) {
+      return other;
+    } else if (m2 == null) {
+      return this;
+    }
+    double[] result = new double[m1.length];
+    for (int p = 0; p < result.length; p++) {
+      result[p] = Math.max(m1[p], m2[p]);
+    }
+    return new OctagonMatrix(dimension, integral, result, true);
+  }
+
+  /**
+   * Widening with zero as threshold: unstable bounds are set to zero
+   * if possible, and to infinity otherwise.
+   * The original matrix of this octagon is used, because widening
+   * does not necessarily terminate on closed matrices.
+   */
+  OctagonMatrix widen(OctagonMatrix other) {
+    checkArgument(dimension == other.dimension);
+    if (isKnownEmpty()) {
+      return other;
+    }
+    double[] m2 = other.getClosed();
+    if (m2 == null) {
+      return this;
+    }
+    double[] m1 = matrix;
+    double[] result = new double[m1.length];
+    for (int p = 0; p < result.length; p++) {
+      if (m2[p] <= m1[p]) {
+        result[p] = m1[p];
+      } else if (m2[p] <= 0) {
+        result[p] = 0;
+      } else {
+        result[p] = INF;
+      }
+    }
+    return new OctagonMatrix(dimension, integral, result, false);
+  }
+
+  /** Narrowing: only infinite bounds are refined. */
+  OctagonMatrix narrow(OctagonMatrix other) {
+    checkArgument(dimension == other.dimension);
+    double[] m1 = getClosed();
+    double[] m2 = other.getClosed();
+    if (m1 == null || m2 == null) {
+      return emptyOfSameDimension();
+    }
+    double[] result = new double[m1.length];
+    for (int p = 0; p < result.length; p++) {
+      result[p] = m1[p] == INF ? m2[p] : m1[p];
+    }
+    return new OctagonMatrix(dimension, integral, result, false);
+  }
+
+  /* Transfer functions */
+
+  OctagonMatrix forget(int v) {
+    double[] m = getClosed();
+    if (m == null) {
+      return this;
+    }
+    m = m.clone();
+    forgetInPlace(m, v);
+    return new OctagonMatrix(dimension, integral, m, true);
+  }
+
+  /** Remove all constraints of a variable, this keeps a matrix closed. */
+  private void forgetInPlace(double[] m, int v) {
+    for (int i = 2 * v; i <= 2 * v + 1; i++) {
+      for (int j = 0; j < 2 * dimension; j++) {
+        m[anyPos(i, j)] = (i == j) ? 0 : INF;
+      }
+    }
+  }
+
+  /**
+   * Add the constraints V_j - V_i <= c, given as triples (i, j, c).
+   * If the matrix is closed, the closure is updated incrementally.
+   */
+  OctagonMatrix addConstraints(int[] is, int[] js, double[] bounds) {
+    if (isKnownEmpty()) {
+      return this;
+    }
+    boolean wasClosed = isClosed();
+    double[] m = getBest().clone();
+    for (int c = 0; c < is.length; c++) {
+      int i = is[c];
+      int j = js[c];
+      int p = anyPos(i, j);
+      double bound = round(i, j, bounds[c]);
+      if (bound < m[p]) {
+        m[p] = bound;
+        if (wasClosed && !closeIncrementally(m, dimension, j / 2, integral)) {
+          return emptyOfSameDimension();
+        }
+      }
+    }
+    if (wasClosed) {
+      return new OctagonMatrix(dimension, integral, m, true);
+    }
+    for (int i = 0; i < 2 * dimension; i++) {
+      if (m[pos(i, i)] < 0) {
+        return emptyOfSameDimension();
+      }
+    }
+    return new OctagonMatrix(dimension, integral, m, false);
+  }
+
+  /**
+   * Add the constraint sum coeffs_i * v_i + constant >= 0.
+   * Octagonal constraints are added exactly, for other constraints
+   * only the bounds of the variables that are implied by the constraint are added.
+   */
+  OctagonMatrix addLinearConstraint(double[] coeffs, double constant) {
+    int first = -1;
+    int second = -1;
+    boolean octagonal = true;
+    for (int i = 0; i < dimension; i++) {
+      if (coeffs[i] != 0) {
+        if (first == -1) {
+          first = i;
+        } else if (second == -1) {
+          second = i;
+        } else {
+          octagonal = false;
+        }
+        octagonal &= Math.abs(coeffs[i]) == 1;
+      }
+    }
+
+    if (first == -1) {
+      return constant >= 0 ? this : emptyOfSameDimension();
+    }
+
+    if (octagonal) {
+      // -coeffs_first * v_first - coeffs_second * v_second <= constant
+      int j = coeffs[first] > 0 ? 2 * first + 1 : 2 * first;
+      if (second == -1) {
+        return addConstraints(new int[] { j ^ 1 }, new int[] { j }, new double[] { 2 * constant });
+      }
+      int i = coeffs[second] > 0 ? 2 * second : 2 * second + 1;
+      return addConstraints(new int[] { i }, new int[] { j }, new double[] { constant });
+    }
+
+    double[] m = getClosed();
+    if (m == null) {
+      return this;
+    }
+    double[] termHigh = new double[dimension];
+    double finiteHigh = 0;
+    int infiniteHigh = 0;
+    for (int i = 0; i < dimension; i++) {
+      termHigh[i] = multiply(coeffs[i], coeffs[i], lowerBound(m, i), upperBound(m, i))[1];
+      if (Double.isInfinite(termHigh[i])) {
+        infiniteHigh++;
+      } else {
+        finiteHigh = up(finiteHigh + termHigh[i], integral);
+      }
+    }
+    int[] is = new int[dimension];
+    int[] js = new int[dimension];
+    double[] bounds = new double[dimension];
+    for (int v = 0; v < dimension; v++) {
+      if (coeffs[v] == 0) {
+        is[v] = js[v] = 2 * v;
+        continue;
+      }
+      // coeffs_v * v_v >= -constant - (upper bound of the other terms)
+      double limit = down(-constant
+          - replaceTerm(finiteHigh, infiniteHigh, termHigh[v], 0, INF), integral);
+      if (coeffs[v] > 0) {
+        is[v] = 2 * v;
+        js[v] = 2 * v + 1;
+        bounds[v] = up(-2 * limit / coeffs[v], integral);
+      } else {
+        is[v] = 2 * v + 1;
+        js[v] = 2 * v;
+        bounds[v] = up(2 * limit / coeffs[v], integral);
+      }
+    }
+    return addConstraints(is, js, bounds);
+  }
+
+  /**
+   * Assign the interval linear expression
+   * sum [coeffLow_i, coeffHigh_i] * v_i + [constLow, constHigh] to the variable v.
+   * Assignments of the forms v := v + c, v := -v + c, v := +-w + c, and v := c
+   * are exact, other assignments are approximated by the bounds of the
+   * expression and of its sum and difference with every other variable.
+   */
+  OctagonMatrix assign(int v, double[] coeffLow, double[] coeffHigh,
+      double constLow, double constHigh) {
+    double[] m = getClosed();
+    if (m == null) {
+      return this;
+    }
+
+    int other = -1;
+    boolean linear = true;
+    for (int i = 0; i < dimension; i++) {
+      if (coeffLow[i] != coeffHigh[i]) {
+        linear = false;
+      } else if (coeffLow[i] != 0) {
+        if (other != -1 || Math.abs(coeffLow[i]) != 1) {
+          linear = false;
+        }
+        other = i;
+      }
+    }
+    boolean integralShift = !integral
+        || (constLow == Math.floor(constLow) && constHigh == Math.floor(constHigh));
+
+    if (linear && other == v && integralShift) {
+      m = m.clone();
+      if (coeffLow[v] < 0) {
+        m = negate(m, v);
+      }
+      shift(m, v, constLow, constHigh);
+      return new OctagonMatrix(dimension, integral, m, true);
+    }
+
+    if (linear && other != v) {
+      m = m.clone();
+      forgetInPlace(m, v);
+      int a = 2 * v;
+      if (other == -1) {
+        m[pos(a + 1, a)] = round(a + 1, a, 2 * constHigh);
+        m[pos(a, a + 1)] = round(a, a + 1, -2 * constLow);
+      } else {
+        int w = coeffLow[other] > 0 ? 2 * other : 2 * other + 1;
+        m[anyPos(w, a)] = round(w, a, constHigh);
+        m[anyPos(a, w)] = round(a, w, -constLow);
+      }
+      if (!closeIncrementally(m, dimension, v, integral)) {
+        return emptyOfSameDimension();
+      }
+      return new OctagonMatrix(dimension, integral, m, true);
+    }
+
+    return assignApproximately(m, v, coeffLow, coeffHigh, constLow, constHigh);
+  }
+
+  private OctagonMatrix assignApproximately(double[] closedMatrix, int v,
+      double[] coeffLow, double[] coeffHigh, double constLow, double constHigh) {
+    // bounds of the terms of the expression, infinite bounds are counted separately
+    double[] termLow = new double[dimension];
+    double[] termHigh = new double[dimension];
+    double finiteLow = 0;
+    double finiteHigh = 0;
+    int infiniteLow = 0;
+    int infiniteHigh = 0;
+    for (int i = 0; i <= dimension; i++) {
+      double low;
+      double high;
+      if (i < dimension) {
+        double[] product = multiply(coeffLow[i], coeffHigh[i],
+            lowerBound(closedMatrix, i), upperBound(closedMatrix, i));
+        low = termLow[i] = product[0];
+        high = termHigh[i] = product[1];
+      } else {
+        low = constLow;
+        high = constHigh;
+      }
+      if (Double.isInfinite(low)) {
+        infiniteLow++;
+      } else {
+        finiteLow = down(finiteLow + low, integral);
+      }
+      if (Double.isInfinite(high)) {
+        infiniteHigh++;
+      } else {
+        finiteHigh = up(finiteHigh + high, integral);
+      }
+    }
+
+    double[] m = closedMatrix.clone();
+    forgetInPlace(m, v);
+    int a = 2 * v;
+    m[pos(a + 1, a)] = round(a + 1, a, infiniteHigh > 0 ? INF : 2 * finiteHigh);
+    m[pos(a, a + 1)] = round(a, a + 1, infiniteLow > 0 ? INF : -2 * finiteLow);
+
+    for (int j = 0; j < dimension; j++) {
+      if (j == v) {
+        continue;
+      }
+      double low = lowerBound(closedMatrix, j);
+      double high = upperBound(closedMatrix, j);
+      int w = 2 * j;
+      for (int sign = -1; sign <= 1; sign += 2) {
+        // bounds of expression + sign * v_j
+        double[] term = multiply(coeffLow[j] + sign, coeffHigh[j] + sign, low, high);
+        double exprHigh = replaceTerm(finiteHigh, infiniteHigh, termHigh[j], term[1], INF);
+        double exprLow = replaceTerm(finiteLow, infiniteLow, termLow[j], term[0], -INF);
+        // v - (-sign * v_j) <= exprHigh and -v + (-sign * v_j) <= -exprLow
+        int vj = sign < 0 ? w : w + 1;
+        m[anyPos(vj, a)] = Math.min(m[anyPos(vj, a)], round(vj, a, exprHigh));
+        m[anyPos(a, vj)] = Math.min(m[anyPos(a, vj)], round(a, vj, -exprLow));
+      }
+    }
+
+    if (!closeIncrementally(m, dimension, v, integral)) {
+      return emptyOfSameDimension();
+    }
+    return new OctagonMatrix(dimension, integral, m, true);
+  }
+
+  /**
+   * Bound of a sum, where the bound of one term is replaced.
+   * @param infinity the bound if one of the terms is unbounded,
+   *     this also determines whether an upper or a lower bound is computed
+   */
+  private double replaceTerm(double finiteSum, int infiniteCount,
+      double oldTerm, double newTerm, double infinity) {
+    if (Double.isInfinite(oldTerm)) {
+      infiniteCount--;
+    } else if (infinity > 0) {
+      finiteSum = up(finiteSum - oldTerm, integral);
+    } else {
+      finiteSum = down(finiteSum - oldTerm, integral);
+    }
+    if (infiniteCount > 0 || Double.isInfinite(newTerm)) {
+      return infinity;
+    }
+    if (infinity > 0) {
+      return up(finiteSum + newTerm, integral);
+    }
+    return down(finiteSum + newTerm, integral);
+  }
+
+  /** Interval multiplication, where zero times infinity is zero. */
+  private double[] multiply(double lowA, double highA, double lowB, double highB) {
+    double p1 = times(lowA, lowB);
+    double p2 = times(lowA, highB);
+    double p3 = times(highA, lowB);
+    double p4 = times(highA, highB);
+    return new double[] {
+        down(Math.min(Math.min(p1, p2), Math.min(p3, p4)), integral),
+        up(Math.max(Math.max(p1, p2), Math.max(p3, p4)), integral) };
+  }
+
+  private static double times(double a, double b) {
+    if (a == 0 || b == 0) {
+      return 0;
+    }
+    return a * b;
+  }
+
+  private static double upperBound(double[] m, int v) {
+    return m[pos(2 * v + 1, 2 * v)] / 2;
+  }
+
+  private static double lowerBound(double[] m, int v) {
+    return -m[pos(2 * v, 2 * v + 1)] / 2;
+  }
+
+  /** Replace v by -v in a copy of the matrix, this keeps a matrix closed. */
+  private double[] negate(double[] m, int v) {
+    double[] result = new double[m.length];
+    for (int i = 0; i < 2 * dimension; i++) {
+      int si = (i / 2 == v) ? i ^ 1 : i;
+      final int end = i | 1;
+      for (int j = 0; j <= end; j++) {
+        int sj = (j / 2 == v) ? j ^ 1 : j;
+        result[pos(i, j)] = m[anyPos(si, sj)];
+      }
+    }
+    return result;
+  }
+
+  /** Add the interval [low, high] to v in place, this keeps a matrix closed. */
+  private void shift(double[] m, int v, double low, double high) {
+    final int a = 2 * v;
+    for (int j = 0; j < 2 * dimension; j++) {
+      if (j / 2 == v) {
+        continue;
+      }
+      m[anyPos(j, a)] = up(m[anyPos(j, a)] + high, integral);
+      m[anyPos(a, j)] = up(m[anyPos(a, j)] - low, integral);
+    }
+    m[pos(a + 1, a)] = up(m[pos(a + 1, a)] + 2 * high, integral);
+    m[pos(a, a + 1)] = up(m[pos(a, a + 1)] - 2 * low, integral);
+  }
+
+  /**
+   * Substitute the interval linear expression for the variable v,
+   * i.e., compute the states from which the assignment leads into this octagon.
+   * Only the invertible substitutions v := v + c and v := -v + c are exact,
+   * otherwise the variable is forgotten.
+   */
+  OctagonMatrix substitute(int v, double[] coeffLow, double[] coeffHigh,
+      double constLow, double constHigh) {
+    boolean invertible = Math.abs(coeffLow[v]) == 1 && coeffLow[v] == coeffHigh[v];
+    for (int i = 0; i < dimension && invertible; i++) {
+      invertible = (i == v) || (coeffLow[i] == 0 && coeffHigh[i] == 0);
+    }
+    if (!invertible) {
+      return forget(v);
+    }
+    if (coeffLow[v] > 0) {
+      return assign(v, coeffLow, coeffHigh, -constHigh, -constLow);
+    }
+    return assign(v, coeffLow, coeffHigh, constLow, constHigh);
+  }
+
+  /* Change of dimensions */
+
+  /**
+   * Add k variables after the existing ones,
+   * which are unconstrained or, if project is set, zero.
+   */
+  OctagonMatrix addDimensions(int k, boolean project) {
+    int newDimension = dimension + k;
+    if (isKnownEmpty()) {
+      return empty(newDimension, integral);
+    }
+    double[] old = getBest();
+    double[] m = Arrays.copyOf(old, size(newDimension));
+    Arrays.fill(m, old.length, m.length, INF);
+    for (int i = 2 * dimension; i < 2 * newDimension; i++) {
+      m[pos(i, i)] = 0;
+      if (project) {
+        m[pos(i, i ^ 1)] = 0;
+      }
+    }
+    OctagonMatrix result = new OctagonMatrix(newDimension, integral, m, false);
+    if (isClosed()) {
+      if (project) {
+        for (int v = dimension; v < newDimension; v++) {
+          if (!closeIncrementally(m, newDimension, v, integral)) {
+            return empty(newDimension, integral);
+          }
+        }
+      }
+      result.closed = m;
+    }
+    return result;
+  }
+
+  /** Remove the last k variables. */
+  OctagonMatrix removeDimensions(int k) {
+    int newDimension = dimension - k;
+    checkArgument(newDimension >= 0);
+    double[] m = getClosed();
+    if (m == null) {
+      return empty(newDimension, integral);
+    }
+    return new OctagonMatrix(newDimension, integral, Arrays.copyOf(m, size(newDimension)), true);
+  }
+
+  /* Combination and projection, used for packing variables */
+
+  /**
+   * Combine two octagons over disjoint sets of variables,
+   * the variables of the second octagon come after those of the first one.
+   */
+  static OctagonMatrix product(OctagonMatrix a, OctagonMatrix b) {
+    checkArgument(a.integral == b.integral);
+    int newDimension = a.dimension + b.dimension;
+    if (a.isKnownEmpty() || b.isKnownEmpty()) {
+      return empty(newDimension, a.integral);
+    }
+    OctagonMatrix result = new OctagonMatrix(newDimension, a.integral,
+        blockDiagonal(a.matrix, b.matrix, a.dimension, b.dimension), false);
+    if (a.closed != null && b.closed != null) {
+      // there are no paths between the blocks, thus strengthening is sufficient
+      double[] m = blockDiagonal(a.closed, b.closed, a.dimension, b.dimension);
+      strengthen(m, newDimension, a.integral);
+      result.closed = m;
+    }
+    return result;
+  }
+
+  private static double[] blockDiagonal(double[] a, double[] b, int dimA, int dimB) {
+    double[] m = Arrays.copyOf(a, size(dimA + dimB));
+    Arrays.fill(m, a.length, m.length, INF);
+    int offset = 2 * dimA;
+    for (int i = 0; i < 2 * dimB; i++) {
+      int base = pos(i + offset, offset);
+      System.arraycopy(b, pos(i, 0), m, base, (i | 1) + 1);
+    }
+    return m;
+  }
+
+  /**
+   * Reorder the variables, the variable at index i of the result
+   * is the variable at index order[i] of this octagon.
+   */
+  OctagonMatrix permute(int[] order) {
+    checkArgument(order.length == dimension);
+    if (isKnownEmpty()) {
+      return this;
+    }
+    OctagonMatrix result = new OctagonMatrix(dimension, integral, select(matrix, order), false);
+    if (closed != null) {
+      result.closed = select(closed, order);
+    }
+    return result;
+  }
+
+  /**
+   * Project the octagon to the given variables, the variable at index i
+   * of the result is the variable at index vars[i] of this octagon.
+   */
+  OctagonMatrix project(int[] vars) {
+    double[] m = getClosed();
+    if (m == null) {
+      return empty(vars.length, integral);
+    }
+    return new OctagonMatrix(vars.length, integral, select(m, vars), true);
+  }
+
+  private static double[] select(double[] m, int[] vars) {
+    double[] result = new double[size(vars.length)];
+    for (int i = 0; i < 2 * vars.length; i++) {
+      int oldI = 2 * vars[i / 2] + (i & 1);
+      final int base = pos(i, 0);
+      final int end = i | 1;
+      for (int j = 0; j <= end; j++) {
+        int oldJ = 2 * vars[j / 2] + (j & 1);
+        result[base + j] = m[anyPos(oldI, oldJ)];
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    if (isEmpty()) {
+      return "[Empty]";
+    }
+    double[] m = getClosed();
+    StringBuilder str = new StringBuilder();
+    for (int i = 0; i < 2 * dimension; i++) {
+      for (int j = 0; j < 2 * dimension; j++) {
+        str.append(m[anyPos(i, j)]).append(j + 1 < 2 * dimension ? "\t" : "\n");
+      }
+    }
+    return str.toString();
+  }
+}
@@ -0,0 +1,615 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Octagon that is split into independent packs of variables,
+ * with one {@link OctagonMatrix} for each pack.
+ *
+ * Initially every variable is in its own pack. Operations that relate
+ * variables of different packs merge these packs, and assigning a value that
+ * does not depend on a variable moves it out of its pack. Thus the packs stay
+ * small if the program has many variables that are not related to each other,
+ * and the closure is only cubic in the size of the largest pack.
+ * Packing is exact except for join and widening, which cannot infer
+ * relations between variables of different packs.
+ *
+ * Without packing, all variables are kept in one pack.
+ */
+final class PackedOctagon {
+
+  private final boolean integral;
+  private final boolean packing;
+
+  // for each variable the index of its pack and its index in the pack
+  private final int[] packOf;
+  private final int[] indexInPack;
+
+  // the octagon and the variables of each pack
+  private final OctagonMatrix[] packs;
+  private final int[][] packVariables;
+
+  private PackedOctagon(boolean pIntegral, boolean pPacking, int pDimension,
+      OctagonMatrix[] pPacks, int[][] pPackVariables) {
+    integral = pIntegral;
+    packing = pPacking;
+    packs = pPacks;
+    packVariables = pPackVariables;
+    packOf = new int[pDimension];
+    indexInPack = new int[pDimension];
+    for (int p = 0; p < pPackVariables.length; p++) {
+      for (int i = 0; i < pPackVariables[p].length; i++) {
+        packOf[pPackVariables[p][i]] = p;
+        indexInPack[pPackVariables[p][i]] = i;
+      }
+    }
+  }
+
+  static PackedOctagon universe(int pDimension, boolean pIntegral, boolean pPacking) {
+    return new PackedOctagon(pIntegral, pPacking, 0, new OctagonMatrix[0], new int[0][])
+        .addDimensions(pDimension, false);
+  }
+
+  static PackedOctagon empty(int pDimension, boolean pIntegral, boolean pPacking) {
+    int[] vars = new int[pDimension];
+    for (int v = 0; v < pDimension; v++) {
+      vars[v] = v;
+    }
+    return new PackedOctagon(pIntegral, pPacking, pDimension,
+        new OctagonMatrix[] { OctagonMatrix.empty(pDimension, pIntegral) }, new int[][] { vars });
+  }
+
+  private PackedOctagon emptyOfSameDimension() {
+    return empty(getDimension(), integral, packing);
+  }
+
+  int getDimension() {
+    return packOf.length;
+  }
+
+  /** Number of variables in the largest pack. */
+  int getMaximalPackSize() {
+    int result = 0;
+    for (int[] vars : packVariables) {
+      result = Math.max(result, vars.length);
+    }
+    return result;
+  }
+
+  private PackedOctagon withPack(int p, OctagonMatrix pack) {
+    if (pack == packs[p]) {
+      return this;
+    }
+    OctagonMatrix[] newPacks = packs.clone();
+    newPacks[p] = pack;
+    return new PackedOctagon(integral, packing, getDimension(), newPacks, packVariables);
+  }
+
+  /**
+   * Merge the packs of the given variables into one pack.
+   */
+  private PackedOctagon merge(int... vars) {
+    boolean[] selected = new boolean[packs.length];
+    int count = 0;
+    for (int v : vars) {
+      if (!selected[packOf[v]]) {
+        selected[packOf[v]] = true;
+        count++;
+      }
+    }
+    if (count <= 1) {
+      return this;
+    }
+
+    OctagonMatrix merged = null;
+    int[] mergedVars = new int[0];
+    OctagonMatrix[] newPacks = new OctagonMatrix[packs.length - count + 1];
+    int[][] newPackVariables = new int[newPacks.length][];
+    int next = 0;
+    for (int p = 0; p < packs.length; p++) {
+      if (selected[p]) {
+        merged = merged == null ? packs[p] : OctagonMatrix.product(merged, packs[p]);
+        mergedVars = concat(mergedVars, packVariables[p]);
+      } else {
+        newPacks[next] = packs[p];
+        newPackVariables[next] = packVariables[p];
+        next++;
+      }
+    }
+    newPacks[next] = merged;
+    newPackVariables[next] = mergedVars;
+    return new PackedOctagon(integral, packing, getDimension(), newPacks, newPackVariables);
+  }
+
+  private static int[] concat(int[] a, int[] b) {
+    int[] result = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, result, a.length, b.length);
+    return result;
+  }
+
+  /**
+   * Move a variable out of its pack into a new pack, keeping only its bounds.
+   */
+  private PackedOctagon detach(int v) {
+    int p = packOf[v];
+    int[] vars = packVariables[p];
+    if (!packing || vars.length == 1 || packs[p].isEmpty()) {
+      return this;
+    }
+    int[] remainingLocal = new int[vars.length - 1];
+    int[] remainingVars = new int[vars.length - 1];
+    for (int i = 0, next = 0; i < vars.length; i++) {
+      if (vars[i] != v) {
+        remainingLocal[next] = i;
+        remainingVars[next] = vars[i];
+        next++;
+      }
+    }
+    OctagonMatrix[] newPacks = Arrays.copyOf(packs, packs.length + 1);
+    int[][] newPackVariables = Arrays.copyOf(packVariables, packs.length + 1);
+    newPacks[p] = packs[p].project(remainingLocal);
+    newPackVariables[p] = remainingVars;
+    newPacks[packs.length] = packs[p].project(new int[] { indexInPack[v] });
+    newPackVariables[packs.length] = new int[] { v };
+    return new PackedOctagon(integral, packing, getDimension(), newPacks, newPackVariables);
+  }
+
+  /** Select the values of the variables of a pack from an array over all variables. */
+  private double[] local(int p, double[] values) {
+    int[] vars = packVariables[p];
+    double[] result = new double[vars.length];
+    for (int i = 0; i < vars.length; i++) {
+      result[i] = values[vars[i]];
+    }
+    return result;
+  }
+
+  /** Index in the matrix of a pack for an index in the matrix over all variables. */
+  private int localMatrixIndex(int i) {
+    return 2 * indexInPack[i / 2] + (i & 1);
+  }
+
+  /* Tests */
+
+  boolean isEmpty() {
+    for (OctagonMatrix pack : packs) {
+      if (pack.isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return 1 if the octagon is empty, 2 if it is not empty,
+   *         and 3 if this is unknown without computing the closure
+   */
+  int isEmptyLazy() {
+    int result = 2;
+    for (OctagonMatrix pack : packs) {
+      int packResult = pack.isEmptyLazy();
+      if (packResult == 1) {
+        return 1;
+      }
+      result = Math.max(result, packResult);
+    }
+    return result;
+  }
+
+  boolean isUniverse() {
+    for (OctagonMatrix pack : packs) {
+      if (!pack.isUniverse()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  boolean isIncludedIn(PackedOctagon other) {
+    if (isEmpty()) {
+      return true;
+    } else if (other.isEmpty()) {
+      return false;
+    }
+    PackedOctagon[] aligned = align(this, other);
+    for (int p = 0; p < aligned[0].packs.length; p++) {
+      if (!aligned[0].packs[p].isIncludedIn(aligned[1].packs[p])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return 1 if this octagon is included in the other one, 2 if it is not,
+   *         and 3 if this is unknown without computing the closure
+   */
+  int isIncludedInLazy(PackedOctagon other) {
+    int empty = isEmptyLazy();
+    if (empty == 1) {
+      return 1;
+    } else if (empty == 3) {
+      return 3;
+    }
+    return isIncludedIn(other) ? 1 : 2;
+  }
+
+  boolean isEqual(PackedOctagon other) {
+    if (getDimension() != other.getDimension()) {
+      return false;
+    }
+    boolean empty1 = isEmpty();
+    boolean empty2 = other.isEmpty();
+    if (empty1 || empty2) {
+      return empty1 && empty2;
+    }
+    PackedOctagon[] aligned = align(this, other);
+    for (int p = 0; p < aligned[0].packs.length; p++) {
+      if (!aligned[0].packs[p].isEqual(aligned[1].packs[p])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return 1 if the octagons are equal, 2 if they are not,
+   *         and 3 if this is unknown without computing the closure
+   */
+  int isEqualLazy(PackedOctagon other) {
+    if (isEmptyLazy() == 3 || other.isEmptyLazy() == 3) {
+      return 3;
+    }
+    return isEqual(other) ? 1 : 2;
+  }
+
+  boolean contains(double[] point) {
+    for (int p = 0; p < packs.length; p++) {
+      if (!packs[p].contains(local(p, point))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  int getNumberOfConstraints() {
+    int result = 0;
+    for (OctagonMatrix pack : packs) {
+      result += pack.getNumberOfConstraints();
+    }
+    return result;
+  }
+
+  /**
+   * Get the bounds of a variable.
+   * @return the upper bound and the negated lower bound, or null if the octagon is empty
+   */
+  double[] getBounds(int v) {
+    if (isEmpty()) {
+      return null;
+    }
+    return packs[packOf[v]].getBounds(indexInPack[v]);
+  }
+
+  /* Operators */
+
+  /**
+   * Bring two octagons to the same packs, which contain the variables
+   * in the same order. Packs of the two octagons that share variables are merged.
+   */
+  private static PackedOctagon[] align(PackedOctagon a, PackedOctagon b) {
+    checkArgument(a.getDimension() == b.getDimension());
+    if (Arrays.equals(a.packOf, b.packOf) && Arrays.equals(a.indexInPack, b.indexInPack)) {
+      return new PackedOctagon[] { a, b };
+    }
+
+    // union-find over the packs of a, extended by the packs of b
+    int[] parent = new int[a.packs.length];
+    for (int p = 0; p < parent.length; p++) {
+      parent[p] = p;
+    }
+    for (int[] vars : b.packVariables) {
+      for (int i = 1; i < vars.length; i++) {
+        int root1 = find(parent, a.packOf[vars[0]]);
+        int root2 = find(parent, a.packOf[vars[i]]);
+        parent[Math.max(root1, root2)] = Math.min(root1, root2);
+      }
+    }
+
+    List<OctagonMatrix> packsA = new ArrayList<>();
+    List<OctagonMatrix> packsB = new ArrayList<>();
+    List<int[]> packVariables = new ArrayList<>();
+    int[] groupOf = new int[a.packs.length];
+    Arrays.fill(groupOf, -1);
+    for (int p = 0; p < a.packs.length; p++) {
+      int root = find(parent, p);
+      if (groupOf[root] == -1) {
+        groupOf[root] = packsA.size();
+        packsA.add(a.packs[p]);
+        packVariables.add(a.packVariables[p]);
+      } else {
+        int group = groupOf[root];
+        packsA.set(group, OctagonMatrix.product(packsA.get(group), a.packs[p]));
+        packVariables.set(group, concat(packVariables.get(group), a.packVariables[p]));
+      }
+    }
+
+    // the packs of b, with the variables in the same order as in a
+    boolean[] used = new boolean[b.packs.length];
+    int[] position = new int[a.getDimension()];
+    for (int[] vars : packVariables) {
+      OctagonMatrix pack = null;
+      int size = 0;
+      for (int v : vars) {
+        int p = b.packOf[v];
+        if (!used[p]) {
+          used[p] = true;
+          pack = pack == null ? b.packs[p] : OctagonMatrix.product(pack, b.packs[p]);
+          for (int w : b.packVariables[p]) {
+            position[w] = size++;
+          }
+        }
+      }
+      int[] order = new int[vars.length];
+      for (int i = 0; i < vars.length; i++) {
+        order[i] = position[vars[i]];
+      }
+      packsB.add(isIdentity(order) ? pack : pack.permute(order));
+    }
+
+    int[][] varsArray = packVariables.toArray(new int[packVariables.size()][]);
+    return new PackedOctagon[] {
+        new PackedOctagon(a.integral, a.packing, a.getDimension(),
+            packsA.toArray(new OctagonMatrix[packsA.size()]), varsArray),
+        new PackedOctagon(b.integral, b.packing, b.getDimension(),
+            packsB.toArray(new OctagonMatrix[packsB.size()]), varsArray) };
+  }
+
+  private static int find(int[] parent, int p) {
+    while (parent[p] != p) {
+      parent[p] = parent[parent[p]];
+      p = parent[p];
+    }
+    return p;
+  }
+
+  private static boolean isIdentity(int[] order) {
+    for (int i = 0; i < order.length; i++) {
+      if (order[i] != i) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  PackedOctagon intersect(PackedOctagon other) {
+    PackedOctagon[] aligned = align(this, other);
+    OctagonMatrix[] result = new OctagonMatrix[aligned[0].packs.length];
+    for (int p = 0; p < result.length; p++) {
+      result[p] = aligned[0].packs[p].intersect(aligned[1].packs[p]);
+    }
+    return aligned[0].withPacks(result);
+  }
+
+  PackedOctagon join(PackedOctagon other) {
+    if (isEmpty()) {
+      return other;
+    } else if (other.isEmpty()) {
+      return this;
+    }
+    PackedOctagon[] aligned = align(this, other);
+    OctagonMatrix[] result = new OctagonMatrix[aligned[0].packs.length];
+    for (int p = 0; p < result.length; p++) {
+      result[p] = aligned[0].packs[p].join(aligned[1].packs[p]);
+    }
+    return aligned[0].withPacks(result);
+  }
+
+  PackedOctagon widen(PackedOctagon other) {
+    if (isEmptyLazy() == 1) {
+      return other;
+    } else if (other.isEmpty()) {
+      return this;
+    }
+    PackedOctagon[] aligned = align(this, other);
+    OctagonMatrix[] result = new OctagonMatrix[aligned[0].packs.length];
+    for (int p = 0; p < result.length; p++) {
+      result[p] = aligned[0].packs[p].widen(aligned[1].packs[p]);
+    }
+    return aligned[0].withPacks(result);
+  }
+
+  PackedOctagon narrow(PackedOctagon other) {
+    if (isEmpty() || other.isEmpty()) {
+      return emptyOfSameDimension();
+    }
+    PackedOctagon[] aligned = align(this, other);
+    OctagonMatrix[] result = new OctagonMatrix[aligned[0].packs.length];
+    for (int p = 0; p < result.length; p++) {
+      result[p] = aligned[0].packs[p].narrow(aligned[1].packs[p]);
+    }
+    return aligned[0].withPacks(result);
+  }
+
+  private PackedOctagon withPacks(OctagonMatrix[] pPacks) {
+    return new PackedOctagon(integral, packing, getDimension(), pPacks, packVariables);
+  }
+
+  /* Transfer functions */
+
+  PackedOctagon forget(int v) {
+    PackedOctagon result = detach(v);
+    int p = result.packOf[v];
+    return result.withPack(p, result.packs[p].forget(result.indexInPack[v]));
+  }
+
+  /**
+   * Add the constraints V_j - V_i <= c, given as triples (i, j, c)
+   * with the indices of the matrix over all variables.
+   */
+  PackedOctagon addConstraints(int[] is, int[] js, double[] bounds) {
+    PackedOctagon result = this;
+    for (int c = 0; c < is.length; c++) {
+      result = result.merge(is[c] / 2, js[c] / 2);
+      int p = result.packOf[js[c] / 2];
+      OctagonMatrix pack = result.packs[p].addConstraints(
+          new int[] { result.localMatrixIndex(is[c]) },
+          new int[] { result.localMatrixIndex(js[c]) },
+          new double[] { bounds[c] });
+      result = result.withPack(p, pack);
+    }
+    return result;
+  }
+
+  /** See {@link OctagonMatrix#addLinearConstraint(double[], double)}. */
+  PackedOctagon addLinearConstraint(double[] coeffs, double constant) {
+    int[] vars = variablesWithCoefficient(-1, coeffs, coeffs);
+    if (vars.length == 0) {
+      return constant >= 0 ? this : emptyOfSameDimension();
+    }
+    PackedOctagon result = merge(vars);
+    int p = result.packOf[vars[0]];
+    return result.withPack(p, result.packs[p].addLinearConstraint(result.local(p, coeffs), constant));
+  }
+
+  /** See {@link OctagonMatrix#assign(int, double[], double[], double, double)}. */
+  PackedOctagon assign(int v, double[] coeffLow, double[] coeffHigh,
+      double constLow, double constHigh) {
+    PackedOctagon result = this;
+    if (coeffLow[v] == 0 && coeffHigh[v] == 0) {
+      // the old relations of v are lost
+      result = detach(v);
+    }
+    result = result.merge(variablesWithCoefficient(v, coeffLow, coeffHigh));
+    int p = result.packOf[v];
+    return result.withPack(p, result.packs[p].assign(result.indexInPack[v],
+        result.local(p, coeffLow), result.local(p, coeffHigh), constLow, constHigh));
+  }
+
+  /** See {@link OctagonMatrix#substitute(int, double[], double[], double, double)}. */
+  PackedOctagon substitute(int v, double[] coeffLow, double[] coeffHigh,
+      double constLow, double constHigh) {
+    PackedOctagon result = merge(variablesWithCoefficient(v, coeffLow, coeffHigh));
+    int p = result.packOf[v];
+    return result.withPack(p, result.packs[p].substitute(result.indexInPack[v],
+        result.local(p, coeffLow), result.local(p, coeffHigh), constLow, constHigh));
+  }
+
+  /** The given variable (if not negative) and all variables with a non-zero coefficient. */
+  private static int[] variablesWithCoefficient(int v, double[] coeffLow, double[] coeffHigh) {
+    int[] result = new int[coeffLow.length + 1];
+    int count = 0;
+    if (v >= 0) {
+      result[count++] = v;
+    }
+    for (int i = 0; i < coeffLow.length; i++) {
+      if (i != v && (coeffLow[i] != 0 || coeffHigh[i] != 0)) {
+        result[count++] = i;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  /* Change of dimensions */
+
+  /**
+   * Add k variables after the existing ones,
+   * which are unconstrained or, if project is set, zero.
+   */
+  PackedOctagon addDimensions(int k, boolean project) {
+    int oldDimension = getDimension();
+    int newDimension = oldDimension + k;
+    if (!packing) {
+      OctagonMatrix pack = packs.length == 0 ? OctagonMatrix.universe(0, integral) : packs[0];
+      int[] vars = new int[newDimension];
+      for (int v = 0; v < newDimension; v++) {
+        vars[v] = v;
+      }
+      return new PackedOctagon(integral, packing, newDimension,
+          new OctagonMatrix[] { pack.addDimensions(k, project) }, new int[][] { vars });
+    }
+
+    OctagonMatrix[] newPacks = Arrays.copyOf(packs, packs.length + k);
+    int[][] newPackVariables = Arrays.copyOf(packVariables, packs.length + k);
+    OctagonMatrix single = OctagonMatrix.universe(0, integral).addDimensions(1, project);
+    for (int i = 0; i < k; i++) {
+      newPacks[packs.length + i] = single;
+      newPackVariables[packs.length + i] = new int[] { oldDimension + i };
+    }
+    return new PackedOctagon(integral, packing, newDimension, newPacks, newPackVariables);
+  }
+
+  /** Remove the last k variables. */
+  PackedOctagon removeDimensions(int k) {
+    int newDimension = getDimension() - k;
+    checkArgument(newDimension >= 0);
+    if (isEmpty()) {
+      return empty(newDimension, integral, packing);
+    }
+
+    List<OctagonMatrix> newPacks = new ArrayList<>(packs.length);
+    List<int[]> newPackVariables = new ArrayList<>(packs.length);
+    for (int p = 0; p < packs.length; p++) {
+      int[] vars = packVariables[p];
+      int[] remainingLocal = new int[vars.length];
+      int count = 0;
+      for (int i = 0; i < vars.length; i++) {
+        if (vars[i] < newDimension) {
+          remainingLocal[count++] = i;
+        }
+      }
+      if (count == vars.length) {
+        newPacks.add(packs[p]);
+        newPackVariables.add(vars);
+      } else if (count > 0 || !packing) {
+        remainingLocal = Arrays.copyOf(remainingLocal, count);
+        int[] remainingVars = new int[count];
+        for (int i = 0; i < count; i++) {
+          remainingVars[i] = vars[remainingLocal[i]];
+        }
+        newPacks.add(packs[p].project(remainingLocal));
+        newPackVariables.add(remainingVars);
+      }
+    }
+    return new PackedOctagon(integral, packing, newDimension,
+        newPacks.toArray(new OctagonMatrix[newPacks.size()]),
+        newPackVariables.toArray(new int[newPackVariables.size()][]));
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder str = new StringBuilder();
+    for (int p = 0; p < packs.length; p++) {
+      str.append("Pack ").append(Arrays.toString(packVariables[p])).append(":\n");
+      str.append(packs[p]);
+    }
+    return str.toString();
+  }
+}
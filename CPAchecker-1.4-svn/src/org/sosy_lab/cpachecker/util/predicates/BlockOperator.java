@@ -26,9 +26,15 @@ package org.sosy_lab.cpachecker.util.predicates;
 import static com.google.common.base.Preconditions.checkState;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.configuration.TimeSpanOption;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
@@ -37,6 +43,8 @@ import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
 import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
 import org.sosy_lab.cpachecker.util.CFAUtils;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
@@ -49,6 +57,16 @@ import com.google.common.collect.Lists;
  * should be done.
  *
  * This operator is configurable by the user.
+ *
+ * In adaptive mode, the operator additionally ends a block at join nodes,
+ * loop heads and function calls/returns if the path formula has grown beyond
+ * a size limit. The size is approximated by the length of the path formula
+ * (the number of edges), which is available without traversing the formula.
+ * The limit is adjusted at runtime from the observed cost of the abstraction
+ * computations (cf. {@link #abstractionComputed(CFANode, PathFormula, TimeSpan)}):
+ * it shrinks if abstractions take longer than the target time and grows
+ * if they are cheap. Limits are kept per location once an abstraction was
+ * computed there, and globally for all other locations.
  */
 @Options(prefix="cpa.predicate.blk")
 public class BlockOperator {
@@ -100,6 +118,31 @@ public class BlockOperator {
   @Option(secure=true, description="abstraction always at explicitly computed abstraction nodes.")
   private boolean alwaysAtExplicitNodes = false;
 
+  @Option(secure=true, description="additionally end blocks at join nodes, loop heads and function calls/returns "
+      + "if the path formula exceeds a size limit that is adapted to the observed abstraction times")
+  private boolean adaptive = false;
+
+  @Option(secure=true, name="adaptive.targetAbstractionTime",
+      description="abstraction time that adaptive block encoding aims for "
+        + "(the size limit is decreased if abstractions take longer, and increased if they are much faster)")
+  @TimeSpanOption(codeUnit=TimeUnit.MILLISECONDS, defaultUserUnit=TimeUnit.MILLISECONDS, min=1)
+  private TimeSpan adaptiveTargetTime = TimeSpan.ofMillis(100);
+
+  @Option(secure=true, name="adaptive.initialBlockLength",
+      description="initial size limit of blocks (number of edges in the path formula) for adaptive block encoding")
+  @IntegerOption(min=1)
+  private int adaptiveInitialSize = 100;
+
+  @Option(secure=true, name="adaptive.minBlockLength",
+      description="lower bound for the adapted size limit of blocks")
+  @IntegerOption(min=1)
+  private int adaptiveMinSize = 2;
+
+  @Option(secure=true, name="adaptive.maxBlockLength",
+      description="upper bound for the adapted size limit of blocks")
+  @IntegerOption(min=1)
+  private int adaptiveMaxSize = 20000;
+
   private ImmutableSet<CFANode> explicitAbstractionNodes = null;
   private ImmutableSet<CFANode> loopHeads = null;
 
@@ -110,9 +153,20 @@ public class BlockOperator {
   public int numBlkJoins = 0;
   public int numBlkBranch = 0;
   public int numBlkThreshold = 0;
+  public int numBlkAdaptive = 0;
+
+  // statistics for adaptive mode
+  public final StatInt adaptiveBlockSizes = new StatInt(StatKind.AVG, "Length of blocks ended because of size limit");
+  public final StatInt adaptiveAbstractionSizes = new StatInt(StatKind.AVG, "Length of blocks at abstractions");
+  public int numAdaptiveLimitDecreases = 0;
+  public int numAdaptiveLimitIncreases = 0;
 
   private CFA cfa = null;
 
+  // size limits for adaptive mode
+  private int globalSizeLimit = -1;
+  private final Map<CFANode, Integer> nodeSizeLimits = new HashMap<>();
+
   /**
    * Check whether an abstraction should be computed.
    *
@@ -223,9 +277,98 @@ public class BlockOperator {
       }
     }
 
+    if (adaptive && isAdaptiveCandidate(succLoc) && isSizeLimitExceeded(succLoc, pf)) {
+      numBlkAdaptive++;
+      return true;
+    }
+
     return false;
   }
 
+  private boolean isAdaptiveCandidate(CFANode succLoc) {
+    return isJoinNode(succLoc)
+        || isFunctionCall(succLoc)
+        || (loopHeads != null && loopHeads.contains(succLoc));
+  }
+
+  private boolean isSizeLimitExceeded(CFANode succLoc, PathFormula pf) {
+    Integer limit = nodeSizeLimits.get(succLoc);
+    if (limit == null) {
+      limit = getGlobalSizeLimit();
+    }
+
+    int size = pf.getLength();
+    if (size >= limit) {
+      adaptiveBlockSizes.setNextValue(size);
+      return true;
+    }
+    return false;
+  }
+
+  private int getGlobalSizeLimit() {
+    if (globalSizeLimit < 0) {
+      globalSizeLimit = clampSizeLimit(adaptiveInitialSize);
+    }
+    return globalSizeLimit;
+  }
+
+  private int clampSizeLimit(long pLimit) {
+    return (int) Math.max(adaptiveMinSize, Math.min(Math.max(adaptiveMinSize, adaptiveMaxSize), pLimit));
+  }
+
+  /**
+   * Feedback for the adaptive mode: report that an abstraction was computed at a location.
+   * The size limits are decreased multiplicatively if the abstraction exceeded the target time
+   * for a block that was not already small, and increased if it took only a fraction of
+   * the target time for a block close to the limit.
+   *
+   * @param loc The location of the abstraction.
+   * @param blockFormula The path formula of the block that was abstracted.
+   * @param time The time the abstraction computation took.
+   */
+  public void abstractionComputed(CFANode loc, PathFormula blockFormula, TimeSpan time) {
+    if (!adaptive) {
+      return;
+    }
+
+    int size = blockFormula.getLength();
+    adaptiveAbstractionSizes.setNextValue(size);
+
+    int globalLimit = getGlobalSizeLimit();
+    Integer nodeLimit = nodeSizeLimits.get(loc);
+    globalSizeLimit = adaptSizeLimit(globalLimit, size, time);
+    nodeSizeLimits.put(loc, adaptSizeLimit(nodeLimit == null ? globalLimit : nodeLimit, size, time));
+  }
+
+  private int adaptSizeLimit(int limit, int size, TimeSpan time) {
+    long target = adaptiveTargetTime.asNanos();
+    long nanos = time.asNanos();
+
+    if (nanos > target && size > limit / 2) {
+      // too expensive, cut blocks earlier
+      numAdaptiveLimitDecreases++;
+      return clampSizeLimit(Math.min(limit, size) * 3L / 4);
+
+    } else if (nanos < target / 4 && size >= limit * 3L / 4) {
+      // cheap although the block was close to the limit, allow larger blocks
+      numAdaptiveLimitIncreases++;
+      return clampSizeLimit(limit + Math.max(1, limit / 4));
+    }
+    return limit;
+  }
+
+  public boolean isAdaptive() {
+    return adaptive;
+  }
+
+  public int getCurrentGlobalSizeLimit() {
+    return getGlobalSizeLimit();
+  }
+
+  public int getNumberOfAdaptedLocations() {
+    return nodeSizeLimits.size();
+  }
+
   /**
    * If this method returns true, {@link #isBlockEnd(CFANode, CFANode, CFAEdge, PathFormula)}
    * is guaranteed to always return false.
@@ -247,6 +390,7 @@ public class BlockOperator {
         && !absOnFunction
         && !absOnLoop
         && !absOnJoin
+        && !adaptive
         ;
   }
 
@@ -274,7 +418,7 @@ public class BlockOperator {
 
   public void setCFA(CFA pCfa) {
     this.cfa = pCfa;
-    if (absOnLoop || alwaysAtLoops) {
+    if (absOnLoop || alwaysAtLoops || adaptive) {
       if (cfa.getAllLoopHeads().isPresent()) {
         loopHeads = cfa.getAllLoopHeads().get();
       }
@@ -28,6 +28,7 @@ import static com.google.common.base.Preconditions.*;
 import static com.google.common.collect.FluentIterable.from;
 
 import java.io.IOException;
+import java.io.PrintStream;
 import java.math.BigInteger;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -42,9 +43,11 @@ import java.util.logging.Level;
 
 import org.sosy_lab.common.Appender;
 import org.sosy_lab.common.Pair;
+import org.sosy_lab.common.Triple;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -53,8 +56,10 @@ import org.sosy_lab.common.io.Path;
 import org.sosy_lab.common.io.PathTemplate;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.util.predicates.Solver;
 import org.sosy_lab.cpachecker.util.predicates.interfaces.view.ReplaceBitvectorWithNumeralAndFunctionTheory.ReplaceBitvectorEncodingOptions;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
@@ -81,6 +86,7 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -154,6 +160,12 @@ public class FormulaManagerView implements StatisticsProvider {
       + " This can be used for solvers that do not support floating-point arithmetic, or for increased performance.")
   private Theory encodeFloatAs = Theory.RATIONAL;
 
+  @Option(secure=true, name = "formulaCache.maxSize",
+      description="Maximal number of results that are memoized for each of the structural operations "
+          + "instantiate, extractAtoms, extractVariableNames, and simplify (0 disables the caches).")
+  @IntegerOption(min=0)
+  private int formulaCacheSize = 10000;
+
   public FormulaManagerView(FormulaManagerFactory solverFactory, Configuration config, LogManager pLogger) throws InvalidConfigurationException {
     config.inject(this, FormulaManagerView.class);
     logger = pLogger;
@@ -168,6 +180,11 @@ public class FormulaManagerView implements StatisticsProvider {
 
     bitvectorFormulaManager = new BitvectorFormulaManagerView(wrappingHandler, rawBitvectorFormulaManager, manager.getBooleanFormulaManager());
     floatingPointFormulaManager = new FloatingPointFormulaManagerView(wrappingHandler, rawFloatingPointFormulaManager);
+
+    instantiateCache = new FormulaOperationCache<>("instantiate", formulaCacheSize);
+    extractAtomsCache = new FormulaOperationCache<>("extractAtoms", formulaCacheSize);
+    extractVariableNamesCache = new FormulaOperationCache<>("extractVariableNames", formulaCacheSize);
+    simplifyCache = new FormulaOperationCache<>("simplify", formulaCacheSize);
   }
 
   /** Returns the BitvectorFormulaManager or a Replacement based on the Option 'encodeBitvectorAs'.
@@ -877,8 +894,19 @@ public class FormulaManagerView implements StatisticsProvider {
    * indices that are provided in the SSA map!
    */
   public <F extends Formula> F instantiate(F pF, final SSAMap pSsa) {
-    return wrap(getFormulaType(pF),
-        myFreeVariableNodeTransformer(unwrap(pF), new HashMap<Formula, Formula>(),
+    Formula unwrapped = unwrap(pF);
+    // SSAMap.equals() ignores the default index, but the result depends on it
+    Triple<Formula, SSAMap, Integer> key = Triple.of(unwrapped, pSsa, pSsa.getDefaultIndex());
+    Formula result = instantiateCache.get(key);
+    if (result == null) {
+      result = myInstantiate(unwrapped, pSsa);
+      instantiateCache.put(key, result);
+    }
+    return wrap(getFormulaType(pF), result);
+  }
+
+  private Formula myInstantiate(Formula pF, final SSAMap pSsa) {
+    return myFreeVariableNodeTransformer(pF, new HashMap<Formula, Formula>(),
             new Function<String, String>() {
 
               @Override
@@ -895,8 +923,7 @@ public class FormulaManagerView implements StatisticsProvider {
                   return pFullSymbolName;
                 }
               }
-            })
-        );
+            });
   }
 
   // various caches for speeding up expensive tasks
@@ -907,6 +934,12 @@ public class FormulaManagerView implements StatisticsProvider {
   // cache for uninstantiating terms (see uninstantiate() below)
   private final Map<Formula, Formula> uninstantiateCache = new HashMap<>();
 
+  // bounded caches for the results of the structural operations below
+  private final FormulaOperationCache<Triple<Formula, SSAMap, Integer>, Formula> instantiateCache;
+  private final FormulaOperationCache<Pair<BooleanFormula, Boolean>, ImmutableList<BooleanFormula>> extractAtomsCache;
+  private final FormulaOperationCache<Formula, ImmutableSet<String>> extractVariableNamesCache;
+  private final FormulaOperationCache<BooleanFormula, BooleanFormula> simplifyCache;
+
   /**
    * Only use inside this package and for solver-specific classes
    * when creating a {@link Model}.
@@ -1085,15 +1118,23 @@ public class FormulaManagerView implements StatisticsProvider {
    * Extract all atoms of a given boolean formula.
    */
   public Collection<BooleanFormula> extractAtoms(BooleanFormula f, boolean splitArithEqualities) {
-    return myExtractAtoms(f, splitArithEqualities,
-        new Predicate<BooleanFormula>() {
-          @Override
-          public boolean apply(BooleanFormula pInput) {
-            return unsafeManager.isAtom(pInput);
-          }
-        });
+    Pair<BooleanFormula, Boolean> key = Pair.of(f, splitArithEqualities);
+    ImmutableList<BooleanFormula> result = extractAtomsCache.get(key);
+    if (result == null) {
+      result = ImmutableList.copyOf(myExtractAtoms(f, splitArithEqualities, IS_ATOM));
+      extractAtomsCache.put(key, result);
+    }
+    // callers may modify the returned collection
+    return new ArrayList<>(result);
   }
 
+  private final Predicate<BooleanFormula> IS_ATOM = new Predicate<BooleanFormula>() {
+    @Override
+    public boolean apply(BooleanFormula pInput) {
+      return unsafeManager.isAtom(pInput);
+    }
+  };
+
   /**
    * Extract all disjuncts of a given boolean formula.
    * It removes the top-level "and" and "not" operators and returns the rest.
@@ -1233,9 +1274,16 @@ public class FormulaManagerView implements StatisticsProvider {
    * @return    Set of variable names (might be instantiated)
    */
   public Set<String> extractVariableNames(Formula f) {
-    return Sets.newHashSet(Collections2.transform(
-        myExtractSubformulas(unwrap(f), FILTER_VARIABLES, true),
-        GET_NAME));
+    Formula unwrapped = unwrap(f);
+    ImmutableSet<String> result = extractVariableNamesCache.get(unwrapped);
+    if (result == null) {
+      result = ImmutableSet.copyOf(Collections2.transform(
+          myExtractSubformulas(unwrapped, FILTER_VARIABLES, true),
+          GET_NAME));
+      extractVariableNamesCache.put(unwrapped, result);
+    }
+    // callers may modify the returned set
+    return Sets.newHashSet(result);
   }
 
   /**
@@ -1450,7 +1498,12 @@ public class FormulaManagerView implements StatisticsProvider {
   }
 
   public BooleanFormula simplify(BooleanFormula input) {
-    return unsafeManager.simplify(input);
+    BooleanFormula result = simplifyCache.get(input);
+    if (result == null) {
+      result = unsafeManager.simplify(input);
+      simplifyCache.put(input, result);
+    }
+    return result;
   }
 
   /**
@@ -1555,6 +1608,19 @@ public class FormulaManagerView implements StatisticsProvider {
 
   @Override
   public void collectStatistics(Collection<Statistics> pStatsCollection) {
-    // nothing to do here
+    pStatsCollection.add(new Statistics() {
+      @Override
+      public String getName() {
+        return "Formula manager";
+      }
+
+      @Override
+      public void printStatistics(PrintStream pOut, Result pResult, ReachedSet pReached) {
+        instantiateCache.printStatistics(pOut);
+        extractAtomsCache.printStatistics(pOut);
+        extractVariableNamesCache.printStatistics(pOut);
+        simplifyCache.printStatistics(pOut);
+      }
+    });
   }
 }
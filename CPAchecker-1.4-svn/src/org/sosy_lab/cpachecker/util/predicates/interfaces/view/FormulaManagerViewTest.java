@@ -37,6 +37,7 @@ import org.junit.runners.Parameterized.Parameters;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.log.TestLogManager;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
 import org.sosy_lab.solver.SolverException;
 import org.sosy_lab.solver.FormulaManagerFactory.Solvers;
 import org.sosy_lab.solver.api.BitvectorFormulaManager;
@@ -200,4 +201,19 @@ public class FormulaManagerViewTest extends SolverBasedTest0 {
     // BitvectorFormulaManagerView here!
     testExtractAtoms_SplitEqualities_bitvectors(mgrv.getBitvectorFormulaManager());
   }
+
+  @Test
+  public void testInstantiate_DefaultIndex() {
+    NumeralFormula.IntegerFormula x = imgr.makeVariable("x");
+    SSAMap ssa = SSAMap.emptySSAMap();
+
+    NumeralFormula.IntegerFormula x1 = mgrv.instantiate(x, ssa.withDefault(1));
+    NumeralFormula.IntegerFormula x2 = mgrv.instantiate(x, ssa.withDefault(2));
+
+    // the SSAMaps are equal, but the results must not be taken from the same cache entry
+    assertThat(ssa.withDefault(1)).isEqualTo(ssa.withDefault(2));
+    assertThat(mgrv.extractVariableNames(x1)).containsExactly("x@1");
+    assertThat(mgrv.extractVariableNames(x2)).containsExactly("x@2");
+    assertThat(mgrv.extractVariableNames(mgrv.instantiate(x, ssa))).doesNotContain("x@2");
+  }
 }
@@ -0,0 +1,94 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.interfaces.view;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
+
+/**
+ * Bounded memoization cache for the results of structural operations
+ * on formulas in {@link FormulaManagerView}.
+ * Keys are compared with equals(), which is term identity for solver formulas.
+ * If the cache is full, the least-recently used entry is dropped.
+ * A cache with a maximal size of 0 is disabled and never stores anything.
+ * All methods are synchronized because the access-ordered map is modified
+ * even by lookups.
+ */
+class FormulaOperationCache<K, V> {
+
+  private final String name;
+  private final int maxSize;
+  private final Map<K, V> cache;
+
+  private int hits = 0;
+  private int misses = 0;
+
+  FormulaOperationCache(String pName, final int pMaxSize) {
+    name = pName;
+    maxSize = pMaxSize;
+    cache = new LinkedHashMap<K, V>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> pEldest) {
+        return size() > pMaxSize;
+      }
+    };
+  }
+
+  /**
+   * Look up the cached result for a key and update the statistics.
+   * @return The cached result or null.
+   */
+  synchronized @Nullable V get(K pKey) {
+    if (maxSize == 0) {
+      return null;
+    }
+    V result = cache.get(pKey);
+    if (result == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return result;
+  }
+
+  synchronized void put(K pKey, V pValue) {
+    if (maxSize > 0) {
+      cache.put(pKey, pValue);
+    }
+  }
+
+  synchronized void printStatistics(PrintStream pOut) {
+    if (hits + misses > 0) {
+      StatisticsUtils.write(pOut, 0, 40, "Cache hits for " + name,
+          StatisticsUtils.valueWithPercentage(hits, hits + misses));
+    }
+  }
+}
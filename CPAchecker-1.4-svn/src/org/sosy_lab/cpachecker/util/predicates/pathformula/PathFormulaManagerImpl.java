@@ -348,7 +348,8 @@ public class PathFormulaManagerImpl implements PathFormulaManager {
       return finalConjunct;
     }
 
-    T getResult() {
+    @VisibleForTesting
+    public T getResult() {
       return result;
     }
   }
@@ -308,6 +308,13 @@ public class SSAMap implements Serializable {
     return getIndex(variable, vars, defaultValue);
   }
 
+  /**
+   * @return the index that is returned for variables not contained in the map.
+   */
+  public int getDefaultIndex() {
+    return defaultValue;
+  }
+
   public boolean containsVariable(String variable) {
     return vars.containsKey(variable);
   }
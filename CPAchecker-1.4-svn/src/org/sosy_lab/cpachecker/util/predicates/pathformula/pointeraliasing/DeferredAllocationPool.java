@@ -168,11 +168,18 @@ class DeferredAllocationPool implements Serializable {
   private final PersistentList<String> baseVariables; // actually a set
 
 
+  // up to this number of elements added on the smaller branch,
+  // the common tail is searched linearly instead of being hashed
+  private static final int MAX_DELTA_FOR_LINEAR_SEARCH = 4;
+
   static <T> PersistentList<T> mergeLists(final PersistentList<T> list1,
                                           final PersistentList<T> list2) {
     if (list1 == list2) {
       return list1;
     }
+    if (list1 instanceof PersistentLinkedList && list2 instanceof PersistentLinkedList) {
+      return mergeLinkedLists((PersistentLinkedList<T>) list1, (PersistentLinkedList<T>) list2);
+    }
     final int size1 = list1.size();
     final int size2 = list2.size();
     if (size1 == size2 && list1.equals(list2)) {
@@ -197,6 +204,77 @@ class DeferredAllocationPool implements Serializable {
     return result;
   }
 
+  /**
+   * Merge two linked lists that were created by adding elements to a common list,
+   * e.g., the lists of targets of two {@link PointerTargetSet}s on different branches.
+   * Elements are always added in front of a {@link PersistentLinkedList},
+   * so both lists share (by identity) the nodes of the common list.
+   * Only the elements in front of this common tail are compared,
+   * thus the effort depends on the size of the difference and not on the size of the lists.
+   *
+   * Elements of the smaller list that are in the common tail of both lists
+   * are not added again, elements that are only in the front part of the bigger list neither.
+   * An element that was added on the smaller branch although it is already in the common tail
+   * is not added either, because the lists are used as sets.
+   * For small differences, the common tail is searched linearly for such elements,
+   * otherwise its elements are hashed.
+   */
+  private static <T> PersistentList<T> mergeLinkedLists(final PersistentLinkedList<T> list1,
+                                                        final PersistentLinkedList<T> list2) {
+    final int size1 = list1.size();
+    final int size2 = list2.size();
+
+    PersistentLinkedList<T> smallerList, biggerList;
+    if (size1 > size2) {
+      smallerList = list2;
+      biggerList = list1;
+    } else {
+      smallerList = list1;
+      biggerList = list2;
+    }
+
+    final List<T> biggerDelta = new ArrayList<>();
+    final List<T> smallerDelta = new ArrayList<>();
+
+    // skip the additional elements of the bigger list, then both rests have the same size
+    PersistentLinkedList<T> bigger = biggerList;
+    for (int i = biggerList.size() - smallerList.size(); i > 0; i--) {
+      biggerDelta.add(bigger.head());
+      bigger = bigger.tail();
+    }
+
+    // walk in parallel until the common tail is reached
+    PersistentLinkedList<T> smaller = smallerList;
+    while (bigger != smaller && !smaller.isEmpty()) {
+      biggerDelta.add(bigger.head());
+      smallerDelta.add(smaller.head());
+      bigger = bigger.tail();
+      smaller = smaller.tail();
+    }
+
+    if (smallerDelta.isEmpty()) {
+      // smallerList is a tail of biggerList
+      return biggerList;
+    }
+
+    final PersistentLinkedList<T> commonTail = smaller;
+    final Set<T> present = new HashSet<>(biggerDelta);
+    final boolean searchTailLinearly = smallerDelta.size() <= MAX_DELTA_FOR_LINEAR_SEARCH;
+    if (!searchTailLinearly) {
+      present.addAll(commonTail);
+    }
+    PersistentList<T> result = biggerList;
+
+    for (final T target : smallerDelta) {
+      if (!present.contains(target)
+          && !(searchTailLinearly && commonTail.contains(target))) {
+        result = result.with(target);
+        present.add(target);
+      }
+    }
+    return result;
+  }
+
   private Object writeReplace() {
     return new SerializationProxy(this);
   }
@@ -0,0 +1,71 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.sosy_lab.common.collect.PersistentLinkedList;
+import org.sosy_lab.common.collect.PersistentList;
+
+public class DeferredAllocationPoolTest {
+
+  private final PersistentLinkedList<String> common = PersistentLinkedList.of("a", "b", "c");
+
+  @Test
+  public void testMergeSharedTail() {
+    PersistentList<String> list1 = common.with("d");
+    PersistentList<String> list2 = common.with("e").with("f");
+
+    assertThat(DeferredAllocationPool.mergeLists(list1, list2))
+        .containsExactly("a", "b", "c", "d", "e", "f");
+    assertThat(DeferredAllocationPool.mergeLists(common, list2)).isSameAs(list2);
+  }
+
+  @Test
+  public void testMergeElementOfSharedTailAddedOnSmallerBranch() {
+    PersistentList<String> bigger = common.with("d").with("e");
+    PersistentList<String> smaller = common.with("b");
+
+    assertThat(DeferredAllocationPool.mergeLists(bigger, smaller))
+        .containsExactly("a", "b", "c", "d", "e");
+    assertThat(DeferredAllocationPool.mergeLists(smaller, bigger))
+        .containsExactly("a", "b", "c", "d", "e");
+  }
+
+  @Test
+  public void testMergeLargeDeltaWithElementOfSharedTail() {
+    PersistentLinkedList<String> bigger = common;
+    PersistentLinkedList<String> smaller = common.with("a");
+    for (int i = 0; i < 10; i++) {
+      bigger = bigger.with("x" + i);
+      smaller = smaller.with("y" + i);
+    }
+    bigger = bigger.with("x10").with("x11");
+
+    PersistentList<String> result = DeferredAllocationPool.mergeLists(bigger, smaller);
+    assertThat(result).containsNoDuplicates();
+    assertThat(result).hasSize(25);
+  }
+}
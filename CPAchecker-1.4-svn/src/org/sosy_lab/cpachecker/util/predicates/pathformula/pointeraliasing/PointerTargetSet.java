@@ -36,6 +36,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
@@ -180,6 +181,28 @@ public final class PointerTargetSet implements Serializable {
                            final PersistentSortedMap<CompositeField, Boolean> fields,
                            final PersistentSortedMap<String, DeferredAllocationPool> deferredAllocations,
                            final PersistentSortedMap<String, PersistentList<PointerTarget>> targets) {
+    this(bases, lastBase, fields, deferredAllocations, targets, null,
+        PathCopyingPersistentTreeMap.<String, CType>of(),
+        PathCopyingPersistentTreeMap.<CompositeField, Boolean>of());
+  }
+
+  /**
+   * Creates a set that is described as the given base set with additional bases and fields.
+   * If there are too many additions, the set becomes a base set itself.
+   *
+   * @param deltaBase the base set, or {@code null} if the new set is a base set itself.
+   * @param addedBases the bases that were added or changed since the base set.
+   * @param addedFields the fields that were added since the base set.
+   */
+  PointerTargetSet(final PersistentSortedMap<String, CType> bases,
+                           final String lastBase,
+                           final PersistentSortedMap<CompositeField, Boolean> fields,
+                           final PersistentSortedMap<String, DeferredAllocationPool> deferredAllocations,
+                           final PersistentSortedMap<String, PersistentList<PointerTarget>> targets,
+                           final @Nullable PointerTargetSet deltaBase,
+                           final PersistentSortedMap<String, CType> addedBases,
+                           final PersistentSortedMap<CompositeField, Boolean> addedFields) {
+    assert deltaBase == null || deltaBase.deltaBase == null : "Base sets have no base themselves";
     this.bases = bases;
     this.lastBase = lastBase;
     this.fields = fields;
@@ -188,6 +211,16 @@ public final class PointerTargetSet implements Serializable {
 
     this.targets = targets;
 
+    if (deltaBase == null || addedBases.size() + addedFields.size() > MAX_DELTA_SIZE) {
+      this.deltaBase = null;
+      this.addedBases = PathCopyingPersistentTreeMap.of();
+      this.addedFields = PathCopyingPersistentTreeMap.of();
+    } else {
+      this.deltaBase = deltaBase;
+      this.addedBases = addedBases;
+      this.addedFields = addedFields;
+    }
+
     if (isEmpty()) {
       // Inside isEmpty(), we do not check the following the targets field.
       // so we assert here that isEmpty() implies that it is also empty.
@@ -205,6 +238,10 @@ public final class PointerTargetSet implements Serializable {
 
   private static final Joiner joiner = Joiner.on(" ");
 
+  // More additions make this set a base set, so merges of two sets with the same base set
+  // only need to handle a bounded number of bases and fields.
+  private static final int MAX_DELTA_SIZE = 128;
+
   // The following fields are modified in the derived class only
 
   // The set of known memory objects.
@@ -232,6 +269,25 @@ public final class PointerTargetSet implements Serializable {
   // its value is not tracked and might get lost.
   final PersistentSortedMap<String, PersistentList<PointerTarget>> targets;
 
+  // The set from which this set was derived by adding bases and fields,
+  // shared by all sets that were derived from it.
+  // It is null if this set is a base set itself.
+  // The merge of two sets with the same base set only needs to consider their additions.
+  final @Nullable PointerTargetSet deltaBase;
+
+  // The bases that were added (or whose type was changed) since the base set.
+  final PersistentSortedMap<String, CType> addedBases;
+
+  // The fields that were added since the base set.
+  final PersistentSortedMap<CompositeField, Boolean> addedFields;
+
+  /**
+   * Returns the base set of this set, i.e., this set itself if it is a base set.
+   */
+  PointerTargetSet getDeltaBase() {
+    return (deltaBase != null) ? deltaBase : this;
+  }
+
   private static final String BASE_PREFIX = "__ADDRESS_OF_";
 
   private static final long serialVersionUID = 2102505458322248624L;
@@ -141,6 +141,9 @@ public interface PointerTargetSetBuilder {
     private PersistentSortedMap<CompositeField, Boolean> fields;
     private PersistentSortedMap<String, DeferredAllocationPool> deferredAllocations;
     private PersistentSortedMap<String, PersistentList<PointerTarget>> targets;
+    private @Nullable PointerTargetSet deltaBase;
+    private PersistentSortedMap<String, CType> addedBases;
+    private PersistentSortedMap<CompositeField, Boolean> addedFields;
 
     // Used in addEssentialFields()
     private final Predicate<Pair<CCompositeType, String>> isNewFieldPredicate =
@@ -190,6 +193,9 @@ public interface PointerTargetSetBuilder {
       fields = pointerTargetSet.fields;
       deferredAllocations = pointerTargetSet.deferredAllocations;
       targets = pointerTargetSet.targets;
+      deltaBase = pointerTargetSet.getDeltaBase();
+      addedBases = pointerTargetSet.addedBases;
+      addedFields = pointerTargetSet.addedFields;
       formulaManager = pFormulaManager;
       ptsMgr = pPtsMgr;
       options = pOptions;
@@ -208,6 +214,11 @@ public interface PointerTargetSetBuilder {
       targets = ptsMgr.addToTargets(name, type, null, 0, 0, targets, fields);
     }
 
+    private void putBase(final String name, final CType type) {
+      bases = bases.putAndCopy(name, type);
+      addedBases = addedBases.putAndCopy(name, type);
+    }
+
     @Override
     public BooleanFormula prepareBase(final String name, CType type) {
       type = CTypeUtils.simplifyType(type);
@@ -215,9 +226,9 @@ public interface PointerTargetSetBuilder {
         // The base has already been added
         return formulaManager.getBooleanFormulaManager().makeBoolean(true);
       }
-      bases = bases.putAndCopy(name, type); // To get proper inequalities
+      putBase(name, type); // To get proper inequalities
       final BooleanFormula nextInequality = ptsMgr.getNextBaseAddressInequality(name, bases, lastBase);
-      bases = bases.putAndCopy(name, PointerTargetSetManager.getFakeBaseType(ptsMgr.getSize(type))); // To prevent adding spurious targets when merging
+      putBase(name, PointerTargetSetManager.getFakeBaseType(ptsMgr.getSize(type))); // To prevent adding spurious targets when merging
       lastBase = name;
       return nextInequality;
     }
@@ -238,7 +249,7 @@ public interface PointerTargetSetBuilder {
         addTargets(name, type);
       }
 
-      bases = bases.putAndCopy(name, type);
+      putBase(name, type);
     }
 
     /**
@@ -256,7 +267,7 @@ public interface PointerTargetSetBuilder {
       }
 
       addTargets(name, type);
-      bases = bases.putAndCopy(name, type);
+      putBase(name, type);
 
       final BooleanFormula nextInequality = ptsMgr.getNextBaseAddressInequality(name, bases, lastBase);
       lastBase = name;
@@ -337,6 +348,7 @@ public interface PointerTargetSetBuilder {
         addTargets(baseEntry.getKey(), baseEntry.getValue(), null, 0, 0, type, fieldName);
       }
       fields = fields.putAndCopy(field, true);
+      addedFields = addedFields.putAndCopy(field, true);
 
       if (oldTargets != targets) {
         // Target added
@@ -355,6 +367,11 @@ public interface PointerTargetSetBuilder {
       final String type = CTypeUtils.typeToString(composite);
       final CompositeField field = CompositeField.of(type, fieldName);
       fields = fields.removeAndCopy(field);
+      addedFields = addedFields.removeAndCopy(field);
+      if (deltaBase != null && deltaBase.fields.containsKey(field)) {
+        // the removal cannot be described as an addition to the base set
+        deltaBase = null;
+      }
     }
 
     /**
@@ -539,7 +556,7 @@ public interface PointerTargetSetBuilder {
     @Override
     public PointerTargetSet build() {
       PointerTargetSet result = new PointerTargetSet(bases, lastBase, fields,
-          deferredAllocations, targets);
+          deferredAllocations, targets, deltaBase, addedBases, addedFields);
       if (result.isEmpty()) {
         return PointerTargetSet.emptyPointerTargetSet();
       } else {
@@ -69,6 +69,7 @@ import org.sosy_lab.solver.api.FormulaType;
 
 import com.google.common.base.Equivalence;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
 
 class PointerTargetSetManager {
 
@@ -120,13 +121,59 @@ class PointerTargetSetManager {
     if (pts1.isEmpty() && pts2.isEmpty()) {
       return MergeResult.trivial(PointerTargetSet.emptyPointerTargetSet(), bfmgr);
     }
+    if (pts1 == pts2) {
+      // nothing was changed on either branch
+      return MergeResult.trivial(pts1, bfmgr);
+    }
+
+    // All the following merges are cheap if the maps are identical
+    // (this is the case for the maps that were not changed on either branch),
+    // and the target lists are merged such that only their differences are compared
+    // (cf. DeferredAllocationPool.mergeLists()).
+    // If both sets were derived from the same base set,
+    // the bases and fields are merged by considering only their additions.
+    final PointerTargetSet deltaBase = pts1.getDeltaBase();
+    final boolean mergeAdditions = deltaBase == pts2.getDeltaBase();
 
     final CopyOnWriteSortedMap<String, CType> basesOnlyPts1 =
         CopyOnWriteSortedMap.copyOf(PathCopyingPersistentTreeMap.<String, CType>of());
     final CopyOnWriteSortedMap<String, CType> basesOnlyPts2 =
         CopyOnWriteSortedMap.copyOf(PathCopyingPersistentTreeMap.<String, CType>of());
 
-    PersistentSortedMap<String, CType> mergedBases =
+    PersistentSortedMap<String, CType> mergedBases;
+    PersistentSortedMap<String, CType> mergedAddedBases = pts1.addedBases;
+    if (pts1.bases == pts2.bases) {
+      mergedBases = pts1.bases;
+    } else if (mergeAdditions) {
+      mergedBases = pts1.bases;
+      for (final String base : Sets.union(pts1.addedBases.keySet(), pts2.addedBases.keySet())) {
+        final CType type1 = pts1.bases.get(base);
+        final CType type2 = pts2.bases.get(base);
+        final CType mergedType;
+        if (type2 == null) {
+          basesOnlyPts1.put(base, type1);
+          mergedType = type1;
+        } else if (type1 == null) {
+          basesOnlyPts2.put(base, type2);
+          mergedType = type2;
+        } else if (!type1.equals(type2)) {
+          // the same as in the visitor of the complete merge below
+          if (isFakeBaseType(type1) && !(type2 instanceof CElaboratedType)) {
+            basesOnlyPts2.put(base, type2);
+          } else if (isFakeBaseType(type2) && !(type1 instanceof CElaboratedType)) {
+            basesOnlyPts1.put(base, type1);
+          }
+          mergedType = BaseUnitingConflictHandler.INSTANCE.resolveConflict(base, type1, type2);
+        } else {
+          mergedType = type1;
+        }
+        if (mergedType != type1) {
+          mergedBases = mergedBases.putAndCopy(base, mergedType);
+        }
+        mergedAddedBases = mergedAddedBases.putAndCopy(base, mergedType);
+      }
+    } else {
+      mergedBases =
         merge(
             pts1.bases,
             pts2.bases,
@@ -152,6 +199,7 @@ class PointerTargetSetManager {
                 }
               }
             });
+    }
     shutdownNotifier.shutdownIfNecessary();
 
 
@@ -160,7 +208,26 @@ class PointerTargetSetManager {
     final CopyOnWriteSortedMap<CompositeField, Boolean> fieldsOnlyPts2 =
         CopyOnWriteSortedMap.copyOf(PathCopyingPersistentTreeMap.<CompositeField, Boolean>of());
 
-    PersistentSortedMap<CompositeField, Boolean> mergedFields =
+    PersistentSortedMap<CompositeField, Boolean> mergedFields;
+    PersistentSortedMap<CompositeField, Boolean> mergedAddedFields = pts1.addedFields;
+    if (pts1.fields == pts2.fields) {
+      mergedFields = pts1.fields;
+    } else if (mergeAdditions) {
+      mergedFields = pts1.fields;
+      for (final CompositeField field : pts1.addedFields.keySet()) {
+        if (!pts2.fields.containsKey(field)) {
+          fieldsOnlyPts1.put(field, true);
+        }
+      }
+      for (final CompositeField field : pts2.addedFields.keySet()) {
+        if (!pts1.fields.containsKey(field)) {
+          fieldsOnlyPts2.put(field, true);
+          mergedFields = mergedFields.putAndCopy(field, true);
+        }
+        mergedAddedFields = mergedAddedFields.putAndCopy(field, true);
+      }
+    } else {
+      mergedFields =
         merge(
             pts1.fields,
             pts2.fields,
@@ -177,9 +244,10 @@ class PointerTargetSetManager {
                 fieldsOnlyPts2.put(pKey, pRightValue);
               }
             });
+    }
     shutdownNotifier.shutdownIfNecessary();
 
-    PersistentSortedMap<String, PersistentList<PointerTarget>> mergedTargets =
+    PersistentSortedMap<String, PersistentList<PointerTarget>> mergedTargets = (pts1.targets == pts2.targets) ? pts1.targets :
       merge(pts1.targets, pts2.targets, PointerTargetSetManager.<String, PointerTarget>mergeOnConflict());
     shutdownNotifier.shutdownIfNecessary();
 
@@ -229,14 +297,17 @@ class PointerTargetSetManager {
       final String fakeBaseName = DynamicMemoryHandler.makeAllocVariableName(
           FAKE_ALLOC_FUNCTION_NAME, fakeBaseType, resultSSA, conv);
       mergedBases = mergedBases.putAndCopy(fakeBaseName, fakeBaseType);
+      mergedAddedBases = mergedAddedBases.putAndCopy(fakeBaseName, fakeBaseType);
       lastBase = fakeBaseName;
       basesMergeFormula = formulaManager.makeAnd(getNextBaseAddressInequality(fakeBaseName, pts1.bases, pts1.lastBase),
                                                  getNextBaseAddressInequality(fakeBaseName, pts2.bases, pts2.lastBase));
     }
 
+    // the result of a complete merge is a base set for the sets derived from it
     PointerTargetSet resultPTS =
         new PointerTargetSet(
-            mergedBases, lastBase, mergedFields, mergedDeferredAllocations, mergedTargets);
+            mergedBases, lastBase, mergedFields, mergedDeferredAllocations, mergedTargets,
+            mergeAdditions ? deltaBase : null, mergedAddedBases, mergedAddedFields);
 
     final List<Pair<CCompositeType, String>> sharedFields = new ArrayList<>();
     final BooleanFormula mergeFormula2 =
@@ -258,6 +329,9 @@ class PointerTargetSetManager {
 
   private PersistentSortedMap<String, DeferredAllocationPool> mergeDeferredAllocationPools(final PointerTargetSet pts1,
       final PointerTargetSet pts2) {
+    if (pts1.deferredAllocations == pts2.deferredAllocations) {
+      return pts1.deferredAllocations;
+    }
     final Map<DeferredAllocationPool, DeferredAllocationPool> mergedDeferredAllocationPools = new HashMap<>();
     final MergeConflictHandler<String, DeferredAllocationPool> deferredAllocationMergingConflictHandler =
       new MergeConflictHandler<String, DeferredAllocationPool>() {
@@ -0,0 +1,146 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.log.TestLogManager;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.util.predicates.interfaces.view.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.PointerTargetSetBuilder.RealPointerTargetSetBuilder;
+import org.sosy_lab.solver.test.SolverBasedTest0;
+
+public class PointerTargetSetManagerTest extends SolverBasedTest0 {
+
+  private FormulaEncodingWithPointerAliasingOptions options;
+  private FormulaManagerView fmgrView;
+  private PointerTargetSetManager ptsMgr;
+
+  @Before
+  public void setup() throws Exception {
+    options = new FormulaEncodingWithPointerAliasingOptions(config);
+    fmgrView = new FormulaManagerView(factory, config, TestLogManager.getInstance());
+    TypeHandlerWithPointerAliasing typeHandler = new TypeHandlerWithPointerAliasing(
+        TestLogManager.getInstance(), MachineModel.LINUX32, fmgrView, options);
+    ptsMgr = new PointerTargetSetManager(options, fmgrView, typeHandler, ShutdownNotifier.create());
+  }
+
+  private RealPointerTargetSetBuilder builder(PointerTargetSet pts) {
+    return new RealPointerTargetSetBuilder(pts, fmgrView, ptsMgr, options);
+  }
+
+  /**
+   * Returns a set with the same content that is a base set itself,
+   * such that merging it requires the complete merge.
+   */
+  private static PointerTargetSet withoutDelta(PointerTargetSet pts) {
+    return new PointerTargetSet(pts.bases, pts.lastBase, pts.fields,
+        pts.deferredAllocations, pts.targets);
+  }
+
+  private PointerTargetSet merge(PointerTargetSet pts1, PointerTargetSet pts2) throws InterruptedException {
+    return ptsMgr.mergePointerTargetSets(pts1, pts2, SSAMap.emptySSAMap().builder(), null).getResult();
+  }
+
+  @Test
+  public void testDerivedSetsShareBase() {
+    RealPointerTargetSetBuilder builder = builder(PointerTargetSet.emptyPointerTargetSet());
+    builder.addBase("a", CNumericTypes.INT);
+    PointerTargetSet base = withoutDelta(builder.build());
+
+    builder = builder(base);
+    builder.shareBase("b", CNumericTypes.INT);
+    PointerTargetSet pts1 = builder.build();
+    builder = builder(pts1);
+    builder.shareBase("c", CNumericTypes.INT);
+    PointerTargetSet pts2 = builder.build();
+
+    assertThat(pts1.getDeltaBase()).isSameAs(base);
+    assertThat(pts2.getDeltaBase()).isSameAs(base);
+    assertThat(pts2.addedBases.keySet()).containsExactly("b", "c");
+  }
+
+  @Test
+  public void testMergeAdditions() throws InterruptedException {
+    RealPointerTargetSetBuilder builder = builder(PointerTargetSet.emptyPointerTargetSet());
+    builder.addBase("a", CNumericTypes.INT);
+    builder.addBase("b", CNumericTypes.INT);
+    PointerTargetSet base = withoutDelta(builder.build());
+
+    builder = builder(base);
+    builder.shareBase("c", CNumericTypes.INT);
+    builder.shareBase("d", CNumericTypes.INT);
+    PointerTargetSet pts1 = builder.build();
+
+    builder = builder(base);
+    builder.shareBase("d", CNumericTypes.LONG_INT);
+    builder.shareBase("e", CNumericTypes.INT);
+    PointerTargetSet pts2 = builder.build();
+
+    PointerTargetSet merged = merge(pts1, pts2);
+    assertThat(merged.getDeltaBase()).isSameAs(base);
+    assertThat(merged.addedBases.keySet()).containsExactly("c", "d", "e");
+    assertThat(merged.bases.keySet()).containsExactly("a", "b", "c", "d", "e");
+
+    // the same result as the merge of the complete sets
+    assertThat(merged).isEqualTo(merge(withoutDelta(pts1), withoutDelta(pts2)));
+    assertThat(merge(pts2, pts1)).isEqualTo(merge(withoutDelta(pts2), withoutDelta(pts1)));
+  }
+
+  @Test
+  public void testMergeWithDifferentBases() throws InterruptedException {
+    RealPointerTargetSetBuilder builder = builder(PointerTargetSet.emptyPointerTargetSet());
+    builder.addBase("a", CNumericTypes.INT);
+    PointerTargetSet pts1 = withoutDelta(builder.build());
+
+    builder = builder(pts1);
+    builder.shareBase("b", CNumericTypes.INT);
+    PointerTargetSet pts2 = withoutDelta(builder.build());
+
+    PointerTargetSet merged = merge(pts1, pts2);
+    assertThat(merged.deltaBase).isNull();
+    assertThat(merged.bases.keySet()).containsExactly("a", "b");
+  }
+
+  @Test
+  public void testManyAdditionsCreateNewBase() {
+    RealPointerTargetSetBuilder builder = builder(PointerTargetSet.emptyPointerTargetSet());
+    builder.addBase("a", CNumericTypes.INT);
+    PointerTargetSet base = withoutDelta(builder.build());
+
+    builder = builder(base);
+    for (int i = 0; i < 1000; i++) {
+      builder.shareBase("b" + i, CNumericTypes.INT);
+    }
+    PointerTargetSet pts = builder.build();
+
+    assertThat(pts.deltaBase).isNull();
+    assertThat(pts.addedBases).isEmpty();
+  }
+}
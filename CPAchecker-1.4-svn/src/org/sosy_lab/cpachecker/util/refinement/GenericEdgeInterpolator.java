@@ -24,24 +24,36 @@
  */
 package org.sosy_lab.cpachecker.util.refinement;
 
+import java.io.PrintStream;
 import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.defaults.VariableTrackingPrecision;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGPath;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Generic {@link EdgeInterpolator} that creates interpolants based on
@@ -53,7 +65,7 @@ import com.google.common.base.Optional;
  */
 @Options(prefix="cpa.value.interpolation")
 public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends Interpolant<S>>
-    implements EdgeInterpolator<S, I> {
+    implements EdgeInterpolator<S, I>, Statistics {
 
   @Option(secure=true, description="apply optimizations based on equality of input interpolant and candidate interpolant")
   private boolean applyItpEqualityOptimization = true;
@@ -67,6 +79,16 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
   @Option(secure=true, description="whether or not to manage the callstack, which is needed for BAM")
   private boolean manageCallstack = true;
 
+  @Option(secure=true, description="cache interpolants across refinements, keyed by input interpolant, "
+      + "edge and callstack; a cached interpolant is only reused if the remaining error path is "
+      + "infeasible when starting from it")
+  private boolean cacheInterpolants = false;
+
+  @Option(secure=true, description="maximal number of cached interpolants, "
+      + "the least recently used entries are evicted first")
+  @IntegerOption(min=1)
+  private int interpolantCacheSize = 10000;
+
   /**
    * the shutdownNotifier in use
    */
@@ -96,6 +118,16 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
    */
   private final FeasibilityChecker<S> checker;
 
+  /**
+   * the interpolant cache, in access order such that the least recently used entry is evicted first
+   */
+  private final Map<CacheKey<S, I>, I> interpolantCache;
+
+  private final StatCounter cacheHits      = new StatCounter("Number of interpolant cache hits");
+  private final StatCounter cacheMisses    = new StatCounter("Number of interpolant cache misses");
+  private final StatCounter cacheStaleHits = new StatCounter("Number of rejected cached interpolants");
+  private final StatCounter cacheEvictions = new StatCounter("Number of evicted cached interpolants");
+
   /**
    * This method acts as the constructor of the class.
    */
@@ -122,6 +154,20 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
           pConfig, pCfa.getVarClassification(), pCpaToRefine);
 
       shutdownNotifier   = pShutdownNotifier;
+
+      interpolantCache   = new LinkedHashMap<CacheKey<S, I>, I>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = -2803657924213548012L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey<S, I>, I> pEldest) {
+          if (size() > interpolantCacheSize) {
+            cacheEvictions.inc();
+            return true;
+          }
+          return false;
+        }
+      };
     }
     catch (InvalidConfigurationException e) {
       throw new InvalidConfigurationException("Invalid configuration for checking path: "
@@ -154,6 +200,11 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
     // the next edge
     S initialState = pInputInterpolant.reconstructState();
 
+    // the key has to be built before the callstack is modified by the initial successor
+    CacheKey<S, I> cacheKey = cacheInterpolants
+        ? new CacheKey<>(pInputInterpolant, pCurrentEdge, pCallstack)
+        : null;
+
     // TODO callstack-management depends on a forward-iteration on a single path.
     // TODO Thus interpolants have to be computed from front to end. Can we assure this?
     final Optional<S> maybeSuccessor = getInitialSuccessor(initialState, pCurrentEdge, pCallstack);
@@ -190,6 +241,22 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
       return interpolantManager.getTrueInterpolant();
     }
 
+    if (cacheInterpolants) {
+      I cachedInterpolant = interpolantCache.get(cacheKey);
+      if (cachedInterpolant != null) {
+        // the cached interpolant is implied by the current successor, as it was derived from the
+        // same input interpolant along the same edge, but the suffix may differ from the path it
+        // was computed for, so it has to be checked against the current suffix
+        if (!isRemainingPathFeasible(remainingErrorPath, cachedInterpolant.reconstructState())) {
+          cacheHits.inc();
+          return cachedInterpolant;
+        }
+        cacheStaleHits.inc();
+      } else {
+        cacheMisses.inc();
+      }
+    }
+
     for (MemoryLocation currentMemoryLocation : determineMemoryLocationsToInterpolateOn(pCurrentEdge, initialSuccessor)) {
       shutdownNotifier.shutdownIfNecessary();
 
@@ -203,7 +270,13 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
       }
     }
 
-    return interpolantManager.createInterpolant(initialSuccessor);
+    I interpolant = interpolantManager.createInterpolant(initialSuccessor);
+
+    if (cacheInterpolants) {
+      interpolantCache.put(cacheKey, interpolant);
+    }
+
+    return interpolant;
   }
 
   /**
@@ -319,4 +392,62 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
         //|| cfaEdge.getEdgeType() == CFAEdgeType.ReturnStatementEdge
         ;
   }
+
+  @Override
+  public String getName() {
+    return "Interpolant Cache";
+  }
+
+  @Override
+  public void printStatistics(PrintStream out, Result result, ReachedSet reached) {
+    if (!cacheInterpolants) {
+      return;
+    }
+
+    int lookups = cacheHits.getValue() + cacheStaleHits.getValue() + cacheMisses.getValue();
+
+    StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(out).beginLevel();
+    writer.put("Number of cached interpolants", interpolantCache.size())
+        .put(cacheHits)
+        .put(cacheStaleHits)
+        .put(cacheMisses)
+        .put(cacheEvictions)
+        .putIf(lookups > 0, "Interpolant cache hit rate",
+            String.format("%.2f%%", 100.0 * cacheHits.getValue() / Math.max(1, lookups)));
+  }
+
+  /**
+   * Key of the interpolant cache. The callstack is copied, as it is modified during interpolation.
+   */
+  private static final class CacheKey<S, I> {
+
+    private final I inputInterpolant;
+    private final CFAEdge edge;
+    private final List<S> callstack;
+
+    private CacheKey(I pInputInterpolant, CFAEdge pEdge, Deque<S> pCallstack) {
+      inputInterpolant = pInputInterpolant;
+      edge             = pEdge;
+      callstack        = ImmutableList.copyOf(pCallstack);
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (this == pObj) {
+        return true;
+      }
+      if (!(pObj instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey<?, ?> other = (CacheKey<?, ?>) pObj;
+      return edge.equals(other.edge)
+          && inputInterpolant.equals(other.inputInterpolant)
+          && callstack.equals(other.callstack);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(inputInterpolant, edge, callstack);
+    }
+  }
 }
@@ -0,0 +1,81 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.statistics;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Thread-safe variant of {@link StatCounter}.
+ * Increments by different threads do not contend with each other,
+ * reading the value sums up the counts of all threads.
+ */
+public class ConcurrentStatCounter extends AbstractStatValue {
+
+  private static class Cell {
+    // only written by the owning thread
+    private volatile long value = 0;
+  }
+
+  private final PerThreadCells<Cell> cells = new PerThreadCells<Cell>() {
+    @Override
+    protected Cell newCell() {
+      return new Cell();
+    }
+  };
+
+  public ConcurrentStatCounter(String pTitle) {
+    super(StatKind.SUM, pTitle);
+  }
+
+  @SuppressFBWarnings(value = "VO_VOLATILE_INCREMENT",
+      justification = "cells are only written by their owning thread, volatile is only for visibility to readers")
+  public void inc() {
+    cells.local().value++;
+  }
+
+  @SuppressFBWarnings(value = "VO_VOLATILE_INCREMENT",
+      justification = "cells are only written by their owning thread, volatile is only for visibility to readers")
+  public void add(long pValue) {
+    cells.local().value += pValue;
+  }
+
+  public long getValue() {
+    long sum = 0;
+    for (Cell cell : cells.all()) {
+      sum += cell.value;
+    }
+    return sum;
+  }
+
+  @Override
+  public int getUpdateCount() {
+    return (int) Math.min(getValue(), Integer.MAX_VALUE);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%8d", getValue());
+  }
+
+}
@@ -0,0 +1,123 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.statistics;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Thread-safe variant of {@link StatInt}.
+ * Each thread records its values separately, reading merges them.
+ */
+public class ConcurrentStatInt extends AbstractStatValue {
+
+  private static class Cell {
+    // only written by the owning thread
+    private volatile int maxValue = Integer.MIN_VALUE;
+    private volatile int minValue = Integer.MAX_VALUE;
+    private volatile int valueCount = 0;
+    private volatile long valueSum = 0;
+  }
+
+  private final PerThreadCells<Cell> cells = new PerThreadCells<Cell>() {
+    @Override
+    protected Cell newCell() {
+      return new Cell();
+    }
+  };
+
+  public ConcurrentStatInt(StatKind pMainStatisticKind, String pTitle) {
+    super(pMainStatisticKind, pTitle);
+  }
+
+  @SuppressFBWarnings(value = "VO_VOLATILE_INCREMENT",
+      justification = "cells are only written by their owning thread, volatile is only for visibility to readers")
+  public void setNextValue(int newValue) {
+    Cell cell = cells.local();
+    cell.valueSum += newValue;
+    cell.valueCount += 1;
+    if (newValue > cell.maxValue) {
+      cell.maxValue = newValue;
+    }
+    if (newValue < cell.minValue) {
+      cell.minValue = newValue;
+    }
+  }
+
+  public int getMaxValue() {
+    int max = Integer.MIN_VALUE;
+    int count = 0;
+    for (Cell cell : cells.all()) {
+      max = Math.max(max, cell.maxValue);
+      count += cell.valueCount;
+    }
+    return count == 0 ? 0 : max;
+  }
+
+  public int getMinValue() {
+    int min = Integer.MAX_VALUE;
+    int count = 0;
+    for (Cell cell : cells.all()) {
+      min = Math.min(min, cell.minValue);
+      count += cell.valueCount;
+    }
+    return count == 0 ? 0 : min;
+  }
+
+  public int getValueCount() {
+    int count = 0;
+    for (Cell cell : cells.all()) {
+      count += cell.valueCount;
+    }
+    return count;
+  }
+
+  public long getValueSum() {
+    long sum = 0;
+    for (Cell cell : cells.all()) {
+      sum += cell.valueSum;
+    }
+    return sum;
+  }
+
+  public float getAverage() {
+    int count = getValueCount();
+    if (count > 0) {
+      return (float) getValueSum() / (float) count;
+    } else {
+      return 0;
+    }
+  }
+
+  @Override
+  public int getUpdateCount() {
+    return getValueCount();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%8d (count: %d, min: %d, max: %d, avg: %.2f)",
+        getValueSum(), getValueCount(), getMinValue(), getMaxValue(), getAverage());
+  }
+
+}
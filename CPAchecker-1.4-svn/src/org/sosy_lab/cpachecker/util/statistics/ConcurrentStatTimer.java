@@ -0,0 +1,116 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.statistics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.common.time.Timer;
+
+/**
+ * Thread-safe variant of {@link StatTimer}.
+ * Each thread measures with its own {@link Timer}, such that several threads
+ * can time the same operation at once. Reading merges the timers of all threads:
+ * the sum time and the number of intervals are added up, the maximal interval
+ * is the maximum over all threads.
+ */
+public class ConcurrentStatTimer extends AbstractStatValue {
+
+  private final PerThreadCells<Timer> timers = new PerThreadCells<Timer>() {
+    @Override
+    protected Timer newCell() {
+      return new Timer();
+    }
+  };
+
+  public ConcurrentStatTimer(StatKind pMainStatisticKind, String pTitle) {
+    super(pMainStatisticKind, pTitle);
+  }
+
+  public ConcurrentStatTimer(String pTitle) {
+    super(StatKind.SUM, pTitle);
+  }
+
+  public void start() {
+    timers.local().start();
+  }
+
+  public void stop() {
+    timers.local().stop();
+  }
+
+  /**
+   * Return whether the current thread is measuring with this timer.
+   */
+  public boolean isRunning() {
+    return timers.local().isRunning();
+  }
+
+  /**
+   * Return the length of the last interval measured by the current thread.
+   */
+  public TimeSpan getLengthOfLastInterval() {
+    return timers.local().getLengthOfLastInterval();
+  }
+
+  public TimeSpan getSumTime() {
+    long sum = 0;
+    for (Timer timer : timers.all()) {
+      sum += timer.getSumTime().asNanos();
+    }
+    return TimeSpan.ofNanos(sum);
+  }
+
+  public TimeSpan getMaxTime() {
+    long max = 0;
+    for (Timer timer : timers.all()) {
+      max = Math.max(max, timer.getMaxTime().asNanos());
+    }
+    return TimeSpan.ofNanos(max);
+  }
+
+  public int getNumberOfIntervals() {
+    int count = 0;
+    for (Timer timer : timers.all()) {
+      count += timer.getNumberOfIntervals();
+    }
+    return count;
+  }
+
+  public TimeSpan getAvgTime() {
+    int count = getNumberOfIntervals();
+    return count == 0 ? TimeSpan.empty() : TimeSpan.ofNanos(getSumTime().asNanos() / count);
+  }
+
+  @Override
+  public int getUpdateCount() {
+    return getNumberOfIntervals();
+  }
+
+  @Override
+  public String toString() {
+    return getSumTime().formatAs(TimeUnit.SECONDS);
+  }
+
+}
@@ -0,0 +1,109 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.statistics;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ConcurrentStatisticsTest {
+
+  private static final int THREADS = 4;
+  private static final int UPDATES = 10000;
+
+  private static void runInThreads(final Runnable pTask) throws InterruptedException {
+    List<Thread> threads = new ArrayList<>(THREADS);
+    for (int i = 0; i < THREADS; i++) {
+      Thread thread = new Thread(pTask);
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+  }
+
+  @Test
+  public void testCounter() throws InterruptedException {
+    final ConcurrentStatCounter counter = new ConcurrentStatCounter("counter");
+    runInThreads(new Runnable() {
+      @Override
+      public void run() {
+        for (int i = 0; i < UPDATES; i++) {
+          counter.inc();
+        }
+      }
+    });
+
+    assertThat(counter.getValue()).isEqualTo((long) THREADS * UPDATES);
+    assertThat(counter.getUpdateCount()).isEqualTo(THREADS * UPDATES);
+  }
+
+  @Test
+  public void testInt() throws InterruptedException {
+    final ConcurrentStatIntHist stat = new ConcurrentStatIntHist(StatKind.SUM, "values");
+    runInThreads(new Runnable() {
+      @Override
+      public void run() {
+        for (int i = 1; i <= UPDATES; i++) {
+          stat.setNextValue(i % 10);
+        }
+      }
+    });
+
+    assertThat(stat.getValueCount()).isEqualTo(THREADS * UPDATES);
+    assertThat(stat.getValueSum()).isEqualTo((long) THREADS * UPDATES / 10 * 45);
+    assertThat(stat.getMinValue()).isEqualTo(0);
+    assertThat(stat.getMaxValue()).isEqualTo(9);
+    assertThat(stat.getTimesWithValue(3)).isEqualTo(THREADS * UPDATES / 10);
+  }
+
+  @Test
+  public void testEmptyInt() {
+    ConcurrentStatInt stat = new ConcurrentStatInt(StatKind.AVG, "values");
+    assertThat(stat.getMinValue()).isEqualTo(0);
+    assertThat(stat.getMaxValue()).isEqualTo(0);
+    assertThat(stat.getAverage()).isEqualTo(0.0f);
+  }
+
+  @Test
+  public void testTimer() throws InterruptedException {
+    final ConcurrentStatTimer timer = new ConcurrentStatTimer("timer");
+    runInThreads(new Runnable() {
+      @Override
+      public void run() {
+        for (int i = 0; i < 10; i++) {
+          timer.start();
+          timer.stop();
+        }
+      }
+    });
+
+    assertThat(timer.getNumberOfIntervals()).isEqualTo(THREADS * 10);
+    assertThat(timer.isRunning()).isFalse();
+  }
+}
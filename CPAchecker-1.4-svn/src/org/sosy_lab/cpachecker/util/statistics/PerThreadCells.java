@@ -0,0 +1,65 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.statistics;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Per-thread accumulators of a statistic value.
+ * Each thread only updates its own cell, thus updates need no synchronization
+ * and do not contend with each other. Readers merge all cells.
+ *
+ * Cells are only written by their owning thread. Merged values are exact
+ * once the writing threads have finished (or were joined),
+ * and a snapshot that may lag behind slightly while they are still running.
+ *
+ * @param <C> the type of the cells
+ */
+public abstract class PerThreadCells<C> {
+
+  // cells of terminated threads are kept, their values still count
+  private final Queue<C> cells = new ConcurrentLinkedQueue<>();
+
+  private final ThreadLocal<C> localCell = new ThreadLocal<C>() {
+    @Override
+    protected C initialValue() {
+      C cell = newCell();
+      cells.add(cell);
+      return cell;
+    }
+  };
+
+  protected abstract C newCell();
+
+  /** Return the cell of the current thread. */
+  public final C local() {
+    return localCell.get();
+  }
+
+  /** Return the cells of all threads that updated the value so far. */
+  public final Iterable<C> all() {
+    return cells;
+  }
+}
@@ -46,6 +46,10 @@ public class StatTimer extends AbstractStatValue {
     timer.stop();
   }
 
+  public Timer getTimer() {
+    return timer;
+  }
+
   @Override
   public int getUpdateCount() {
     return timer.getNumberOfIntervals();